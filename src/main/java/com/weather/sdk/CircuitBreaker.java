@@ -0,0 +1,214 @@
+package com.weather.sdk;
+
+import com.weather.sdk.config.CircuitBreakerPolicy;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Circuit breaker with closed, open and half-open states, driven by the
+ * failure rate and the slow-call rate of recent API calls.
+ * <p>
+ * While closed, the outcomes of the last calls are kept in a ring buffer the
+ * size of the sliding window, with running counts of failed and slow calls, so
+ * recording a call costs O(1). When either rate reaches its threshold the
+ * circuit opens and {@link #tryAcquire()} rejects calls until the open
+ * duration has passed. Then a limited number of trial calls is let through:
+ * if their rates stay below the thresholds the circuit closes with an empty
+ * window, otherwise it opens again.
+ * <p>
+ * Every call {@link #tryAcquire()} allowed must be ended with exactly one of
+ * {@link #onSuccess(long, long)}, {@link #onFailure(long, long)} or
+ * {@link #release(long)}, passing the permit it was given. A permit belongs to
+ * the state the circuit was in when it was issued: the outcome of a call that
+ * finishes after the circuit changed state, e.g. a call sent while closed that
+ * ends while the trial calls run, is ignored. Instances are thread-safe.
+ */
+final class CircuitBreaker {
+
+    /**
+     * State of the circuit
+     */
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(CircuitBreaker.class.getName());
+
+    /**
+     * Returned by {@link #tryAcquire()} when the call is rejected
+     */
+    static final long NO_PERMIT = -1;
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final CircuitBreakerPolicy policy;
+    private final long slowCallNanos;
+    private final long openNanos;
+
+    // Guarded by this
+    private final byte[] window;
+    private int recorded;
+    private int next;
+    private int failures;
+    private int slowCalls;
+    private State state = State.CLOSED;
+    // Incremented on every state change; permits carry the one they were issued in
+    private long generation;
+    private long openedAt;
+    private int trialPermits;
+    private int trialCalls;
+    private int trialFailures;
+    private int trialSlowCalls;
+
+    /**
+     * @param policy enabled circuit breaker policy
+     */
+    CircuitBreaker(CircuitBreakerPolicy policy) {
+        if (policy == null || !policy.isEnabled()) {
+            throw new IllegalArgumentException("Circuit breaker policy must be enabled");
+        }
+        this.policy = policy;
+        this.slowCallNanos = policy.getSlowCallDuration().toNanos();
+        this.openNanos = policy.getOpenDuration().toNanos();
+        this.window = new byte[policy.getSlidingWindowSize()];
+    }
+
+    /**
+     * Asks to make a call.
+     *
+     * @return permit to end the call with, or {@link #NO_PERMIT} if the
+     * circuit is open or all trial calls of the half-open circuit are taken
+     */
+    synchronized long tryAcquire() {
+        if (state == State.CLOSED) {
+            return generation;
+        }
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return NO_PERMIT;
+            }
+            halfOpen();
+        }
+        if (trialPermits == 0) {
+            return NO_PERMIT;
+        }
+        trialPermits--;
+        return generation;
+    }
+
+    /**
+     * Returns the permit of a call that was allowed but not sent
+     *
+     * @param permit permit the call was given
+     */
+    synchronized void release(long permit) {
+        if (permit == generation && state == State.HALF_OPEN
+                && trialCalls + trialPermits < policy.getHalfOpenCalls()) {
+            trialPermits++;
+        }
+    }
+
+    /**
+     * Records a call the API answered, even with an error that is not the provider's fault
+     *
+     * @param permit permit the call was given
+     * @param durationNanos time the call took
+     */
+    void onSuccess(long permit, long durationNanos) {
+        record(permit, false, durationNanos);
+    }
+
+    /**
+     * Records a call that failed because the provider is unavailable or overloaded
+     *
+     * @param permit permit the call was given
+     * @param durationNanos time the call took
+     */
+    void onFailure(long permit, long durationNanos) {
+        record(permit, true, durationNanos);
+    }
+
+    /**
+     * Returns current state; an open circuit whose open duration has passed reports half-open
+     */
+    synchronized State getState() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    private synchronized void record(long permit, boolean failed, long durationNanos) {
+        if (permit != generation) {
+            // Sent in an earlier state, e.g. while closed before the circuit opened
+            return;
+        }
+        boolean slow = durationNanos >= slowCallNanos;
+        if (state == State.CLOSED) {
+            if (recorded == window.length) {
+                byte oldest = window[next];
+                failures -= oldest & FAILED;
+                slowCalls -= (oldest & SLOW) >> 1;
+            } else {
+                recorded++;
+            }
+            window[next] = (byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0));
+            next = (next + 1) % window.length;
+            failures += failed ? 1 : 0;
+            slowCalls += slow ? 1 : 0;
+
+            if (recorded >= policy.getMinimumCalls() && exceedsThresholds(failures, slowCalls, recorded)) {
+                open();
+            }
+        } else if (state == State.HALF_OPEN) {
+            trialCalls++;
+            trialFailures += failed ? 1 : 0;
+            trialSlowCalls += slow ? 1 : 0;
+
+            // Counts only grow, so a rate already reached over all trial calls is final
+            int halfOpenCalls = policy.getHalfOpenCalls();
+            if (exceedsThresholds(trialFailures, trialSlowCalls, halfOpenCalls)) {
+                open();
+            } else if (trialCalls >= halfOpenCalls) {
+                close();
+            }
+        }
+    }
+
+    private boolean exceedsThresholds(int failed, int slow, int calls) {
+        return failed >= policy.getFailureRateThreshold() * calls
+                || slow >= policy.getSlowCallRateThreshold() * calls;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        generation++;
+        openedAt = System.nanoTime();
+        LOGGER.log(Level.WARNING, "Circuit opened: OpenWeather API requests are rejected for {0}",
+                policy.getOpenDuration());
+    }
+
+    private void halfOpen() {
+        state = State.HALF_OPEN;
+        generation++;
+        trialPermits = policy.getHalfOpenCalls();
+        trialCalls = 0;
+        trialFailures = 0;
+        trialSlowCalls = 0;
+        LOGGER.log(Level.INFO, "Circuit half-open: sending {0} trial requests", trialPermits);
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        generation++;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+        slowCalls = 0;
+        LOGGER.log(Level.INFO, "Circuit closed: OpenWeather API requests resumed");
+    }
+}
@@ -0,0 +1,63 @@
+package com.weather.sdk;
+
+import com.weather.sdk.cache.CityNames;
+import com.weather.sdk.model.WeatherResponse;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * OpenWeather IDs of cities fetched by name, keyed by normalized city name.
+ * <p>
+ * The group endpoint only accepts city IDs, so a city can be fetched in a
+ * batch once one response for it has told its ID. The registry is bounded:
+ * when it is full, IDs of new cities are not recorded and those cities keep
+ * being fetched one by one.
+ */
+final class CityIdRegistry {
+
+    static final int DEFAULT_MAX_SIZE = 100_000;
+
+    private final ConcurrentHashMap<String, Long> ids = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    CityIdRegistry() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    CityIdRegistry(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Records the ID of the city reported in the response, if there is one
+     *
+     * @param cityName city name the response was requested with
+     * @param response API response
+     */
+    void record(String cityName, WeatherResponse response) {
+        long cityId = response.getCityId();
+        if (cityId <= 0) {
+            return;
+        }
+        String key = CityNames.normalize(cityName);
+        if (ids.size() < maxSize || ids.containsKey(key)) {
+            ids.put(key, cityId);
+        }
+    }
+
+    /**
+     * Returns ID of the city, or 0 if it is not known
+     */
+    long idOf(String cityName) {
+        Long cityId = ids.get(CityNames.normalize(cityName));
+        return cityId == null ? 0 : cityId;
+    }
+
+    int size() {
+        return ids.size();
+    }
+
+    void clear() {
+        ids.clear();
+    }
+}
@@ -0,0 +1,235 @@
+package com.weather.sdk;
+
+import com.weather.sdk.cache.CityNames;
+import com.weather.sdk.exception.NetworkException;
+import com.weather.sdk.exception.WeatherSDKException;
+import com.weather.sdk.model.WeatherResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Registry of in-flight weather loads keyed by normalized city name.
+ * <p>
+ * Concurrent callers for the same city share a single API call: the first
+ * caller performs the load, the others wait for its result or exception.
+ * The entry is removed as soon as the load completes, so the next load for
+ * the city (e.g. after expiry) starts a new request.
+ */
+final class InFlightRegistry {
+
+    /**
+     * Load operation executed by the caller that wins the registration.
+     */
+    interface Loader {
+        WeatherResponse load() throws WeatherSDKException;
+    }
+
+    /**
+     * Non-blocking load operation executed by the caller that wins the registration.
+     */
+    interface AsyncLoader {
+        CompletableFuture<WeatherResponse> load();
+    }
+
+    private final ConcurrentHashMap<String, CompletableFuture<WeatherResponse>> inFlight =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Loads weather for the city, joining an already running load if there is one.
+     *
+     * @param cityName city name
+     * @param loader load to run if no load is in flight for the city
+     * @return loaded weather data
+     * @throws WeatherSDKException if the shared load failed
+     */
+    WeatherResponse load(String cityName, Loader loader) throws WeatherSDKException {
+        String key = CityNames.normalize(cityName);
+
+        CompletableFuture<WeatherResponse> future = new CompletableFuture<>();
+        CompletableFuture<WeatherResponse> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            WeatherResponse response = loader.load();
+            future.complete(response);
+            return response;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Starts a background load for the city unless one is already in flight.
+     *
+     * @param cityName city name
+     * @param executor executor running the load
+     * @param loader load to run if no load is in flight for the city
+     * @return future of the running load (new or already in flight)
+     */
+    CompletableFuture<WeatherResponse> loadAsync(String cityName, Executor executor, Loader loader) {
+        String key = CityNames.normalize(cityName);
+
+        CompletableFuture<WeatherResponse> future = new CompletableFuture<>();
+        CompletableFuture<WeatherResponse> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(loader.load());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Starts a non-blocking load for the city, joining an already running load if there is one.
+     * <p>
+     * Each caller gets its own dependent future, so cancelling it does not affect
+     * the other callers. A failed load completes the future with the loader's
+     * exception, not wrapped.
+     *
+     * @param cityName city name
+     * @param loader load to start if no load is in flight for the city
+     * @return future of the loaded weather data
+     */
+    CompletableFuture<WeatherResponse> loadAsync(String cityName, AsyncLoader loader) {
+        String key = CityNames.normalize(cityName);
+
+        CompletableFuture<WeatherResponse> future = new CompletableFuture<>();
+        CompletableFuture<WeatherResponse> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing.copy();
+        }
+
+        CompletableFuture<WeatherResponse> started;
+        try {
+            started = loader.load();
+        } catch (Throwable e) {
+            started = CompletableFuture.failedFuture(e);
+        }
+        started.whenComplete((response, error) -> {
+            inFlight.remove(key, future);
+            if (error != null) {
+                future.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            } else {
+                future.complete(response);
+            }
+        });
+        return future.copy();
+    }
+
+    /**
+     * Registers a load of the city that the caller performs itself, e.g. as
+     * part of a batch request, unless a load is already in flight. Concurrent
+     * callers join the claimed load until {@link #complete} or {@link #fail}
+     * is called with the returned future.
+     *
+     * @param cityName city name
+     * @return future of the claimed load, or null if a load is already in flight for the city
+     */
+    CompletableFuture<WeatherResponse> claim(String cityName) {
+        CompletableFuture<WeatherResponse> future = new CompletableFuture<>();
+        return inFlight.putIfAbsent(CityNames.normalize(cityName), future) == null ? future : null;
+    }
+
+    /**
+     * Completes a claimed load with its result and unregisters it
+     *
+     * @param cityName city name the load was claimed for
+     * @param claim future returned by {@link #claim}
+     * @param response loaded weather data
+     */
+    void complete(String cityName, CompletableFuture<WeatherResponse> claim, WeatherResponse response) {
+        claim.complete(response);
+        inFlight.remove(CityNames.normalize(cityName), claim);
+    }
+
+    /**
+     * Fails a claimed load and unregisters it
+     *
+     * @param cityName city name the load was claimed for
+     * @param claim future returned by {@link #claim}
+     * @param error exception joined callers receive
+     */
+    void fail(String cityName, CompletableFuture<WeatherResponse> claim, Throwable error) {
+        claim.completeExceptionally(error);
+        inFlight.remove(CityNames.normalize(cityName), claim);
+    }
+
+    /**
+     * Returns number of loads currently in flight
+     */
+    int size() {
+        return inFlight.size();
+    }
+
+    /**
+     * Waits for a load, rethrowing its exception as the loader threw it
+     */
+    static WeatherResponse await(CompletableFuture<WeatherResponse> future)
+            throws WeatherSDKException {
+        return await(future, Long.MAX_VALUE);
+    }
+
+    /**
+     * Waits for a load at most the given time, rethrowing its exception as the loader threw it
+     *
+     * @return result of the load, or null if it did not complete in time
+     */
+    static WeatherResponse await(CompletableFuture<WeatherResponse> future, long timeoutNanos)
+            throws WeatherSDKException {
+        try {
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NetworkException("Request was interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof WeatherSDKException) {
+                throw (WeatherSDKException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new WeatherSDKException("Weather request failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Returns a copy of a load that completes with null if the load does not
+     * complete in time; the load itself goes on.
+     */
+    static CompletableFuture<WeatherResponse> orNullAfter(CompletableFuture<WeatherResponse> future,
+                                                          long timeoutNanos) {
+        return future.copy().completeOnTimeout(null, timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+}
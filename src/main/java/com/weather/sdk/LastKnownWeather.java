@@ -0,0 +1,73 @@
+package com.weather.sdk;
+
+import com.weather.sdk.cache.CityNames;
+import com.weather.sdk.model.WeatherData;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Last weather data fetched for each city, keyed by normalized city name,
+ * kept after the cache has expired or evicted it.
+ * <p>
+ * Serves as the fallback while the circuit breaker rejects API requests. It
+ * holds the same {@link WeatherData} instances as the cache, so a city that is
+ * also cached costs one map entry. The registry is bounded: when it is full,
+ * recording a new city drops the city least recently recorded or served, so
+ * cities requested lately are the ones kept.
+ */
+final class LastKnownWeather {
+
+    static final int DEFAULT_MAX_SIZE = 10_000;
+
+    private final Map<String, WeatherData> data;
+
+    LastKnownWeather() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    LastKnownWeather(int maxSize) {
+        // Access order: a city served while the circuit is open counts as used
+        this.data = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, WeatherData> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Records data fetched for the city
+     *
+     * @param cityName city name the data was requested with
+     * @param weatherData fetched data
+     */
+    void record(String cityName, WeatherData weatherData) {
+        String key = CityNames.normalize(cityName);
+        synchronized (data) {
+            data.put(key, weatherData);
+        }
+    }
+
+    /**
+     * Returns last data fetched for the city, possibly expired, or null if there is none
+     */
+    WeatherData get(String cityName) {
+        String key = CityNames.normalize(cityName);
+        synchronized (data) {
+            return data.get(key);
+        }
+    }
+
+    int size() {
+        synchronized (data) {
+            return data.size();
+        }
+    }
+
+    void clear() {
+        synchronized (data) {
+            data.clear();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.weather.sdk;
+
+import com.weather.sdk.exception.WeatherSDKException;
+import com.weather.sdk.model.WeatherResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects cache misses of cities with a known ID from concurrent callers and
+ * loads them with one group request.
+ * <p>
+ * The first miss opens a batch, which is sent when the window has passed or
+ * when it holds {@code maxBatchSize} cities, whichever comes first, so a miss
+ * waits at most one window longer than it would alone. Each caller gets its
+ * own future. A future completes with null when the API left the city out of
+ * the group response; the caller then loads the city by name.
+ */
+final class MissBatcher {
+
+    /**
+     * Loads a batch of cities, as {@code WeatherSDK.fetchAndCacheGroup} does
+     */
+    interface GroupLoader {
+        void load(List<Long> batch, Map<Long, List<String>> namesById, Map<String, WeatherResponse> loaded)
+                throws WeatherSDKException;
+    }
+
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final GroupLoader loader;
+    private final ScheduledExecutorService timer;
+    private final Executor executor;
+
+    // Guarded by this
+    private Map<Long, List<String>> namesById = new LinkedHashMap<>();
+    private Map<Long, CompletableFuture<WeatherResponse>> futures = new HashMap<>();
+    private ScheduledFuture<?> flushTask;
+    private boolean closed;
+
+    /**
+     * @param window how long the first miss of a batch waits for others
+     * @param maxBatchSize number of cities that sends a batch at once
+     * @param loader loads and caches a batch
+     * @param timer scheduler sending batches when their window ends
+     * @param executor executor running the group requests
+     */
+    MissBatcher(Duration window, int maxBatchSize, GroupLoader loader, ScheduledExecutorService timer,
+                Executor executor) {
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.loader = loader;
+        this.timer = timer;
+        this.executor = executor;
+    }
+
+    /**
+     * Adds the city to the open batch, joining a pending load of the same city.
+     *
+     * @param cityId OpenWeather city ID
+     * @param cityName city name the data is cached under
+     * @return future of the weather data, null if the API did not return the city
+     */
+    CompletableFuture<WeatherResponse> submit(long cityId, String cityName) {
+        Map<Long, List<String>> fullBatch = null;
+        Map<Long, CompletableFuture<WeatherResponse>> fullFutures = null;
+        CompletableFuture<WeatherResponse> future;
+        synchronized (this) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new WeatherSDKException("SDK is closed"));
+            }
+            future = futures.get(cityId);
+            if (future != null) {
+                namesById.get(cityId).add(cityName);
+                return future;
+            }
+
+            future = new CompletableFuture<>();
+            futures.put(cityId, future);
+            namesById.computeIfAbsent(cityId, id -> new ArrayList<>()).add(cityName);
+            if (futures.size() < maxBatchSize && flushTask == null) {
+                try {
+                    flushTask = timer.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // No timer to end the window: send right away
+                }
+            }
+            if (futures.size() >= maxBatchSize || flushTask == null) {
+                fullBatch = namesById;
+                fullFutures = futures;
+                reset();
+            }
+        }
+        if (fullBatch != null) {
+            send(fullBatch, fullFutures);
+        }
+        return future;
+    }
+
+    /**
+     * Sends the open batch, if any; runs when the window of its first miss ends
+     */
+    private void flush() {
+        Map<Long, List<String>> batch;
+        Map<Long, CompletableFuture<WeatherResponse>> batchFutures;
+        synchronized (this) {
+            if (futures.isEmpty()) {
+                return;
+            }
+            batch = namesById;
+            batchFutures = futures;
+            reset();
+        }
+        send(batch, batchFutures);
+    }
+
+    /**
+     * Starts a new batch; the previous one is owned by the caller. Caller must hold the lock.
+     */
+    private void reset() {
+        namesById = new LinkedHashMap<>();
+        futures = new HashMap<>();
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+    }
+
+    private void send(Map<Long, List<String>> batch, Map<Long, CompletableFuture<WeatherResponse>> batchFutures) {
+        try {
+            executor.execute(() -> load(batch, batchFutures));
+        } catch (RejectedExecutionException e) {
+            batchFutures.values().forEach(future -> future.completeExceptionally(
+                    new WeatherSDKException("Weather request rejected: " + e.getMessage(), e)));
+        }
+    }
+
+    private void load(Map<Long, List<String>> batch, Map<Long, CompletableFuture<WeatherResponse>> batchFutures) {
+        Map<String, WeatherResponse> loaded = new HashMap<>();
+        try {
+            // The loader removes the IDs it got a response for
+            Map<Long, List<String>> remaining = new LinkedHashMap<>(batch);
+            loader.load(new ArrayList<>(batch.keySet()), remaining, loaded);
+        } catch (Throwable e) {
+            batchFutures.values().forEach(future -> future.completeExceptionally(e));
+            return;
+        }
+        batchFutures.forEach((cityId, future) -> future.complete(loaded.get(batch.get(cityId).get(0))));
+    }
+
+    /**
+     * Fails the misses of the open batch; later submits fail immediately
+     */
+    void close() {
+        Map<Long, CompletableFuture<WeatherResponse>> pending;
+        synchronized (this) {
+            closed = true;
+            pending = futures;
+            reset();
+        }
+        pending.values().forEach(future -> future.completeExceptionally(new WeatherSDKException("SDK is closed")));
+    }
+}
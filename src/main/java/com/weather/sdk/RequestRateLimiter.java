@@ -0,0 +1,182 @@
+package com.weather.sdk;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token bucket limiting API requests to a number per minute, with two priority lanes.
+ * <p>
+ * Tokens are added continuously at the configured rate; up to a sixth of the
+ * per-minute quota (at least one) can accumulate for bursts. Foreground
+ * requests, made for a waiting caller, wait for a token up to a timeout.
+ * Background requests (polling and background refreshes) wait as long as it
+ * takes and only get a token when no foreground request is waiting for one,
+ * so user traffic is served first when the quota runs short.
+ */
+final class RequestRateLimiter {
+
+    /**
+     * Priority lane of a request
+     */
+    enum Lane {
+        FOREGROUND,
+        BACKGROUND
+    }
+
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private final double nanosPerToken;
+    private final double capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    // Guarded by lock
+    private double tokens;
+    private long refilledAt;
+    private int foregroundWaiting;
+    private boolean closed;
+
+    /**
+     * @param requestsPerMinute positive number of requests allowed per minute
+     */
+    RequestRateLimiter(int requestsPerMinute) {
+        if (requestsPerMinute <= 0) {
+            throw new IllegalArgumentException("Requests per minute must be positive");
+        }
+        this.nanosPerToken = (double) NANOS_PER_MINUTE / requestsPerMinute;
+        this.capacity = Math.max(1, requestsPerMinute / 6);
+        this.tokens = capacity;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Takes a token, waiting for one if the bucket is empty.
+     *
+     * @param lane priority lane of the request
+     * @param timeoutNanos maximum wait, ignored for the background lane
+     * @return true if a token was taken, false on timeout or after {@link #close()}
+     * @throws InterruptedException if interrupted while waiting
+     */
+    boolean acquire(Lane lane, long timeoutNanos) throws InterruptedException {
+        boolean foreground = lane == Lane.FOREGROUND;
+        long deadline = System.nanoTime() + timeoutNanos;
+        lock.lock();
+        try {
+            if (foreground) {
+                foregroundWaiting++;
+            }
+            try {
+                while (!closed) {
+                    refill();
+                    if (tokens >= 1 && (foreground || foregroundWaiting == 0)) {
+                        tokens--;
+                        return true;
+                    }
+                    // A background request leaves an available token to foreground waiters
+                    // and is woken when the last of them leaves
+                    long waitNanos = tokens >= 1 ? (long) nanosPerToken : nanosUntilToken();
+                    if (foreground) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            return false;
+                        }
+                        waitNanos = Math.min(waitNanos, remaining);
+                    }
+                    changed.awaitNanos(waitNanos);
+                }
+                return false;
+            } finally {
+                if (foreground && --foregroundWaiting == 0) {
+                    changed.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Non-blocking form of a foreground {@link #acquire}: no thread waits while
+     * the bucket is empty.
+     *
+     * @param timeoutNanos maximum wait
+     * @return future completed with true when a token was taken, false on timeout or after {@link #close()}
+     */
+    CompletableFuture<Boolean> acquireAsync(long timeoutNanos) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        lock.lock();
+        try {
+            foregroundWaiting++;
+        } finally {
+            lock.unlock();
+        }
+        tryAcquireAsync(result, System.nanoTime() + timeoutNanos);
+        return result;
+    }
+
+    private void tryAcquireAsync(CompletableFuture<Boolean> result, long deadline) {
+        long waitNanos;
+        lock.lock();
+        try {
+            refill();
+            if (closed || tokens >= 1) {
+                if (!closed) {
+                    tokens--;
+                }
+                leaveForeground();
+                result.complete(!closed);
+                return;
+            }
+            waitNanos = nanosUntilToken();
+            if (System.nanoTime() + waitNanos - deadline > 0) {
+                leaveForeground();
+                result.complete(false);
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS)
+                .execute(() -> tryAcquireAsync(result, deadline));
+    }
+
+    /**
+     * Fails current and future waits
+     */
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Caller must hold the lock
+     */
+    private void leaveForeground() {
+        if (--foregroundWaiting == 0) {
+            changed.signalAll();
+        }
+    }
+
+    /**
+     * Adds tokens for the time passed since the last refill. Caller must hold the lock.
+     */
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) / nanosPerToken);
+        refilledAt = now;
+    }
+
+    /**
+     * Returns time until the bucket holds a whole token. Caller must hold the lock.
+     */
+    private long nanosUntilToken() {
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) * nanosPerToken);
+    }
+}
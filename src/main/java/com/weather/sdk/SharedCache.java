@@ -0,0 +1,181 @@
+package com.weather.sdk;
+
+import com.weather.sdk.cache.NegativeCache;
+import com.weather.sdk.cache.WeatherCache;
+import com.weather.sdk.cache.WeatherStore;
+import com.weather.sdk.config.WeatherSDKConfig;
+import com.weather.sdk.exception.WeatherSDKException;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache state shared by the SDK instances {@link WeatherSDKFactory} creates
+ * with {@link WeatherSDKConfig.Builder#sharedCache(boolean)}: the weather
+ * cache, the not-found cache, the in-flight loads, the known city IDs and the
+ * last known weather, so a city is fetched once per TTL no matter which API
+ * key asks.
+ * <p>
+ * Every API call is attributed to the key of the instance that made it.
+ * The number of instances using the cache is tracked by the factory.
+ * <p>
+ * The cache is sized by the configuration it was created with; instances
+ * configuring it differently are rejected, see {@link #checkCompatible}. With a
+ * snapshot file configured, the cache is restored once on creation and saved
+ * periodically and when its last instance is released, not by each instance.
+ */
+final class SharedCache {
+
+    private final WeatherCache cache;
+    private final NegativeCache notFoundCache;
+    private final InFlightRegistry inFlight;
+    private final CityIdRegistry cityIds;
+    private final LastKnownWeather lastKnown;
+    private final ConcurrentHashMap<String, LongAdder> fetchesByKey = new ConcurrentHashMap<>();
+    private final WeatherStore sharedStore;
+    private final WeatherSDKConfig config;
+    private final ScheduledExecutorService snapshotScheduler;
+    private int users;
+
+    SharedCache(WeatherSDKConfig config) throws WeatherSDKException {
+        this.config = config;
+        this.cache = WeatherSDK.createCache(config);
+        this.sharedStore = WeatherSDK.openSharedStore(config);
+        this.notFoundCache = new NegativeCache(config.getNegativeCacheTtl());
+        this.inFlight = new InFlightRegistry();
+        this.cityIds = new CityIdRegistry();
+        this.lastKnown = new LastKnownWeather();
+
+        if (config.getSnapshotFile() != null) {
+            WeatherSDK.loadSnapshot(cache, config.getSnapshotFile());
+        }
+        long intervalMillis = config.getSnapshotInterval().toMillis();
+        if (config.getSnapshotFile() != null && intervalMillis > 0) {
+            snapshotScheduler = Executors.newSingleThreadScheduledExecutor(
+                    WeatherSDK.daemonThreadFactory("WeatherSDK-Snapshot"));
+            snapshotScheduler.scheduleWithFixedDelay(() -> WeatherSDK.writeSnapshot(cache, config.getSnapshotFile()),
+                    intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            snapshotScheduler = null;
+        }
+    }
+
+    /**
+     * Checks that a configuration sets up the cache as the one this cache was
+     * created with; an existing cache cannot be resized or moved.
+     *
+     * @param other configuration of an instance joining the cache
+     * @throws WeatherSDKException naming the first setting that differs
+     */
+    void checkCompatible(WeatherSDKConfig other) throws WeatherSDKException {
+        requireSame("cache capacity", config.getCacheCapacity(), other.getCacheCapacity());
+        requireSame("cache maximum weight", config.getCacheMaximumWeight(), other.getCacheMaximumWeight());
+        requireSame("cache weigher", config.getCacheWeigher(), other.getCacheWeigher());
+        requireSame("off-heap cache capacity", config.getOffHeapCacheCapacity(), other.getOffHeapCacheCapacity());
+        requireSame("stale grace period", config.getStaleGracePeriod(), other.getStaleGracePeriod());
+        requireSame("negative cache TTL", config.getNegativeCacheTtl(), other.getNegativeCacheTtl());
+        requireSame("snapshot file", config.getSnapshotFile(), other.getSnapshotFile());
+        requireSame("snapshot interval", config.getSnapshotInterval(), other.getSnapshotInterval());
+        requireSame("shared store file", config.getSharedStoreFile(), other.getSharedStoreFile());
+        requireSame("shared store capacity", config.getSharedStoreCapacity(), other.getSharedStoreCapacity());
+    }
+
+    private static void requireSame(String setting, Object shared, Object requested) throws WeatherSDKException {
+        if (!Objects.equals(shared, requested)) {
+            throw new WeatherSDKException(String.format(
+                    "Shared cache exists with %s %s, but %s was requested. "
+                            + "All instances sharing the cache must configure it the same way.",
+                    setting, shared, requested));
+        }
+    }
+
+    WeatherCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Returns store shared with other processes, or null if none is configured
+     */
+    WeatherStore getSharedStore() {
+        return sharedStore;
+    }
+
+    NegativeCache getNotFoundCache() {
+        return notFoundCache;
+    }
+
+    InFlightRegistry getInFlight() {
+        return inFlight;
+    }
+
+    CityIdRegistry getCityIds() {
+        return cityIds;
+    }
+
+    LastKnownWeather getLastKnown() {
+        return lastKnown;
+    }
+
+    /**
+     * Records an API call made with the given key
+     */
+    void recordFetch(String apiKey) {
+        fetchesByKey.computeIfAbsent(apiKey, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Returns number of API calls made with the given key
+     */
+    long fetchCount(String apiKey) {
+        LongAdder count = fetchesByKey.get(apiKey);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * Returns API call counts by key
+     */
+    ConcurrentHashMap<String, LongAdder> fetchesByKey() {
+        return fetchesByKey;
+    }
+
+    /**
+     * Registers an instance using the cache. Caller must hold the factory lock.
+     */
+    void acquire() {
+        users++;
+    }
+
+    /**
+     * Unregisters an instance; when it was the last one, saves the snapshot
+     * and clears the cache. Caller must hold the factory lock.
+     *
+     * @return true if no instance uses the cache any more
+     */
+    boolean release() {
+        if (--users > 0) {
+            return false;
+        }
+        close();
+        if (config.getSnapshotFile() != null) {
+            WeatherSDK.writeSnapshot(cache, config.getSnapshotFile());
+        }
+        cache.clear();
+        notFoundCache.clear();
+        cityIds.clear();
+        lastKnown.clear();
+        return true;
+    }
+
+    /**
+     * Stops saving snapshots, without saving one; for a cache no instance used
+     */
+    void close() {
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdownNow();
+        }
+    }
+}
@@ -1,15 +1,50 @@
 package com.weather.sdk;
 
+import com.weather.sdk.RequestRateLimiter.Lane;
+import com.weather.sdk.cache.BatchLookup;
+import com.weather.sdk.cache.CacheSnapshot;
+import com.weather.sdk.cache.CacheStats;
+import com.weather.sdk.cache.NegativeCache;
+import com.weather.sdk.cache.OffHeapWeatherStore;
+import com.weather.sdk.cache.SharedMappedWeatherStore;
+import com.weather.sdk.cache.TierStats;
+import com.weather.sdk.cache.TieredWeatherCache;
 import com.weather.sdk.cache.WeatherCache;
+import com.weather.sdk.cache.WeatherStore;
+import com.weather.sdk.client.RetryPermits;
 import com.weather.sdk.client.WeatherApiClient;
+import com.weather.sdk.config.CircuitBreakerPolicy;
 import com.weather.sdk.config.OperationMode;
+import com.weather.sdk.config.RetryPolicy;
+import com.weather.sdk.config.WeatherSDKConfig;
+import com.weather.sdk.exception.CircuitOpenException;
+import com.weather.sdk.exception.CityNotFoundException;
+import com.weather.sdk.exception.NetworkException;
+import com.weather.sdk.exception.RateLimitExceededException;
 import com.weather.sdk.exception.WeatherSDKException;
 import com.weather.sdk.model.WeatherData;
 import com.weather.sdk.model.WeatherResponse;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -19,7 +54,44 @@ import java.util.logging.Logger;
  * <p>
  * Supports two modes:
  * - ON_DEMAND: data is updated only on demand
- * - POLLING: data is updated automatically every 5 minutes
+ * - POLLING: data is updated automatically every polling interval (5 minutes by default)
+ * <p>
+ * Cache capacity, TTL, polling interval, HTTP timeouts and executors are set
+ * through {@link WeatherSDKConfig}.
+ * <p>
+ * With a non-zero stale grace period, expired data is returned immediately
+ * (marked with {@link WeatherResponse#isStale()}) while a single background
+ * refresh replaces it.
+ * <p>
+ * Entries that are read during the last part of their validity period (20% by default) are
+ * reloaded in the background before they expire, so frequently requested
+ * cities do not cost a caller a synchronous fetch. Entries nobody reads age out.
+ * <p>
+ * Cities whose OpenWeather ID is known from an earlier response are loaded
+ * in batches of up to {@value WeatherApiClient#MAX_GROUP_SIZE} through the
+ * group endpoint, both by {@link #getWeather(Collection)} and by polling.
+ * <p>
+ * With a request rate limit configured, requests made for waiting callers get
+ * quota before polling and background refreshes, which wait for it instead of failing.
+ * <p>
+ * With a miss batch window configured, concurrent misses of such cities
+ * wait up to the window to share one group request.
+ * <p>
+ * A circuit breaker stops sending requests while most of them fail or are
+ * slow, so callers are not held for the full timeout while the provider is
+ * down. While the circuit is open, cities fetched before are served from their
+ * last known data, marked stale if expired; other cities fail fast with
+ * {@link CircuitOpenException}.
+ * <p>
+ * With a snapshot file configured, the cache is restored from it on startup
+ * and saved to it periodically and on close, so restarts begin with a warm cache.
+ * A cache shared through {@link WeatherSDKFactory} is restored and saved by the
+ * factory instead, once for all instances using it.
+ * <p>
+ * With a shared store file configured, processes on the same host share
+ * fetched data through a memory-mapped {@link SharedMappedWeatherStore}: a
+ * cache miss is looked up there before the API is called, and every fetched
+ * response is written there.
  * <p>
  * Usage example:
  * <pre>
@@ -33,24 +105,57 @@ public class WeatherSDK implements AutoCloseable {
 
     private static final Logger LOGGER = Logger.getLogger(WeatherSDK.class.getName());
 
-    private static final int POLLING_INTERVAL_MINUTES = 5;
+    private static final int DEFAULT_FETCH_THREADS = 2;
 
     private final String apiKey;
     private final OperationMode mode;
+    private final WeatherSDKConfig config;
     private final WeatherApiClient client;
+    private final SharedCache sharedCache;
     private final WeatherCache cache;
+    private final WeatherStore sharedStore;
+    private final NegativeCache notFoundCache;
+    private final InFlightRegistry inFlight;
+    private final CityIdRegistry cityIds;
+    private final ExecutorService fetchExecutor;
+    private final boolean ownsFetchExecutor;
+    private final ExecutorService refreshExecutor;
+    private final MissBatcher missBatcher;
+    private final ScheduledExecutorService missBatchTimer;
+    private final long missBatchTimeoutNanos;
+    private final long refreshBackoffNanos;
+    private final RequestRateLimiter rateLimiter;
+    // Lane of the blocking client call the current thread is making, for the client's retries
+    private final ThreadLocal<Lane> clientCallLane = new ThreadLocal<>();
+    private final CircuitBreaker circuitBreaker;
+    private final LastKnownWeather lastKnown;
     private ScheduledExecutorService scheduler;
+    private boolean ownsScheduler;
+    private ScheduledFuture<?> pollingTask;
+    private ScheduledFuture<?> snapshotTask;
     private volatile boolean closed = false;
 
     /**
-     * Creates SDK instance.
+     * Creates SDK instance with default configuration.
      *
      * @param apiKey OpenWeather API key
      * @param mode SDK operation mode
      * @throws WeatherSDKException if apiKey is empty or null
      */
     public WeatherSDK(String apiKey, OperationMode mode) throws WeatherSDKException {
-        this(apiKey, mode, null);
+        this(apiKey, mode, WeatherSDKConfig.defaults(), null);
+    }
+
+    /**
+     * Creates SDK instance with custom configuration.
+     *
+     * @param apiKey OpenWeather API key
+     * @param mode SDK operation mode
+     * @param config SDK configuration (null for defaults)
+     * @throws WeatherSDKException if apiKey is empty or null
+     */
+    public WeatherSDK(String apiKey, OperationMode mode, WeatherSDKConfig config) throws WeatherSDKException {
+        this(apiKey, mode, config, null);
     }
 
     /**
@@ -62,15 +167,90 @@ public class WeatherSDK implements AutoCloseable {
      * @throws WeatherSDKException if apiKey is empty or null
      */
     WeatherSDK(String apiKey, OperationMode mode, WeatherApiClient client) throws WeatherSDKException {
+        this(apiKey, mode, WeatherSDKConfig.defaults(), client);
+    }
+
+    /**
+     * Creates SDK instance with custom configuration and client (for testing).
+     *
+     * @param apiKey OpenWeather API key
+     * @param mode SDK operation mode
+     * @param config SDK configuration (null for defaults)
+     * @param client custom WeatherApiClient (null for default)
+     * @throws WeatherSDKException if apiKey is empty or null
+     */
+    WeatherSDK(String apiKey, OperationMode mode, WeatherSDKConfig config, WeatherApiClient client)
+            throws WeatherSDKException {
+        this(apiKey, mode, config, client, null);
+    }
+
+    /**
+     * Creates SDK instance using a cache shared with other instances (for the factory and testing).
+     *
+     * @param apiKey OpenWeather API key
+     * @param mode SDK operation mode
+     * @param config SDK configuration (null for defaults)
+     * @param client custom WeatherApiClient (null for default)
+     * @param sharedCache cache shared across API keys (null for a private cache)
+     * @throws WeatherSDKException if apiKey is empty or null
+     */
+    WeatherSDK(String apiKey, OperationMode mode, WeatherSDKConfig config, WeatherApiClient client,
+               SharedCache sharedCache) throws WeatherSDKException {
         if (apiKey == null || apiKey.trim().isEmpty()) {
             throw new WeatherSDKException("API key cannot be null or empty");
         }
 
         this.apiKey = apiKey.trim();
         this.mode = mode != null ? mode : OperationMode.ON_DEMAND;
-        this.client = client != null ? client : new WeatherApiClient(this.apiKey);
-        this.cache = new WeatherCache(10);
+        this.config = config != null ? config : WeatherSDKConfig.defaults();
+        this.rateLimiter = this.config.getRequestsPerMinute() > 0
+                ? new RequestRateLimiter(this.config.getRequestsPerMinute()) : null;
+        this.client = client != null ? client : new WeatherApiClient(this.apiKey, this.config.getApiBaseUrl(),
+                this.config.getConnectTimeout(), this.config.getRequestTimeout(), this.config.getRetryPolicy(),
+                retryPermits());
+        this.sharedCache = sharedCache;
+        if (sharedCache != null) {
+            this.cache = sharedCache.getCache();
+            this.sharedStore = sharedCache.getSharedStore();
+            this.notFoundCache = sharedCache.getNotFoundCache();
+            this.inFlight = sharedCache.getInFlight();
+            this.cityIds = sharedCache.getCityIds();
+            this.lastKnown = sharedCache.getLastKnown();
+        } else {
+            this.cache = createCache(this.config);
+            this.sharedStore = openSharedStore(this.config);
+            this.notFoundCache = new NegativeCache(this.config.getNegativeCacheTtl());
+            this.inFlight = new InFlightRegistry();
+            this.cityIds = new CityIdRegistry();
+            this.lastKnown = new LastKnownWeather();
+        }
+
+        this.ownsFetchExecutor = this.config.getFetchExecutor() == null;
+        this.fetchExecutor = ownsFetchExecutor
+                ? Executors.newFixedThreadPool(DEFAULT_FETCH_THREADS, daemonThreadFactory("WeatherSDK-Fetch"))
+                : this.config.getFetchExecutor();
+
+        // Batch windows get their own timer: the polling scheduler is busy for a whole polling run
+        Duration missBatchWindow = this.config.getMissBatchWindow();
+        this.missBatchTimer = missBatchWindow.isZero() ? null
+                : Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("WeatherSDK-MissBatch"));
+        this.missBatcher = missBatchWindow.isZero() ? null
+                : new MissBatcher(missBatchWindow, WeatherApiClient.MAX_GROUP_SIZE,
+                (batch, namesById, loaded) -> fetchAndCacheGroup(batch, namesById, loaded, Lane.FOREGROUND),
+                missBatchTimer, fetchExecutor);
+        this.missBatchTimeoutNanos = missBatchTimeoutNanos(this.config);
+        this.refreshBackoffNanos = this.config.getRefreshBackoff().toNanos();
+        // Background refreshes may wait long for a rate limiter token: not on threads loading misses
+        this.refreshExecutor = rateLimiter != null
+                ? Executors.newSingleThreadExecutor(daemonThreadFactory("WeatherSDK-Refresh")) : fetchExecutor;
+        CircuitBreakerPolicy circuitBreakerPolicy = this.config.getCircuitBreaker();
+        this.circuitBreaker = circuitBreakerPolicy.isEnabled() ? new CircuitBreaker(circuitBreakerPolicy) : null;
 
+        // A shared cache is restored and saved by its owner, the factory
+        if (this.config.getSnapshotFile() != null && sharedCache == null) {
+            loadSnapshot(cache, this.config.getSnapshotFile());
+            startSnapshots();
+        }
         if (this.mode == OperationMode.POLLING) {
             startPolling();
         }
@@ -80,38 +260,305 @@ public class WeatherSDK implements AutoCloseable {
 
     /**
      * Gets weather information for specified city.
+     * <p>
+     * Cities the API reported as not found are remembered for the negative
+     * cache TTL and rejected without a request. While the circuit breaker is
+     * open, the last known data of the city is returned instead of a fetch.
      *
      * @param cityName city name
      * @return weather data
+     * @throws CircuitOpenException if the circuit is open and the city was never fetched
      * @throws WeatherSDKException if request fails
      */
     public WeatherResponse getWeather(String cityName) throws WeatherSDKException {
+        validateRequest(cityName);
+
+        WeatherResponse cached = getCachedResponse(cityName);
+        if (cached != null) {
+            return cached;
+        }
+
+        String normalizedCity = cityName.trim();
+
+        // Fail fast for cities the API recently reported as not found
+        if (notFoundCache.isRejected(normalizedCity)) {
+            throw new CityNotFoundException("City '" + normalizedCity + "' not found");
+        }
+
+        // Fetch from API and cache, sharing the request with concurrent callers
+        try {
+            return inFlight.load(normalizedCity, () -> {
+                // Another caller may have completed the load between the cache check and registration
+                WeatherData loaded = cache.peek(normalizedCity);
+                if (loaded != null && loaded.isValid()) {
+                    return loaded.getWeatherResponse();
+                }
+                WeatherResponse stored = loadFromSharedStore(normalizedCity);
+                if (stored != null) {
+                    return stored;
+                }
+                long cityId = missBatcher != null ? cityIds.idOf(normalizedCity) : 0;
+                if (cityId > 0) {
+                    // A batch that does not complete in time leaves the city to a request of its own
+                    WeatherResponse batched = InFlightRegistry.await(missBatcher.submit(cityId, normalizedCity),
+                            missBatchTimeoutNanos);
+                    if (batched != null) {
+                        return batched;
+                    }
+                }
+                return fetchAndCacheWeather(normalizedCity, Lane.FOREGROUND);
+            });
+        } catch (CircuitOpenException e) {
+            return lastKnownResponse(normalizedCity, e);
+        }
+    }
+
+    /**
+     * Gets weather information for specified city without blocking the calling thread.
+     * <p>
+     * Cache hits return an already completed future. Misses send a non-blocking
+     * request and share it with concurrent callers of either method, so waiting
+     * for thousands of responses needs no extra threads. Callbacks of the
+     * returned future run on the HTTP client's threads unless an async variant
+     * with an executor is used.
+     *
+     * @param cityName city name
+     * @return future completed with weather data, or failed with the
+     * {@link WeatherSDKException} {@link #getWeather(String)} would throw
+     */
+    public CompletableFuture<WeatherResponse> getWeatherAsync(String cityName) {
+        try {
+            validateRequest(cityName);
+        } catch (WeatherSDKException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        WeatherResponse cached = getCachedResponse(cityName);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        String normalizedCity = cityName.trim();
+        if (notFoundCache.isRejected(normalizedCity)) {
+            return CompletableFuture.failedFuture(
+                    new CityNotFoundException("City '" + normalizedCity + "' not found"));
+        }
+
+        CompletableFuture<WeatherResponse> load = inFlight.loadAsync(normalizedCity, () -> {
+            WeatherData loaded = cache.peek(normalizedCity);
+            if (loaded != null && loaded.isValid()) {
+                return CompletableFuture.completedFuture(loaded.getWeatherResponse());
+            }
+            WeatherResponse stored = loadFromSharedStore(normalizedCity);
+            if (stored != null) {
+                return CompletableFuture.completedFuture(stored);
+            }
+            long cityId = missBatcher != null ? cityIds.idOf(normalizedCity) : 0;
+            if (cityId > 0) {
+                // A batch that does not complete in time leaves the city to a request of its own
+                return InFlightRegistry.orNullAfter(missBatcher.submit(cityId, normalizedCity), missBatchTimeoutNanos)
+                        .thenCompose(batched -> batched != null ? CompletableFuture.completedFuture(batched)
+                                : fetchAndCacheWeatherAsync(normalizedCity));
+            }
+            return fetchAndCacheWeatherAsync(normalizedCity);
+        });
+        return circuitBreaker != null ? withLastKnownFallback(load, normalizedCity) : load;
+    }
+
+    /**
+     * Gets weather information for several cities.
+     * <p>
+     * Cached cities are served in one cache pass. The rest are loaded with as
+     * few requests as possible: cities whose ID is known are fetched in
+     * batches through the group endpoint, each body parsed in one pass;
+     * cities requested for the first time are fetched one by one, which also
+     * records their IDs for later batches. Expired data is reloaded rather
+     * than served stale, unless the circuit breaker is open.
+     *
+     * @param cityNames city names
+     * @return weather data by city name as passed, in request order, each name once
+     * @throws WeatherSDKException if any city cannot be loaded; cities loaded
+     * before the failure stay cached
+     */
+    public Map<String, WeatherResponse> getWeather(Collection<String> cityNames) throws WeatherSDKException {
+        if (cityNames == null) {
+            throw new WeatherSDKException("City names cannot be null");
+        }
+        for (String cityName : cityNames) {
+            validateRequest(cityName);
+        }
+
+        BatchLookup lookup = cache.getAll(cityNames);
+        Map<String, WeatherResponse> loaded = new HashMap<>();
+        if (!lookup.isComplete()) {
+            Map<String, Exception> failed = new HashMap<>();
+            Map<Long, List<String>> namesById = new LinkedHashMap<>();
+            for (String cityName : lookup.getMisses()) {
+                WeatherResponse stored = loadFromSharedStore(cityName);
+                if (stored != null) {
+                    loaded.put(cityName, stored);
+                    continue;
+                }
+                long cityId = cityIds.idOf(cityName);
+                if (cityId > 0 && !notFoundCache.isRejected(cityName.trim())) {
+                    namesById.computeIfAbsent(cityId, id -> new ArrayList<>()).add(cityName);
+                }
+            }
+
+            List<Long> ids = new ArrayList<>(namesById.keySet());
+            for (int from = 0; from < ids.size(); from += WeatherApiClient.MAX_GROUP_SIZE) {
+                List<Long> batch = ids.subList(from, Math.min(from + WeatherApiClient.MAX_GROUP_SIZE, ids.size()));
+                try {
+                    fetchAndCacheGroupInFlight(batch, namesById, loaded, failed, Lane.FOREGROUND);
+                } catch (CircuitOpenException e) {
+                    // The remaining cities fall back to their last known data one by one
+                    break;
+                }
+            }
+            // The rest, including cities another caller was loading or the batches failed for, go by name
+            for (String cityName : lookup.getMisses()) {
+                if (!loaded.containsKey(cityName)) {
+                    loaded.put(cityName, getWeatherUnlessFailed(cityName, failed.get(cityName)));
+                }
+            }
+        }
+
+        Map<String, WeatherResponse> result = new LinkedHashMap<>();
+        for (String cityName : cityNames) {
+            WeatherData hit = lookup.getHits().get(cityName);
+            result.putIfAbsent(cityName, hit != null ? hit.getWeatherResponse() : loaded.get(cityName));
+        }
+        return result;
+    }
+
+    /**
+     * Gets weather of a city left over from a group request, unless fetching
+     * it by name already failed.
+     *
+     * @param cityName city name as passed by the caller
+     * @param failure failure of the fetch by name, or null if it was not fetched
+     * @return weather data
+     * @throws WeatherSDKException the failure, or if the city cannot be fetched
+     */
+    private WeatherResponse getWeatherUnlessFailed(String cityName, Exception failure) throws WeatherSDKException {
+        if (failure == null) {
+            return getWeather(cityName);
+        }
+        if (failure instanceof CircuitOpenException) {
+            return lastKnownResponse(cityName.trim(), (CircuitOpenException) failure);
+        }
+        if (failure instanceof WeatherSDKException) {
+            throw (WeatherSDKException) failure;
+        }
+        throw (RuntimeException) failure;
+    }
+
+    private void validateRequest(String cityName) throws WeatherSDKException {
         if (closed) {
             throw new WeatherSDKException("SDK is closed");
         }
 
-        if (cityName == null || cityName.trim().isEmpty()) {
+        if (cityName == null || cityName.isBlank()) {
             throw new WeatherSDKException("City name cannot be null or empty");
         }
+    }
 
-        String normalizedCity = cityName.trim();
-
-        WeatherData cachedData = cache.get(normalizedCity);
-        if (cachedData != null) {
-            LOGGER.log(Level.FINE, "Returning cached data for {0} (age: {1} min)",
-                    new Object[]{normalizedCity, cachedData.getAgeMinutes()});
+    /**
+     * Returns cached data that is valid or within the stale grace period, starting
+     * a background refresh where needed. Does not allocate for a fresh hit.
+     *
+     * @param cityName city name as passed by the caller
+     * @return cached weather data (marked stale if expired) or null on a miss
+     */
+    private WeatherResponse getCachedResponse(String cityName) {
+        // The cache ignores case and surrounding whitespace, so a hit needs no normalized copy
+        WeatherData cachedData = cache.getAllowStale(cityName);
+        if (cachedData == null) {
+            return null;
+        }
+        if (cachedData.isValid()) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "Returning cached data for {0} (age: {1} min)",
+                        new Object[]{cityName.trim(), cachedData.getAgeMinutes()});
+            }
+            double refreshAhead = config.getRefreshAheadFraction();
+            if (refreshAhead > 0 && cachedData.isNearExpiry(refreshAhead)
+                    && cachedData.tryStartRefresh(refreshBackoffNanos)) {
+                refreshInBackground(cityName.trim());
+            }
             return cachedData.getWeatherResponse();
         }
 
-        // Fetch from API and cache
-        return fetchAndCacheWeather(normalizedCity);
+        // Expired but within grace period: serve stale and refresh in background
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, "Returning stale data for {0} (age: {1} min)",
+                    new Object[]{cityName.trim(), cachedData.getAgeMinutes()});
+        }
+        if (cachedData.tryStartRefresh(refreshBackoffNanos)) {
+            refreshInBackground(cityName.trim());
+        }
+        return cachedData.getWeatherResponse().asStale();
     }
 
     /**
-     * Clears entire cache.
+     * Returns the last known data of a city while the circuit is open.
+     *
+     * @param cityName normalized city name
+     * @param circuitOpen exception to throw if there is no data
+     * @return weather data, marked stale if expired
+     * @throws CircuitOpenException if the city was never fetched
+     */
+    private WeatherResponse lastKnownResponse(String cityName, CircuitOpenException circuitOpen)
+            throws CircuitOpenException {
+        WeatherData data = cache.peek(cityName);
+        if (data == null) {
+            data = lastKnown.get(cityName);
+        }
+        if (data == null) {
+            throw circuitOpen;
+        }
+        LOGGER.log(Level.FINE, "Circuit open, returning last known data for {0}", cityName);
+        return data.isValid() ? data.getWeatherResponse() : data.getWeatherResponse().asStale();
+    }
+
+    /**
+     * Completes a load that failed on an open circuit with the last known data of the city.
+     *
+     * @param load asynchronous load of the city
+     * @param cityName normalized city name
+     * @return future completed like the load, or with the last known data
+     */
+    private CompletableFuture<WeatherResponse> withLastKnownFallback(CompletableFuture<WeatherResponse> load,
+                                                                     String cityName) {
+        CompletableFuture<WeatherResponse> result = new CompletableFuture<>();
+        load.whenComplete((response, error) -> {
+            if (error == null) {
+                result.complete(response);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            if (cause instanceof CircuitOpenException) {
+                try {
+                    result.complete(lastKnownResponse(cityName, (CircuitOpenException) cause));
+                    return;
+                } catch (CircuitOpenException e) {
+                    // No data to fall back to
+                }
+            }
+            result.completeExceptionally(error);
+        });
+        return result;
+    }
+
+    /**
+     * Clears entire cache. A cache shared across API keys is cleared for every instance using it.
      */
     public void clearCache() {
         cache.clear();
+        notFoundCache.clear();
+        cityIds.clear();
+        lastKnown.clear();
         LOGGER.log(Level.INFO, "Cache cleared");
     }
 
@@ -122,6 +569,13 @@ public class WeatherSDK implements AutoCloseable {
         return mode;
     }
 
+    /**
+     * Returns SDK configuration.
+     */
+    public WeatherSDKConfig getConfig() {
+        return config;
+    }
+
     /**
      * Returns number of cities in cache.
      */
@@ -129,6 +583,41 @@ public class WeatherSDK implements AutoCloseable {
         return cache.size();
     }
 
+    /**
+     * Returns total weight of cached entries: the estimated heap size in bytes
+     * when the cache is bounded by a maximum weight, otherwise the number of cities.
+     */
+    public long getCacheWeightedSize() {
+        return cache.weightedSize();
+    }
+
+    /**
+     * Returns snapshot of cache statistics: hits, misses, expirations, evictions,
+     * API loads and their latency.
+     */
+    public CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Returns per-tier cache statistics (on-heap L1, off-heap L2), or an empty
+     * list if no off-heap cache is configured.
+     */
+    public List<TierStats> getCacheTierStats() {
+        if (cache instanceof TieredWeatherCache) {
+            TieredWeatherCache tiered = (TieredWeatherCache) cache;
+            return Arrays.asList(tiered.firstLevelStats(), tiered.secondLevelStats());
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Returns cache shared with other instances, or null if the cache is private (for use in Factory).
+     */
+    SharedCache getSharedCache() {
+        return sharedCache;
+    }
+
     /**
      * Returns API key (for use in Factory).
      */
@@ -147,50 +636,601 @@ public class WeatherSDK implements AutoCloseable {
      * Fetches data from API and saves to cache.
      *
      * @param cityName city name
+     * @param lane rate limiter lane of the request
      * @return weather data
      * @throws WeatherSDKException on request error
      */
-    private WeatherResponse fetchAndCacheWeather(String cityName) throws WeatherSDKException {
-        WeatherResponse response = client.getCurrentWeather(cityName);
-        cache.put(cityName, new WeatherData(response));
+    private WeatherResponse fetchAndCacheWeather(String cityName, Lane lane) throws WeatherSDKException {
+        WeatherResponse response;
+        long permit = beginRequest(lane);
+        long startNanos = System.nanoTime();
+        clientCallLane.set(lane);
+        try {
+            response = client.getCurrentWeather(cityName);
+        } catch (WeatherSDKException | RuntimeException e) {
+            long durationNanos = System.nanoTime() - startNanos;
+            cache.statsCounter().recordLoadFailure(durationNanos);
+            recordCallOutcome(permit, e, durationNanos);
+            if (e instanceof CityNotFoundException) {
+                notFoundCache.put(cityName);
+            }
+            throw e;
+        } finally {
+            clientCallLane.remove();
+        }
+        long durationNanos = System.nanoTime() - startNanos;
+        cache.statsCounter().recordLoadSuccess(durationNanos);
+        recordCallOutcome(permit, null, durationNanos);
+        WeatherData data = new WeatherData(response, config.getCacheTtl());
+        cache.put(cityName, data);
+        storeShared(cityName, data);
+        cityIds.record(cityName, response);
+        recordLastKnown(cityName, data);
         LOGGER.log(Level.FINE, "Fetched and cached weather for {0}", cityName);
         return response;
     }
 
-    private void startPolling() {
-        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread thread = new Thread(r, "WeatherSDK-Polling");
-            thread.setDaemon(true);
-            return thread;
+    /**
+     * Fetches one batch of cities through the group endpoint and saves them to cache.
+     *
+     * @param batch IDs to fetch, at most {@link WeatherApiClient#MAX_GROUP_SIZE}
+     * @param namesById city names requested for each ID; IDs returned by the API are removed
+     * @param loaded receives the weather data by city name
+     * @param lane rate limiter lane of the request
+     * @throws WeatherSDKException on request error
+     */
+    private void fetchAndCacheGroup(List<Long> batch, Map<Long, List<String>> namesById,
+                                    Map<String, WeatherResponse> loaded, Lane lane) throws WeatherSDKException {
+        List<WeatherResponse> responses;
+        long permit = beginRequest(lane);
+        long startNanos = System.nanoTime();
+        clientCallLane.set(lane);
+        try {
+            responses = client.getCurrentWeatherByIds(batch);
+        } catch (WeatherSDKException | RuntimeException e) {
+            long durationNanos = System.nanoTime() - startNanos;
+            // Every city of the batch waited for the request, so each counts as a load
+            for (int i = 0; i < batch.size(); i++) {
+                cache.statsCounter().recordLoadFailure(durationNanos);
+            }
+            recordCallOutcome(permit, e, durationNanos);
+            throw e;
+        } finally {
+            clientCallLane.remove();
+        }
+        long durationNanos = System.nanoTime() - startNanos;
+        recordCallOutcome(permit, null, durationNanos);
+
+        Map<String, WeatherData> entries = new LinkedHashMap<>();
+        for (WeatherResponse response : responses) {
+            List<String> names = namesById.remove(response.getCityId());
+            if (names == null) {
+                continue;
+            }
+            WeatherData data = new WeatherData(response, config.getCacheTtl());
+            for (String cityName : names) {
+                entries.put(cityName, data);
+                loaded.put(cityName, response);
+                storeShared(cityName, data);
+                recordLastKnown(cityName, data);
+            }
+        }
+        cache.putAll(entries);
+        for (int i = 0; i < entries.size(); i++) {
+            cache.statsCounter().recordLoadSuccess(durationNanos);
+        }
+        LOGGER.log(Level.FINE, "Fetched and cached weather for {0} cities in one request", entries.size());
+    }
+
+    /**
+     * Fetches one batch of cities through the group endpoint as the in-flight
+     * load of each of them, so concurrent callers for these cities wait for the
+     * batch instead of sending their own request.
+     * <p>
+     * Cities whose load is already in flight are left out of the request and
+     * stay in {@code namesById}, to be joined by name. Cities the API did not
+     * return are fetched by name before their registration ends; a failure
+     * there is passed to the joined callers, logged and recorded in
+     * {@code failed}, so the city is not fetched a second time.
+     *
+     * @param batch IDs to fetch, at most {@link WeatherApiClient#MAX_GROUP_SIZE}
+     * @param namesById city names requested for each ID; IDs of loaded cities are removed
+     * @param loaded receives the weather data by city name
+     * @param failed receives the failure by city name of cities fetched by name
+     * @param lane rate limiter lane of the request
+     * @throws WeatherSDKException if the group request failed; the batch's cities stay in {@code namesById}
+     */
+    private void fetchAndCacheGroupInFlight(List<Long> batch, Map<Long, List<String>> namesById,
+                                            Map<String, WeatherResponse> loaded,
+                                            Map<String, Exception> failed, Lane lane)
+            throws WeatherSDKException {
+        Map<String, CompletableFuture<WeatherResponse>> claims = new LinkedHashMap<>();
+        Map<Long, List<String>> claimedById = new LinkedHashMap<>();
+        for (Long cityId : batch) {
+            List<String> names = namesById.get(cityId);
+            if (names == null) {
+                continue;
+            }
+            for (Iterator<String> it = names.iterator(); it.hasNext(); ) {
+                String cityName = it.next();
+                CompletableFuture<WeatherResponse> claim = inFlight.claim(cityName);
+                if (claim != null) {
+                    claims.put(cityName, claim);
+                    claimedById.computeIfAbsent(cityId, id -> new ArrayList<>()).add(cityName);
+                    it.remove();
+                }
+            }
+            if (names.isEmpty()) {
+                namesById.remove(cityId);
+            }
+        }
+        if (claimedById.isEmpty()) {
+            return;
+        }
+
+        try {
+            // Copied, as the IDs the API returns are removed from it
+            fetchAndCacheGroup(new ArrayList<>(claimedById.keySet()), new LinkedHashMap<>(claimedById), loaded, lane);
+        } catch (WeatherSDKException | RuntimeException e) {
+            for (Map.Entry<Long, List<String>> entry : claimedById.entrySet()) {
+                namesById.computeIfAbsent(entry.getKey(), id -> new ArrayList<>()).addAll(entry.getValue());
+                for (String cityName : entry.getValue()) {
+                    inFlight.fail(cityName, claims.get(cityName), e);
+                }
+            }
+            throw e;
+        }
+
+        for (Map.Entry<Long, List<String>> entry : claimedById.entrySet()) {
+            for (String cityName : entry.getValue()) {
+                CompletableFuture<WeatherResponse> claim = claims.get(cityName);
+                WeatherResponse response = loaded.get(cityName);
+                if (response != null) {
+                    inFlight.complete(cityName, claim, response);
+                    continue;
+                }
+                try {
+                    response = fetchAndCacheWeather(cityName, lane);
+                    loaded.put(cityName, response);
+                    inFlight.complete(cityName, claim, response);
+                } catch (WeatherSDKException | RuntimeException e) {
+                    inFlight.fail(cityName, claim, e);
+                    failed.put(cityName, e);
+                    LOGGER.log(Level.WARNING, "Failed to load weather for {0}: {1}",
+                            new Object[]{cityName, e.getMessage()});
+                }
+            }
+        }
+    }
+
+    /**
+     * Prepares a blocking API request: checks the circuit, takes a rate
+     * limiter token and attributes the call to the API key.
+     *
+     * @param lane rate limiter lane of the request
+     * @return circuit breaker permit to record the outcome with
+     * @throws CircuitOpenException if the circuit is open
+     * @throws WeatherSDKException if no rate limiter token was acquired
+     */
+    private long beginRequest(Lane lane) throws WeatherSDKException {
+        long permit = acquireCircuit();
+        try {
+            acquirePermit(lane);
+        } catch (WeatherSDKException e) {
+            if (circuitBreaker != null) {
+                circuitBreaker.release(permit);
+            }
+            throw e;
+        }
+        if (sharedCache != null) {
+            sharedCache.recordFetch(apiKey);
+        }
+        return permit;
+    }
+
+    /**
+     * Asks the circuit breaker, if there is one, to make a call
+     *
+     * @return circuit breaker permit, {@link CircuitBreaker#NO_PERMIT} without a circuit breaker
+     * @throws CircuitOpenException if the circuit is open
+     */
+    private long acquireCircuit() throws CircuitOpenException {
+        if (circuitBreaker == null) {
+            return CircuitBreaker.NO_PERMIT;
+        }
+        long permit = circuitBreaker.tryAcquire();
+        if (permit == CircuitBreaker.NO_PERMIT) {
+            throw circuitOpen();
+        }
+        return permit;
+    }
+
+    private static CircuitOpenException circuitOpen() {
+        return new CircuitOpenException(
+                "OpenWeather API is unavailable, requests are suspended by the circuit breaker");
+    }
+
+    /**
+     * Records the outcome of an API call with the circuit breaker. Only errors
+     * showing the provider is down or overloaded count as failures; a city not
+     * found or an invalid key is a working provider's answer.
+     *
+     * @param permit circuit breaker permit of the call
+     * @param error exception the call failed with, or null if it succeeded
+     * @param durationNanos time the call took
+     */
+    private void recordCallOutcome(long permit, Throwable error, long durationNanos) {
+        if (circuitBreaker == null) {
+            return;
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+        if (cause instanceof NetworkException || cause instanceof RateLimitExceededException) {
+            circuitBreaker.onFailure(permit, durationNanos);
+        } else {
+            circuitBreaker.onSuccess(permit, durationNanos);
+        }
+    }
+
+    /**
+     * Looks a cache miss up in the store shared with other processes, caching valid data found there.
+     *
+     * @param cityName city name
+     * @return weather data or null if there is no shared store or no valid data in it
+     */
+    private WeatherResponse loadFromSharedStore(String cityName) {
+        if (sharedStore == null) {
+            return null;
+        }
+        WeatherData data = sharedStore.get(cityName);
+        if (data == null || !data.isValid()) {
+            return null;
+        }
+        cache.put(cityName, data);
+        cityIds.record(cityName, data.getWeatherResponse());
+        recordLastKnown(cityName, data);
+        LOGGER.log(Level.FINE, "Loaded weather for {0} from the shared store", cityName);
+        return data.getWeatherResponse();
+    }
+
+    /**
+     * Writes fetched data to the store shared with other processes, if there is one
+     */
+    private void storeShared(String cityName, WeatherData data) {
+        if (sharedStore != null) {
+            sharedStore.put(cityName, data);
+        }
+    }
+
+    /**
+     * Keeps fetched data as the fallback for an open circuit, if there is a circuit breaker
+     */
+    private void recordLastKnown(String cityName, WeatherData data) {
+        if (circuitBreaker != null) {
+            lastKnown.record(cityName, data);
+        }
+    }
+
+    /**
+     * Takes a rate limiter token for a request, if requests are limited.
+     * Foreground requests wait up to the request timeout; background requests
+     * wait until a token is free.
+     *
+     * @param lane lane of the request
+     * @throws RateLimitExceededException if no token became free in time
+     * @throws WeatherSDKException if the SDK was closed while waiting
+     */
+    private void acquirePermit(Lane lane) throws WeatherSDKException {
+        if (rateLimiter == null) {
+            return;
+        }
+        boolean acquired;
+        try {
+            acquired = rateLimiter.acquire(lane, config.getRequestTimeout().toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NetworkException("Request was interrupted", e);
+        }
+        if (!acquired) {
+            throw permitNotAcquired();
+        }
+    }
+
+    /**
+     * Returns permits making each retry attempt of the client take a rate
+     * limiter token like the first attempt, so retries stay within the quota
+     * as well. A retry takes its token in the lane of the request it belongs
+     * to: the client asks for it on the thread that made the request, where
+     * {@link #clientCallLane} holds the lane. Non-blocking requests are
+     * foreground requests.
+     */
+    private RetryPermits retryPermits() {
+        if (rateLimiter == null) {
+            return RetryPermits.unlimited();
+        }
+        long timeoutNanos = config.getRequestTimeout().toNanos();
+        return new RetryPermits() {
+            @Override
+            public boolean acquire() throws InterruptedException {
+                Lane lane = clientCallLane.get();
+                return rateLimiter.acquire(lane != null ? lane : Lane.FOREGROUND, timeoutNanos);
+            }
+
+            @Override
+            public CompletableFuture<Boolean> acquireAsync() {
+                return rateLimiter.acquireAsync(timeoutNanos);
+            }
+        };
+    }
+
+    private WeatherSDKException permitNotAcquired() {
+        if (closed) {
+            return new WeatherSDKException("SDK is closed");
+        }
+        return new RateLimitExceededException(String.format(
+                "Client rate limit of %d requests per minute reached", config.getRequestsPerMinute()));
+    }
+
+    /**
+     * Non-blocking variant of {@link #fetchAndCacheWeather(String, Lane)} for the foreground lane.
+     * Waiting for a rate limiter token does not block a thread either.
+     *
+     * @param cityName city name
+     * @return future of the weather data, cached once it completes
+     */
+    private CompletableFuture<WeatherResponse> fetchAndCacheWeatherAsync(String cityName) {
+        long permit;
+        try {
+            permit = acquireCircuit();
+        } catch (CircuitOpenException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (rateLimiter == null) {
+            return sendAndCacheWeatherAsync(cityName, permit);
+        }
+        return rateLimiter.acquireAsync(config.getRequestTimeout().toNanos()).thenCompose(acquired -> {
+            if (acquired) {
+                return sendAndCacheWeatherAsync(cityName, permit);
+            }
+            if (circuitBreaker != null) {
+                circuitBreaker.release(permit);
+            }
+            return CompletableFuture.failedFuture(permitNotAcquired());
         });
+    }
 
-        scheduler.scheduleWithFixedDelay(() -> {
+    private CompletableFuture<WeatherResponse> sendAndCacheWeatherAsync(String cityName, long permit) {
+        if (sharedCache != null) {
+            sharedCache.recordFetch(apiKey);
+        }
+        long startNanos = System.nanoTime();
+        return client.getCurrentWeatherAsync(cityName).whenComplete((response, error) -> {
+            long durationNanos = System.nanoTime() - startNanos;
+            recordCallOutcome(permit, error, durationNanos);
+            if (error != null) {
+                cache.statsCounter().recordLoadFailure(durationNanos);
+                if (error instanceof CityNotFoundException) {
+                    notFoundCache.put(cityName);
+                }
+                return;
+            }
+            cache.statsCounter().recordLoadSuccess(durationNanos);
+            WeatherData data = new WeatherData(response, config.getCacheTtl());
+            cache.put(cityName, data);
+            storeShared(cityName, data);
+            cityIds.record(cityName, response);
+            recordLastKnown(cityName, data);
+            LOGGER.log(Level.FINE, "Fetched and cached weather for {0}", cityName);
+        });
+    }
+
+    /**
+     * Starts an asynchronous refresh for the city unless one is already in flight.
+     *
+     * @param cityName city name
+     */
+    private void refreshInBackground(String cityName) {
+        // Stale data keeps being served until the circuit lets requests through again
+        if (circuitBreaker != null && circuitBreaker.getState() == CircuitBreaker.State.OPEN) {
+            return;
+        }
+        inFlight.loadAsync(cityName, refreshExecutor, () -> fetchAndCacheWeather(cityName, Lane.BACKGROUND))
+                .exceptionally(e -> {
+                    LOGGER.log(Level.WARNING, "Background refresh failed for {0}: {1}",
+                            new Object[]{cityName, e.getMessage()});
+                    return null;
+                });
+    }
+
+    /**
+     * Returns underlying cache (for testing).
+     */
+    WeatherCache getCache() {
+        return cache;
+    }
+
+    static WeatherCache createCache(WeatherSDKConfig config) {
+        if (config.getOffHeapCacheCapacity() > 0) {
+            OffHeapWeatherStore secondLevel = new OffHeapWeatherStore(config.getOffHeapCacheCapacity());
+            if (config.getCacheMaximumWeight() > 0) {
+                return new TieredWeatherCache(config.getCacheMaximumWeight(), config.getCacheWeigher(),
+                        secondLevel, config.getStaleGracePeriod());
+            }
+            return new TieredWeatherCache(config.getCacheCapacity(), secondLevel, config.getStaleGracePeriod());
+        }
+        if (config.getCacheMaximumWeight() > 0) {
+            return new WeatherCache(config.getCacheMaximumWeight(), config.getCacheWeigher(),
+                    config.getStaleGracePeriod());
+        }
+        return new WeatherCache(config.getCacheCapacity(), config.getStaleGracePeriod());
+    }
+
+    /**
+     * Opens the store shared with other processes on the host, if one is configured
+     *
+     * @return shared store or null
+     * @throws WeatherSDKException if the file cannot be mapped
+     */
+    static WeatherStore openSharedStore(WeatherSDKConfig config) throws WeatherSDKException {
+        if (config.getSharedStoreFile() == null) {
+            return null;
+        }
+        try {
+            return new SharedMappedWeatherStore(config.getSharedStoreFile(), config.getSharedStoreCapacity());
+        } catch (IOException e) {
+            throw new WeatherSDKException("Failed to open shared store " + config.getSharedStoreFile(), e);
+        }
+    }
+
+    /**
+     * Returns how long a miss waits for its batch: the window, a rate limiter
+     * wait and the request with its retries. Beyond that the batch is stuck,
+     * e.g. queued behind other loads, and the miss sends its own request.
+     */
+    private static long missBatchTimeoutNanos(WeatherSDKConfig config) {
+        long requestNanos = config.getRequestTimeout().toNanos();
+        RetryPolicy retryPolicy = config.getRetryPolicy();
+        long retriesNanos = retryPolicy.getMaxAttempts() > 1 ? retryPolicy.getMaxElapsed().toNanos() : 0;
+        return config.getMissBatchWindow().toNanos() + 2 * requestNanos + retriesNanos;
+    }
+
+    /**
+     * Returns scheduler for background tasks, creating it on first use
+     */
+    private ScheduledExecutorService scheduler() {
+        if (scheduler == null) {
+            ownsScheduler = config.getPollingExecutor() == null;
+            scheduler = ownsScheduler
+                    ? Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("WeatherSDK-Polling"))
+                    : config.getPollingExecutor();
+        }
+        return scheduler;
+    }
+
+    /**
+     * Restores the cache from a snapshot file, logging a failure
+     */
+    static void loadSnapshot(WeatherCache cache, Path file) {
+        try {
+            int loaded = CacheSnapshot.load(cache, file);
+            LOGGER.log(Level.INFO, "Restored {0} cached cities from {1}", new Object[]{loaded, file});
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to restore cache snapshot from " + file, e);
+        }
+    }
+
+    private void startSnapshots() {
+        long intervalMillis = config.getSnapshotInterval().toMillis();
+        if (intervalMillis == 0) {
+            return;
+        }
+        snapshotTask = scheduler().scheduleWithFixedDelay(() -> {
+            if (!closed) {
+                writeSnapshot(cache, config.getSnapshotFile());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Saves the cache to a snapshot file, logging a failure
+     */
+    static void writeSnapshot(WeatherCache cache, Path file) {
+        try {
+            int written = CacheSnapshot.write(cache, file);
+            LOGGER.log(Level.FINE, "Saved {0} cached cities to {1}", new Object[]{written, file});
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to save cache snapshot to " + file, e);
+        }
+    }
+
+    private void startPolling() {
+        long intervalMillis = config.getPollingInterval().toMillis();
+        pollingTask = scheduler().scheduleWithFixedDelay(() -> {
             try {
                 if (!closed) {
+                    cache.cleanUp();
                     updateAllCachedCities();
                 }
             } catch (Exception e) {
                 LOGGER.log(Level.WARNING, "Error during polling update", e);
             }
-        }, POLLING_INTERVAL_MINUTES, POLLING_INTERVAL_MINUTES, TimeUnit.MINUTES);
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
 
-        LOGGER.log(Level.INFO, "Polling started with interval: {0} minutes",
-                POLLING_INTERVAL_MINUTES);
+        LOGGER.log(Level.INFO, "Polling started with interval: {0}", config.getPollingInterval());
+    }
+
+    static ThreadFactory daemonThreadFactory(String name) {
+        return r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 
     /**
      * Updates data for all cities in cache.
+     * <p>
+     * Cities with a known ID are refreshed in batches through the group
+     * endpoint; a failed batch only affects its own cities. The others are
+     * refreshed one by one. Both go through the in-flight registry, so a city
+     * that is already being loaded for a caller is not requested twice.
      */
     private void updateAllCachedCities() {
         Set<String> citiesToUpdate = cache.getCityNames();
+        Map<Long, List<String>> namesById = new LinkedHashMap<>();
+        List<String> unknownIds = new ArrayList<>();
 
         for (String cityName : citiesToUpdate) {
+            // Check that city is still in cache (stale entries are refreshed as well)
+            WeatherData cached = cache.peek(cityName);
+            if (cached == null || refreshedByAnotherInstance(cached)) {
+                continue;
+            }
+            long cityId = cached.getWeatherResponse().getCityId();
+            if (cityId <= 0) {
+                cityId = cityIds.idOf(cityName);
+            }
+            if (cityId > 0) {
+                namesById.computeIfAbsent(cityId, id -> new ArrayList<>()).add(cityName);
+            } else {
+                unknownIds.add(cityName);
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(namesById.keySet());
+        Map<String, WeatherResponse> loaded = new HashMap<>();
+        Map<String, Exception> failed = new HashMap<>();
+        for (int from = 0; from < ids.size() && !closed; from += WeatherApiClient.MAX_GROUP_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + WeatherApiClient.MAX_GROUP_SIZE, ids.size()));
             try {
-                // Check that city is still in cache
-                if (cache.contains(cityName)) {
-                    fetchAndCacheWeather(cityName);
-                    LOGGER.log(Level.FINE, "Updated weather for {0}", cityName);
+                fetchAndCacheGroupInFlight(batch, namesById, loaded, failed, Lane.BACKGROUND);
+            } catch (CircuitOpenException e) {
+                LOGGER.log(Level.WARNING, "Circuit open, skipping update of cached cities");
+                return;
+            } catch (WeatherSDKException e) {
+                // Keep the cities out of the one-by-one pass, which would repeat the failure per city
+                for (Long cityId : batch) {
+                    namesById.remove(cityId);
                 }
+                LOGGER.log(Level.WARNING, "Failed to update weather for {0} cities: {1}",
+                        new Object[]{batch.size(), e.getMessage()});
+            }
+        }
+        // Cities another caller was loading when their batch was sent join that load by name
+        for (List<String> names : namesById.values()) {
+            unknownIds.addAll(names);
+        }
+
+        for (String cityName : unknownIds) {
+            if (closed) {
+                break;
+            }
+            try {
+                inFlight.load(cityName, () -> fetchAndCacheWeather(cityName, Lane.BACKGROUND));
+                LOGGER.log(Level.FINE, "Updated weather for {0}", cityName);
+            } catch (CircuitOpenException e) {
+                LOGGER.log(Level.WARNING, "Circuit open, skipping update of cached cities");
+                return;
             } catch (WeatherSDKException e) {
                 LOGGER.log(Level.WARNING, "Failed to update weather for {0}: {1}",
                         new Object[]{cityName, e.getMessage()});
@@ -198,6 +1238,18 @@ public class WeatherSDK implements AutoCloseable {
         }
     }
 
+    /**
+     * Checks if a shared cache entry was fetched less than one polling interval
+     * ago, i.e. another polling instance or a caller already refreshed it.
+     */
+    private boolean refreshedByAnotherInstance(WeatherData data) {
+        if (sharedCache == null) {
+            return false;
+        }
+        long ageNanos = data.getTtl().toNanos() - (data.getExpiresAtNanos() - System.nanoTime());
+        return ageNanos < config.getPollingInterval().toNanos();
+    }
+
     /**
      * Closes SDK and releases resources.
      */
@@ -209,7 +1261,21 @@ public class WeatherSDK implements AutoCloseable {
 
         closed = true;
 
-        if (scheduler != null && !scheduler.isShutdown()) {
+        if (pollingTask != null) {
+            pollingTask.cancel(false);
+        }
+        if (rateLimiter != null) {
+            rateLimiter.close();
+        }
+        if (missBatcher != null) {
+            missBatcher.close();
+            missBatchTimer.shutdownNow();
+        }
+        if (snapshotTask != null) {
+            snapshotTask.cancel(false);
+        }
+
+        if (ownsScheduler && !scheduler.isShutdown()) {
             scheduler.shutdown();
             try {
                 if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
@@ -221,7 +1287,22 @@ public class WeatherSDK implements AutoCloseable {
             }
         }
 
-        cache.clear();
+        if (ownsFetchExecutor) {
+            fetchExecutor.shutdownNow();
+        }
+        if (refreshExecutor != fetchExecutor) {
+            refreshExecutor.shutdownNow();
+        }
+        // A shared cache is saved and cleared by the factory once its last instance is removed
+        if (sharedCache == null) {
+            if (config.getSnapshotFile() != null) {
+                writeSnapshot(cache, config.getSnapshotFile());
+            }
+            cache.clear();
+            notFoundCache.clear();
+            cityIds.clear();
+            lastKnown.clear();
+        }
 
         LOGGER.log(Level.INFO, "WeatherSDK closed and cache cleared");
     }
@@ -1,9 +1,11 @@
 package com.weather.sdk;
 
 import com.weather.sdk.config.OperationMode;
+import com.weather.sdk.config.WeatherSDKConfig;
 import com.weather.sdk.exception.WeatherSDKException;
 
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -21,6 +23,15 @@ import java.util.logging.Logger;
  *
  * WeatherSDKFactory.removeInstance("key1"); // removes and closes SDK
  * </pre>
+ * Instances created with {@link WeatherSDKConfig.Builder#sharedCache(boolean)}
+ * share one cache across API keys: a city fetched with one key is served to
+ * all of them until it expires. Each API call is attributed to the key that
+ * made it, see {@link #getSharedCacheFetchCount(String)}. The shared cache is
+ * created with the cache settings (capacity, weight, off-heap tier, grace
+ * period, negative cache TTL, snapshot file) of the first such instance; later
+ * instances must use the same settings or are rejected. A configured snapshot
+ * is restored when the shared cache is created and saved when its last
+ * instance is removed.
  */
 public class WeatherSDKFactory {
 
@@ -28,6 +39,9 @@ public class WeatherSDKFactory {
 
     private static final Map<String, WeatherSDK> instances = new ConcurrentHashMap<>();
 
+    // Guarded by the class lock
+    private static SharedCache sharedCache;
+
     private WeatherSDKFactory() {
         throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
     }
@@ -40,7 +54,25 @@ public class WeatherSDKFactory {
      * @return WeatherSDK instance
      * @throws WeatherSDKException if SDK creation failed or mode doesn't match
      */
-    public static synchronized WeatherSDK getInstance(String apiKey, OperationMode mode)
+    public static WeatherSDK getInstance(String apiKey, OperationMode mode)
+            throws WeatherSDKException {
+        return getInstance(apiKey, mode, WeatherSDKConfig.defaults());
+    }
+
+    /**
+     * Gets or creates WeatherSDK instance for specified API key with custom configuration.
+     * <p>
+     * The configuration is applied only when a new instance is created;
+     * an existing instance for the key is returned unchanged.
+     *
+     * @param apiKey OpenWeather API key
+     * @param mode SDK operation mode
+     * @param config SDK configuration
+     * @return WeatherSDK instance
+     * @throws WeatherSDKException if SDK creation failed, mode doesn't match or the
+     * configuration sets up the shared cache differently from the instances already using it
+     */
+    public static synchronized WeatherSDK getInstance(String apiKey, OperationMode mode, WeatherSDKConfig config)
             throws WeatherSDKException {
 
         if (apiKey == null || apiKey.trim().isEmpty()) {
@@ -51,6 +83,10 @@ public class WeatherSDKFactory {
             throw new WeatherSDKException("Operation mode cannot be null");
         }
 
+        if (config == null) {
+            throw new WeatherSDKException("Configuration cannot be null");
+        }
+
         String key = apiKey.trim();
 
         if (instances.containsKey(key)) {
@@ -69,7 +105,28 @@ public class WeatherSDKFactory {
         }
 
         // Create new instance
-        WeatherSDK newInstance = new WeatherSDK(key, mode);
+        WeatherSDK newInstance;
+        if (config.isSharedCache()) {
+            SharedCache cache = sharedCache;
+            if (cache == null) {
+                cache = new SharedCache(config);
+            } else {
+                cache.checkCompatible(config);
+            }
+            try {
+                newInstance = new WeatherSDK(key, mode, config, null, cache);
+            } catch (WeatherSDKException | RuntimeException e) {
+                // A cache created for this instance would be left without users, its snapshot thread running
+                if (cache != sharedCache) {
+                    cache.close();
+                }
+                throw e;
+            }
+            cache.acquire();
+            sharedCache = cache;
+        } else {
+            newInstance = new WeatherSDK(key, mode, config);
+        }
         instances.put(key, newInstance);
 
         LOGGER.log(Level.INFO, "Created new WeatherSDK instance for key: {0} in {1} mode",
@@ -94,6 +151,7 @@ public class WeatherSDKFactory {
 
         if (instance != null) {
             instance.close();
+            releaseSharedCache(instance);
             LOGGER.log(Level.INFO, "Removed WeatherSDK instance for key: {0}",
                     maskApiKey(key));
             return true;
@@ -108,6 +166,7 @@ public class WeatherSDKFactory {
     public static synchronized void removeAllInstances() {
         instances.forEach((key, sdk) -> {
             sdk.close();
+            releaseSharedCache(sdk);
             LOGGER.log(Level.INFO, "Closed WeatherSDK instance for key: {0}",
                     maskApiKey(key));
         });
@@ -135,6 +194,42 @@ public class WeatherSDKFactory {
         return instances.size();
     }
 
+    /**
+     * Returns number of API calls made with the key by instances sharing the cache.
+     *
+     * @param apiKey API key
+     * @return number of fetches the key paid for, 0 if no shared cache exists
+     */
+    public static synchronized long getSharedCacheFetchCount(String apiKey) {
+        if (apiKey == null || sharedCache == null) {
+            return 0;
+        }
+        return sharedCache.fetchCount(apiKey.trim());
+    }
+
+    /**
+     * Returns number of API calls made by instances sharing the cache, by masked API key.
+     *
+     * @return fetch counts keyed by masked API key, empty if no shared cache exists
+     */
+    public static synchronized Map<String, Long> getSharedCacheFetchCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        if (sharedCache != null) {
+            sharedCache.fetchesByKey().forEach((key, count) -> counts.merge(maskApiKey(key), count.sum(), Long::sum));
+        }
+        return counts;
+    }
+
+    /**
+     * Drops the instance's reference to the shared cache, discarding the cache after the last one.
+     * Caller must hold the class lock.
+     */
+    private static void releaseSharedCache(WeatherSDK instance) {
+        if (instance.getSharedCache() != null && instance.getSharedCache().release()) {
+            sharedCache = null;
+        }
+    }
+
     /**
      * Masks API key for safe logging.
      *
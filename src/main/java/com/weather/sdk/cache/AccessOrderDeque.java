@@ -0,0 +1,104 @@
+package com.weather.sdk.cache;
+
+/**
+ * Intrusive doubly linked list of cache nodes ordered from least to most
+ * recently used.
+ * <p>
+ * All operations are O(1). Not thread-safe: callers must hold the cache
+ * eviction lock.
+ */
+final class AccessOrderDeque {
+
+    private Node first;
+    private Node last;
+
+    /**
+     * Returns the least recently used node or null if the list is empty
+     */
+    Node peekFirst() {
+        return first;
+    }
+
+    /**
+     * Returns the most recently used node or null if the list is empty
+     */
+    Node peekLast() {
+        return last;
+    }
+
+    /**
+     * Checks if node is currently linked into this list
+     */
+    boolean contains(Node node) {
+        return node.prev != null || node.next != null || node == first;
+    }
+
+    /**
+     * Appends node as the most recently used one
+     */
+    void add(Node node) {
+        node.prev = last;
+        node.next = null;
+        if (last == null) {
+            first = node;
+        } else {
+            last.next = node;
+        }
+        last = node;
+    }
+
+    /**
+     * Moves an already linked node to the most recently used position
+     */
+    void moveToBack(Node node) {
+        if (node == last) {
+            return;
+        }
+        unlink(node);
+        add(node);
+    }
+
+    /**
+     * Unlinks node from the list
+     */
+    void remove(Node node) {
+        if (contains(node)) {
+            unlink(node);
+        }
+    }
+
+    /**
+     * Unlinks all nodes
+     */
+    void clear() {
+        Node node = first;
+        while (node != null) {
+            Node next = node.next;
+            node.prev = null;
+            node.next = null;
+            node = next;
+        }
+        first = null;
+        last = null;
+    }
+
+    private void unlink(Node node) {
+        Node prev = node.prev;
+        Node next = node.next;
+
+        if (prev == null) {
+            first = next;
+        } else {
+            prev.next = next;
+        }
+
+        if (next == null) {
+            last = prev;
+        } else {
+            next.prev = prev;
+        }
+
+        node.prev = null;
+        node.next = null;
+    }
+}
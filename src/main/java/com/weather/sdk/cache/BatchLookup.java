@@ -0,0 +1,51 @@
+package com.weather.sdk.cache;
+
+import com.weather.sdk.model.WeatherData;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable result of {@link WeatherCache#getAll(java.util.Collection)}:
+ * the requested cities split into hits with valid data and misses to be loaded.
+ * <p>
+ * City names are kept as passed by the caller, in request order, each at most once.
+ */
+public final class BatchLookup {
+
+    private final Map<String, WeatherData> hits;
+    private final List<String> misses;
+
+    BatchLookup(LinkedHashMap<String, WeatherData> hits, List<String> misses) {
+        this.hits = Collections.unmodifiableMap(hits);
+        this.misses = Collections.unmodifiableList(misses);
+    }
+
+    /**
+     * Returns valid cached data by city name
+     */
+    public Map<String, WeatherData> getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns names of cities that are not cached or whose data has expired
+     */
+    public List<String> getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns true if every requested city was a hit
+     */
+    public boolean isComplete() {
+        return misses.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchLookup{hits=" + hits.keySet() + ", misses=" + misses + '}';
+    }
+}
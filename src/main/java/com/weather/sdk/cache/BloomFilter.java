@@ -0,0 +1,75 @@
+package com.weather.sdk.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over precomputed 64-bit hashes.
+ * <p>
+ * Bits are set with atomic operations, so concurrent additions and lookups
+ * need no locking. {@link #clear()} racing with {@link #put(long)} may lose
+ * the addition, which only turns a future hit into a miss.
+ */
+final class BloomFilter {
+
+    private static final int BITS_PER_ELEMENT = 10;
+    private static final int HASH_FUNCTIONS = 7;
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+
+    /**
+     * Creates filter with a false positive probability of about 1% at the given number of elements
+     *
+     * @param expectedElements number of elements the filter is sized for
+     */
+    BloomFilter(int expectedElements) {
+        long bits = Math.max(64L, (long) expectedElements * BITS_PER_ELEMENT);
+        this.words = new AtomicLongArray((int) ((bits + 63) >>> 6));
+        this.bitCount = (long) words.length() << 6;
+    }
+
+    /**
+     * Adds an element by its hash
+     */
+    void put(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= HASH_FUNCTIONS; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    /**
+     * Checks if an element may have been added; false means it definitely was not
+     */
+    boolean mightContain(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= HASH_FUNCTIONS; i++) {
+            long bit = index(h1 + i * h2);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes all elements
+     */
+    void clear() {
+        for (int i = 0; i < words.length(); i++) {
+            words.set(i, 0L);
+        }
+    }
+
+    private long index(int combinedHash) {
+        return (combinedHash & Integer.MAX_VALUE) % bitCount;
+    }
+}
@@ -0,0 +1,139 @@
+package com.weather.sdk.cache;
+
+import com.weather.sdk.model.WeatherData;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Saves cache contents to a file and restores them, so a restarted process
+ * starts with a warm cache.
+ * <p>
+ * The file is a header (magic, version, entry count) followed by
+ * length-prefixed records in the {@link WeatherDataCodec} layout. It is
+ * written to a temporary file next to the target and atomically moved into
+ * place, so readers never observe a partial snapshot. It is read through a
+ * memory-mapped buffer; entries whose original timestamp plus TTL has passed
+ * are skipped without being decoded.
+ */
+public final class CacheSnapshot {
+
+    private static final int MAGIC = 0x57534E50; // "WSNP"
+    private static final short VERSION = 2;
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES + Integer.BYTES;
+
+    private CacheSnapshot() {}
+
+    /**
+     * Writes all entries of the cache that are still valid to the file, replacing it.
+     *
+     * @param cache cache to save
+     * @param file snapshot file
+     * @return number of entries written
+     * @throws IOException if the file cannot be written
+     */
+    public static int write(WeatherCache cache, Path file) throws IOException {
+        List<String> keys = new ArrayList<>();
+        List<WeatherData> values = new ArrayList<>();
+        int[] size = {HEADER_SIZE};
+        cache.forEach((key, data) -> {
+            if (data.isValid()) {
+                keys.add(key);
+                values.add(data);
+                size[0] += Integer.BYTES + WeatherDataCodec.encodedSize(key, data);
+            }
+        });
+
+        ByteBuffer buffer = ByteBuffer.allocate(size[0]);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putInt(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            int lengthPosition = buffer.position();
+            buffer.putInt(0);
+            WeatherDataCodec.encode(buffer, keys.get(i), values.get(i));
+            buffer.putInt(lengthPosition, buffer.position() - lengthPosition - Integer.BYTES);
+        }
+        buffer.flip();
+
+        Path target = file.toAbsolutePath();
+        Path directory = target.getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            move(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return keys.size();
+    }
+
+    /**
+     * Loads entries that have not expired yet from the file into the cache.
+     *
+     * @param cache cache to fill
+     * @param file snapshot file
+     * @return number of entries loaded, 0 if the file does not exist
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static int load(WeatherCache cache, Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a weather cache snapshot: " + file);
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+
+            int count = buffer.getInt();
+            long now = System.currentTimeMillis();
+            int loaded = 0;
+            for (int i = 0; i < count; i++) {
+                int length = buffer.getInt();
+                int next = buffer.position() + length;
+                String key = WeatherDataCodec.decodeKey(buffer);
+                if (WeatherDataCodec.expiresAtMillis(buffer, buffer.position()) > now) {
+                    cache.put(key, WeatherDataCodec.decodeData(buffer));
+                    loaded++;
+                }
+                buffer.position(next);
+            }
+            return loaded;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Corrupt snapshot: " + file, e);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.weather.sdk.cache;
+
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of cache statistics.
+ * <p>
+ * Counts are cumulative since the cache was created. Use {@link #minus(CacheStats)}
+ * on two snapshots to get the activity of an interval, e.g. for periodic reporting.
+ * Times are in nanoseconds.
+ */
+public final class CacheStats {
+
+    private static final CacheStats EMPTY = new CacheStats(0, 0, 0, 0, 0, 0, 0, 0);
+
+    private final long hitCount;
+    private final long missCount;
+    private final long expiryCount;
+    private final long evictionCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final long totalLoadTime;
+    private final long maxLoadTime;
+
+    /**
+     * Creates snapshot
+     *
+     * @param hitCount number of lookups that returned cached data
+     * @param missCount number of lookups that found no usable data
+     * @param expiryCount number of entries removed because they expired
+     * @param evictionCount number of entries evicted because the cache was full
+     * @param loadSuccessCount number of successful loads from the API
+     * @param loadFailureCount number of failed loads from the API
+     * @param totalLoadTime total nanoseconds spent loading
+     * @param maxLoadTime longest single load in nanoseconds
+     */
+    public CacheStats(long hitCount, long missCount, long expiryCount, long evictionCount,
+                      long loadSuccessCount, long loadFailureCount, long totalLoadTime, long maxLoadTime) {
+        if (hitCount < 0 || missCount < 0 || expiryCount < 0 || evictionCount < 0
+                || loadSuccessCount < 0 || loadFailureCount < 0 || totalLoadTime < 0 || maxLoadTime < 0) {
+            throw new IllegalArgumentException("Statistics cannot be negative");
+        }
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.expiryCount = expiryCount;
+        this.evictionCount = evictionCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadTime = totalLoadTime;
+        this.maxLoadTime = maxLoadTime;
+    }
+
+    /**
+     * Returns snapshot with all values zero
+     */
+    public static CacheStats empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns number of lookups that returned cached data (including stale data served during the grace period)
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns number of lookups that found no usable data
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns number of lookups
+     */
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * Returns ratio of hits to lookups, 1.0 if there were no lookups
+     */
+    public double getHitRate() {
+        long requests = getRequestCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * Returns ratio of misses to lookups, 0.0 if there were no lookups
+     */
+    public double getMissRate() {
+        long requests = getRequestCount();
+        return requests == 0 ? 0.0 : (double) missCount / requests;
+    }
+
+    /**
+     * Returns number of entries removed because they expired
+     */
+    public long getExpiryCount() {
+        return expiryCount;
+    }
+
+    /**
+     * Returns number of entries evicted because the cache was full
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns number of successful loads from the API
+     */
+    public long getLoadSuccessCount() {
+        return loadSuccessCount;
+    }
+
+    /**
+     * Returns number of failed loads from the API
+     */
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    /**
+     * Returns number of loads from the API
+     */
+    public long getLoadCount() {
+        return loadSuccessCount + loadFailureCount;
+    }
+
+    /**
+     * Returns ratio of failed loads to loads, 0.0 if there were no loads
+     */
+    public double getLoadFailureRate() {
+        long loads = getLoadCount();
+        return loads == 0 ? 0.0 : (double) loadFailureCount / loads;
+    }
+
+    /**
+     * Returns total nanoseconds spent loading
+     */
+    public long getTotalLoadTime() {
+        return totalLoadTime;
+    }
+
+    /**
+     * Returns average nanoseconds per load, 0.0 if there were no loads
+     */
+    public double getAverageLoadPenalty() {
+        long loads = getLoadCount();
+        return loads == 0 ? 0.0 : (double) totalLoadTime / loads;
+    }
+
+    /**
+     * Returns longest single load in nanoseconds
+     */
+    public long getMaxLoadTime() {
+        return maxLoadTime;
+    }
+
+    /**
+     * Returns the difference between this snapshot and an earlier one. Negative
+     * differences (e.g. across a restart) are clamped to zero. The maximum load
+     * time cannot be subtracted and is taken from this snapshot.
+     *
+     * @param other earlier snapshot
+     * @return statistics of the interval between the snapshots
+     */
+    public CacheStats minus(CacheStats other) {
+        return new CacheStats(
+                Math.max(0, hitCount - other.hitCount),
+                Math.max(0, missCount - other.missCount),
+                Math.max(0, expiryCount - other.expiryCount),
+                Math.max(0, evictionCount - other.evictionCount),
+                Math.max(0, loadSuccessCount - other.loadSuccessCount),
+                Math.max(0, loadFailureCount - other.loadFailureCount),
+                Math.max(0, totalLoadTime - other.totalLoadTime),
+                maxLoadTime);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CacheStats that = (CacheStats) o;
+        return hitCount == that.hitCount &&
+                missCount == that.missCount &&
+                expiryCount == that.expiryCount &&
+                evictionCount == that.evictionCount &&
+                loadSuccessCount == that.loadSuccessCount &&
+                loadFailureCount == that.loadFailureCount &&
+                totalLoadTime == that.totalLoadTime &&
+                maxLoadTime == that.maxLoadTime;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(hitCount, missCount, expiryCount, evictionCount,
+                loadSuccessCount, loadFailureCount, totalLoadTime, maxLoadTime);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", hitRate=" + String.format("%.3f", getHitRate()) +
+                ", expiryCount=" + expiryCount +
+                ", evictionCount=" + evictionCount +
+                ", loadSuccessCount=" + loadSuccessCount +
+                ", loadFailureCount=" + loadFailureCount +
+                ", totalLoadTime=" + totalLoadTime +
+                ", maxLoadTime=" + maxLoadTime +
+                '}';
+    }
+}
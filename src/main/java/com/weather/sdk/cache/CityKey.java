@@ -0,0 +1,142 @@
+package com.weather.sdk.cache;
+
+/**
+ * Case-insensitive cache key of a city name, ignoring leading and trailing whitespace.
+ * <p>
+ * Stored keys ({@link #of(String)}) hold the normalized name. Lookups use a
+ * per-thread {@link #lookup(String) probe} that points at the caller's string
+ * and folds case char by char while hashing and comparing, so finding an
+ * entry does not allocate. Both kinds hash and compare the same way, so a
+ * probe finds the stored key of any name differing only in case or
+ * surrounding whitespace.
+ * <p>
+ * Case folding is locale-independent and per char, as in
+ * {@link String#equalsIgnoreCase(String)}.
+ */
+final class CityKey {
+
+    private static final ThreadLocal<CityKey> PROBE = ThreadLocal.withInitial(CityKey::new);
+
+    // Characters are source[start, end); stored keys hold already folded characters
+    private String source;
+    private int start;
+    private int end;
+    private boolean folded;
+    private int hash;
+
+    private CityKey() {
+    }
+
+    /**
+     * Creates key to store in the cache
+     *
+     * @param cityName city name
+     * @return immutable key holding the normalized name
+     */
+    static CityKey of(String cityName) {
+        CityKey raw = new CityKey().reset(cityName);
+        char[] chars = new char[raw.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = raw.charAt(i);
+        }
+
+        CityKey key = new CityKey();
+        key.source = new String(chars);
+        key.end = chars.length;
+        key.folded = true;
+        key.hash = raw.hash;
+        return key;
+    }
+
+    /**
+     * Returns this thread's probe pointing at the city name. The probe is valid
+     * until the next call on the same thread and must not be stored; call
+     * {@link #release()} when done.
+     *
+     * @param cityName city name
+     * @return probe for map lookups
+     */
+    static CityKey lookup(String cityName) {
+        return PROBE.get().reset(cityName);
+    }
+
+    /**
+     * Drops the probe's reference to the looked up name
+     */
+    void release() {
+        source = null;
+    }
+
+    /**
+     * Returns the normalized name of a stored key
+     */
+    String name() {
+        return source;
+    }
+
+    private CityKey reset(String cityName) {
+        if (cityName == null) {
+            throw new IllegalArgumentException("City name cannot be null");
+        }
+        int from = 0;
+        int to = cityName.length();
+        // Same whitespace as String.trim()
+        while (from < to && cityName.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && cityName.charAt(to - 1) <= ' ') {
+            to--;
+        }
+
+        source = cityName;
+        start = from;
+        end = to;
+        folded = false;
+        int h = 0;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + CityNames.fold(cityName.charAt(i));
+        }
+        hash = h;
+        return this;
+    }
+
+    private int length() {
+        return end - start;
+    }
+
+    private char charAt(int index) {
+        char c = source.charAt(start + index);
+        return folded ? c : CityNames.fold(c);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CityKey)) {
+            return false;
+        }
+        CityKey other = (CityKey) o;
+        int length = length();
+        if (hash != other.hash || length != other.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (charAt(i) != other.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return source == null ? "" : source.substring(start, end);
+    }
+}
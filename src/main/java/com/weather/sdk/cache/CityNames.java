@@ -0,0 +1,43 @@
+package com.weather.sdk.cache;
+
+/**
+ * Normalization of city names, matching how {@link CityKey} compares them.
+ * <p>
+ * Every map keyed by city name (cache tiers, registries, the not-found cache)
+ * uses this normalization, so a name maps to the same key everywhere.
+ * Surrounding whitespace is removed as by {@link String#trim()} and case is
+ * folded per char without a locale, as in {@link String#equalsIgnoreCase(String)};
+ * {@link String#toLowerCase()} would depend on the default locale (e.g. the
+ * dotless i of Turkish) and disagree with the cache.
+ */
+public final class CityNames {
+
+    private CityNames() {
+    }
+
+    /**
+     * Returns the normalized city name
+     *
+     * @param cityName city name
+     * @return trimmed, case-folded name
+     * @throws IllegalArgumentException if the name is null
+     */
+    public static String normalize(String cityName) {
+        if (cityName == null) {
+            throw new IllegalArgumentException("City name cannot be null");
+        }
+        String trimmed = cityName.trim();
+        char[] chars = new char[trimmed.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = fold(trimmed.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Folds the case of one char, independently of the default locale
+     */
+    static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
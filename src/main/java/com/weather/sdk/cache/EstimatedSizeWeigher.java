@@ -0,0 +1,75 @@
+package com.weather.sdk.cache;
+
+import com.weather.sdk.model.WeatherData;
+import com.weather.sdk.model.WeatherResponse;
+
+/**
+ * Estimates the retained heap size of a cache entry in bytes.
+ * <p>
+ * Object sizes assume a 64-bit JVM with compressed references (12 byte
+ * headers, 4 byte references, 8 byte alignment). The estimate covers the
+ * key, the cache bookkeeping (map and policy nodes), {@link WeatherData}
+ * and the {@link WeatherResponse} graph including its strings.
+ */
+final class EstimatedSizeWeigher implements Weigher {
+
+    static final EstimatedSizeWeigher INSTANCE = new EstimatedSizeWeigher();
+
+    // ConcurrentHashMap node + policy Node
+    private static final int ENTRY_OVERHEAD = 32 + 56;
+    // WeatherData + its Instant timestamp
+    private static final int WEATHER_DATA_SIZE = 40 + 24;
+    private static final int RESPONSE_SIZE = 56;
+    private static final int WEATHER_SIZE = 24;
+    private static final int TEMPERATURE_SIZE = 32;
+    private static final int WIND_SIZE = 24;
+    private static final int SYS_SIZE = 32;
+    // String object + byte[] header
+    private static final int STRING_OVERHEAD = 24 + 16;
+
+    private EstimatedSizeWeigher() {}
+
+    @Override
+    public int weigh(String cityName, WeatherData data) {
+        long size = ENTRY_OVERHEAD + sizeOf(cityName) + WEATHER_DATA_SIZE;
+
+        WeatherResponse response = data.getWeatherResponse();
+        size += RESPONSE_SIZE + sizeOf(response.getName());
+        if (response.getWeather() != null) {
+            size += WEATHER_SIZE
+                    + sizeOf(response.getWeather().getMain())
+                    + sizeOf(response.getWeather().getDescription());
+        }
+        if (response.getTemperature() != null) {
+            size += TEMPERATURE_SIZE;
+        }
+        if (response.getWind() != null) {
+            size += WIND_SIZE;
+        }
+        if (response.getSys() != null) {
+            size += SYS_SIZE;
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns size of a string, stored as Latin-1 unless it contains other characters
+     */
+    private static long sizeOf(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int bytesPerChar = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return align(STRING_OVERHEAD + (long) value.length() * bytesPerChar);
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
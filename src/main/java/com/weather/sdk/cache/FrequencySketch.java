@@ -0,0 +1,126 @@
+package com.weather.sdk.cache;
+
+/**
+ * Count-min sketch estimating how often keys were accessed, used by the
+ * TinyLFU admission policy.
+ * <p>
+ * Each key maps to four 4-bit counters (saturating at 15) packed sixteen to a
+ * {@code long}. When the number of recorded increments reaches ten times the
+ * cache capacity all counters are halved, so the sketch forgets old history
+ * and adapts to a changing working set.
+ * <p>
+ * Not thread-safe: callers must hold the cache eviction lock.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEED = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int MIN_TABLE_SIZE = 64;
+    private static final int MAX_TABLE_SIZE = 1 << 30;
+
+    private long[] table;
+    private int tableMask;
+    private int sampleSize;
+    private int size;
+
+    /**
+     * Creates sketch sized for a cache of the given capacity
+     *
+     * @param maximumSize expected number of entries in the cache
+     */
+    FrequencySketch(long maximumSize) {
+        allocate(maximumSize);
+    }
+
+    /**
+     * Grows the sketch if it is too small for the given number of entries.
+     * Growing discards the recorded frequencies.
+     *
+     * @param maximumSize expected number of entries in the cache
+     */
+    void ensureCapacity(long maximumSize) {
+        if (maximumSize > table.length && table.length < MAX_TABLE_SIZE) {
+            allocate(maximumSize);
+        }
+    }
+
+    private void allocate(long maximumSize) {
+        int maximum = (int) Math.min(Math.max(maximumSize, MIN_TABLE_SIZE), MAX_TABLE_SIZE);
+        this.table = new long[ceilingPowerOfTwo(maximum)];
+        this.tableMask = table.length - 1;
+        this.sampleSize = (int) Math.min(10L * maximum, Integer.MAX_VALUE);
+        this.size = 0;
+    }
+
+    /**
+     * Returns estimated number of occurrences of the key, at most 15
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records an occurrence of the key, aging all counters periodically
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+
+        if (added && ++size == sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Halves every counter
+     */
+    private void reset() {
+        int oddCounters = 0;
+        for (int i = 0; i < table.length; i++) {
+            oddCounters += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size >>> 1) - (oddCounters >>> 2);
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEED[i]) * SEED[i];
+        h += h >>> 32;
+        return ((int) h) & tableMask;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        return 1 << (32 - Integer.numberOfLeadingZeros(value - 1));
+    }
+}
@@ -0,0 +1,209 @@
+package com.weather.sdk.cache;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Remembers city names the API recently rejected as not found, so repeated
+ * requests for them fail fast instead of making an HTTP round trip.
+ * <p>
+ * Lookups first consult a pair of rotating {@link BloomFilter}s hashed over
+ * the raw name (trimmed and case-folded character by character), which
+ * answers "definitely not rejected" for the common case without allocating.
+ * Only possible matches are confirmed against an exact map of normalized
+ * names to their expiry deadline, so a false positive never rejects a valid
+ * city.
+ * <p>
+ * The filters rotate every TTL: names go into the current generation and are
+ * looked up in both, so a name stays in the filter for at least one TTL while
+ * older names age out without removing individual elements.
+ */
+public final class NegativeCache {
+
+    /**
+     * Default maximum number of remembered names
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long ttlNanos;
+    private final int maximumSize;
+    private final ConcurrentHashMap<String, Long> rejected;
+    private final ReentrantLock rotationLock;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+    private volatile long generationStartNanos;
+
+    /**
+     * Creates negative cache with the default maximum size
+     *
+     * @param ttl how long a rejected name is remembered; zero disables the cache
+     */
+    public NegativeCache(Duration ttl) {
+        this(ttl, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Creates negative cache
+     *
+     * @param ttl how long a rejected name is remembered; zero disables the cache
+     * @param maximumSize maximum number of remembered names
+     */
+    public NegativeCache(Duration ttl, int maximumSize) {
+        if (ttl == null || ttl.isNegative()) {
+            throw new IllegalArgumentException("Negative cache TTL cannot be null or negative");
+        }
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Negative cache size must be positive");
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.maximumSize = maximumSize;
+        this.rejected = new ConcurrentHashMap<>();
+        this.rotationLock = new ReentrantLock();
+        this.current = new BloomFilter(maximumSize);
+        this.previous = new BloomFilter(maximumSize);
+        this.generationStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Checks if the city was rejected as not found less than a TTL ago.
+     * Does not allocate unless the name passes the Bloom filter.
+     *
+     * @param cityName city name as passed by the caller
+     * @return true if the city is known not to exist
+     */
+    public boolean isRejected(String cityName) {
+        if (ttlNanos == 0 || cityName == null) {
+            return false;
+        }
+        long now = System.nanoTime();
+        rotateIfNeeded(now);
+
+        long hash = hash(cityName);
+        if (!current.mightContain(hash) && !previous.mightContain(hash)) {
+            return false;
+        }
+
+        String key = CityNames.normalize(cityName);
+        Long expiresAt = rejected.get(key);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (now - expiresAt >= 0) {
+            rejected.remove(key, expiresAt);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Remembers that the API rejected the city as not found
+     *
+     * @param cityName city name
+     */
+    public void put(String cityName) {
+        if (ttlNanos == 0 || cityName == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        rotateIfNeeded(now);
+
+        String key = CityNames.normalize(cityName);
+        if (rejected.size() >= maximumSize && !rejected.containsKey(key)) {
+            purgeExpired(now);
+            if (rejected.size() >= maximumSize) {
+                return;
+            }
+        }
+        rejected.put(key, now + ttlNanos);
+        current.put(hash(key));
+    }
+
+    /**
+     * Forgets a rejected city, e.g. after it was found after all
+     *
+     * @param cityName city name
+     */
+    public void remove(String cityName) {
+        if (cityName != null) {
+            rejected.remove(CityNames.normalize(cityName));
+        }
+    }
+
+    /**
+     * Forgets all rejected cities
+     */
+    public void clear() {
+        rotationLock.lock();
+        try {
+            rejected.clear();
+            current.clear();
+            previous.clear();
+            generationStartNanos = System.nanoTime();
+        } finally {
+            rotationLock.unlock();
+        }
+    }
+
+    /**
+     * Returns number of remembered names, including expired ones not yet purged
+     */
+    public int size() {
+        return rejected.size();
+    }
+
+    /**
+     * Starts a new filter generation once per TTL, dropping the oldest one and expired names.
+     */
+    private void rotateIfNeeded(long now) {
+        if (now - generationStartNanos < ttlNanos || !rotationLock.tryLock()) {
+            return;
+        }
+        try {
+            if (now - generationStartNanos >= ttlNanos) {
+                BloomFilter oldest = previous;
+                oldest.clear();
+                previous = current;
+                current = oldest;
+                generationStartNanos = now;
+                purgeExpired(now);
+            }
+        } finally {
+            rotationLock.unlock();
+        }
+    }
+
+    private void purgeExpired(long now) {
+        rejected.values().removeIf(expiresAt -> now - expiresAt >= 0);
+    }
+
+    /**
+     * Hashes the trimmed, case-folded name without creating intermediate strings
+     */
+    private static long hash(String cityName) {
+        int start = 0;
+        int end = cityName.length();
+        while (start < end && cityName.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && cityName.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = start; i < end; i++) {
+            char c = CityNames.fold(cityName.charAt(i));
+            hash = (hash ^ c) * FNV_PRIME;
+        }
+        // Final avalanche so both 32-bit halves are well distributed
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,41 @@
+package com.weather.sdk.cache;
+
+import com.weather.sdk.model.WeatherData;
+
+/**
+ * Cache entry holding the key, the current value and the intrusive links
+ * of its eviction policy segment and the expiration timer wheel.
+ * <p>
+ * The value is published through a volatile field so that readers never
+ * need a lock. The links and the scheduled expiry time are guarded by the
+ * cache eviction lock.
+ */
+final class Node {
+
+    static final byte WINDOW = 0;
+    static final byte PROBATION = 1;
+    static final byte PROTECTED = 2;
+
+    final CityKey key;
+    volatile WeatherData value;
+
+    // Policy segment the node belongs to: WINDOW, PROBATION or PROTECTED
+    byte queueType;
+    int weight;
+    Node prev;
+    Node next;
+
+    long expiresAtNanos;
+    Node prevInTime;
+    Node nextInTime;
+
+    Node(CityKey key, WeatherData value) {
+        this(key, value, 1);
+    }
+
+    Node(CityKey key, WeatherData value, int weight) {
+        this.key = key;
+        this.value = value;
+        this.weight = weight;
+    }
+}
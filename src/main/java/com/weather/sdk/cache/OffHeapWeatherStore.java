@@ -0,0 +1,395 @@
+package com.weather.sdk.cache;
+
+import com.weather.sdk.model.WeatherData;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Weather store keeping entries outside the Java heap.
+ * <p>
+ * Entries are encoded into fixed-size slots of direct {@link ByteBuffer}
+ * slabs, allocated as the store fills up. The index is an open-addressing
+ * hash table over primitive {@code int} arrays, so neither keys nor entries
+ * are heap objects and heap use does not grow with the number of cities.
+ * Reads decode the slot into a new {@link WeatherData}.
+ * <p>
+ * Slot layout:
+ * <pre>
+ * hash      int     hash of the normalized city name
+ * length    short   number of chars in the city name
+ * name      char[]  normalized city name
+ * data      {@link WeatherDataCodec} data part
+ * </pre>
+ * Entries that do not fit into a slot are not stored. When all slots are in
+ * use, a victim is chosen with the CLOCK algorithm: each read sets the slot's
+ * reference bit and the clock hand evicts the first slot whose bit is clear,
+ * clearing bits as it passes.
+ * <p>
+ * Thread-safe: reads share a read lock, writes take the write lock.
+ */
+public final class OffHeapWeatherStore implements WeatherStore {
+
+    /**
+     * Default slot size in bytes, enough for typical responses with long city names
+     */
+    public static final int DEFAULT_SLOT_SIZE = 256;
+
+    private static final int MIN_SLOT_SIZE = 64;
+    private static final int SLAB_SIZE = 1 << 20;
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES;
+    private static final int MAX_KEY_LENGTH = 0xFFFF;
+    private static final int EMPTY = -1;
+
+    private final int maximumSize;
+    private final int slotSize;
+    private final int slotsPerSlab;
+    private final ByteBuffer[] slabs;
+
+    // Index: open addressing with linear probing, slot number or EMPTY
+    private final int[] indexSlots;
+    private final int[] indexHashes;
+    private final int indexMask;
+
+    private final int[] freeSlots;
+    private final byte[] referenced;
+    private final ReadWriteLock lock;
+    private int freeCount;
+    private int allocatedSlots;
+    private int clockHand;
+    private int size;
+    private volatile long evictionCount;
+
+    /**
+     * Creates store with the default slot size
+     *
+     * @param maximumSize maximum number of cities
+     */
+    public OffHeapWeatherStore(int maximumSize) {
+        this(maximumSize, DEFAULT_SLOT_SIZE);
+    }
+
+    /**
+     * Creates store
+     *
+     * @param maximumSize maximum number of cities
+     * @param slotSize bytes reserved for each city; larger entries are not stored
+     */
+    public OffHeapWeatherStore(int maximumSize, int slotSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Store size must be positive");
+        }
+        if (slotSize < MIN_SLOT_SIZE || slotSize > SLAB_SIZE) {
+            throw new IllegalArgumentException("Slot size must be between " + MIN_SLOT_SIZE + " and " + SLAB_SIZE);
+        }
+        this.maximumSize = maximumSize;
+        this.slotSize = slotSize;
+        this.slotsPerSlab = SLAB_SIZE / slotSize;
+        this.slabs = new ByteBuffer[(maximumSize + slotsPerSlab - 1) / slotsPerSlab];
+
+        int indexCapacity = Integer.highestOneBit(Math.max(2, maximumSize) - 1) << 2;
+        this.indexSlots = new int[indexCapacity];
+        this.indexHashes = new int[indexCapacity];
+        this.indexMask = indexCapacity - 1;
+        Arrays.fill(indexSlots, EMPTY);
+
+        this.freeSlots = new int[maximumSize];
+        this.referenced = new byte[maximumSize];
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    @Override
+    public WeatherData get(String cityName) {
+        String key = CityNames.normalize(cityName);
+        int hash = hash(key);
+
+        lock.readLock().lock();
+        try {
+            int slot = findSlot(key, hash);
+            if (slot == EMPTY) {
+                return null;
+            }
+            ByteBuffer slab = slabOf(slot);
+            int dataOffset = offsetOf(slot) + HEADER_SIZE + key.length() * Character.BYTES;
+            if (WeatherDataCodec.expiresAtMillis(slab, dataOffset) <= System.currentTimeMillis()) {
+                return null;
+            }
+            referenced[slot] = 1;
+
+            ByteBuffer view = slab.duplicate();
+            view.position(dataOffset);
+            return WeatherDataCodec.decodeData(view);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(String cityName, WeatherData data) {
+        if (data == null) {
+            throw new IllegalArgumentException("WeatherData cannot be null");
+        }
+        String key = CityNames.normalize(cityName);
+        int hash = hash(key);
+        boolean fits = key.length() <= MAX_KEY_LENGTH && HEADER_SIZE + key.length() * Character.BYTES
+                + WeatherDataCodec.encodedDataSize(data) <= slotSize;
+
+        lock.writeLock().lock();
+        try {
+            int slot = findSlot(key, hash);
+            if (!fits) {
+                // Do not keep the previous, now outdated, data
+                if (slot != EMPTY) {
+                    removeSlot(slot, hash);
+                }
+                return;
+            }
+            if (slot == EMPTY) {
+                slot = allocateSlot();
+                insertIndex(hash, slot);
+                size++;
+            }
+            write(slot, key, hash, data);
+            referenced[slot] = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String cityName) {
+        String key = CityNames.normalize(cityName);
+        int hash = hash(key);
+
+        lock.writeLock().lock();
+        try {
+            int slot = findSlot(key, hash);
+            if (slot != EMPTY) {
+                removeSlot(slot, hash);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            Arrays.fill(indexSlots, EMPTY);
+            Arrays.fill(referenced, (byte) 0);
+            // Slabs stay allocated and are reused in slot order
+            freeCount = 0;
+            for (int slot = allocatedSlots - 1; slot >= 0; slot--) {
+                freeSlots[freeCount++] = slot;
+            }
+            clockHand = 0;
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Performs the action for every city with valid data. Entries are decoded
+     * under the read lock and passed to the action after it is released, so
+     * the action may write to the store.
+     */
+    @Override
+    public void forEach(BiConsumer<String, WeatherData> action) {
+        List<String> names = new ArrayList<>();
+        List<WeatherData> entries = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        lock.readLock().lock();
+        try {
+            for (int slot : indexSlots) {
+                if (slot == EMPTY) {
+                    continue;
+                }
+                ByteBuffer view = slabOf(slot).duplicate();
+                view.position(offsetOf(slot) + Integer.BYTES);
+                char[] name = new char[Short.toUnsignedInt(view.getShort())];
+                for (int i = 0; i < name.length; i++) {
+                    name[i] = view.getChar();
+                }
+                if (WeatherDataCodec.expiresAtMillis(view, view.position()) > now) {
+                    names.add(new String(name));
+                    entries.add(WeatherDataCodec.decodeData(view));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (int i = 0; i < names.size(); i++) {
+            action.accept(names.get(i), entries.get(i));
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns number of bytes allocated off-heap
+     */
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (ByteBuffer slab : slabs) {
+                if (slab != null) {
+                    bytes += slab.capacity();
+                }
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns maximum number of cities
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Finds the slot holding the key, comparing stored names char by char. Caller must hold the lock.
+     */
+    private int findSlot(String key, int hash) {
+        for (int i = hash & indexMask; ; i = (i + 1) & indexMask) {
+            int slot = indexSlots[i];
+            if (slot == EMPTY) {
+                return EMPTY;
+            }
+            if (indexHashes[i] == hash && keyEquals(slot, key)) {
+                return slot;
+            }
+        }
+    }
+
+    private boolean keyEquals(int slot, String key) {
+        ByteBuffer slab = slabOf(slot);
+        int offset = offsetOf(slot) + Integer.BYTES;
+        if (Short.toUnsignedInt(slab.getShort(offset)) != key.length()) {
+            return false;
+        }
+        offset += Short.BYTES;
+        for (int i = 0; i < key.length(); i++) {
+            if (slab.getChar(offset + i * Character.BYTES) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void insertIndex(int hash, int slot) {
+        int i = hash & indexMask;
+        while (indexSlots[i] != EMPTY) {
+            i = (i + 1) & indexMask;
+        }
+        indexSlots[i] = slot;
+        indexHashes[i] = hash;
+    }
+
+    /**
+     * Removes the index entry of the slot, shifting later entries of the probe
+     * sequence back so lookups never need tombstones.
+     */
+    private void removeIndex(int hash, int slot) {
+        int i = hash & indexMask;
+        while (indexSlots[i] != slot) {
+            i = (i + 1) & indexMask;
+        }
+
+        int hole = i;
+        for (int j = (hole + 1) & indexMask; indexSlots[j] != EMPTY; j = (j + 1) & indexMask) {
+            int home = indexHashes[j] & indexMask;
+            // Move entry j into the hole unless its home lies cyclically in (hole, j]
+            boolean homeBetween = hole <= j ? (hole < home && home <= j) : (hole < home || home <= j);
+            if (!homeBetween) {
+                indexSlots[hole] = indexSlots[j];
+                indexHashes[hole] = indexHashes[j];
+                hole = j;
+            }
+        }
+        indexSlots[hole] = EMPTY;
+    }
+
+    private void removeSlot(int slot, int hash) {
+        removeIndex(hash, slot);
+        referenced[slot] = 0;
+        freeSlots[freeCount++] = slot;
+        size--;
+    }
+
+    /**
+     * Returns a free slot, allocating a new slab or evicting an entry if needed. Caller must hold the write lock.
+     */
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (allocatedSlots < maximumSize) {
+            int slot = allocatedSlots++;
+            int slabIndex = slot / slotsPerSlab;
+            if (slabs[slabIndex] == null) {
+                int slots = Math.min(slotsPerSlab, maximumSize - slabIndex * slotsPerSlab);
+                slabs[slabIndex] = ByteBuffer.allocateDirect(slots * slotSize);
+            }
+            return slot;
+        }
+
+        // Full: CLOCK sweep for a slot that was not read since the hand last passed it
+        while (referenced[clockHand] != 0) {
+            referenced[clockHand] = 0;
+            clockHand = (clockHand + 1) % maximumSize;
+        }
+        int victim = clockHand;
+        clockHand = (clockHand + 1) % maximumSize;
+        removeSlot(victim, slabOf(victim).getInt(offsetOf(victim)));
+        evictionCount++;
+        return freeSlots[--freeCount];
+    }
+
+    private void write(int slot, String key, int hash, WeatherData data) {
+        ByteBuffer view = slabOf(slot).duplicate();
+        view.position(offsetOf(slot));
+        view.putInt(hash);
+        view.putShort((short) key.length());
+        for (int i = 0; i < key.length(); i++) {
+            view.putChar(key.charAt(i));
+        }
+        WeatherDataCodec.encodeData(view, data);
+    }
+
+    private ByteBuffer slabOf(int slot) {
+        return slabs[slot / slotsPerSlab];
+    }
+
+    private int offsetOf(int slot) {
+        return (slot % slotsPerSlab) * slotSize;
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,115 @@
+package com.weather.sdk.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Striped, lossy buffer of recent cache reads.
+ * <p>
+ * Readers record accessed nodes without taking a lock; the buffer is drained
+ * by whoever holds the eviction lock and the accesses are replayed against the
+ * access order list. When a stripe is full or contended the access is simply
+ * dropped, which is why the resulting LRU order is approximate.
+ */
+final class ReadBuffer {
+
+    /**
+     * Result of {@link #offer(Node)}: the access was recorded
+     */
+    static final int SUCCESS = 0;
+
+    /**
+     * Result of {@link #offer(Node)}: the stripe is full and should be drained
+     */
+    static final int FULL = 1;
+
+    /**
+     * Result of {@link #offer(Node)}: the access was dropped due to contention
+     */
+    static final int FAILED = 2;
+
+    private static final int STRIPE_CAPACITY = 16;
+    private static final int STRIPE_MASK = STRIPE_CAPACITY - 1;
+    private static final int MAX_STRIPES = 64;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    ReadBuffer() {
+        int stripeCount = Math.min(MAX_STRIPES,
+                ceilingPowerOfTwo(4 * Runtime.getRuntime().availableProcessors()));
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = stripeCount - 1;
+    }
+
+    /**
+     * Records a read of the given node.
+     *
+     * @param node accessed node
+     * @return SUCCESS, FULL or FAILED
+     */
+    int offer(Node node) {
+        return stripes[probe() & stripeMask].offer(node);
+    }
+
+    /**
+     * Replays all buffered reads. Must be called under the eviction lock.
+     *
+     * @param consumer action applied to each buffered node
+     */
+    void drainTo(Consumer<Node> consumer) {
+        for (Stripe stripe : stripes) {
+            stripe.drainTo(consumer);
+        }
+    }
+
+    private static int probe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        return 1 << (32 - Integer.numberOfLeadingZeros(Math.max(1, value) - 1));
+    }
+
+    private static final class Stripe {
+
+        private final AtomicReferenceArray<Node> buffer = new AtomicReferenceArray<>(STRIPE_CAPACITY);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter;
+
+        int offer(Node node) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            long size = tail - head;
+            if (size >= STRIPE_CAPACITY) {
+                return FULL;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                buffer.lazySet((int) (tail & STRIPE_MASK), node);
+                return size + 1 >= STRIPE_CAPACITY ? FULL : SUCCESS;
+            }
+            return FAILED;
+        }
+
+        void drainTo(Consumer<Node> consumer) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            for (; head < tail; head++) {
+                int index = (int) (head & STRIPE_MASK);
+                Node node = buffer.get(index);
+                if (node == null) {
+                    // Slot claimed but not yet published by the writer
+                    break;
+                }
+                buffer.lazySet(index, null);
+                consumer.accept(node);
+            }
+            readCounter = head;
+        }
+    }
+}
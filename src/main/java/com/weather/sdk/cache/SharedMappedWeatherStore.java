@@ -0,0 +1,543 @@
+package com.weather.sdk.cache;
+
+import com.weather.sdk.model.WeatherData;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Weather store in a memory-mapped file shared by all processes on a host
+ * that open the same file. Data stored by one process is visible to the
+ * others as soon as {@link #put} returns, so a fleet of local JVMs fetches
+ * each city once.
+ * <p>
+ * The file is a header followed by fixed-size slots grouped into sets of
+ * {@value #WAYS}. A city can only live in the set its hash selects; a new
+ * city replaces a free slot of the set, else the entry that expires first.
+ * Entries that do not fit into a slot are not stored.
+ * <p>
+ * Each slot is guarded by a sequence lock: a 64-bit counter that writers
+ * make odd with a compare-and-set before changing the slot and even again
+ * afterwards. Readers never write to the file and never block: they read
+ * the counter, copy the slot and retry if the counter was odd or changed
+ * meanwhile. Writers of the same slot, in any process, exclude each other
+ * through the compare-and-set. A writer that dies mid-update leaves the slot
+ * locked: later puts of its cities give up after a short timeout and are not
+ * cached until {@link #clear()} is called or the file is recreated.
+ * <p>
+ * Header layout:
+ * <pre>
+ * magic          int
+ * version        int
+ * slot count     int
+ * slot size      int
+ * evictions      long    shared by all processes
+ * </pre>
+ * Slot layout:
+ * <pre>
+ * sequence       long    native byte order, odd while being written
+ * hash           int     hash of the normalized city name
+ * length         short   number of chars in the city name, 0 if the slot is free
+ * (padding)      short
+ * name           char[]  normalized city name
+ * data           {@link WeatherDataCodec} data part
+ * </pre>
+ * City names are normalized by trimming and folding case char by char, so
+ * that processes with different default locales agree on the keys.
+ * <p>
+ * Lookups scan the {@value #WAYS} slots of one set; {@link #size()} scans the
+ * whole file. The mapping is released when the store is garbage collected.
+ */
+public final class SharedMappedWeatherStore implements WeatherStore {
+
+    /**
+     * Default slot size in bytes, enough for typical responses with long city names
+     */
+    public static final int DEFAULT_SLOT_SIZE = 256;
+
+    static final int WAYS = 8;
+
+    private static final int MAGIC = 0x57534D46; // "WSMF"
+    private static final int VERSION = 2;
+    private static final int FILE_HEADER_SIZE = 64;
+    private static final int EVICTIONS_OFFSET = 16;
+    private static final int MIN_SLOT_SIZE = 64;
+    private static final int SLOT_HEADER_SIZE = Long.BYTES + Integer.BYTES + Short.BYTES + Short.BYTES;
+    private static final int HASH_OFFSET = Long.BYTES;
+    private static final int LENGTH_OFFSET = HASH_OFFSET + Integer.BYTES;
+    private static final int MAX_KEY_LENGTH = 0xFFFF;
+    private static final int MAX_READ_ATTEMPTS = 64;
+    private static final int SPINS_BEFORE_YIELD = 100;
+    private static final long LOCK_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    // FileLock is per process, so opening threads of this process are serialized here
+    private static final Object OPEN_LOCK = new Object();
+
+    private final Path file;
+    private final int slotCount;
+    private final int slotSize;
+    private final int setCount;
+    private final MappedByteBuffer buffer;
+
+    /**
+     * Opens or creates a shared store with the default slot size
+     *
+     * @param file backing file, shared by all processes using the store
+     * @param maximumSize maximum number of cities
+     * @throws IOException if the file cannot be mapped or was created with a different size
+     */
+    public SharedMappedWeatherStore(Path file, int maximumSize) throws IOException {
+        this(file, maximumSize, DEFAULT_SLOT_SIZE);
+    }
+
+    /**
+     * Opens or creates a shared store. All processes must use the same size and slot size.
+     *
+     * @param file backing file, shared by all processes using the store
+     * @param maximumSize maximum number of cities, rounded up to a multiple of {@value #WAYS}
+     * @param slotSize bytes reserved for each city, rounded up to a multiple of 8; larger entries are not stored
+     * @throws IOException if the file cannot be mapped or was created with a different size
+     */
+    public SharedMappedWeatherStore(Path file, int maximumSize, int slotSize) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Store size must be positive");
+        }
+        if (slotSize < MIN_SLOT_SIZE) {
+            throw new IllegalArgumentException("Slot size must be at least " + MIN_SLOT_SIZE);
+        }
+        this.file = file;
+        this.slotSize = (slotSize + Long.BYTES - 1) & -Long.BYTES;
+        this.setCount = (maximumSize + WAYS - 1) / WAYS;
+        this.slotCount = setCount * WAYS;
+        long fileSize = FILE_HEADER_SIZE + (long) slotCount * this.slotSize;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Store size times slot size must be below 2 GiB");
+        }
+        this.buffer = map(fileSize);
+    }
+
+    private MappedByteBuffer map(long fileSize) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        synchronized (OPEN_LOCK) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // Other processes wait while the file is sized and the header written
+                FileLock lock = channel.lock();
+                try {
+                    return mapLocked(channel, fileSize);
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    private MappedByteBuffer mapLocked(FileChannel channel, long fileSize) throws IOException {
+        boolean created = channel.size() == 0;
+        if (!created && channel.size() != fileSize) {
+            throw new IOException("Shared cache file " + file + " has size " + channel.size()
+                    + ", expected " + fileSize + " for this store size and slot size");
+        }
+        // A new file is zero-filled: every slot is free and unlocked
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        if (created) {
+            mapped.putInt(4, VERSION);
+            mapped.putInt(8, slotCount);
+            mapped.putInt(12, slotSize);
+            mapped.putInt(0, MAGIC);
+        } else {
+            validateHeader(mapped);
+        }
+        return mapped;
+    }
+
+    private void validateHeader(ByteBuffer mapped) throws IOException {
+        if (mapped.getInt(0) != MAGIC) {
+            throw new IOException("Not a shared weather cache file: " + file);
+        }
+        if (mapped.getInt(4) != VERSION) {
+            throw new IOException("Unsupported shared cache version " + mapped.getInt(4) + ": " + file);
+        }
+        if (mapped.getInt(8) != slotCount || mapped.getInt(12) != slotSize) {
+            throw new IOException("Shared cache file " + file + " was created with " + mapped.getInt(8)
+                    + " slots of " + mapped.getInt(12) + " bytes, expected " + slotCount + " of " + slotSize);
+        }
+    }
+
+    @Override
+    public WeatherData get(String cityName) {
+        String key = CityNames.normalize(cityName);
+        int hash = hash(key);
+        int first = firstSlotOf(hash);
+
+        // A racing put of the same city into two free slots can leave duplicates: take the freshest
+        WeatherData result = null;
+        long now = System.currentTimeMillis();
+        for (int slot = first; slot < first + WAYS; slot++) {
+            WeatherData data = read(slot, key, hash, now);
+            if (data != null && (result == null || data.getExpiresAtNanos() - result.getExpiresAtNanos() > 0)) {
+                result = data;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void put(String cityName, WeatherData data) {
+        if (data == null) {
+            throw new IllegalArgumentException("WeatherData cannot be null");
+        }
+        String key = CityNames.normalize(cityName);
+        int hash = hash(key);
+        int first = firstSlotOf(hash);
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH || SLOT_HEADER_SIZE + key.length() * Character.BYTES
+                + WeatherDataCodec.encodedDataSize(data) > slotSize) {
+            // Do not keep the previous, now outdated, data
+            removeAll(first, key, hash);
+            return;
+        }
+
+        long[] sequences = new long[WAYS];
+        long start = System.nanoTime();
+        for (int attempt = 0; System.nanoTime() - start < LOCK_TIMEOUT_NANOS; attempt++) {
+            int slot = chooseSlot(first, key, hash, sequences);
+            // The CAS fails if the slot changed since it was chosen
+            if (slot < 0 || !LONGS.compareAndSet(buffer, offsetOf(slot), sequences[slot - first],
+                    sequences[slot - first] + 1)) {
+                backOff(attempt);
+                continue;
+            }
+            long sequence = sequences[slot - first];
+            try {
+                if (isLive(slot) && !keyEquals(slot, key, hash)) {
+                    LONGS.getAndAdd(buffer, EVICTIONS_OFFSET, 1L);
+                }
+                write(slot, key, hash, data);
+            } finally {
+                LONGS.setRelease(buffer, offsetOf(slot), sequence + 2);
+            }
+            return;
+        }
+        // The slot stays locked, most likely by a process that died while writing: skip caching
+    }
+
+    @Override
+    public void remove(String cityName) {
+        String key = CityNames.normalize(cityName);
+        int hash = hash(key);
+        removeAll(firstSlotOf(hash), key, hash);
+    }
+
+    /**
+     * Frees every slot. A slot that stays locked for the whole lock timeout is
+     * assumed to belong to a process that died while writing and is unlocked.
+     */
+    @Override
+    public void clear() {
+        for (int slot = 0; slot < slotCount; slot++) {
+            int offset = offsetOf(slot);
+            long sequence = lock(offset);
+            buffer.putShort(offset + LENGTH_OFFSET, (short) 0);
+            LONGS.setRelease(buffer, offset, (sequence | 1) + 1);
+        }
+    }
+
+    /**
+     * Spins until the slot's sequence lock is acquired or the lock timeout passes
+     *
+     * @return sequence number before locking; odd if the timeout passed
+     */
+    private long lock(int offset) {
+        long start = System.nanoTime();
+        long sequence = (long) LONGS.getAcquire(buffer, offset);
+        for (int attempt = 0; System.nanoTime() - start < LOCK_TIMEOUT_NANOS; attempt++) {
+            if ((sequence & 1) == 0 && LONGS.compareAndSet(buffer, offset, sequence, sequence + 1)) {
+                return sequence;
+            }
+            backOff(attempt);
+            sequence = (long) LONGS.getAcquire(buffer, offset);
+        }
+        return sequence;
+    }
+
+    /**
+     * Busy-waits briefly, then yields so a descheduled lock holder can finish
+     */
+    private static void backOff(int attempt) {
+        if (attempt < SPINS_BEFORE_YIELD) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Performs the action for every city with valid data, scanning all slots.
+     * A slot that is being written throughout the scan is skipped.
+     */
+    @Override
+    public void forEach(BiConsumer<String, WeatherData> action) {
+        long now = System.currentTimeMillis();
+        String[] name = new String[1];
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (!isLive(slot)) {
+                continue;
+            }
+            WeatherData data = readEntry(slot, now, name);
+            if (data != null) {
+                action.accept(name[0], data);
+            }
+        }
+    }
+
+    /**
+     * Returns number of cities with valid data, counted by scanning all slots
+     */
+    @Override
+    public int size() {
+        long now = System.currentTimeMillis();
+        int size = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (isLive(slot) && expiresAtMillis(slot) > now) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns number of entries replaced to make room for other cities, by all processes
+     */
+    @Override
+    public long evictionCount() {
+        return (long) LONGS.getVolatile(buffer, EVICTIONS_OFFSET);
+    }
+
+    /**
+     * Returns maximum number of cities
+     */
+    public int getMaximumSize() {
+        return slotCount;
+    }
+
+    /**
+     * Returns backing file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Reads a slot under its sequence lock.
+     *
+     * @return data if the slot holds the key and has not expired, otherwise null
+     */
+    private WeatherData read(int slot, String key, int hash, long nowMillis) {
+        int offset = offsetOf(slot);
+        for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            long sequence = (long) LONGS.getAcquire(buffer, offset);
+            if ((sequence & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            WeatherData data = null;
+            boolean torn = false;
+            try {
+                if (keyEquals(slot, key, hash)) {
+                    int dataOffset = offset + SLOT_HEADER_SIZE + key.length() * Character.BYTES;
+                    if (WeatherDataCodec.expiresAtMillis(buffer, dataOffset) > nowMillis) {
+                        ByteBuffer view = buffer.duplicate();
+                        view.position(dataOffset);
+                        data = WeatherDataCodec.decodeData(view);
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Decoded a concurrent write halfway; the sequence check below rejects it
+                torn = true;
+            }
+
+            VarHandle.loadLoadFence();
+            if ((long) LONGS.getVolatile(buffer, offset) == sequence && !torn) {
+                return data;
+            }
+        }
+        // Slot is written continuously or stays locked: treat as a miss
+        return null;
+    }
+
+    /**
+     * Reads whichever entry a slot holds under its sequence lock.
+     *
+     * @param name receives the city name of the entry at index 0
+     * @return data if the slot holds an entry that has not expired, otherwise null
+     */
+    private WeatherData readEntry(int slot, long nowMillis, String[] name) {
+        int offset = offsetOf(slot);
+        for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            long sequence = (long) LONGS.getAcquire(buffer, offset);
+            if ((sequence & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            WeatherData data = null;
+            boolean torn = false;
+            try {
+                ByteBuffer view = buffer.duplicate();
+                view.position(offset + LENGTH_OFFSET);
+                char[] chars = new char[Short.toUnsignedInt(view.getShort())];
+                view.position(offset + SLOT_HEADER_SIZE);
+                for (int i = 0; i < chars.length; i++) {
+                    chars[i] = view.getChar();
+                }
+                if (chars.length > 0 && WeatherDataCodec.expiresAtMillis(view, view.position()) > nowMillis) {
+                    name[0] = new String(chars);
+                    data = WeatherDataCodec.decodeData(view);
+                }
+            } catch (RuntimeException e) {
+                // Decoded a concurrent write halfway; the sequence check below rejects it
+                torn = true;
+            }
+
+            VarHandle.loadLoadFence();
+            if ((long) LONGS.getVolatile(buffer, offset) == sequence && !torn) {
+                return data;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the slot of the set to write the key to: the one holding the key,
+     * else a free or expired one, else the one expiring first. Each slot's
+     * sequence is read before its contents and stored in {@code sequences}.
+     *
+     * @return slot or -1 if the slot holding the key may be being written
+     */
+    private int chooseSlot(int first, String key, int hash, long[] sequences) {
+        int victim = -1;
+        long victimExpiry = Long.MAX_VALUE;
+        for (int i = 0; i < WAYS; i++) {
+            int slot = first + i;
+            long sequence = (long) LONGS.getAcquire(buffer, offsetOf(slot));
+            sequences[i] = sequence;
+            if ((sequence & 1) != 0) {
+                if (keyEquals(slot, key, hash)) {
+                    return -1;
+                }
+                continue;
+            }
+            if (keyEquals(slot, key, hash)) {
+                return slot;
+            }
+            long expiry = isLive(slot) ? expiresAtMillis(slot) : Long.MIN_VALUE;
+            if (victim < 0 || expiry < victimExpiry) {
+                victim = slot;
+                victimExpiry = expiry;
+            }
+        }
+        return victim;
+    }
+
+    private void removeAll(int first, String key, int hash) {
+        for (int slot = first; slot < first + WAYS; slot++) {
+            if (!keyEquals(slot, key, hash)) {
+                continue;
+            }
+            int offset = offsetOf(slot);
+            long sequence = (long) LONGS.getAcquire(buffer, offset);
+            if ((sequence & 1) != 0 || !LONGS.compareAndSet(buffer, offset, sequence, sequence + 1)) {
+                // Being rewritten by another put, which wins
+                continue;
+            }
+            try {
+                if (keyEquals(slot, key, hash)) {
+                    buffer.putShort(offset + LENGTH_OFFSET, (short) 0);
+                }
+            } finally {
+                LONGS.setRelease(buffer, offset, sequence + 2);
+            }
+        }
+    }
+
+    private boolean isLive(int slot) {
+        return buffer.getShort(offsetOf(slot) + LENGTH_OFFSET) != 0;
+    }
+
+    private long expiresAtMillis(int slot) {
+        int offset = offsetOf(slot);
+        int length = Short.toUnsignedInt(buffer.getShort(offset + LENGTH_OFFSET));
+        int dataOffset = offset + SLOT_HEADER_SIZE + length * Character.BYTES;
+        if (dataOffset + 2 * Long.BYTES > offset + slotSize) {
+            // Torn by a concurrent write: a poor victim
+            return Long.MAX_VALUE;
+        }
+        return WeatherDataCodec.expiresAtMillis(buffer, dataOffset);
+    }
+
+    private boolean keyEquals(int slot, String key, int hash) {
+        if (key.isEmpty() || SLOT_HEADER_SIZE + key.length() * Character.BYTES > slotSize) {
+            return false;
+        }
+        int offset = offsetOf(slot);
+        if (buffer.getInt(offset + HASH_OFFSET) != hash
+                || Short.toUnsignedInt(buffer.getShort(offset + LENGTH_OFFSET)) != key.length()) {
+            return false;
+        }
+        offset += SLOT_HEADER_SIZE;
+        for (int i = 0; i < key.length(); i++) {
+            if (buffer.getChar(offset + i * Character.BYTES) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the entry into a slot. Caller must hold the slot's sequence lock.
+     */
+    private void write(int slot, String key, int hash, WeatherData data) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offsetOf(slot) + HASH_OFFSET);
+        view.putInt(hash);
+        view.putShort((short) key.length());
+        view.putShort((short) 0);
+        for (int i = 0; i < key.length(); i++) {
+            view.putChar(key.charAt(i));
+        }
+        WeatherDataCodec.encodeData(view, data);
+    }
+
+    private int firstSlotOf(int hash) {
+        return ((hash & Integer.MAX_VALUE) % setCount) * WAYS;
+    }
+
+    private int offsetOf(int slot) {
+        return FILE_HEADER_SIZE + slot * slotSize;
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
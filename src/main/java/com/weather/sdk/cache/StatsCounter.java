@@ -0,0 +1,100 @@
+package com.weather.sdk.cache;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates cache statistics with contention-free counters.
+ * <p>
+ * Each counter is a {@link LongAdder} (the maximum load time a
+ * {@link LongAccumulator}), so recording from many threads costs about as
+ * much as an uncontended increment and is cheap enough to leave on in
+ * production. {@link #snapshot()} sums the counters into {@link CacheStats}.
+ */
+public final class StatsCounter {
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder expiryCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAccumulator maxLoadTime = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Records a lookup that returned cached data
+     */
+    public void recordHit() {
+        hitCount.increment();
+    }
+
+    /**
+     * Records a lookup that found no usable data
+     */
+    public void recordMiss() {
+        missCount.increment();
+    }
+
+    /**
+     * Records removal of an expired entry
+     */
+    public void recordExpiry() {
+        expiryCount.increment();
+    }
+
+    /**
+     * Records eviction of an entry because the cache was full
+     */
+    public void recordEviction() {
+        evictionCount.increment();
+    }
+
+    /**
+     * Records a successful load
+     *
+     * @param loadTimeNanos nanoseconds the load took
+     */
+    public void recordLoadSuccess(long loadTimeNanos) {
+        loadSuccessCount.increment();
+        recordLoadTime(loadTimeNanos);
+    }
+
+    /**
+     * Records a failed load
+     *
+     * @param loadTimeNanos nanoseconds until the load failed
+     */
+    public void recordLoadFailure(long loadTimeNanos) {
+        loadFailureCount.increment();
+        recordLoadTime(loadTimeNanos);
+    }
+
+    /**
+     * Returns number of evictions recorded so far
+     */
+    long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * Returns current values of all counters
+     */
+    public CacheStats snapshot() {
+        return new CacheStats(
+                hitCount.sum(),
+                missCount.sum(),
+                expiryCount.sum(),
+                evictionCount.sum(),
+                loadSuccessCount.sum(),
+                loadFailureCount.sum(),
+                totalLoadTime.sum(),
+                maxLoadTime.get());
+    }
+
+    private void recordLoadTime(long loadTimeNanos) {
+        long nanos = Math.max(0, loadTimeNanos);
+        totalLoadTime.add(nanos);
+        maxLoadTime.accumulate(nanos);
+    }
+}
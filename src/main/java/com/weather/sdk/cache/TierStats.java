@@ -0,0 +1,85 @@
+package com.weather.sdk.cache;
+
+/**
+ * Immutable snapshot of the counters of one cache tier.
+ */
+public final class TierStats {
+
+    private final String name;
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final int size;
+
+    /**
+     * Creates snapshot
+     *
+     * @param name tier name, e.g. "L1"
+     * @param hitCount number of lookups answered by the tier
+     * @param missCount number of lookups the tier could not answer
+     * @param evictionCount number of entries that left the tier because it was full
+     * @param size number of entries in the tier
+     */
+    public TierStats(String name, long hitCount, long missCount, long evictionCount, int size) {
+        this.name = name;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+    /**
+     * Returns tier name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns number of lookups answered by the tier
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns number of lookups the tier could not answer
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns ratio of hits to lookups, 1.0 if there were no lookups
+     */
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * Returns number of entries that left the tier because it was full
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns number of entries in the tier
+     */
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "TierStats{" +
+                "name='" + name + '\'' +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", hitRate=" + String.format("%.3f", getHitRate()) +
+                ", evictionCount=" + evictionCount +
+                ", size=" + size +
+                '}';
+    }
+}
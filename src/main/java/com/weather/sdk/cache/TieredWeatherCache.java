@@ -0,0 +1,232 @@
+package com.weather.sdk.cache;
+
+import com.weather.sdk.model.WeatherData;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Two-level weather cache: a small on-heap {@link WeatherCache} (L1) holding
+ * the hottest decoded responses in front of a large compact
+ * {@link WeatherStore} (L2), e.g. an {@link OffHeapWeatherStore}.
+ * <p>
+ * Tiers are exclusive. Entries the L1 evicts to stay within its limit are
+ * demoted to the L2 if still valid; an L1 miss that hits the L2 promotes the
+ * entry back into the L1 unless newer data was stored there meanwhile.
+ * New data is always stored in the L1.
+ * <p>
+ * City iteration ({@link #getCityNames()}, {@link #forEach}), {@link #peek}
+ * and {@link #size()} cover both tiers, so polling refreshes and snapshots
+ * include demoted cities; the stale grace period covers the L1 only.
+ * Hit, miss and eviction counters are kept per tier, see {@link #firstLevelStats()}
+ * and {@link #secondLevelStats()}.
+ */
+public class TieredWeatherCache extends WeatherCache {
+
+    private final WeatherStore secondLevel;
+    private final LongAdder firstLevelHits = new LongAdder();
+    private final LongAdder firstLevelMisses = new LongAdder();
+    private final LongAdder secondLevelHits = new LongAdder();
+    private final LongAdder secondLevelMisses = new LongAdder();
+
+    /**
+     * Creates cache with an L1 bounded by entry count
+     *
+     * @param firstLevelSize maximum number of cities in the L1
+     * @param secondLevel L2 store
+     * @param staleGracePeriod how long expired L1 entries are kept and served as stale
+     */
+    public TieredWeatherCache(int firstLevelSize, WeatherStore secondLevel, Duration staleGracePeriod) {
+        super(firstLevelSize, staleGracePeriod);
+        this.secondLevel = requireStore(secondLevel);
+    }
+
+    /**
+     * Creates cache with an L1 bounded by weight
+     *
+     * @param firstLevelWeight maximum total weight of the L1
+     * @param weigher calculates the weight of each L1 entry
+     * @param secondLevel L2 store
+     * @param staleGracePeriod how long expired L1 entries are kept and served as stale
+     */
+    public TieredWeatherCache(long firstLevelWeight, Weigher weigher, WeatherStore secondLevel,
+                              Duration staleGracePeriod) {
+        super(firstLevelWeight, weigher, staleGracePeriod);
+        this.secondLevel = requireStore(secondLevel);
+    }
+
+    /**
+     * Gets weather data from the L1, or from the L2 promoting it into the L1
+     *
+     * @param cityName city name
+     * @return weather data or null if not found in either tier
+     */
+    @Override
+    protected WeatherData getEntry(String cityName) {
+        WeatherData data = super.getEntry(cityName);
+        if (data != null) {
+            firstLevelHits.increment();
+            return data;
+        }
+        firstLevelMisses.increment();
+
+        data = secondLevel.get(cityName);
+        if (data == null) {
+            secondLevelMisses.increment();
+            return null;
+        }
+        secondLevelHits.increment();
+        Map<String, WeatherData> promoted = new HashMap<>(2);
+        promoted.put(cityName, data);
+        promote(promoted);
+        return promoted.get(cityName);
+    }
+
+    /**
+     * Returns data from the L1, or valid data from the L2 without promoting it
+     */
+    @Override
+    public WeatherData peek(String cityName) {
+        WeatherData data = super.peek(cityName);
+        return data != null ? data : secondLevel.get(cityName);
+    }
+
+    /**
+     * Looks up the cities missing from the L1 in the L2 and promotes the
+     * ones found into the L1 with a single {@link #putAll(Map)}
+     */
+    @Override
+    protected void getAllEntries(Collection<String> cityNames, Map<String, WeatherData> found) {
+        super.getAllEntries(cityNames, found);
+
+        Map<String, WeatherData> promoted = new LinkedHashMap<>();
+        for (String cityName : new LinkedHashSet<>(cityNames)) {
+            if (found.containsKey(cityName)) {
+                firstLevelHits.increment();
+                continue;
+            }
+            firstLevelMisses.increment();
+            WeatherData data = secondLevel.get(cityName);
+            if (data == null) {
+                secondLevelMisses.increment();
+                continue;
+            }
+            secondLevelHits.increment();
+            promoted.put(cityName, data);
+        }
+        if (!promoted.isEmpty()) {
+            promote(promoted);
+            found.putAll(promoted);
+        }
+    }
+
+    /**
+     * Moves entries read from the L2 into the L1. An entry stored in the L1
+     * since the L2 read is newer, so it is kept and the L2 copy is left to
+     * the put that replaced it; the L2 copy is only removed once the L1 holds it.
+     *
+     * @param entries data read from the L2 by city name; on return, the data cached in the L1
+     */
+    private void promote(Map<String, WeatherData> entries) {
+        Map<String, WeatherData> read = new HashMap<>(entries);
+        putAllIfAbsent(entries);
+        for (Map.Entry<String, WeatherData> entry : entries.entrySet()) {
+            if (entry.getValue() == read.get(entry.getKey())) {
+                secondLevel.remove(entry.getKey());
+            }
+        }
+    }
+
+    @Override
+    public void put(String cityName, WeatherData data) {
+        super.put(cityName, data);
+        secondLevel.remove(cityName);
+    }
+
+    @Override
+    public void putAll(Map<String, WeatherData> entries) {
+        super.putAll(entries);
+        for (String cityName : entries.keySet()) {
+            secondLevel.remove(cityName);
+        }
+    }
+
+    @Override
+    public void remove(String cityName) {
+        super.remove(cityName);
+        secondLevel.remove(cityName);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        secondLevel.clear();
+    }
+
+    /**
+     * Returns names of the cities in both tiers
+     */
+    @Override
+    public Set<String> getCityNames() {
+        Set<String> names = super.getCityNames();
+        secondLevel.forEach((cityName, data) -> names.add(cityName));
+        return names;
+    }
+
+    /**
+     * Performs the action for every entry of the L1, then for every valid entry of the L2
+     */
+    @Override
+    public void forEach(BiConsumer<String, WeatherData> action) {
+        super.forEach(action);
+        secondLevel.forEach(action);
+    }
+
+    /**
+     * Returns number of cities in both tiers
+     */
+    @Override
+    public int size() {
+        return super.size() + secondLevel.size();
+    }
+
+    /**
+     * Returns counters of the L1; evictions are demotions to the L2
+     */
+    public TierStats firstLevelStats() {
+        return new TierStats("L1", firstLevelHits.sum(), firstLevelMisses.sum(), super.evictionCount(),
+                super.size());
+    }
+
+    /**
+     * Returns counters of the L2; hits are promotions to the L1
+     */
+    public TierStats secondLevelStats() {
+        return new TierStats("L2", secondLevelHits.sum(), secondLevelMisses.sum(), secondLevel.evictionCount(),
+                secondLevel.size());
+    }
+
+    /**
+     * Demotes valid entries evicted from the L1 to the L2
+     */
+    @Override
+    protected void onEviction(String cityName, WeatherData data) {
+        if (data.isValid()) {
+            secondLevel.put(cityName, data);
+        }
+    }
+
+    private static WeatherStore requireStore(WeatherStore secondLevel) {
+        if (secondLevel == null) {
+            throw new IllegalArgumentException("Second level store cannot be null");
+        }
+        return secondLevel;
+    }
+}
@@ -0,0 +1,192 @@
+package com.weather.sdk.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Hierarchical timing wheel used to evict expired entries proactively.
+ * <p>
+ * Each level is a ring of buckets covering a power-of-two time span
+ * (~1 second, ~1 minute, ~1 hour, ~1 day, ~6.5 days). An entry is placed in
+ * the coarsest level whose span fits its remaining lifetime; when the wheel
+ * advances past a bucket its entries are either expired or cascaded to a finer
+ * level. Scheduling, rescheduling and descheduling are O(1) and expiring is
+ * amortized O(1) per entry.
+ * <p>
+ * Times are monotonic {@link System#nanoTime()} values. Not thread-safe:
+ * callers must hold the cache eviction lock.
+ */
+final class TimerWheel {
+
+    private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+
+    private static final long[] SPANS = {
+            ceilingPowerOfTwo(TimeUnit.SECONDS.toNanos(1)),   // 1.07s
+            ceilingPowerOfTwo(TimeUnit.MINUTES.toNanos(1)),   // 1.14m
+            ceilingPowerOfTwo(TimeUnit.HOURS.toNanos(1)),     // 1.22h
+            ceilingPowerOfTwo(TimeUnit.DAYS.toNanos(1)),      // 1.63d
+            BUCKETS[3] * ceilingPowerOfTwo(TimeUnit.DAYS.toNanos(1)), // 6.5d
+            BUCKETS[3] * ceilingPowerOfTwo(TimeUnit.DAYS.toNanos(1)), // 6.5d
+    };
+
+    private static final long[] SHIFT = {
+            Long.numberOfTrailingZeros(SPANS[0]),
+            Long.numberOfTrailingZeros(SPANS[1]),
+            Long.numberOfTrailingZeros(SPANS[2]),
+            Long.numberOfTrailingZeros(SPANS[3]),
+            Long.numberOfTrailingZeros(SPANS[4]),
+    };
+
+    private final Node[][] wheel;
+    private final long origin;
+    private long time;
+
+    /**
+     * Creates an empty wheel starting at the given time.
+     *
+     * @param nowNanos current {@link System#nanoTime()}
+     */
+    TimerWheel(long nowNanos) {
+        // Internal times are relative to creation so they never overflow or go negative
+        this.origin = nowNanos;
+        this.wheel = new Node[BUCKETS.length][];
+        for (int i = 0; i < BUCKETS.length; i++) {
+            wheel[i] = new Node[BUCKETS[i]];
+            for (int j = 0; j < BUCKETS[i]; j++) {
+                wheel[i][j] = sentinel();
+            }
+        }
+    }
+
+    /**
+     * Schedules node to fire at its {@code expiresAtNanos}, replacing any earlier schedule.
+     *
+     * @param node node to schedule
+     * @param expiresAtNanos {@link System#nanoTime()} at which the node expires
+     */
+    void schedule(Node node, long expiresAtNanos) {
+        deschedule(node);
+        node.expiresAtNanos = expiresAtNanos;
+        link(findBucket(relative(expiresAtNanos)), node);
+    }
+
+    /**
+     * Removes node from the wheel if it is scheduled
+     */
+    void deschedule(Node node) {
+        if (node.nextInTime != null) {
+            node.prevInTime.nextInTime = node.nextInTime;
+            node.nextInTime.prevInTime = node.prevInTime;
+            node.prevInTime = null;
+            node.nextInTime = null;
+        }
+    }
+
+    /**
+     * Advances the wheel and hands every node whose time has come to {@code evictor}.
+     * If the evictor returns false the node is rescheduled at its current expiry time.
+     *
+     * @param nowNanos current {@link System#nanoTime()}
+     * @param evictor removes an expired node, returns true if it was removed
+     */
+    void advance(long nowNanos, Predicate<Node> evictor) {
+        long previousTime = time;
+        long currentTime = relative(nowNanos);
+        if (currentTime <= previousTime) {
+            return;
+        }
+        time = currentTime;
+
+        for (int i = 0; i < SHIFT.length; i++) {
+            long previousTicks = previousTime >>> SHIFT[i];
+            long currentTicks = currentTime >>> SHIFT[i];
+            long delta = currentTicks - previousTicks;
+            if (delta <= 0L) {
+                break;
+            }
+            expire(i, previousTicks, delta, evictor);
+        }
+    }
+
+    /**
+     * Removes all nodes from the wheel
+     */
+    void clear() {
+        for (Node[] level : wheel) {
+            for (Node sentinel : level) {
+                Node node = sentinel.nextInTime;
+                while (node != sentinel) {
+                    Node next = node.nextInTime;
+                    node.prevInTime = null;
+                    node.nextInTime = null;
+                    node = next;
+                }
+                sentinel.prevInTime = sentinel;
+                sentinel.nextInTime = sentinel;
+            }
+        }
+    }
+
+    private void expire(int level, long previousTicks, long delta, Predicate<Node> evictor) {
+        Node[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(1 + delta, buckets.length);
+        int start = (int) (previousTicks & mask);
+        int end = start + steps;
+
+        for (int i = start; i < end; i++) {
+            Node sentinel = buckets[i & mask];
+            Node node = sentinel.nextInTime;
+            sentinel.prevInTime = sentinel;
+            sentinel.nextInTime = sentinel;
+
+            while (node != sentinel) {
+                Node next = node.nextInTime;
+                node.prevInTime = null;
+                node.nextInTime = null;
+
+                long expiresAt = relative(node.expiresAtNanos);
+                if (expiresAt > time || !evictor.test(node)) {
+                    // Not due yet (cascade to a finer level) or eviction refused
+                    link(findBucket(expiresAt), node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    private Node findBucket(long expiresAt) {
+        long duration = expiresAt - time;
+        int length = wheel.length - 1;
+        for (int i = 0; i < length; i++) {
+            if (duration < SPANS[i + 1]) {
+                long ticks = expiresAt >>> SHIFT[i];
+                int index = (int) (ticks & (wheel[i].length - 1));
+                return wheel[i][index];
+            }
+        }
+        return wheel[length][0];
+    }
+
+    private long relative(long nanos) {
+        return Math.max(0L, nanos - origin);
+    }
+
+    private static void link(Node sentinel, Node node) {
+        node.prevInTime = sentinel.prevInTime;
+        node.nextInTime = sentinel;
+        sentinel.prevInTime.nextInTime = node;
+        sentinel.prevInTime = node;
+    }
+
+    private static Node sentinel() {
+        Node sentinel = new Node(null, null);
+        sentinel.prevInTime = sentinel;
+        sentinel.nextInTime = sentinel;
+        return sentinel;
+    }
+
+    private static long ceilingPowerOfTwo(long value) {
+        return 1L << -Long.numberOfLeadingZeros(value - 1);
+    }
+}
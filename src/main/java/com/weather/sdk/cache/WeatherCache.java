@@ -2,21 +2,85 @@ package com.weather.sdk.cache;
 
 import com.weather.sdk.model.WeatherData;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
- * LRU cache for storing weather data.
+ * Concurrent cache for storing weather data with a W-TinyLFU eviction policy.
+ * <p>
+ * Reads are lock-free: entries are looked up in a ConcurrentHashMap and the
+ * access is recorded in a striped {@link ReadBuffer} instead of reordering the
+ * policy lists on every hit. Buffered accesses are replayed under the eviction
+ * lock when a buffer stripe fills up and before every write, so eviction order is
+ * exact for single-threaded use and approximate under heavy concurrent reads.
+ * City names are matched ignoring case and surrounding whitespace through a
+ * per-thread {@link CityKey} probe, so a cache hit does not allocate.
+ * <p>
+ * Writes (put, remove, expiry) are serialized by the eviction lock.
+ * <p>
+ * The limit is either a number of entries or, with a {@link Weigher}, a total
+ * weight such as a heap budget in bytes. Each entry's weight is calculated
+ * once when it is stored and {@link #weightedSize()} reports the current total.
+ * <p>
+ * When the limit is exceeded entries are evicted using W-TinyLFU: new entries
+ * enter a small LRU admission window (1% of capacity); entries leaving the
+ * window compete with the least recently used entry of the main space and are
+ * admitted only if a {@link FrequencySketch} estimates them to be at least as
+ * popular. The main space is a segmented LRU whose protected segment (80%)
+ * holds entries read at least twice since they were admitted. A scan of many
+ * one-off cities therefore cannot flush the popular ones.
+ * <p>
+ * Expired entries are kept for an optional stale grace period, during which
+ * {@link #getAllowStale(String)} still returns them so that callers can serve
+ * stale data while a refresh is in progress.
+ * <p>
+ * Entries are scheduled on a {@link TimerWheel} by their monotonic deadline
+ * (expiry plus grace period) and are evicted proactively during maintenance,
+ * which runs on every write, whenever the read buffer is drained and on
+ * {@link #cleanUp()}, so dead entries do not wait for a read to be removed.
  * <p>
- * Automatically removes oldest entries when limit is exceeded.
- * Maximum capacity: 10 cities.
+ * Hits, misses, expirations and evictions are always recorded in a
+ * {@link StatsCounter}; see {@link #stats()}.
  */
-public class WeatherCache {
+public class WeatherCache implements WeatherStore {
 
-    private final int maxSize;
-    private final Map<String, WeatherData> cache;
+    private static final double WINDOW_FRACTION = 0.01;
+    private static final double PROTECTED_FRACTION = 0.8;
+
+    private final long maximumWeight;
+    private final long windowMaxWeight;
+    private final long protectedMaxWeight;
+    private final Weigher weigher;
+    private final boolean weighted;
+    private final Duration staleGracePeriod;
+    private final long staleGraceNanos;
+    private final ConcurrentHashMap<CityKey, Node> cache;
+    private final ReadBuffer readBuffer;
+    private final ReentrantLock evictionLock;
+    private final Consumer<Node> accessRecorder;
+    private final Predicate<Node> expiredEvictor;
+    private final StatsCounter statsCounter;
+
+    // Guarded by evictionLock
+    private final AccessOrderDeque window;
+    private final AccessOrderDeque probation;
+    private final AccessOrderDeque protectedSegment;
+    private final FrequencySketch sketch;
+    private final TimerWheel timerWheel;
+    private long windowWeight;
+    private long protectedWeight;
+    private volatile long weightedSize;
 
     /**
      * Creates cache with specified size
@@ -24,49 +88,372 @@ public class WeatherCache {
      * @param maxSize maximum number of cities in cache
      */
     public WeatherCache(int maxSize) {
-        if (maxSize <= 0) {
-            throw new IllegalArgumentException("Cache size must be positive");
+        this(maxSize, Duration.ZERO);
+    }
+
+    /**
+     * Creates cache with specified size and stale grace period
+     *
+     * @param maxSize maximum number of cities in cache
+     * @param staleGracePeriod how long expired entries are kept and served as stale
+     */
+    public WeatherCache(int maxSize, Duration staleGracePeriod) {
+        this(requirePositiveSize(maxSize), Weigher.singleton(), false, staleGracePeriod);
+    }
+
+    /**
+     * Creates cache bounded by the total weight of its entries, e.g. a heap budget
+     * in bytes together with {@link Weigher#estimatedBytes()}
+     *
+     * @param maximumWeight maximum total weight of entries in cache
+     * @param weigher calculates the weight of each entry
+     * @param staleGracePeriod how long expired entries are kept and served as stale
+     */
+    public WeatherCache(long maximumWeight, Weigher weigher, Duration staleGracePeriod) {
+        this(maximumWeight, weigher, true, staleGracePeriod);
+    }
+
+    private WeatherCache(long maximumWeight, Weigher weigher, boolean weighted, Duration staleGracePeriod) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be positive");
         }
-        this.maxSize = maxSize;
-        // LinkedHashMap with accessOrder=true for LRU implementation
-        this.cache = new LinkedHashMap<>(maxSize, 0.75f, true) {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<String, WeatherData> eldest) {
-                return size() > WeatherCache.this.maxSize;
-            }
-        };
+        if (weigher == null) {
+            throw new IllegalArgumentException("Weigher cannot be null");
+        }
+        if (staleGracePeriod == null || staleGracePeriod.isNegative()) {
+            throw new IllegalArgumentException("Stale grace period cannot be null or negative");
+        }
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.weighted = weighted;
+        this.windowMaxWeight = Math.max(1, (long) (maximumWeight * WINDOW_FRACTION));
+        this.protectedMaxWeight = (long) ((maximumWeight - windowMaxWeight) * PROTECTED_FRACTION);
+        this.staleGracePeriod = staleGracePeriod;
+        this.staleGraceNanos = staleGracePeriod.toNanos();
+        this.cache = new ConcurrentHashMap<>(weighted ? 16 : (int) Math.min(maximumWeight, 1 << 16));
+        this.readBuffer = new ReadBuffer();
+        this.evictionLock = new ReentrantLock();
+        this.window = new AccessOrderDeque();
+        this.probation = new AccessOrderDeque();
+        this.protectedSegment = new AccessOrderDeque();
+        // A weighted cache does not know its entry count up front, so its sketch grows with it
+        this.sketch = new FrequencySketch(weighted ? 0 : maximumWeight);
+        this.timerWheel = new TimerWheel(System.nanoTime());
+        this.accessRecorder = this::onAccess;
+        this.expiredEvictor = this::evictExpired;
+        this.statsCounter = new StatsCounter();
     }
 
     /**
      * Gets weather data from cache.
+     * <p>
+     * Never blocks unless the entry has expired and has to be removed.
      *
      * @param cityName city name
      * @return weather data or null if not found or expired
      */
-    public synchronized WeatherData get(String cityName) {
-        String key = normalizeCityName(cityName);
-        WeatherData data = cache.get(key);
+    @Override
+    public WeatherData get(String cityName) {
+        WeatherData data = getEntry(cityName);
+        if (data == null || !data.isValid()) {
+            statsCounter.recordMiss();
+            return null;
+        }
+        statsCounter.recordHit();
+        return data;
+    }
+
+    /**
+     * Gets weather data from cache, including expired data that is still
+     * within the stale grace period. Use {@link WeatherData#isValid()} to
+     * tell fresh data from stale.
+     *
+     * @param cityName city name
+     * @return weather data or null if not found or expired beyond the grace period
+     */
+    public WeatherData getAllowStale(String cityName) {
+        WeatherData data = getEntry(cityName);
+        if (data == null) {
+            statsCounter.recordMiss();
+        } else {
+            statsCounter.recordHit();
+        }
+        return data;
+    }
+
+    /**
+     * Returns data that is valid or within the stale grace period without recording
+     * a hit, a miss or an access, e.g. to re-check the cache right before loading.
+     *
+     * @param cityName city name
+     * @return weather data or null if not found or expired beyond the grace period
+     */
+    public WeatherData peek(String cityName) {
+        Node node = nodeOf(cityName);
+        if (node == null) {
+            return null;
+        }
+        WeatherData data = node.value;
+        return System.nanoTime() - evictionTime(data) < 0 ? data : null;
+    }
+
+    /**
+     * Looks up an entry that is valid or within the grace period and records the access.
+     * Does not record statistics; subclasses may override to look elsewhere on a miss.
+     *
+     * @param cityName city name
+     * @return weather data or null if not found or expired beyond the grace period
+     */
+    protected WeatherData getEntry(String cityName) {
+        Node node = nodeOf(cityName);
+        if (node == null) {
+            return null;
+        }
 
         // Check data validity
-        if (data != null && !data.isValid()) {
-            cache.remove(key);
+        WeatherData data = node.value;
+        if (System.nanoTime() - evictionTime(data) >= 0) {
+            removeExpired(node, data);
             return null;
         }
 
+        afterRead(node);
         return data;
     }
 
+    /**
+     * Returns how long expired entries are kept and served as stale
+     */
+    public Duration getStaleGracePeriod() {
+        return staleGracePeriod;
+    }
+
+    /**
+     * Gets valid data for several cities in one pass. Entries are looked up
+     * without locking and their accesses are recorded under a single
+     * acquisition of the eviction lock, so a batch costs about as much to
+     * maintain as one read. Hits and misses are recorded in the statistics.
+     *
+     * @param cityNames city names
+     * @return hits and misses, the latter to be loaded and stored with {@link #putAll(Map)}
+     */
+    public BatchLookup getAll(Collection<String> cityNames) {
+        if (cityNames == null) {
+            throw new IllegalArgumentException("City names cannot be null");
+        }
+        LinkedHashMap<String, WeatherData> found = new LinkedHashMap<>();
+        getAllEntries(cityNames, found);
+
+        LinkedHashMap<String, WeatherData> hits = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (String cityName : cityNames) {
+            if (!seen.add(cityName)) {
+                continue;
+            }
+            WeatherData data = found.get(cityName);
+            if (data != null && data.isValid()) {
+                hits.put(cityName, data);
+                statsCounter.recordHit();
+            } else {
+                misses.add(cityName);
+                statsCounter.recordMiss();
+            }
+        }
+        return new BatchLookup(hits, misses);
+    }
+
+    /**
+     * Batch form of {@link #getEntry(String)}: puts entries that are valid or within
+     * the grace period into {@code found}, keyed by the given names, and records the
+     * accesses. Does not record statistics; subclasses may override to look elsewhere
+     * for the cities that were not found.
+     *
+     * @param cityNames city names, possibly repeated
+     * @param found receives data of the cities found
+     */
+    protected void getAllEntries(Collection<String> cityNames, Map<String, WeatherData> found) {
+        List<Node> read = new ArrayList<>();
+        List<Node> expired = new ArrayList<>();
+        List<WeatherData> expiredValues = new ArrayList<>();
+        long now = System.nanoTime();
+        for (String cityName : cityNames) {
+            if (found.containsKey(cityName)) {
+                continue;
+            }
+            Node node = nodeOf(cityName);
+            if (node == null) {
+                continue;
+            }
+            WeatherData data = node.value;
+            if (now - evictionTime(data) >= 0) {
+                expired.add(node);
+                expiredValues.add(data);
+                continue;
+            }
+            found.put(cityName, data);
+            read.add(node);
+        }
+
+        // Expired entries must go; plain reads only need the lock if it is free
+        if (expired.isEmpty()) {
+            if (!evictionLock.tryLock()) {
+                for (Node node : read) {
+                    readBuffer.offer(node);
+                }
+                return;
+            }
+        } else {
+            evictionLock.lock();
+        }
+        try {
+            maintenance();
+            for (Node node : read) {
+                onAccess(node);
+            }
+            for (int i = 0; i < expired.size(); i++) {
+                removeIfUnchanged(expired.get(i), expiredValues.get(i));
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
     /**
      * Stores weather data in cache
      *
      * @param cityName city name
      * @param data weather data
      */
-    public synchronized void put(String cityName, WeatherData data) {
+    @Override
+    public void put(String cityName, WeatherData data) {
         if (data == null) {
             throw new IllegalArgumentException("WeatherData cannot be null");
         }
-        cache.put(normalizeCityName(cityName), data);
+        CityKey key = CityKey.of(cityName);
+        int weight = weigh(key, data);
+
+        evictionLock.lock();
+        try {
+            maintenance();
+            store(key, data, weight);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Stores data for several cities under a single acquisition of the eviction lock.
+     * Keys are normalized and entries weighed before the lock is taken.
+     *
+     * @param entries weather data by city name
+     */
+    public void putAll(Map<String, WeatherData> entries) {
+        if (entries == null) {
+            throw new IllegalArgumentException("Entries cannot be null");
+        }
+        int count = entries.size();
+        CityKey[] keys = new CityKey[count];
+        WeatherData[] values = new WeatherData[count];
+        int[] weights = new int[count];
+        int i = 0;
+        for (Map.Entry<String, WeatherData> entry : entries.entrySet()) {
+            if (entry.getValue() == null) {
+                throw new IllegalArgumentException("WeatherData cannot be null");
+            }
+            keys[i] = CityKey.of(entry.getKey());
+            values[i] = entry.getValue();
+            weights[i] = weigh(keys[i], values[i]);
+            i++;
+        }
+
+        evictionLock.lock();
+        try {
+            maintenance();
+            for (i = 0; i < count; i++) {
+                store(keys[i], values[i], weights[i]);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Stores data for each city unless the cache holds usable data for it, the
+     * checks and stores made under a single acquisition of the eviction lock,
+     * so data stored by a concurrent {@link #put} is never overwritten.
+     *
+     * @param entries weather data by city name; on return, the data cached for
+     *                each city: the given instance if it was stored, otherwise the one found
+     */
+    protected void putAllIfAbsent(Map<String, WeatherData> entries) {
+        int count = entries.size();
+        CityKey[] keys = new CityKey[count];
+        WeatherData[] values = new WeatherData[count];
+        int[] weights = new int[count];
+        int i = 0;
+        for (Map.Entry<String, WeatherData> entry : entries.entrySet()) {
+            keys[i] = CityKey.of(entry.getKey());
+            values[i] = entry.getValue();
+            weights[i] = weigh(keys[i], values[i]);
+            i++;
+        }
+
+        evictionLock.lock();
+        try {
+            maintenance();
+            long now = System.nanoTime();
+            for (i = 0; i < count; i++) {
+                Node node = cache.get(keys[i]);
+                if (node != null && now - evictionTime(node.value) < 0) {
+                    values[i] = node.value;
+                } else {
+                    store(keys[i], values[i], weights[i]);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+
+        i = 0;
+        for (Map.Entry<String, WeatherData> entry : entries.entrySet()) {
+            entry.setValue(values[i++]);
+        }
+    }
+
+    private int weigh(CityKey key, WeatherData data) {
+        int weight = weigher.weigh(key.name(), data);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative");
+        }
+        return weight;
+    }
+
+    /**
+     * Inserts or updates an entry and evicts if over the limit. Caller must hold the eviction lock.
+     */
+    private void store(CityKey key, WeatherData data, int weight) {
+        Node node = cache.get(key);
+        if (node != null) {
+            node.value = data;
+            updateWeight(node, weight);
+            onAccess(node);
+            timerWheel.schedule(node, evictionTime(data));
+            evictEntries();
+            return;
+        }
+
+        node = new Node(key, data, weight);
+        cache.put(key, node);
+        if (weighted) {
+            sketch.ensureCapacity(cache.size());
+        }
+        sketch.increment(key);
+        window.add(node);
+        windowWeight += weight;
+        weightedSize += weight;
+        timerWheel.schedule(node, evictionTime(data));
+        evictEntries();
     }
 
     /**
@@ -74,53 +461,412 @@ public class WeatherCache {
      *
      * @param cityName city name
      */
-    public synchronized void remove(String cityName) {
-        cache.remove(normalizeCityName(cityName));
+    @Override
+    public void remove(String cityName) {
+        CityKey key = CityKey.lookup(cityName);
+
+        evictionLock.lock();
+        try {
+            Node node = cache.remove(key);
+            if (node != null) {
+                unlink(node);
+            }
+        } finally {
+            key.release();
+            evictionLock.unlock();
+        }
     }
 
     /**
      * Clears entire cache
      */
-    public synchronized void clear() {
-        cache.clear();
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            cache.clear();
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+            timerWheel.clear();
+            windowWeight = 0;
+            protectedWeight = 0;
+            weightedSize = 0;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Performs pending maintenance: replays buffered reads and evicts entries
+     * whose deadline has passed. Useful when the cache sees no writes for a while.
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
     }
 
     /**
      * Returns number of cities in cache
      */
-    public synchronized int size() {
+    @Override
+    public int size() {
         return cache.size();
     }
 
+    /**
+     * Returns total weight of entries in cache. Equals {@link #size()} unless the cache uses a {@link Weigher}.
+     */
+    public long weightedSize() {
+        return weightedSize;
+    }
+
+    @Override
+    public long evictionCount() {
+        return statsCounter.evictionCount();
+    }
+
+    /**
+     * Returns snapshot of the cache statistics
+     */
+    public CacheStats stats() {
+        return statsCounter.snapshot();
+    }
+
+    /**
+     * Returns the statistics counter of this cache, so that code loading data
+     * into the cache can record load outcomes and times
+     */
+    public StatsCounter statsCounter() {
+        return statsCounter;
+    }
+
+    /**
+     * Returns maximum total weight of entries in cache (the maximum number of cities for unweighted caches)
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
     /**
      * Returns set of city names in cache.
      *
      * @return copy of city names set
      */
-    public synchronized Set<String> getCityNames() {
-        return new HashSet<>(cache.keySet());
+    public Set<String> getCityNames() {
+        Set<String> names = new HashSet<>();
+        for (CityKey key : cache.keySet()) {
+            names.add(key.name());
+        }
+        return names;
+    }
+
+    /**
+     * Performs the action for every entry in cache, including expired ones not yet removed.
+     * Iteration is weakly consistent and does not count as access.
+     *
+     * @param action receives normalized city name and data
+     */
+    @Override
+    public void forEach(BiConsumer<String, WeatherData> action) {
+        for (Node node : cache.values()) {
+            action.accept(node.key.name(), node.value);
+        }
     }
 
     /**
-     * Checks if cache contains data for specified city
+     * Checks if cache contains data for specified city. Like {@link #peek(String)},
+     * does not record a hit, a miss or an access.
      *
      * @param cityName city name
      * @return true if data exists in cache (and is valid)
      */
-    public synchronized boolean contains(String cityName) {
-        return get(cityName) != null;
+    public boolean contains(String cityName) {
+        WeatherData data = peek(cityName);
+        return data != null && data.isValid();
+    }
+
+    /**
+     * Records a read and runs maintenance if the buffer filled up and the lock is free.
+     */
+    private void afterRead(Node node) {
+        if (readBuffer.offer(node) == ReadBuffer.FULL && evictionLock.tryLock()) {
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Removes node if it still holds the expired value (e.g. was not updated by a concurrent put).
+     */
+    private void removeExpired(Node node, WeatherData expired) {
+        evictionLock.lock();
+        try {
+            removeIfUnchanged(node, expired);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Removes an expired node unless it got a new value. Caller must hold the eviction lock.
+     */
+    private void removeIfUnchanged(Node node, WeatherData expired) {
+        if (node.value == expired && cache.remove(node.key, node)) {
+            unlink(node);
+            statsCounter.recordExpiry();
+        }
+    }
+
+    /**
+     * Replays buffered reads and expires entries. Caller must hold the eviction lock.
+     */
+    private void maintenance() {
+        drainReadBuffer();
+        timerWheel.advance(System.nanoTime(), expiredEvictor);
+    }
+
+    /**
+     * Replays buffered reads. Caller must hold the eviction lock.
+     */
+    private void drainReadBuffer() {
+        readBuffer.drainTo(accessRecorder);
+    }
+
+    /**
+     * Records an access in the sketch and reorders the node within its segment.
+     * Caller must hold the eviction lock.
+     */
+    private void onAccess(Node node) {
+        // Node may have been evicted or removed after the read was buffered
+        AccessOrderDeque deque = dequeOf(node);
+        if (!deque.contains(node)) {
+            return;
+        }
+
+        sketch.increment(node.key);
+        if (node.queueType == Node.PROBATION) {
+            // Second hit since admission: promote to the protected segment
+            probation.remove(node);
+            node.queueType = Node.PROTECTED;
+            protectedSegment.add(node);
+            protectedWeight += node.weight;
+            demoteFromProtected();
+        } else {
+            deque.moveToBack(node);
+        }
+    }
+
+    /**
+     * Moves least recently used protected entries back to probation while the segment is over its limit.
+     */
+    private void demoteFromProtected() {
+        while (protectedWeight > protectedMaxWeight) {
+            Node demoted = protectedSegment.peekFirst();
+            protectedSegment.remove(demoted);
+            protectedWeight -= demoted.weight;
+            demoted.queueType = Node.PROBATION;
+            probation.add(demoted);
+        }
+    }
+
+    /**
+     * Changes the weight of a linked node, keeping the totals in sync. Caller must hold the eviction lock.
+     */
+    private void updateWeight(Node node, int weight) {
+        int delta = weight - node.weight;
+        node.weight = weight;
+        weightedSize += delta;
+        if (node.queueType == Node.WINDOW) {
+            windowWeight += delta;
+        } else if (node.queueType == Node.PROTECTED) {
+            protectedWeight += delta;
+        }
+    }
+
+    /**
+     * Timer wheel callback for a node whose deadline has passed.
+     *
+     * @return false if the node got a new value after it was scheduled
+     */
+    private boolean evictExpired(Node node) {
+        if (System.nanoTime() - evictionTime(node.value) < 0) {
+            return false;
+        }
+        if (cache.remove(node.key, node)) {
+            unlinkFromSegment(node);
+            statsCounter.recordExpiry();
+        }
+        return true;
+    }
+
+    /**
+     * Evicts entries while over the maximum weight using the W-TinyLFU policy. Caller must hold the eviction lock.
+     */
+    private void evictEntries() {
+        int candidates = evictFromWindow();
+        evictFromMain(candidates);
     }
 
     /**
-     * Normalizes city name for use as key
+     * Moves entries that overflow the admission window to the probation segment.
      *
-     * @param cityName original city name
-     * @return normalized name (lowercase, trimmed)
+     * @return number of entries moved; they are the admission candidates
+     */
+    private int evictFromWindow() {
+        int candidates = 0;
+        while (windowWeight > windowMaxWeight) {
+            Node node = window.peekFirst();
+            window.remove(node);
+            windowWeight -= node.weight;
+            node.queueType = Node.PROBATION;
+            probation.add(node);
+            candidates++;
+        }
+        return candidates;
+    }
+
+    /**
+     * Evicts entries from the main space while over the maximum weight. Each candidate that
+     * just left the window (most recent end of probation) is compared with the
+     * probation victim (least recent end); the less frequently used one is evicted.
+     */
+    private void evictFromMain(int candidates) {
+        byte victimQueue = Node.PROBATION;
+        Node victim = probation.peekFirst();
+        Node candidate = probation.peekLast();
+
+        while (weightedSize > maximumWeight) {
+            if (candidates <= 0) {
+                candidate = null;
+            }
+
+            if (victim == null && candidate == null) {
+                // Probation exhausted: fall back to protected, then window entries
+                if (victimQueue == Node.PROBATION) {
+                    victimQueue = Node.PROTECTED;
+                    victim = protectedSegment.peekFirst();
+                    continue;
+                } else if (victimQueue == Node.PROTECTED) {
+                    victimQueue = Node.WINDOW;
+                    victim = window.peekFirst();
+                    continue;
+                }
+                return;
+            }
+
+            if (victim == null || victim == candidate) {
+                Node previous = candidate.prev;
+                evict(candidate);
+                if (victim == candidate) {
+                    victim = null;
+                }
+                candidate = previous;
+                candidates--;
+            } else if (candidate == null || admit(candidate, victim)) {
+                Node next = victim.next;
+                evict(victim);
+                victim = next;
+            } else {
+                Node previous = candidate.prev;
+                evict(candidate);
+                candidate = previous;
+                candidates--;
+            }
+        }
+    }
+
+    /**
+     * Decides if the candidate should replace the victim based on estimated frequency.
+     * Ties favour the candidate, so entries of equal popularity are evicted in LRU order.
      */
-    private String normalizeCityName(String cityName) {
-        if (cityName == null) {
-            throw new IllegalArgumentException("City name cannot be null");
+    private boolean admit(Node candidate, Node victim) {
+        if (candidate.weight > maximumWeight) {
+            return false;
         }
-        return cityName.trim().toLowerCase();
+        return sketch.frequency(candidate.key) >= sketch.frequency(victim.key);
+    }
+
+    private void evict(Node node) {
+        cache.remove(node.key, node);
+        unlink(node);
+        statsCounter.recordEviction();
+        onEviction(node.key.name(), node.value);
+    }
+
+    /**
+     * Called when an entry is evicted to keep the cache within its maximum weight
+     * (not when it expires or is removed). Runs under the eviction lock, so it must
+     * be fast and must not call back into this cache.
+     *
+     * @param cityName normalized city name
+     * @param data evicted data
+     */
+    protected void onEviction(String cityName, WeatherData data) {
+    }
+
+    /**
+     * Unlinks node from its policy segment and the timer wheel. Caller must hold the eviction lock.
+     */
+    private void unlink(Node node) {
+        unlinkFromSegment(node);
+        timerWheel.deschedule(node);
+    }
+
+    private void unlinkFromSegment(Node node) {
+        AccessOrderDeque deque = dequeOf(node);
+        if (!deque.contains(node)) {
+            return;
+        }
+        deque.remove(node);
+        weightedSize -= node.weight;
+        if (node.queueType == Node.WINDOW) {
+            windowWeight -= node.weight;
+        } else if (node.queueType == Node.PROTECTED) {
+            protectedWeight -= node.weight;
+        }
+    }
+
+    private AccessOrderDeque dequeOf(Node node) {
+        switch (node.queueType) {
+            case Node.WINDOW:
+                return window;
+            case Node.PROBATION:
+                return probation;
+            default:
+                return protectedSegment;
+        }
+    }
+
+    /**
+     * Returns the moment an entry becomes unusable: its expiry plus the stale grace period.
+     */
+    private long evictionTime(WeatherData data) {
+        return data.getExpiresAtNanos() + staleGraceNanos;
+    }
+
+    private static int requirePositiveSize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        return maxSize;
+    }
+
+    /**
+     * Finds the node of a city without allocating a normalized key
+     */
+    private Node nodeOf(String cityName) {
+        CityKey key = CityKey.lookup(cityName);
+        Node node = cache.get(key);
+        key.release();
+        return node;
     }
 }
@@ -0,0 +1,208 @@
+package com.weather.sdk.cache;
+
+import com.weather.sdk.model.WeatherData;
+import com.weather.sdk.model.WeatherResponse;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Compact binary encoding of a cache entry (city name and {@link WeatherData}),
+ * shared by the snapshot file and the off-heap store.
+ * <p>
+ * Record layout, big-endian (the data part starts at timestamp):
+ * <pre>
+ * key               string
+ * timestamp         long    epoch milliseconds the data was fetched
+ * ttl               long    milliseconds
+ * presence          byte    bit set per non-null nested object
+ * weather           string main, string description       (if present)
+ * temperature       double temp, double feelsLike         (if present)
+ * wind              double speed                          (if present)
+ * sys               long sunrise, long sunset             (if present)
+ * visibility        int
+ * datetime          long
+ * timezone          int
+ * name              string
+ * city ID           long    OpenWeather ID, 0 if unknown
+ * </pre>
+ * Strings are an unsigned short byte length followed by UTF-8 bytes;
+ * {@code 0xFFFF} encodes null.
+ */
+final class WeatherDataCodec {
+
+    private static final int NULL_STRING = 0xFFFF;
+    private static final int MAX_STRING_BYTES = NULL_STRING - 1;
+
+    private static final int HAS_WEATHER = 1;
+    private static final int HAS_TEMPERATURE = 1 << 1;
+    private static final int HAS_WIND = 1 << 2;
+    private static final int HAS_SYS = 1 << 3;
+
+    private WeatherDataCodec() {}
+
+    /**
+     * Returns the number of bytes {@link #encode} writes for the entry
+     */
+    static int encodedSize(String key, WeatherData data) {
+        return sizeOf(key) + encodedDataSize(data);
+    }
+
+    /**
+     * Returns the number of bytes {@link #encodeData} writes for the data
+     */
+    static int encodedDataSize(WeatherData data) {
+        WeatherResponse response = data.getWeatherResponse();
+        int size = Long.BYTES + Long.BYTES + Byte.BYTES;
+        if (response.getWeather() != null) {
+            size += sizeOf(response.getWeather().getMain()) + sizeOf(response.getWeather().getDescription());
+        }
+        if (response.getTemperature() != null) {
+            size += 2 * Double.BYTES;
+        }
+        if (response.getWind() != null) {
+            size += Double.BYTES;
+        }
+        if (response.getSys() != null) {
+            size += 2 * Long.BYTES;
+        }
+        return size + Integer.BYTES + Long.BYTES + Integer.BYTES + sizeOf(response.getName()) + Long.BYTES;
+    }
+
+    /**
+     * Writes the entry at the buffer position
+     */
+    static void encode(ByteBuffer buffer, String key, WeatherData data) {
+        putString(buffer, key);
+        encodeData(buffer, data);
+    }
+
+    /**
+     * Writes the data part of the entry at the buffer position
+     */
+    static void encodeData(ByteBuffer buffer, WeatherData data) {
+        WeatherResponse response = data.getWeatherResponse();
+        buffer.putLong(data.getTimestamp().toEpochMilli());
+        buffer.putLong(data.getTtl().toMillis());
+
+        int presence = 0;
+        presence |= response.getWeather() != null ? HAS_WEATHER : 0;
+        presence |= response.getTemperature() != null ? HAS_TEMPERATURE : 0;
+        presence |= response.getWind() != null ? HAS_WIND : 0;
+        presence |= response.getSys() != null ? HAS_SYS : 0;
+        buffer.put((byte) presence);
+
+        if (response.getWeather() != null) {
+            putString(buffer, response.getWeather().getMain());
+            putString(buffer, response.getWeather().getDescription());
+        }
+        if (response.getTemperature() != null) {
+            buffer.putDouble(response.getTemperature().getTemp());
+            buffer.putDouble(response.getTemperature().getFeelsLike());
+        }
+        if (response.getWind() != null) {
+            buffer.putDouble(response.getWind().getSpeed());
+        }
+        if (response.getSys() != null) {
+            buffer.putLong(response.getSys().getSunrise());
+            buffer.putLong(response.getSys().getSunset());
+        }
+        buffer.putInt(response.getVisibility());
+        buffer.putLong(response.getDatetime());
+        buffer.putInt(response.getTimezone());
+        putString(buffer, response.getName());
+        buffer.putLong(response.getCityId());
+    }
+
+    /**
+     * Reads the key of the record at the buffer position and advances past it
+     */
+    static String decodeKey(ByteBuffer buffer) {
+        return getString(buffer);
+    }
+
+    /**
+     * Returns epoch milliseconds at which the data starting at the given index expires.
+     * Does not move the buffer position.
+     */
+    static long expiresAtMillis(ByteBuffer buffer, int dataIndex) {
+        return buffer.getLong(dataIndex) + buffer.getLong(dataIndex + Long.BYTES);
+    }
+
+    /**
+     * Reads the data part of a record at the buffer position
+     */
+    static WeatherData decodeData(ByteBuffer buffer) {
+        Instant timestamp = Instant.ofEpochMilli(buffer.getLong());
+        Duration ttl = Duration.ofMillis(buffer.getLong());
+        int presence = buffer.get();
+
+        WeatherResponse response = new WeatherResponse();
+        if ((presence & HAS_WEATHER) != 0) {
+            response.setWeather(new WeatherResponse.Weather(getString(buffer), getString(buffer)));
+        }
+        if ((presence & HAS_TEMPERATURE) != 0) {
+            response.setTemperature(new WeatherResponse.Temperature(buffer.getDouble(), buffer.getDouble()));
+        }
+        if ((presence & HAS_WIND) != 0) {
+            response.setWind(new WeatherResponse.Wind(buffer.getDouble()));
+        }
+        if ((presence & HAS_SYS) != 0) {
+            response.setSys(new WeatherResponse.Sys(buffer.getLong(), buffer.getLong()));
+        }
+        response.setVisibility(buffer.getInt());
+        response.setDatetime(buffer.getLong());
+        response.setTimezone(buffer.getInt());
+        response.setName(getString(buffer));
+        response.setCityId(buffer.getLong());
+        return new WeatherData(response, timestamp, ttl);
+    }
+
+    private static int sizeOf(String value) {
+        return Short.BYTES + (value == null ? 0 : utf8Length(value));
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("String too long to encode: " + bytes.length + " bytes");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,60 @@
+package com.weather.sdk.cache;
+
+import com.weather.sdk.model.WeatherData;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Storage of weather data by city name.
+ * <p>
+ * City names are case-insensitive and trimmed. Implementations are
+ * thread-safe, bounded and evict entries on their own when full.
+ */
+public interface WeatherStore {
+
+    /**
+     * Gets weather data
+     *
+     * @param cityName city name
+     * @return weather data or null if not found or expired
+     */
+    WeatherData get(String cityName);
+
+    /**
+     * Stores weather data, replacing any previous data for the city
+     *
+     * @param cityName city name
+     * @param data weather data
+     */
+    void put(String cityName, WeatherData data);
+
+    /**
+     * Removes weather data
+     *
+     * @param cityName city name
+     */
+    void remove(String cityName);
+
+    /**
+     * Removes all data
+     */
+    void clear();
+
+    /**
+     * Performs the action for every stored city. Iteration is weakly consistent
+     * and does not count as access.
+     *
+     * @param action receives normalized city name and data
+     */
+    void forEach(BiConsumer<String, WeatherData> action);
+
+    /**
+     * Returns number of stored cities, including expired ones not yet removed
+     */
+    int size();
+
+    /**
+     * Returns number of entries evicted so far to stay within the size limit
+     */
+    long evictionCount();
+}
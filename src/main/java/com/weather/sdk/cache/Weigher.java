@@ -0,0 +1,39 @@
+package com.weather.sdk.cache;
+
+import com.weather.sdk.model.WeatherData;
+
+/**
+ * Calculates the weight of a cache entry, which a weight-bounded
+ * {@link WeatherCache} uses to decide when to evict.
+ * <p>
+ * The weight is calculated once, when the entry is stored. Implementations
+ * must be fast, thread-safe and side-effect free because they run on every
+ * put.
+ */
+@FunctionalInterface
+public interface Weigher {
+
+    /**
+     * Returns the weight of an entry
+     *
+     * @param cityName normalized city name the entry is stored under
+     * @param data cached weather data
+     * @return non-negative weight
+     */
+    int weigh(String cityName, WeatherData data);
+
+    /**
+     * Returns weigher giving every entry a weight of one, so the maximum weight is an entry count
+     */
+    static Weigher singleton() {
+        return (cityName, data) -> 1;
+    }
+
+    /**
+     * Returns weigher estimating the retained heap size of an entry in bytes,
+     * so the maximum weight is a memory budget
+     */
+    static Weigher estimatedBytes() {
+        return EstimatedSizeWeigher.INSTANCE;
+    }
+}
@@ -0,0 +1,48 @@
+package com.weather.sdk.client;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Grants each retry attempt of {@link WeatherApiClient} permission to be sent.
+ * <p>
+ * The first attempt of a request is admitted by the caller; retries are made
+ * inside the client and ask these permits first, so a client-side rate limit
+ * also counts them. A retry that is not granted is dropped and the request
+ * fails with the error of its last attempt.
+ */
+public interface RetryPermits {
+
+    /**
+     * Returns permits granting every retry at once
+     */
+    static RetryPermits unlimited() {
+        return new RetryPermits() {
+            @Override
+            public boolean acquire() {
+                return true;
+            }
+
+            @Override
+            public CompletableFuture<Boolean> acquireAsync() {
+                return CompletableFuture.completedFuture(true);
+            }
+        };
+    }
+
+    /**
+     * Waits for permission to send a retry attempt of a blocking request.
+     * Called on the thread that made the request, so the caller can grant
+     * retries according to what that thread is doing, e.g. its priority.
+     *
+     * @return true if the attempt may be sent
+     * @throws InterruptedException if interrupted while waiting
+     */
+    boolean acquire() throws InterruptedException;
+
+    /**
+     * Asks for permission to send a retry attempt without blocking a thread
+     *
+     * @return future completed with true if the attempt may be sent
+     */
+    CompletableFuture<Boolean> acquireAsync();
+}
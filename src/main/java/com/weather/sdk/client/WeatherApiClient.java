@@ -1,14 +1,19 @@
 package com.weather.sdk.client;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weather.sdk.config.RetryPolicy;
+import com.weather.sdk.config.WeatherSDKConfig;
 import com.weather.sdk.exception.ApiKeyException;
 import com.weather.sdk.exception.CityNotFoundException;
 import com.weather.sdk.exception.NetworkException;
+import com.weather.sdk.exception.RateLimitExceededException;
 import com.weather.sdk.exception.WeatherSDKException;
 import com.weather.sdk.model.WeatherResponse;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
@@ -16,21 +21,48 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * HTTP client for working with OpenWeather API.
  * <p>
- * Uses Jackson for JSON parsing.
+ * Uses Jackson for JSON parsing: successful responses are read token by token
+ * with {@link WeatherResponseParser} straight from the body bytes, without
+ * decoding the body to a String.
  * Handles all API error types with specific exceptions.
+ * <p>
+ * Connection errors and transient server errors (429 and 5xx) are retried
+ * according to the {@link RetryPolicy}, honouring {@code Retry-After};
+ * 401 and 404 responses are never retried. Each retry attempt first asks
+ * the {@link RetryPermits}, e.g. for a rate limiter token.
  */
 public class WeatherApiClient {
 
-    private static final String BASE_URL = "https://api.openweathermap.org/data/2.5/weather";
-    private static final int TIMEOUT_SECONDS = 10;
+    /**
+     * Maximum number of city IDs in one group request
+     */
+    public static final int MAX_GROUP_SIZE = 20;
+
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
 
     private final String apiKey;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final RetryPolicy retryPolicy;
+    private final RetryPermits retryPermits;
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final WeatherResponseParser responseParser;
 
     /**
      * Creates client with specified API key
@@ -38,16 +70,86 @@ public class WeatherApiClient {
      * @param apiKey OpenWeather API key
      */
     public WeatherApiClient(String apiKey) {
+        this(apiKey, DEFAULT_TIMEOUT, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Creates client with specified API key and timeouts
+     *
+     * @param apiKey OpenWeather API key
+     * @param connectTimeout HTTP connect timeout
+     * @param requestTimeout HTTP request timeout
+     */
+    public WeatherApiClient(String apiKey, Duration connectTimeout, Duration requestTimeout) {
+        this(apiKey, WeatherSDKConfig.DEFAULT_API_BASE_URL, connectTimeout, requestTimeout);
+    }
+
+    /**
+     * Creates client with specified API key, API location and timeouts
+     *
+     * @param apiKey OpenWeather API key
+     * @param baseUrl base URL of the API, e.g. {@code https://api.openweathermap.org/data/2.5}
+     * @param connectTimeout HTTP connect timeout
+     * @param requestTimeout HTTP request timeout
+     */
+    public WeatherApiClient(String apiKey, URI baseUrl, Duration connectTimeout, Duration requestTimeout) {
+        this(apiKey, baseUrl, connectTimeout, requestTimeout, RetryPolicy.defaults());
+    }
+
+    /**
+     * Creates client with specified API key, API location, timeouts and retry policy
+     *
+     * @param apiKey OpenWeather API key
+     * @param baseUrl base URL of the API, e.g. {@code https://api.openweathermap.org/data/2.5}
+     * @param connectTimeout HTTP connect timeout
+     * @param requestTimeout HTTP request timeout, applied to each attempt
+     * @param retryPolicy policy for retrying failed requests
+     */
+    public WeatherApiClient(String apiKey, URI baseUrl, Duration connectTimeout, Duration requestTimeout,
+                            RetryPolicy retryPolicy) {
+        this(apiKey, baseUrl, connectTimeout, requestTimeout, retryPolicy, RetryPermits.unlimited());
+    }
+
+    /**
+     * Creates client with specified API key, API location, timeouts, retry policy and retry permits
+     *
+     * @param apiKey OpenWeather API key
+     * @param baseUrl base URL of the API, e.g. {@code https://api.openweathermap.org/data/2.5}
+     * @param connectTimeout HTTP connect timeout
+     * @param requestTimeout HTTP request timeout, applied to each attempt
+     * @param retryPolicy policy for retrying failed requests
+     * @param retryPermits asked before each retry attempt is sent
+     */
+    public WeatherApiClient(String apiKey, URI baseUrl, Duration connectTimeout, Duration requestTimeout,
+                            RetryPolicy retryPolicy, RetryPermits retryPermits) {
         if (apiKey == null || apiKey.trim().isEmpty()) {
             throw new IllegalArgumentException("API key cannot be null or empty");
         }
+        if (baseUrl == null) {
+            throw new IllegalArgumentException("Base URL cannot be null");
+        }
+        if (connectTimeout == null || requestTimeout == null) {
+            throw new IllegalArgumentException("Timeouts cannot be null");
+        }
+        if (retryPolicy == null) {
+            throw new IllegalArgumentException("Retry policy cannot be null");
+        }
+        if (retryPermits == null) {
+            throw new IllegalArgumentException("Retry permits cannot be null");
+        }
 
         this.apiKey = apiKey.trim();
+        String url = baseUrl.toString();
+        this.baseUrl = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        this.requestTimeout = requestTimeout;
+        this.retryPolicy = retryPolicy;
+        this.retryPermits = retryPermits;
         this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(TIMEOUT_SECONDS))
+                .connectTimeout(connectTimeout)
                 .followRedirects(HttpClient.Redirect.NORMAL)
                 .build();
         this.objectMapper = new ObjectMapper();
+        this.responseParser = new WeatherResponseParser(objectMapper.getFactory());
     }
 
     /**
@@ -61,149 +163,299 @@ public class WeatherApiClient {
      * @throws WeatherSDKException on other errors
      */
     public WeatherResponse getCurrentWeather(String cityName) throws WeatherSDKException {
-        try {
-            String encodedCity = URLEncoder.encode(cityName, StandardCharsets.UTF_8);
-            String url = String.format("%s?q=%s&appid=%s", BASE_URL, encodedCity, apiKey);
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .timeout(Duration.ofSeconds(TIMEOUT_SECONDS))
-                    .GET()
-                    .build();
+        return send(buildRequest("weather", "q=" + URLEncoder.encode(cityName, StandardCharsets.UTF_8)),
+                notFoundMessage(cityName), responseParser::parse);
+    }
 
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
+    /**
+     * Gets current weather for up to {@link #MAX_GROUP_SIZE} cities in one
+     * request to the group endpoint. The whole body is parsed in one pass.
+     * <p>
+     * Cities are identified by their OpenWeather ID
+     * ({@link WeatherResponse#getCityId()}). IDs the API does not know are
+     * left out of the result.
+     *
+     * @param cityIds OpenWeather city IDs
+     * @return weather data of the cities, each with its city ID
+     * @throws ApiKeyException if API key is invalid
+     * @throws NetworkException on network errors
+     * @throws WeatherSDKException on other errors
+     */
+    public List<WeatherResponse> getCurrentWeatherByIds(Collection<Long> cityIds) throws WeatherSDKException {
+        if (cityIds == null || cityIds.isEmpty()) {
+            throw new IllegalArgumentException("City IDs cannot be null or empty");
+        }
+        if (cityIds.size() > MAX_GROUP_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_GROUP_SIZE + " city IDs can be requested at once");
+        }
 
-            if (response.statusCode() != 200) {
-                handleErrorResponse(response, cityName);
+        StringJoiner ids = new StringJoiner(",");
+        for (Long cityId : cityIds) {
+            if (cityId == null || cityId <= 0) {
+                throw new IllegalArgumentException("City IDs must be positive");
             }
-
-            return parseResponse(response.body());
-
-        } catch (IOException e) {
-            throw new NetworkException("Network error while requesting API: " + e.getMessage(), e);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new NetworkException("Request was interrupted", e);
+            ids.add(cityId.toString());
         }
+        return send(buildRequest("group", "id=" + ids), "Cities with IDs " + ids + " not found",
+                responseParser::parseGroup);
     }
 
     /**
-     * Parses JSON API response to WeatherResponse.
+     * Gets current weather for specified city without blocking the calling thread.
+     * <p>
+     * The request is sent with {@link HttpClient#sendAsync}; no thread waits for
+     * the response. The body is collected as bytes, since reading a stream
+     * would block the completing thread, and parsed without decoding it to a
+     * String. The future fails with the same exceptions as
+     * {@link #getCurrentWeather(String)}.
      *
-     * @param jsonResponse JSON string from API
-     * @return WeatherResponse object
-     * @throws WeatherSDKException if parsing fails
+     * @param cityName city name
+     * @return future completed with weather data, or failed with {@link ApiKeyException},
+     * {@link CityNotFoundException}, {@link NetworkException} or {@link WeatherSDKException}
      */
-    private WeatherResponse parseResponse(String jsonResponse) throws WeatherSDKException {
-        try {
-            JsonNode root = objectMapper.readTree(jsonResponse);
-
-            WeatherResponse response = new WeatherResponse();
-
-            // Parse weather
-            JsonNode weatherArray = root.get("weather");
-            if (weatherArray != null && weatherArray.isArray() && !weatherArray.isEmpty()) {
-                JsonNode weatherNode = weatherArray.get(0);
-                WeatherResponse.Weather weather = new WeatherResponse.Weather(
-                        weatherNode.get("main").asText(),
-                        weatherNode.get("description").asText()
-                );
-                response.setWeather(weather);
-            }
-
-            // Parse temperature
-            JsonNode mainNode = root.get("main");
-            if (mainNode != null) {
-                WeatherResponse.Temperature temp = new WeatherResponse.Temperature(
-                        mainNode.get("temp").asDouble(),
-                        mainNode.get("feels_like").asDouble()
-                );
-                response.setTemperature(temp);
-            }
+    public CompletableFuture<WeatherResponse> getCurrentWeatherAsync(String cityName) {
+        CompletableFuture<WeatherResponse> result = new CompletableFuture<>();
+        HttpRequest request = buildRequest("weather", "q=" + URLEncoder.encode(cityName, StandardCharsets.UTF_8));
+        sendAsync(request, cityName, 1, System.nanoTime(), result);
+        return result;
+    }
 
-            // Parse visibility
-            JsonNode visibilityNode = root.get("visibility");
-            if (visibilityNode != null) {
-                response.setVisibility(visibilityNode.asInt());
-            }
+    /**
+     * Sends one attempt of an asynchronous request; a retry is scheduled
+     * without blocking a thread during the backoff.
+     */
+    private void sendAsync(HttpRequest request, String cityName, int attempt, long startNanos,
+                           CompletableFuture<WeatherResponse> result) {
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, error) -> {
+                    WeatherSDKException failure;
+                    long retryAfterNanos = -1;
+                    boolean retryable;
+                    if (error != null) {
+                        failure = toNetworkException(error);
+                        retryable = failure.getCause() instanceof IOException;
+                    } else if (RetryPolicy.isRetryableStatus(response.statusCode())) {
+                        failure = errorResponseException(response.statusCode(),
+                                new String(response.body(), StandardCharsets.UTF_8), notFoundMessage(cityName));
+                        retryAfterNanos = retryAfterNanos(response);
+                        retryable = true;
+                    } else {
+                        try {
+                            result.complete(handleResponse(response, cityName));
+                        } catch (WeatherSDKException e) {
+                            result.completeExceptionally(e);
+                        }
+                        return;
+                    }
 
-            // Parse wind
-            JsonNode windNode = root.get("wind");
-            if (windNode != null) {
-                WeatherResponse.Wind wind = new WeatherResponse.Wind(
-                        windNode.get("speed").asDouble()
-                );
-                response.setWind(wind);
-            }
+                    long delayNanos = retryable
+                            ? retryPolicy.retryDelayNanos(attempt, System.nanoTime() - startNanos, retryAfterNanos)
+                            : -1;
+                    if (delayNanos < 0) {
+                        result.completeExceptionally(failure);
+                        return;
+                    }
+                    CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS)
+                            .execute(() -> retryPermits.acquireAsync().whenComplete((granted, permitError) -> {
+                                if (Boolean.TRUE.equals(granted)) {
+                                    sendAsync(request, cityName, attempt + 1, startNanos, result);
+                                } else {
+                                    result.completeExceptionally(failure);
+                                }
+                            }));
+                });
+    }
 
-            // Parse datetime
-            JsonNode dtNode = root.get("dt");
-            if (dtNode != null) {
-                response.setDatetime(dtNode.asLong());
-            }
+    /**
+     * Reads a successful response body while it is received
+     */
+    private interface BodyParser<T> {
+        T parse(InputStream body) throws IOException;
+    }
 
-            // Parse sys
-            JsonNode sysNode = root.get("sys");
-            if (sysNode != null) {
-                WeatherResponse.Sys sys = new WeatherResponse.Sys(
-                        sysNode.get("sunrise").asLong(),
-                        sysNode.get("sunset").asLong()
-                );
-                response.setSys(sys);
+    /**
+     * Sends a request and parses the response body as it arrives, retrying
+     * transient failures according to the retry policy while the retry permits allow.
+     *
+     * @param request API request
+     * @param notFoundMessage message of the exception thrown on a 404 response
+     * @param bodyParser parser of a successful response body
+     * @return parsed body
+     * @throws WeatherSDKException if the request fails, the API returned an error or the body cannot be parsed
+     */
+    private <T> T send(HttpRequest request, String notFoundMessage, BodyParser<T> bodyParser)
+            throws WeatherSDKException {
+        long startNanos = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            WeatherSDKException failure;
+            long retryAfterNanos = -1;
+            try {
+                HttpResponse<InputStream> response = httpClient.send(request,
+                        HttpResponse.BodyHandlers.ofInputStream());
+                // Closing the body releases the connection even if parsing stops early
+                try (InputStream body = response.body()) {
+                    int statusCode = response.statusCode();
+                    if (statusCode == 200) {
+                        return parseBody(body, bodyParser);
+                    }
+                    failure = errorResponseException(statusCode, readErrorBody(body), notFoundMessage);
+                    if (!RetryPolicy.isRetryableStatus(statusCode)) {
+                        throw failure;
+                    }
+                    retryAfterNanos = retryAfterNanos(response);
+                }
+            } catch (IOException e) {
+                failure = new NetworkException("Network error while requesting API: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new NetworkException("Request was interrupted", e);
             }
 
-            // Parse timezone
-            JsonNode timezoneNode = root.get("timezone");
-            if (timezoneNode != null) {
-                response.setTimezone(timezoneNode.asInt());
+            long delayNanos = retryPolicy.retryDelayNanos(attempt, System.nanoTime() - startNanos, retryAfterNanos);
+            if (delayNanos < 0) {
+                throw failure;
             }
-
-            // Parse name
-            JsonNode nameNode = root.get("name");
-            if (nameNode != null) {
-                response.setName(nameNode.asText());
+            try {
+                TimeUnit.NANOSECONDS.sleep(delayNanos);
+                if (!retryPermits.acquire()) {
+                    throw failure;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new NetworkException("Request was interrupted", e);
             }
+        }
+    }
 
-            return response;
-
-        } catch (Exception e) {
+    /**
+     * Parses a successful response body; read errors are left to the caller to retry
+     */
+    private static <T> T parseBody(InputStream body, BodyParser<T> bodyParser)
+            throws WeatherSDKException, IOException {
+        try {
+            return bodyParser.parse(body);
+        } catch (JsonProcessingException | RuntimeException e) {
             throw new WeatherSDKException("Failed to parse API response: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Handles HTTP errors with specific exception throwing.
+     * Returns the wait a 429 or 503 response asks for in its {@code Retry-After}
+     * header, given in seconds or as an HTTP date.
      *
      * @param response HTTP error response
+     * @return wait in nanoseconds, or -1 if there is no valid header
+     */
+    private static long retryAfterNanos(HttpResponse<?> response) {
+        int statusCode = response.statusCode();
+        if (statusCode != 429 && statusCode != 503) {
+            return -1;
+        }
+        Optional<String> header = response.headers().firstValue("Retry-After");
+        if (header.isEmpty()) {
+            return -1;
+        }
+        String value = header.get().trim();
+        try {
+            long seconds = Long.parseLong(value);
+            return seconds < 0 ? -1 : TimeUnit.SECONDS.toNanos(seconds);
+        } catch (NumberFormatException e) {
+            // Not delta-seconds, try an HTTP date
+        }
+        try {
+            Instant retryAt = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            Duration wait = Duration.between(Instant.now(), retryAt);
+            return wait.isNegative() ? 0 : wait.toNanos();
+        } catch (DateTimeParseException | ArithmeticException e) {
+            return -1;
+        }
+    }
+
+    private static String notFoundMessage(String cityName) {
+        return "City '" + cityName + "' not found";
+    }
+
+    private HttpRequest buildRequest(String endpoint, String query) {
+        String url = String.format("%s/%s?%s&appid=%s", baseUrl, endpoint, query, apiKey);
+
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+    }
+
+    /**
+     * Checks the status code and parses a successful response.
+     *
+     * @param response HTTP response with the raw body
      * @param cityName city name (for error message)
-     * @throws ApiKeyException on 401 error
-     * @throws CityNotFoundException on 404 error
-     * @throws WeatherSDKException on other errors
+     * @return weather data
+     * @throws WeatherSDKException if the API returned an error or the body cannot be parsed
      */
-    private void handleErrorResponse(HttpResponse<String> response, String cityName)
+    private WeatherResponse handleResponse(HttpResponse<byte[]> response, String cityName)
             throws WeatherSDKException {
-        int statusCode = response.statusCode();
-        String body = response.body();
+        byte[] body = response.body();
+        if (response.statusCode() != 200) {
+            throw errorResponseException(response.statusCode(), new String(body, StandardCharsets.UTF_8),
+                    notFoundMessage(cityName));
+        }
+        try {
+            return responseParser.parse(body);
+        } catch (Exception e) {
+            throw new WeatherSDKException("Failed to parse API response: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Converts a failure of an asynchronous send to the exception the blocking call would throw.
+     */
+    private static WeatherSDKException toNetworkException(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+        if (cause instanceof IOException) {
+            return new NetworkException("Network error while requesting API: " + cause.getMessage(), cause);
+        }
+        return new NetworkException("Request failed: " + cause.getMessage(), cause);
+    }
+
+    /**
+     * Reads an error response body, which is small and only needed for its message
+     */
+    private static String readErrorBody(InputStream body) throws IOException {
+        return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+    }
 
+    /**
+     * Maps an HTTP error to the specific exception.
+     *
+     * @param statusCode HTTP status code
+     * @param body HTTP response body
+     * @param notFoundMessage message of the exception for a 404 response
+     * @return ApiKeyException on 401, CityNotFoundException on 404,
+     *         RateLimitExceededException on 429, NetworkException on 5xx
+     *         server errors and WeatherSDKException on other errors
+     */
+    private WeatherSDKException errorResponseException(int statusCode, String body, String notFoundMessage) {
         String errorMessage = extractErrorMessage(body);
 
         switch (statusCode) {
             case 401:
-                throw new ApiKeyException(
+                return new ApiKeyException(
                         "Invalid API key. Please check your credentials at https://openweathermap.org");
             case 404:
-                throw new CityNotFoundException("City '" + cityName + "' not found");
+                return new CityNotFoundException(notFoundMessage);
             case 429:
-                throw new WeatherSDKException(
+                return new RateLimitExceededException(
                         "API rate limit exceeded. Please try again later.");
             case 500:
             case 502:
             case 503:
-                throw new NetworkException(
+            case 504:
+                return new NetworkException(
                         "OpenWeather API server error. Please try again later.");
             default:
-                throw new WeatherSDKException(
+                return new WeatherSDKException(
                         String.format("API error (HTTP %d): %s", statusCode, errorMessage));
         }
     }
@@ -0,0 +1,276 @@
+package com.weather.sdk.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.weather.sdk.model.WeatherResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming parser of OpenWeather current weather responses.
+ * <p>
+ * Reads tokens with Jackson's {@link JsonParser} straight into
+ * {@link WeatherResponse} fields. Sections the SDK does not use (coord,
+ * clouds, base, cod and any unknown field) are skipped without being
+ * materialized, so no intermediate tree is built. Fields may come in any order.
+ * Group responses of several cities are read the same way, city by city.
+ * <p>
+ * Missing or null sections leave the corresponding response field unset;
+ * missing values inside a section default to zero or null.
+ * Instances are thread-safe.
+ */
+public final class WeatherResponseParser {
+
+    private final JsonFactory jsonFactory;
+
+    public WeatherResponseParser() {
+        this(new JsonFactory());
+    }
+
+    /**
+     * Creates parser using the given factory
+     *
+     * @param jsonFactory factory creating token parsers
+     */
+    public WeatherResponseParser(JsonFactory jsonFactory) {
+        if (jsonFactory == null) {
+            throw new IllegalArgumentException("JSON factory cannot be null");
+        }
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Parses JSON API response to WeatherResponse
+     *
+     * @param json JSON string from API
+     * @return WeatherResponse object
+     * @throws IOException if the JSON is malformed or is not an object
+     */
+    public WeatherResponse parse(String json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return readResponse(parser);
+        }
+    }
+
+    /**
+     * Parses JSON API response from raw body bytes. The encoding (UTF-8 for
+     * OpenWeather) is detected by Jackson, so the body is never decoded to a String.
+     *
+     * @param json JSON bytes from API
+     * @return WeatherResponse object
+     * @throws IOException if the JSON is malformed or is not an object
+     */
+    public WeatherResponse parse(byte[] json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return readResponse(parser);
+        }
+    }
+
+    /**
+     * Parses JSON API response while it is read from the stream, without
+     * buffering the whole body first.
+     *
+     * @param json stream of JSON bytes from API
+     * @return WeatherResponse object
+     * @throws JsonProcessingException if the JSON is malformed or is not an object
+     * @throws IOException if reading the stream fails
+     */
+    public WeatherResponse parse(InputStream json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return readResponse(parser);
+        }
+    }
+
+    /**
+     * Parses a group response ({@code {"cnt": n, "list": [...]}}) holding the
+     * weather of several cities, in one pass over the body.
+     *
+     * @param json stream of JSON bytes from API
+     * @return responses of the cities in the list, in API order
+     * @throws JsonProcessingException if the JSON is malformed or is not an object
+     * @throws IOException if reading the stream fails
+     */
+    public List<WeatherResponse> parseGroup(InputStream json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return readGroup(parser);
+        }
+    }
+
+    /**
+     * Parses a group response from raw body bytes
+     *
+     * @param json JSON bytes from API
+     * @return responses of the cities in the list, in API order
+     * @throws IOException if the JSON is malformed or is not an object
+     */
+    public List<WeatherResponse> parseGroup(byte[] json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return readGroup(parser);
+        }
+    }
+
+    private WeatherResponse readResponse(JsonParser parser) throws IOException {
+        expectObject(parser, parser.nextToken());
+        return readObject(parser);
+    }
+
+    private List<WeatherResponse> readGroup(JsonParser parser) throws IOException {
+        expectObject(parser, parser.nextToken());
+
+        List<WeatherResponse> responses = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("list".equals(field) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    expectObject(parser, parser.currentToken());
+                    responses.add(readObject(parser));
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return responses;
+    }
+
+    private static void expectObject(JsonParser parser, JsonToken token) throws JsonParseException {
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected JSON object, got " + token);
+        }
+    }
+
+    /**
+     * Reads a city object; the parser is positioned at its start
+     */
+    private WeatherResponse readObject(JsonParser parser) throws IOException {
+        WeatherResponse response = new WeatherResponse();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "weather":
+                    response.setWeather(readWeather(parser));
+                    break;
+                case "main":
+                    response.setTemperature(readTemperature(parser));
+                    break;
+                case "visibility":
+                    response.setVisibility(parser.getValueAsInt());
+                    break;
+                case "wind":
+                    response.setWind(readWind(parser));
+                    break;
+                case "dt":
+                    response.setDatetime(parser.getValueAsLong());
+                    break;
+                case "sys":
+                    response.setSys(readSys(parser));
+                    break;
+                case "timezone":
+                    response.setTimezone(parser.getValueAsInt());
+                    break;
+                case "name":
+                    response.setName(parser.getValueAsString());
+                    break;
+                case "id":
+                    response.setCityId(parser.getValueAsLong());
+                    break;
+                default:
+                    break;
+            }
+            // Skips unused sections; no-op for scalars and sections read to their end
+            parser.skipChildren();
+        }
+        return response;
+    }
+
+    /**
+     * Reads the first element of the weather array, skipping the others
+     */
+    private static WeatherResponse.Weather readWeather(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            return null;
+        }
+
+        WeatherResponse.Weather weather = null;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (weather == null && parser.currentToken() == JsonToken.START_OBJECT) {
+                weather = new WeatherResponse.Weather();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    if ("main".equals(field)) {
+                        weather.setMain(parser.getValueAsString());
+                    } else if ("description".equals(field)) {
+                        weather.setDescription(parser.getValueAsString());
+                    }
+                    parser.skipChildren();
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return weather;
+    }
+
+    private static WeatherResponse.Temperature readTemperature(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+
+        WeatherResponse.Temperature temperature = new WeatherResponse.Temperature();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("temp".equals(field)) {
+                temperature.setTemp(parser.getValueAsDouble());
+            } else if ("feels_like".equals(field)) {
+                temperature.setFeelsLike(parser.getValueAsDouble());
+            }
+            parser.skipChildren();
+        }
+        return temperature;
+    }
+
+    private static WeatherResponse.Wind readWind(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+
+        WeatherResponse.Wind wind = new WeatherResponse.Wind();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("speed".equals(field)) {
+                wind.setSpeed(parser.getValueAsDouble());
+            }
+            parser.skipChildren();
+        }
+        return wind;
+    }
+
+    private static WeatherResponse.Sys readSys(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+
+        WeatherResponse.Sys sys = new WeatherResponse.Sys();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("sunrise".equals(field)) {
+                sys.setSunrise(parser.getValueAsLong());
+            } else if ("sunset".equals(field)) {
+                sys.setSunset(parser.getValueAsLong());
+            }
+            parser.skipChildren();
+        }
+        return sys;
+    }
+}
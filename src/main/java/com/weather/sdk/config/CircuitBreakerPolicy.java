@@ -0,0 +1,267 @@
+package com.weather.sdk.config;
+
+import java.time.Duration;
+
+/**
+ * Immutable settings of the circuit breaker guarding OpenWeather API requests.
+ * <p>
+ * The breaker keeps the outcomes of the last {@code slidingWindowSize} calls.
+ * Once at least {@code minimumCalls} are recorded, it opens when the share of
+ * failed calls reaches {@code failureRateThreshold} or the share of calls
+ * taking {@code slowCallDuration} or longer reaches {@code slowCallRateThreshold}.
+ * An open circuit rejects requests without sending them for {@code openDuration};
+ * then up to {@code halfOpenCalls} trial requests decide, by the same
+ * thresholds, whether it closes again or stays open for another period.
+ * <p>
+ * Connection errors, server errors and API rate limit responses count as
+ * failures; 401, 404 and other client errors do not.
+ * <p>
+ * Usage example:
+ * <pre>
+ * CircuitBreakerPolicy policy = CircuitBreakerPolicy.builder()
+ *         .failureRateThreshold(0.3)
+ *         .openDuration(Duration.ofSeconds(10))
+ *         .build();
+ * </pre>
+ */
+public final class CircuitBreakerPolicy {
+
+    public static final double DEFAULT_FAILURE_RATE_THRESHOLD = 0.5;
+    public static final double DEFAULT_SLOW_CALL_RATE_THRESHOLD = 0.8;
+    public static final Duration DEFAULT_SLOW_CALL_DURATION = Duration.ofSeconds(5);
+    public static final int DEFAULT_SLIDING_WINDOW_SIZE = 20;
+    public static final int DEFAULT_MINIMUM_CALLS = 10;
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+    public static final int DEFAULT_HALF_OPEN_CALLS = 3;
+
+    private static final CircuitBreakerPolicy DEFAULTS = builder().build();
+    private static final CircuitBreakerPolicy DISABLED = new CircuitBreakerPolicy(builder(), false);
+
+    private final boolean enabled;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final Duration slowCallDuration;
+    private final int slidingWindowSize;
+    private final int minimumCalls;
+    private final Duration openDuration;
+    private final int halfOpenCalls;
+
+    private CircuitBreakerPolicy(Builder builder, boolean enabled) {
+        this.enabled = enabled;
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.slowCallDuration = builder.slowCallDuration;
+        this.slidingWindowSize = builder.slidingWindowSize;
+        this.minimumCalls = builder.minimumCalls;
+        this.openDuration = builder.openDuration;
+        this.halfOpenCalls = builder.halfOpenCalls;
+    }
+
+    /**
+     * Creates a builder initialized with default values
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns policy with all default values: opens at 50% failed or 80% slow (5 s)
+     * of the last 20 calls, stays open for 30 s and closes after 3 trial calls
+     */
+    public static CircuitBreakerPolicy defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Returns policy that never opens the circuit
+     */
+    public static CircuitBreakerPolicy disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Returns false if requests are never rejected
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns share of failed calls, from 0 exclusive to 1, that opens the circuit
+     */
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    /**
+     * Returns share of slow calls, from 0 exclusive to 1, that opens the circuit
+     */
+    public double getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    /**
+     * Returns duration from which a call counts as slow
+     */
+    public Duration getSlowCallDuration() {
+        return slowCallDuration;
+    }
+
+    /**
+     * Returns number of most recent calls the rates are computed over
+     */
+    public int getSlidingWindowSize() {
+        return slidingWindowSize;
+    }
+
+    /**
+     * Returns number of calls that must be recorded before the circuit can open
+     */
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    /**
+     * Returns how long an open circuit rejects requests before allowing trial calls
+     */
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    /**
+     * Returns number of trial calls allowed while the circuit is half-open
+     */
+    public int getHalfOpenCalls() {
+        return halfOpenCalls;
+    }
+
+    @Override
+    public String toString() {
+        if (!enabled) {
+            return "CircuitBreakerPolicy{disabled}";
+        }
+        return "CircuitBreakerPolicy{failureRateThreshold=" + failureRateThreshold
+                + ", slowCallRateThreshold=" + slowCallRateThreshold + ", slowCallDuration=" + slowCallDuration
+                + ", slidingWindowSize=" + slidingWindowSize + ", minimumCalls=" + minimumCalls
+                + ", openDuration=" + openDuration + ", halfOpenCalls=" + halfOpenCalls + '}';
+    }
+
+    /**
+     * Builder of {@link CircuitBreakerPolicy}
+     */
+    public static final class Builder {
+
+        private double failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+        private double slowCallRateThreshold = DEFAULT_SLOW_CALL_RATE_THRESHOLD;
+        private Duration slowCallDuration = DEFAULT_SLOW_CALL_DURATION;
+        private int slidingWindowSize = DEFAULT_SLIDING_WINDOW_SIZE;
+        private int minimumCalls = DEFAULT_MINIMUM_CALLS;
+        private Duration openDuration = DEFAULT_OPEN_DURATION;
+        private int halfOpenCalls = DEFAULT_HALF_OPEN_CALLS;
+
+        private Builder() {}
+
+        /**
+         * Sets share of failed calls that opens the circuit
+         *
+         * @param failureRateThreshold value greater than 0 and at most 1
+         */
+        public Builder failureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = requireRate(failureRateThreshold, "Failure rate threshold");
+            return this;
+        }
+
+        /**
+         * Sets share of slow calls that opens the circuit
+         *
+         * @param slowCallRateThreshold value greater than 0 and at most 1
+         */
+        public Builder slowCallRateThreshold(double slowCallRateThreshold) {
+            this.slowCallRateThreshold = requireRate(slowCallRateThreshold, "Slow call rate threshold");
+            return this;
+        }
+
+        /**
+         * Sets duration from which a call counts as slow, including its retries
+         *
+         * @param slowCallDuration positive duration
+         */
+        public Builder slowCallDuration(Duration slowCallDuration) {
+            this.slowCallDuration = requirePositive(slowCallDuration, "Slow call duration");
+            return this;
+        }
+
+        /**
+         * Sets number of most recent calls the rates are computed over
+         *
+         * @param slidingWindowSize positive number of calls
+         */
+        public Builder slidingWindowSize(int slidingWindowSize) {
+            if (slidingWindowSize <= 0) {
+                throw new IllegalArgumentException("Sliding window size must be positive");
+            }
+            this.slidingWindowSize = slidingWindowSize;
+            return this;
+        }
+
+        /**
+         * Sets number of calls that must be recorded before the circuit can open
+         *
+         * @param minimumCalls positive number of calls, at most the sliding window size
+         */
+        public Builder minimumCalls(int minimumCalls) {
+            if (minimumCalls <= 0) {
+                throw new IllegalArgumentException("Minimum calls must be positive");
+            }
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * Sets how long an open circuit rejects requests before allowing trial calls
+         *
+         * @param openDuration positive duration
+         */
+        public Builder openDuration(Duration openDuration) {
+            this.openDuration = requirePositive(openDuration, "Open duration");
+            return this;
+        }
+
+        /**
+         * Sets number of trial calls allowed while the circuit is half-open
+         *
+         * @param halfOpenCalls positive number of calls
+         */
+        public Builder halfOpenCalls(int halfOpenCalls) {
+            if (halfOpenCalls <= 0) {
+                throw new IllegalArgumentException("Half-open calls must be positive");
+            }
+            this.halfOpenCalls = halfOpenCalls;
+            return this;
+        }
+
+        /**
+         * Creates circuit breaker policy
+         */
+        public CircuitBreakerPolicy build() {
+            if (minimumCalls > slidingWindowSize) {
+                throw new IllegalArgumentException("Minimum calls cannot exceed sliding window size");
+            }
+            return new CircuitBreakerPolicy(this, true);
+        }
+
+        private static double requireRate(double value, String name) {
+            if (!(value > 0 && value <= 1)) {
+                throw new IllegalArgumentException(name + " must be greater than 0 and at most 1");
+            }
+            return value;
+        }
+
+        private static Duration requirePositive(Duration value, String name) {
+            if (value == null || value.isZero() || value.isNegative()) {
+                throw new IllegalArgumentException(name + " must be positive");
+            }
+            return value;
+        }
+    }
+}
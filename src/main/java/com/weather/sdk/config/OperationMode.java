@@ -17,7 +17,7 @@ public enum OperationMode {
 
     /**
      * Continuous polling mode - data for all cities in cache is updated
-     * automatically every 5 minutes in background.
+     * automatically every polling interval (5 minutes by default) in background.
      * Suitable for apps where minimal latency on weather queries is important.
      * <p>
      * Advantages:
@@ -0,0 +1,212 @@
+package com.weather.sdk.config;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Immutable policy for retrying failed API requests.
+ * <p>
+ * Connection and read errors and HTTP 429, 500, 502, 503 and 504 responses
+ * are retried; other responses, such as 401 and 404, never are. The wait
+ * before retry {@code n} is drawn uniformly from
+ * {@code [0, min(maxBackoff, initialBackoff * 2^(n-1))]} ("full jitter"), so
+ * clients failing together do not retry together. A {@code Retry-After}
+ * header on a 429 or 503 response replaces the computed wait.
+ * <p>
+ * Requests are attempted at most {@code maxAttempts} times, and a retry is
+ * only made if it starts within {@code maxElapsed} of the first attempt.
+ * <p>
+ * Usage example:
+ * <pre>
+ * RetryPolicy policy = RetryPolicy.builder()
+ *         .maxAttempts(5)
+ *         .initialBackoff(Duration.ofMillis(100))
+ *         .build();
+ * </pre>
+ */
+public final class RetryPolicy {
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(200);
+    public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(5);
+    public static final Duration DEFAULT_MAX_ELAPSED = Duration.ofSeconds(15);
+
+    private static final RetryPolicy DEFAULTS = builder().build();
+    private static final RetryPolicy DISABLED = builder().maxAttempts(1).build();
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration maxElapsed;
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoff = builder.initialBackoff;
+        this.maxBackoff = builder.maxBackoff;
+        this.maxElapsed = builder.maxElapsed;
+    }
+
+    /**
+     * Creates a builder initialized with default values
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns policy with all default values: 3 attempts, backoff from 200 ms up to 5 s, 15 s in total
+     */
+    public static RetryPolicy defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Returns policy that makes a single attempt
+     */
+    public static RetryPolicy disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Returns maximum number of attempts per request, including the first
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Returns upper bound of the wait before the first retry
+     */
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    /**
+     * Returns upper bound of the wait before any retry
+     */
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * Returns time after the first attempt within which retries may start
+     */
+    public Duration getMaxElapsed() {
+        return maxElapsed;
+    }
+
+    /**
+     * Returns true if a response with the status code may succeed when retried
+     */
+    public static boolean isRetryableStatus(int statusCode) {
+        return statusCode == 429 || statusCode == 500 || statusCode == 502
+                || statusCode == 503 || statusCode == 504;
+    }
+
+    /**
+     * Returns how long to wait before the next attempt, or -1 if the request must not be retried.
+     *
+     * @param attempt number of the attempt that failed, starting at 1
+     * @param elapsedNanos time since the first attempt started
+     * @param retryAfterNanos wait requested by the server, or -1 if none
+     * @return wait in nanoseconds, or -1 if attempts or time are used up
+     */
+    public long retryDelayNanos(int attempt, long elapsedNanos, long retryAfterNanos) {
+        if (attempt >= maxAttempts) {
+            return -1;
+        }
+        long delayNanos = retryAfterNanos >= 0 ? retryAfterNanos : backoffNanos(attempt);
+        if (elapsedNanos + delayNanos > maxElapsed.toNanos()) {
+            return -1;
+        }
+        return delayNanos;
+    }
+
+    private long backoffNanos(int attempt) {
+        // Doubling stops at the cap; the shift is bounded so it cannot overflow
+        long ceiling = initialBackoff.toNanos() << Math.min(attempt - 1, 30);
+        if (ceiling <= 0 || ceiling > maxBackoff.toNanos()) {
+            ceiling = maxBackoff.toNanos();
+        }
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy{maxAttempts=" + maxAttempts + ", initialBackoff=" + initialBackoff
+                + ", maxBackoff=" + maxBackoff + ", maxElapsed=" + maxElapsed + '}';
+    }
+
+    /**
+     * Builder of {@link RetryPolicy}
+     */
+    public static final class Builder {
+
+        private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+        private Duration initialBackoff = DEFAULT_INITIAL_BACKOFF;
+        private Duration maxBackoff = DEFAULT_MAX_BACKOFF;
+        private Duration maxElapsed = DEFAULT_MAX_ELAPSED;
+
+        private Builder() {}
+
+        /**
+         * Sets maximum number of attempts per request, including the first
+         *
+         * @param maxAttempts positive number, 1 to disable retries
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts <= 0) {
+                throw new IllegalArgumentException("Max attempts must be positive");
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Sets upper bound of the wait before the first retry; it doubles with every retry
+         *
+         * @param initialBackoff positive duration
+         */
+        public Builder initialBackoff(Duration initialBackoff) {
+            this.initialBackoff = requirePositive(initialBackoff, "Initial backoff");
+            return this;
+        }
+
+        /**
+         * Sets upper bound of the wait before any retry
+         *
+         * @param maxBackoff positive duration
+         */
+        public Builder maxBackoff(Duration maxBackoff) {
+            this.maxBackoff = requirePositive(maxBackoff, "Max backoff");
+            return this;
+        }
+
+        /**
+         * Sets time after the first attempt within which retries may start
+         *
+         * @param maxElapsed positive duration
+         */
+        public Builder maxElapsed(Duration maxElapsed) {
+            this.maxElapsed = requirePositive(maxElapsed, "Max elapsed time");
+            return this;
+        }
+
+        /**
+         * Creates retry policy
+         */
+        public RetryPolicy build() {
+            if (initialBackoff.compareTo(maxBackoff) > 0) {
+                throw new IllegalArgumentException("Initial backoff cannot exceed max backoff");
+            }
+            return new RetryPolicy(this);
+        }
+
+        private static Duration requirePositive(Duration value, String name) {
+            if (value == null || value.isZero() || value.isNegative()) {
+                throw new IllegalArgumentException(name + " must be positive");
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,652 @@
+package com.weather.sdk.config;
+
+import com.weather.sdk.cache.Weigher;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Immutable WeatherSDK configuration.
+ * <p>
+ * Created with {@link #builder()}; every setting has a default matching the
+ * original SDK behaviour (10 cities, 10 minute TTL, 5 minute polling,
+ * 10 second timeouts).
+ * <p>
+ * Usage example:
+ * <pre>
+ * WeatherSDKConfig config = WeatherSDKConfig.builder()
+ *         .cacheCapacity(50_000)
+ *         .cacheTtl(Duration.ofMinutes(15))
+ *         .pollingInterval(Duration.ofMinutes(10))
+ *         .build();
+ * WeatherSDK sdk = new WeatherSDK("your-api-key", OperationMode.POLLING, config);
+ * </pre>
+ * To bound the cache by memory instead of entry count, set
+ * {@link Builder#cacheMaximumWeight(long)} to a byte budget, e.g. a share of
+ * {@code Runtime.getRuntime().maxMemory()}.
+ * <p>
+ * Executors passed in are used as-is and are not shut down when the SDK is closed.
+ */
+public final class WeatherSDKConfig {
+
+    public static final int DEFAULT_CACHE_CAPACITY = 10;
+    public static final Duration DEFAULT_CACHE_TTL = Duration.ofMinutes(10);
+    public static final Duration DEFAULT_POLLING_INTERVAL = Duration.ofMinutes(5);
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+    public static final double DEFAULT_REFRESH_AHEAD_FRACTION = 0.2;
+    public static final Duration DEFAULT_REFRESH_BACKOFF = Duration.ofSeconds(30);
+    public static final Duration DEFAULT_NEGATIVE_CACHE_TTL = Duration.ofMinutes(1);
+    public static final Duration DEFAULT_SNAPSHOT_INTERVAL = Duration.ofMinutes(1);
+    public static final int DEFAULT_SHARED_STORE_CAPACITY = 10_000;
+    public static final URI DEFAULT_API_BASE_URL = URI.create("https://api.openweathermap.org/data/2.5");
+
+    private static final WeatherSDKConfig DEFAULTS = builder().build();
+
+    private final int cacheCapacity;
+    private final long cacheMaximumWeight;
+    private final Weigher cacheWeigher;
+    private final int offHeapCacheCapacity;
+    private final boolean sharedCache;
+    private final Duration cacheTtl;
+    private final Duration staleGracePeriod;
+    private final double refreshAheadFraction;
+    private final Duration refreshBackoff;
+    private final Duration negativeCacheTtl;
+    private final Duration missBatchWindow;
+    private final Duration pollingInterval;
+    private final Path snapshotFile;
+    private final Duration snapshotInterval;
+    private final Path sharedStoreFile;
+    private final int sharedStoreCapacity;
+    private final URI apiBaseUrl;
+    private final int requestsPerMinute;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreakerPolicy circuitBreaker;
+    private final Duration connectTimeout;
+    private final Duration requestTimeout;
+    private final ExecutorService fetchExecutor;
+    private final ScheduledExecutorService pollingExecutor;
+
+    private WeatherSDKConfig(Builder builder) {
+        this.cacheCapacity = builder.cacheCapacity;
+        this.cacheMaximumWeight = builder.cacheMaximumWeight;
+        this.cacheWeigher = builder.cacheWeigher;
+        this.offHeapCacheCapacity = builder.offHeapCacheCapacity;
+        this.sharedCache = builder.sharedCache;
+        this.cacheTtl = builder.cacheTtl;
+        this.staleGracePeriod = builder.staleGracePeriod;
+        this.refreshAheadFraction = builder.refreshAheadFraction;
+        this.refreshBackoff = builder.refreshBackoff;
+        this.negativeCacheTtl = builder.negativeCacheTtl;
+        this.missBatchWindow = builder.missBatchWindow;
+        this.pollingInterval = builder.pollingInterval;
+        this.snapshotFile = builder.snapshotFile;
+        this.snapshotInterval = builder.snapshotInterval;
+        this.sharedStoreFile = builder.sharedStoreFile;
+        this.sharedStoreCapacity = builder.sharedStoreCapacity;
+        this.apiBaseUrl = builder.apiBaseUrl;
+        this.requestsPerMinute = builder.requestsPerMinute;
+        this.retryPolicy = builder.retryPolicy;
+        this.circuitBreaker = builder.circuitBreaker;
+        this.connectTimeout = builder.connectTimeout;
+        this.requestTimeout = builder.requestTimeout;
+        this.fetchExecutor = builder.fetchExecutor;
+        this.pollingExecutor = builder.pollingExecutor;
+    }
+
+    /**
+     * Creates a builder initialized with default values
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns configuration with all default values
+     */
+    public static WeatherSDKConfig defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Returns maximum number of cities in cache
+     */
+    public int getCacheCapacity() {
+        return cacheCapacity;
+    }
+
+    /**
+     * Returns maximum total weight of cache entries, or 0 if the cache is bounded by {@link #getCacheCapacity()}
+     */
+    public long getCacheMaximumWeight() {
+        return cacheMaximumWeight;
+    }
+
+    /**
+     * Returns weigher of cache entries used when a maximum weight is set
+     */
+    public Weigher getCacheWeigher() {
+        return cacheWeigher;
+    }
+
+    /**
+     * Returns maximum number of cities in the off-heap second level cache, 0 if it is disabled
+     */
+    public int getOffHeapCacheCapacity() {
+        return offHeapCacheCapacity;
+    }
+
+    /**
+     * Returns true if instances created by {@code WeatherSDKFactory} share one cache across API keys
+     */
+    public boolean isSharedCache() {
+        return sharedCache;
+    }
+
+    /**
+     * Returns how long fetched data stays valid
+     */
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    /**
+     * Returns how long expired data may be served as stale while it is refreshed
+     */
+    public Duration getStaleGracePeriod() {
+        return staleGracePeriod;
+    }
+
+    /**
+     * Returns fraction of the TTL before expiry in which reads trigger a background reload
+     */
+    public double getRefreshAheadFraction() {
+        return refreshAheadFraction;
+    }
+
+    /**
+     * Returns minimum time between two background refreshes of the same cached data
+     */
+    public Duration getRefreshBackoff() {
+        return refreshBackoff;
+    }
+
+    /**
+     * Returns how long a city rejected as not found is remembered, zero if disabled
+     */
+    public Duration getNegativeCacheTtl() {
+        return negativeCacheTtl;
+    }
+
+    /**
+     * Returns how long a cache miss waits to share a group request with other misses, zero if disabled
+     */
+    public Duration getMissBatchWindow() {
+        return missBatchWindow;
+    }
+
+    /**
+     * Returns interval between background updates in POLLING mode
+     */
+    public Duration getPollingInterval() {
+        return pollingInterval;
+    }
+
+    /**
+     * Returns file the cache is saved to and restored from, or null if snapshots are disabled
+     */
+    public Path getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    /**
+     * Returns interval between periodic snapshots, zero if the snapshot is only written on close
+     */
+    public Duration getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    /**
+     * Returns file of the store shared with other processes on the host, or null if there is none
+     */
+    public Path getSharedStoreFile() {
+        return sharedStoreFile;
+    }
+
+    /**
+     * Returns maximum number of cities in the store shared with other processes
+     */
+    public int getSharedStoreCapacity() {
+        return sharedStoreCapacity;
+    }
+
+    /**
+     * Returns base URL of the OpenWeather API
+     */
+    public URI getApiBaseUrl() {
+        return apiBaseUrl;
+    }
+
+    /**
+     * Returns maximum number of API requests per minute, 0 if requests are not limited
+     */
+    public int getRequestsPerMinute() {
+        return requestsPerMinute;
+    }
+
+    /**
+     * Returns policy for retrying failed API requests
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Returns settings of the circuit breaker guarding API requests
+     */
+    public CircuitBreakerPolicy getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Returns HTTP connect timeout
+     */
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Returns HTTP request timeout
+     */
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    /**
+     * Returns executor for background fetches, or null if the SDK creates its own
+     */
+    public ExecutorService getFetchExecutor() {
+        return fetchExecutor;
+    }
+
+    /**
+     * Returns scheduler for polling and snapshots, or null if the SDK creates its own
+     */
+    public ScheduledExecutorService getPollingExecutor() {
+        return pollingExecutor;
+    }
+
+    /**
+     * Builder for {@link WeatherSDKConfig}.
+     */
+    public static final class Builder {
+
+        private int cacheCapacity = DEFAULT_CACHE_CAPACITY;
+        private long cacheMaximumWeight;
+        private Weigher cacheWeigher = Weigher.estimatedBytes();
+        private int offHeapCacheCapacity;
+        private boolean sharedCache;
+        private Duration cacheTtl = DEFAULT_CACHE_TTL;
+        private Duration staleGracePeriod = Duration.ZERO;
+        private double refreshAheadFraction = DEFAULT_REFRESH_AHEAD_FRACTION;
+        private Duration refreshBackoff = DEFAULT_REFRESH_BACKOFF;
+        private Duration negativeCacheTtl = DEFAULT_NEGATIVE_CACHE_TTL;
+        private Duration missBatchWindow = Duration.ZERO;
+        private Duration pollingInterval = DEFAULT_POLLING_INTERVAL;
+        private Path snapshotFile;
+        private Duration snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+        private Path sharedStoreFile;
+        private int sharedStoreCapacity = DEFAULT_SHARED_STORE_CAPACITY;
+        private URI apiBaseUrl = DEFAULT_API_BASE_URL;
+        private int requestsPerMinute;
+        private RetryPolicy retryPolicy = RetryPolicy.defaults();
+        private CircuitBreakerPolicy circuitBreaker = CircuitBreakerPolicy.defaults();
+        private Duration connectTimeout = DEFAULT_TIMEOUT;
+        private Duration requestTimeout = DEFAULT_TIMEOUT;
+        private ExecutorService fetchExecutor;
+        private ScheduledExecutorService pollingExecutor;
+
+        private Builder() {}
+
+        /**
+         * Sets maximum number of cities in cache
+         *
+         * @param cacheCapacity positive number of entries
+         */
+        public Builder cacheCapacity(int cacheCapacity) {
+            if (cacheCapacity <= 0) {
+                throw new IllegalArgumentException("Cache capacity must be positive");
+            }
+            this.cacheCapacity = cacheCapacity;
+            return this;
+        }
+
+        /**
+         * Bounds the cache by the total weight of its entries instead of their number.
+         * With the default weigher the weight is the estimated heap size in bytes.
+         *
+         * @param cacheMaximumWeight positive weight, e.g. a byte budget
+         */
+        public Builder cacheMaximumWeight(long cacheMaximumWeight) {
+            if (cacheMaximumWeight <= 0) {
+                throw new IllegalArgumentException("Cache maximum weight must be positive");
+            }
+            this.cacheMaximumWeight = cacheMaximumWeight;
+            return this;
+        }
+
+        /**
+         * Sets weigher of cache entries, used together with {@link #cacheMaximumWeight(long)}.
+         * Defaults to {@link Weigher#estimatedBytes()}.
+         *
+         * @param cacheWeigher weigher
+         */
+        public Builder cacheWeigher(Weigher cacheWeigher) {
+            if (cacheWeigher == null) {
+                throw new IllegalArgumentException("Cache weigher cannot be null");
+            }
+            this.cacheWeigher = cacheWeigher;
+            return this;
+        }
+
+        /**
+         * Adds an off-heap second level cache behind the on-heap cache. Entries evicted
+         * from the on-heap cache move there and are promoted back when requested, so the
+         * on-heap cache can stay small while many cities remain cached.
+         *
+         * @param offHeapCacheCapacity positive number of cities
+         */
+        public Builder offHeapCacheCapacity(int offHeapCacheCapacity) {
+            if (offHeapCacheCapacity <= 0) {
+                throw new IllegalArgumentException("Off-heap cache capacity must be positive");
+            }
+            this.offHeapCacheCapacity = offHeapCacheCapacity;
+            return this;
+        }
+
+        /**
+         * Makes instances created by {@code WeatherSDKFactory} with this option share
+         * one cache, so a city is fetched once per TTL whichever API key asks. The
+         * shared cache is set up by the configuration of the first such instance;
+         * instances whose cache settings (capacity, weight, off-heap tier, grace
+         * period, negative cache TTL, snapshot file and interval, shared store) differ
+         * are rejected.
+         * The shared cache's snapshot is restored and saved once, not per instance.
+         *
+         * @param sharedCache true to share the cache across API keys
+         */
+        public Builder sharedCache(boolean sharedCache) {
+            this.sharedCache = sharedCache;
+            return this;
+        }
+
+        /**
+         * Sets how long fetched data stays valid
+         *
+         * @param cacheTtl positive duration
+         */
+        public Builder cacheTtl(Duration cacheTtl) {
+            this.cacheTtl = requirePositive(cacheTtl, "Cache TTL");
+            return this;
+        }
+
+        /**
+         * Sets how long expired data may be served as stale while a background refresh runs.
+         * Zero (the default) disables stale serving.
+         *
+         * @param staleGracePeriod non-negative duration
+         */
+        public Builder staleGracePeriod(Duration staleGracePeriod) {
+            if (staleGracePeriod == null || staleGracePeriod.isNegative()) {
+                throw new IllegalArgumentException("Stale grace period cannot be null or negative");
+            }
+            this.staleGracePeriod = staleGracePeriod;
+            return this;
+        }
+
+        /**
+         * Sets fraction of the TTL before expiry in which reads trigger a background reload.
+         * Zero disables refresh-ahead.
+         *
+         * @param refreshAheadFraction value in range [0, 1)
+         */
+        public Builder refreshAheadFraction(double refreshAheadFraction) {
+            if (!(refreshAheadFraction >= 0 && refreshAheadFraction < 1)) {
+                throw new IllegalArgumentException("Refresh-ahead fraction must be in range [0, 1)");
+            }
+            this.refreshAheadFraction = refreshAheadFraction;
+            return this;
+        }
+
+        /**
+         * Sets how long reads of the same cached data wait before starting
+         * another background refresh. A refresh that fails leaves the data in
+         * place; without a backoff every read of a hot city would send a request.
+         *
+         * @param refreshBackoff positive duration
+         */
+        public Builder refreshBackoff(Duration refreshBackoff) {
+            this.refreshBackoff = requirePositive(refreshBackoff, "Refresh backoff");
+            return this;
+        }
+
+        /**
+         * Sets how long a city rejected by the API as not found is remembered.
+         * Requests for it fail with CityNotFoundException without an HTTP call
+         * until then. Zero disables negative caching.
+         *
+         * @param negativeCacheTtl non-negative duration
+         */
+        public Builder negativeCacheTtl(Duration negativeCacheTtl) {
+            if (negativeCacheTtl == null || negativeCacheTtl.isNegative()) {
+                throw new IllegalArgumentException("Negative cache TTL cannot be null or negative");
+            }
+            this.negativeCacheTtl = negativeCacheTtl;
+            return this;
+        }
+
+        /**
+         * Sets how long a cache miss waits for misses from other threads to
+         * share one group request. Only cities whose OpenWeather ID is known
+         * from an earlier response can be batched. A batch is sent when the
+         * window of its first miss ends or when it holds 20 cities, so a miss
+         * is delayed by at most the window. A miss whose batch has not completed
+         * within the window, twice the request timeout and the retry policy's
+         * maximum elapsed time sends its own request. Zero (the default)
+         * disables batching.
+         *
+         * @param missBatchWindow non-negative duration, typically a few milliseconds
+         */
+        public Builder missBatchWindow(Duration missBatchWindow) {
+            if (missBatchWindow == null || missBatchWindow.isNegative()) {
+                throw new IllegalArgumentException("Miss batch window cannot be null or negative");
+            }
+            this.missBatchWindow = missBatchWindow;
+            return this;
+        }
+
+        /**
+         * Sets interval between background updates in POLLING mode
+         *
+         * @param pollingInterval positive duration
+         */
+        public Builder pollingInterval(Duration pollingInterval) {
+            this.pollingInterval = requirePositive(pollingInterval, "Polling interval");
+            return this;
+        }
+
+        /**
+         * Enables cache snapshots: the cache is restored from the file on startup
+         * and saved to it on close and every snapshot interval.
+         *
+         * @param snapshotFile snapshot file or null to disable snapshots
+         */
+        public Builder snapshotFile(Path snapshotFile) {
+            this.snapshotFile = snapshotFile;
+            return this;
+        }
+
+        /**
+         * Sets interval between periodic snapshots. Zero writes the snapshot only on close.
+         *
+         * @param snapshotInterval non-negative duration
+         */
+        public Builder snapshotInterval(Duration snapshotInterval) {
+            if (snapshotInterval == null || snapshotInterval.isNegative()) {
+                throw new IllegalArgumentException("Snapshot interval cannot be null or negative");
+            }
+            this.snapshotInterval = snapshotInterval;
+            return this;
+        }
+
+        /**
+         * Shares fetched data with the other processes on the host through a
+         * memory-mapped file. A cache miss is looked up there before the API is
+         * called, and every fetched response is written there, so a fleet of local
+         * JVMs opening the same file fetches each city once per TTL.
+         *
+         * @param sharedStoreFile store file or null to disable sharing between processes
+         */
+        public Builder sharedStoreFile(Path sharedStoreFile) {
+            this.sharedStoreFile = sharedStoreFile;
+            return this;
+        }
+
+        /**
+         * Sets maximum number of cities in the store shared between processes.
+         * All processes opening the same file must use the same capacity.
+         *
+         * @param sharedStoreCapacity positive number of cities
+         */
+        public Builder sharedStoreCapacity(int sharedStoreCapacity) {
+            if (sharedStoreCapacity <= 0) {
+                throw new IllegalArgumentException("Shared store capacity must be positive");
+            }
+            this.sharedStoreCapacity = sharedStoreCapacity;
+            return this;
+        }
+
+        /**
+         * Sets base URL of the OpenWeather API, e.g. to go through a proxy or a test server
+         *
+         * @param apiBaseUrl absolute URL the endpoint names are appended to
+         */
+        public Builder apiBaseUrl(URI apiBaseUrl) {
+            if (apiBaseUrl == null || !apiBaseUrl.isAbsolute()) {
+                throw new IllegalArgumentException("API base URL must be an absolute URL");
+            }
+            this.apiBaseUrl = apiBaseUrl;
+            return this;
+        }
+
+        /**
+         * Limits API requests made by the SDK instance, e.g. to the plan's quota.
+         * Requests for waiting callers get quota first and fail with
+         * RateLimitExceededException if none frees up within the request timeout;
+         * polling and background refreshes wait for quota instead of failing.
+         * Zero (the default) disables the limit.
+         *
+         * @param requestsPerMinute non-negative number of requests per minute
+         */
+        public Builder requestsPerMinute(int requestsPerMinute) {
+            if (requestsPerMinute < 0) {
+                throw new IllegalArgumentException("Requests per minute cannot be negative");
+            }
+            this.requestsPerMinute = requestsPerMinute;
+            return this;
+        }
+
+        /**
+         * Sets policy for retrying failed API requests. Connection errors,
+         * 429 and 5xx responses are retried with jittered exponential backoff;
+         * 401 and 404 never are. Use {@link RetryPolicy#disabled()} to fail on
+         * the first error.
+         *
+         * @param retryPolicy retry policy, {@link RetryPolicy#defaults()} by default
+         */
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            if (retryPolicy == null) {
+                throw new IllegalArgumentException("Retry policy cannot be null");
+            }
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Sets circuit breaker guarding API requests. While the circuit is
+         * open, requests fail fast with {@code CircuitOpenException} instead
+         * of waiting for the timeout, and cities fetched before are served
+         * from their last known data, even if expired.
+         * Use {@link CircuitBreakerPolicy#disabled()} to always send requests.
+         *
+         * @param circuitBreaker circuit breaker policy, {@link CircuitBreakerPolicy#defaults()} by default
+         */
+        public Builder circuitBreaker(CircuitBreakerPolicy circuitBreaker) {
+            if (circuitBreaker == null) {
+                throw new IllegalArgumentException("Circuit breaker policy cannot be null");
+            }
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        /**
+         * Sets HTTP connect timeout
+         *
+         * @param connectTimeout positive duration
+         */
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = requirePositive(connectTimeout, "Connect timeout");
+            return this;
+        }
+
+        /**
+         * Sets HTTP request timeout
+         *
+         * @param requestTimeout positive duration
+         */
+        public Builder requestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requirePositive(requestTimeout, "Request timeout");
+            return this;
+        }
+
+        /**
+         * Sets executor for background fetches (stale and refresh-ahead reloads)
+         * and batched cache misses. With a request rate limit, background fetches
+         * run on a thread of the SDK instead, so that waiting for a token they do
+         * not hold up misses. The SDK does not shut it down.
+         *
+         * @param fetchExecutor executor or null to let the SDK create one
+         */
+        public Builder fetchExecutor(ExecutorService fetchExecutor) {
+            this.fetchExecutor = fetchExecutor;
+            return this;
+        }
+
+        /**
+         * Sets scheduler for POLLING mode updates and periodic snapshots. The SDK does not shut it down.
+         *
+         * @param pollingExecutor scheduler or null to let the SDK create one
+         */
+        public Builder pollingExecutor(ScheduledExecutorService pollingExecutor) {
+            this.pollingExecutor = pollingExecutor;
+            return this;
+        }
+
+        /**
+         * Creates configuration
+         */
+        public WeatherSDKConfig build() {
+            return new WeatherSDKConfig(this);
+        }
+
+        private static Duration requirePositive(Duration value, String name) {
+            if (value == null || value.isNegative() || value.isZero()) {
+                throw new IllegalArgumentException(name + " must be positive");
+            }
+            return value;
+        }
+    }
+}
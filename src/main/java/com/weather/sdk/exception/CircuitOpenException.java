@@ -0,0 +1,8 @@
+package com.weather.sdk.exception;
+
+public class CircuitOpenException extends NetworkException {
+    
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.weather.sdk.exception;
+
+public class RateLimitExceededException extends WeatherSDKException {
+    
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
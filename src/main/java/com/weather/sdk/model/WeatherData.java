@@ -1,20 +1,40 @@
 package com.weather.sdk.model;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 /**
  * Wrapper for cached weather data with validation.
  * <p>
  * Stores WeatherResponse and timestamp to check data freshness.
- * Data is considered valid if less than 10 minutes have passed.
+ * Data is considered valid until its time-to-live (10 minutes by default) has passed.
+ * <p>
+ * Expiry is tracked with a {@link System#nanoTime()} deadline computed once at
+ * creation, so validity checks are a single subtraction, do not allocate and
+ * are not affected by wall-clock adjustments. The wall-clock timestamp is kept
+ * for reporting and persistence.
+ * <p>
+ * Each instance also remembers when a background refresh of it was last
+ * started, so that a refresh that failed is not repeated on every read.
  */
 public class WeatherData {
 
-    private static final long CACHE_VALIDITY_MINUTES = 10;
+    /**
+     * Default time-to-live of weather data
+     */
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+
+    private static final long NO_REFRESH = Long.MIN_VALUE;
+    private static final AtomicLongFieldUpdater<WeatherData> REFRESH_STARTED_AT =
+            AtomicLongFieldUpdater.newUpdater(WeatherData.class, "refreshStartedAtNanos");
 
     private final WeatherResponse weatherResponse;
     private final Instant timestamp;
+    private final long ttlNanos;
+    private final long expiresAtNanos;
+    private volatile long refreshStartedAtNanos = NO_REFRESH;
 
     /**
      * Creates a wrapper with current timestamp
@@ -22,22 +42,104 @@ public class WeatherData {
      * @param weatherResponse weather data
      */
     public WeatherData(WeatherResponse weatherResponse) {
+        this(weatherResponse, DEFAULT_TTL);
+    }
+
+    /**
+     * Creates a wrapper with current timestamp and specified time-to-live
+     *
+     * @param weatherResponse weather data
+     * @param ttl how long data stays valid
+     */
+    public WeatherData(WeatherResponse weatherResponse, Duration ttl) {
+        this(weatherResponse, Instant.now(), ttl);
+    }
+
+    /**
+     * Creates a wrapper with specified creation timestamp (e.g. for data restored from storage)
+     *
+     * @param weatherResponse weather data
+     * @param timestamp moment the data was fetched
+     */
+    public WeatherData(WeatherResponse weatherResponse, Instant timestamp) {
+        this(weatherResponse, timestamp, DEFAULT_TTL);
+    }
+
+    /**
+     * Creates a wrapper with specified creation timestamp and time-to-live.
+     * The remaining lifetime is derived from the timestamp once, here.
+     *
+     * @param weatherResponse weather data
+     * @param timestamp moment the data was fetched
+     * @param ttl how long data stays valid
+     */
+    public WeatherData(WeatherResponse weatherResponse, Instant timestamp, Duration ttl) {
         if (weatherResponse == null) {
             throw new IllegalArgumentException("WeatherResponse cannot be null");
         }
+        if (timestamp == null) {
+            throw new IllegalArgumentException("Timestamp cannot be null");
+        }
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("TTL must be positive");
+        }
+        long nowNanos = System.nanoTime();
+        long ageNanos = Duration.between(timestamp, Instant.now()).toNanos();
+
         this.weatherResponse = weatherResponse;
-        this.timestamp = Instant.now();
+        this.timestamp = timestamp;
+        this.ttlNanos = ttl.toNanos();
+        this.expiresAtNanos = nowNanos + (ttlNanos - ageNanos);
     }
 
     /**
-     * Checks if data is still valid (less than 10 minutes have passed)
+     * Checks if data is still valid (time-to-live has not passed)
      *
      * @return true if data is valid, false if expired
      */
     public boolean isValid() {
-        Instant now = Instant.now();
-        long minutesPassed = ChronoUnit.MINUTES.between(timestamp, now);
-        return minutesPassed < CACHE_VALIDITY_MINUTES;
+        return System.nanoTime() - expiresAtNanos < 0;
+    }
+
+    /**
+     * Checks if data is valid or expired less than gracePeriod ago.
+     * Such data may still be served while a fresh copy is being fetched.
+     *
+     * @param gracePeriod how long expired data remains usable
+     * @return true if data is valid or within the grace period
+     */
+    public boolean isWithinGracePeriod(Duration gracePeriod) {
+        return System.nanoTime() - expiresAtNanos < gracePeriod.toNanos();
+    }
+
+    /**
+     * Checks if data is still valid but already in the last part of its validity period.
+     *
+     * @param refreshAheadFraction fraction of the validity period before expiry (e.g. 0.2 for the last 20%)
+     * @return true if data is valid and close to expiry
+     */
+    public boolean isNearExpiry(double refreshAheadFraction) {
+        long remainingNanos = expiresAtNanos - System.nanoTime();
+        return remainingNanos > 0 && remainingNanos < (long) (ttlNanos * refreshAheadFraction);
+    }
+
+    /**
+     * Claims a background refresh of this data, at most once per backoff.
+     * <p>
+     * A successful refresh replaces this instance in the cache, so the claim
+     * only holds back further refreshes of data a refresh failed to replace.
+     * Does not allocate.
+     *
+     * @param backoffNanos minimum time between two refreshes of this data
+     * @return true if the caller should start a refresh
+     */
+    public boolean tryStartRefresh(long backoffNanos) {
+        long now = System.nanoTime();
+        long startedAt = refreshStartedAtNanos;
+        if (startedAt != NO_REFRESH && now - startedAt < backoffNanos) {
+            return false;
+        }
+        return REFRESH_STARTED_AT.compareAndSet(this, startedAt, now);
     }
 
     /**
@@ -54,6 +156,20 @@ public class WeatherData {
         return timestamp;
     }
 
+    /**
+     * Returns time-to-live of the data
+     */
+    public Duration getTtl() {
+        return Duration.ofNanos(ttlNanos);
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} at which the data expires
+     */
+    public long getExpiresAtNanos() {
+        return expiresAtNanos;
+    }
+
     /**
      * Returns number of minutes since data was created
      */
@@ -1,5 +1,6 @@
 package com.weather.sdk.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.Objects;
 
@@ -21,8 +22,54 @@ public class WeatherResponse {
     private int timezone;
     private String name;
 
+    // SDK metadata, not part of the weather data format
+    private transient long cityId;
+    private transient boolean stale;
+
     public WeatherResponse() {}
 
+    /**
+     * Returns a copy of this response marked as served from expired cache data.
+     * Nested objects are shared with the original.
+     */
+    public WeatherResponse asStale() {
+        WeatherResponse copy = new WeatherResponse();
+        copy.weather = weather;
+        copy.temperature = temperature;
+        copy.visibility = visibility;
+        copy.wind = wind;
+        copy.datetime = datetime;
+        copy.sys = sys;
+        copy.timezone = timezone;
+        copy.name = name;
+        copy.cityId = cityId;
+        copy.stale = true;
+        return copy;
+    }
+
+    /**
+     * Returns true if the response was served from expired cache data
+     * while a refresh was running in the background.
+     */
+    @JsonIgnore
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Returns the OpenWeather city ID the API reported for this response,
+     * or 0 if it is unknown (e.g. for data restored from a cache file).
+     * Used to refresh cities in batches; not part of the weather data format.
+     */
+    @JsonIgnore
+    public long getCityId() {
+        return cityId;
+    }
+
+    public void setCityId(long cityId) {
+        this.cityId = cityId;
+    }
+
     // Getters and Setters
 
     public Weather getWeather() {
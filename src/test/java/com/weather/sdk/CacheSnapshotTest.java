@@ -0,0 +1,152 @@
+package com.weather.sdk;
+
+import com.weather.sdk.cache.CacheSnapshot;
+import com.weather.sdk.cache.WeatherCache;
+import com.weather.sdk.model.WeatherData;
+import com.weather.sdk.model.WeatherResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CacheSnapshot
+ */
+class CacheSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    private WeatherResponse createResponse(String cityName) {
+        WeatherResponse response = new WeatherResponse();
+        response.setName(cityName);
+        response.setTemperature(new WeatherResponse.Temperature(290.15, 288.0));
+        response.setWeather(new WeatherResponse.Weather("Clear", "clear sky"));
+        response.setWind(new WeatherResponse.Wind(5.5));
+        response.setVisibility(10000);
+        response.setDatetime(1675744800L);
+        response.setSys(new WeatherResponse.Sys(1675751262L, 1675787560L));
+        response.setTimezone(3600);
+        response.setCityId(2643743);
+        return response;
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        Path file = tempDir.resolve("cache.snapshot");
+        WeatherCache cache = new WeatherCache(10);
+        Instant fetchedAt = Instant.now().minusSeconds(60);
+        cache.put("London", new WeatherData(createResponse("London"), fetchedAt, Duration.ofMinutes(10)));
+        WeatherResponse sparse = new WeatherResponse();
+        sparse.setName("Zürich");
+        cache.put("Zürich", new WeatherData(sparse, fetchedAt));
+
+        assertEquals(2, CacheSnapshot.write(cache, file));
+
+        WeatherCache restored = new WeatherCache(10);
+        assertEquals(2, CacheSnapshot.load(restored, file));
+
+        WeatherData london = restored.get("london");
+        assertNotNull(london);
+        assertEquals(createResponse("London"), london.getWeatherResponse());
+        assertEquals(fetchedAt.toEpochMilli(), london.getTimestamp().toEpochMilli());
+        assertEquals(Duration.ofMinutes(10), london.getTtl());
+        assertEquals(2643743, london.getWeatherResponse().getCityId());
+        assertEquals(sparse, restored.get("zürich").getWeatherResponse());
+        assertEquals(0, restored.get("zürich").getWeatherResponse().getCityId());
+    }
+
+    @Test
+    void testExpiredEntriesAreDropped() throws IOException {
+        Path file = tempDir.resolve("cache.snapshot");
+        WeatherCache cache = new WeatherCache(10, Duration.ofMinutes(5));
+        cache.put("London", new WeatherData(createResponse("London")));
+        // Stale but kept for the grace period: not worth restoring
+        cache.put("Paris", new WeatherData(createResponse("Paris"), Instant.now().minus(Duration.ofMinutes(11))));
+
+        assertEquals(1, CacheSnapshot.write(cache, file));
+
+        WeatherCache restored = new WeatherCache(10);
+        assertEquals(1, CacheSnapshot.load(restored, file));
+        assertNull(restored.getAllowStale("Paris"));
+    }
+
+    @Test
+    void testEntriesExpiredSinceWriteAreNotLoaded() throws IOException, InterruptedException {
+        Path file = tempDir.resolve("cache.snapshot");
+        WeatherCache cache = new WeatherCache(10);
+        cache.put("London", new WeatherData(createResponse("London"), Duration.ofMillis(100)));
+        CacheSnapshot.write(cache, file);
+
+        WeatherCache restored = new WeatherCache(10);
+        Thread.sleep(150);
+
+        assertEquals(0, CacheSnapshot.load(restored, file));
+        assertEquals(0, restored.size());
+    }
+
+    @Test
+    void testMissingFileLoadsNothing() throws IOException {
+        WeatherCache cache = new WeatherCache(10);
+
+        assertEquals(0, CacheSnapshot.load(cache, tempDir.resolve("missing.snapshot")));
+    }
+
+    @Test
+    void testCorruptFileThrowsIOException() throws IOException {
+        Path file = tempDir.resolve("cache.snapshot");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        assertThrows(IOException.class, () -> CacheSnapshot.load(new WeatherCache(10), file));
+    }
+
+    @Test
+    void testSnapshotOfOlderVersionThrowsIOException() throws IOException {
+        Path file = tempDir.resolve("cache.snapshot");
+        WeatherCache cache = new WeatherCache(10);
+        cache.put("London", new WeatherData(createResponse("London")));
+        CacheSnapshot.write(cache, file);
+        byte[] bytes = Files.readAllBytes(file);
+        // Version 1 records had no city ID
+        bytes[Integer.BYTES] = 0;
+        bytes[Integer.BYTES + 1] = 1;
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> CacheSnapshot.load(new WeatherCache(10), file));
+    }
+
+    @Test
+    void testTruncatedFileThrowsIOException() throws IOException {
+        Path file = tempDir.resolve("cache.snapshot");
+        WeatherCache cache = new WeatherCache(10);
+        cache.put("London", new WeatherData(createResponse("London")));
+        CacheSnapshot.write(cache, file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+
+        assertThrows(IOException.class, () -> CacheSnapshot.load(new WeatherCache(10), file));
+    }
+
+    @Test
+    void testWriteReplacesFileWithoutLeavingTempFiles() throws IOException {
+        Path file = tempDir.resolve("cache.snapshot");
+        WeatherCache cache = new WeatherCache(10);
+        cache.put("London", new WeatherData(createResponse("London")));
+        CacheSnapshot.write(cache, file);
+        cache.put("Paris", new WeatherData(createResponse("Paris")));
+        CacheSnapshot.write(cache, file);
+
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+        assertEquals(2, CacheSnapshot.load(new WeatherCache(10), file));
+    }
+}
@@ -0,0 +1,101 @@
+package com.weather.sdk;
+
+import com.weather.sdk.cache.CacheStats;
+import com.weather.sdk.cache.StatsCounter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CacheStats and StatsCounter
+ */
+class CacheStatsTest {
+
+    @Test
+    void testRates() {
+        CacheStats stats = new CacheStats(3, 1, 0, 0, 3, 1, 4_000, 2_000);
+
+        assertEquals(4, stats.getRequestCount());
+        assertEquals(0.75, stats.getHitRate());
+        assertEquals(0.25, stats.getMissRate());
+        assertEquals(4, stats.getLoadCount());
+        assertEquals(0.25, stats.getLoadFailureRate());
+        assertEquals(1_000.0, stats.getAverageLoadPenalty());
+    }
+
+    @Test
+    void testEmptyStats() {
+        CacheStats stats = CacheStats.empty();
+
+        assertEquals(1.0, stats.getHitRate());
+        assertEquals(0.0, stats.getMissRate());
+        assertEquals(0.0, stats.getLoadFailureRate());
+        assertEquals(0.0, stats.getAverageLoadPenalty());
+    }
+
+    @Test
+    void testMinus() {
+        CacheStats earlier = new CacheStats(10, 5, 1, 2, 5, 0, 500, 200);
+        CacheStats later = new CacheStats(30, 6, 4, 2, 6, 1, 900, 300);
+
+        CacheStats interval = later.minus(earlier);
+
+        assertEquals(new CacheStats(20, 1, 3, 0, 1, 1, 400, 300), interval);
+        // Counters reset in between: no negative values
+        assertEquals(0, earlier.minus(later).getHitCount());
+    }
+
+    @Test
+    void testNegativeValuesThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new CacheStats(-1, 0, 0, 0, 0, 0, 0, 0));
+    }
+
+    @Test
+    void testCounterSnapshot() {
+        StatsCounter counter = new StatsCounter();
+        counter.recordHit();
+        counter.recordHit();
+        counter.recordMiss();
+        counter.recordExpiry();
+        counter.recordEviction();
+        counter.recordLoadSuccess(100);
+        counter.recordLoadFailure(300);
+
+        assertEquals(new CacheStats(2, 1, 1, 1, 1, 1, 400, 300), counter.snapshot());
+    }
+
+    @Test
+    void testConcurrentRecording() throws Exception {
+        StatsCounter counter = new StatsCounter();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        counter.recordHit();
+                        counter.recordLoadSuccess(seed * 10_000 + i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        CacheStats stats = counter.snapshot();
+        assertEquals(80_000, stats.getHitCount());
+        assertEquals(80_000, stats.getLoadSuccessCount());
+        assertEquals(79_999, stats.getMaxLoadTime());
+    }
+}
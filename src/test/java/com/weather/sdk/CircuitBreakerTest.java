@@ -0,0 +1,157 @@
+package com.weather.sdk;
+
+import com.weather.sdk.CircuitBreaker.State;
+import com.weather.sdk.config.CircuitBreakerPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static com.weather.sdk.CircuitBreaker.NO_PERMIT;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CircuitBreaker
+ */
+class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+
+    private static CircuitBreakerPolicy.Builder policy() {
+        return CircuitBreakerPolicy.builder()
+                .slidingWindowSize(4)
+                .minimumCalls(4)
+                .failureRateThreshold(0.5)
+                .slowCallRateThreshold(0.75)
+                .slowCallDuration(Duration.ofSeconds(1))
+                .openDuration(Duration.ofMillis(100))
+                .halfOpenCalls(2);
+    }
+
+    @Test
+    void testOpensAtFailureRate() {
+        CircuitBreaker breaker = new CircuitBreaker(policy().build());
+
+        // Below the minimum number of calls the rate does not count
+        breaker.onFailure(breaker.tryAcquire(), FAST);
+        breaker.onFailure(breaker.tryAcquire(), FAST);
+        breaker.onSuccess(breaker.tryAcquire(), FAST);
+        assertEquals(State.CLOSED, breaker.getState());
+
+        breaker.onSuccess(breaker.tryAcquire(), FAST);
+        assertEquals(State.OPEN, breaker.getState());
+        assertEquals(NO_PERMIT, breaker.tryAcquire());
+    }
+
+    @Test
+    void testOldOutcomesLeaveWindow() {
+        CircuitBreaker breaker = new CircuitBreaker(policy().build());
+        breaker.onFailure(breaker.tryAcquire(), FAST);
+        breaker.onSuccess(breaker.tryAcquire(), FAST);
+        breaker.onSuccess(breaker.tryAcquire(), FAST);
+        breaker.onSuccess(breaker.tryAcquire(), FAST);
+
+        // The first failure drops out as the second comes in: 1 of 4 failed
+        breaker.onFailure(breaker.tryAcquire(), FAST);
+        assertEquals(State.CLOSED, breaker.getState());
+
+        breaker.onFailure(breaker.tryAcquire(), FAST);
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testOpensAtSlowCallRate() {
+        CircuitBreaker breaker = new CircuitBreaker(policy().build());
+        breaker.onSuccess(breaker.tryAcquire(), SLOW);
+        breaker.onSuccess(breaker.tryAcquire(), SLOW);
+        breaker.onSuccess(breaker.tryAcquire(), FAST);
+        breaker.onSuccess(breaker.tryAcquire(), SLOW);
+
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testClosesAfterSuccessfulTrialCalls() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        Thread.sleep(150);
+
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        long first = breaker.tryAcquire();
+        long second = breaker.tryAcquire();
+        assertNotEquals(NO_PERMIT, first);
+        assertNotEquals(NO_PERMIT, second);
+        assertEquals(NO_PERMIT, breaker.tryAcquire(), "Only the trial calls are let through");
+
+        breaker.onSuccess(first, FAST);
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        breaker.onSuccess(second, FAST);
+        assertEquals(State.CLOSED, breaker.getState());
+        assertNotEquals(NO_PERMIT, breaker.tryAcquire());
+
+        // The window starts empty again
+        breaker.onFailure(breaker.tryAcquire(), FAST);
+        breaker.onFailure(breaker.tryAcquire(), FAST);
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testFailedTrialCallReopens() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        Thread.sleep(150);
+
+        breaker.onFailure(breaker.tryAcquire(), FAST);
+
+        assertEquals(State.OPEN, breaker.getState());
+        assertEquals(NO_PERMIT, breaker.tryAcquire());
+    }
+
+    @Test
+    void testReleasedTrialPermitCanBeReused() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        Thread.sleep(150);
+
+        breaker.tryAcquire();
+        long permit = breaker.tryAcquire();
+        breaker.release(permit);
+
+        assertNotEquals(NO_PERMIT, breaker.tryAcquire());
+        assertEquals(NO_PERMIT, breaker.tryAcquire());
+    }
+
+    @Test
+    void testOutcomeOfCallSentInEarlierStateIsIgnored() throws InterruptedException {
+        // Given - a call sent while closed that is still running when the circuit half-opens
+        CircuitBreaker breaker = new CircuitBreaker(policy().build());
+        long closedPermit = breaker.tryAcquire();
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(breaker.tryAcquire(), FAST);
+        }
+        Thread.sleep(150);
+        long trialPermit = breaker.tryAcquire();
+
+        // When - it finishes among the trial calls
+        breaker.onSuccess(closedPermit, FAST);
+        breaker.release(closedPermit);
+
+        // Then - it neither counts as a trial call nor frees a trial permit
+        breaker.onSuccess(trialPermit, FAST);
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        assertNotEquals(NO_PERMIT, breaker.tryAcquire());
+        assertEquals(NO_PERMIT, breaker.tryAcquire());
+    }
+
+    @Test
+    void testDisabledPolicyIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(CircuitBreakerPolicy.disabled()));
+    }
+
+    private static CircuitBreaker openBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker(policy().build());
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(breaker.tryAcquire(), FAST);
+        }
+        assertEquals(State.OPEN, breaker.getState());
+        return breaker;
+    }
+}
@@ -0,0 +1,47 @@
+package com.weather.sdk;
+
+import com.weather.sdk.cache.CityNames;
+import com.weather.sdk.cache.WeatherCache;
+import com.weather.sdk.model.WeatherData;
+import com.weather.sdk.model.WeatherResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CityNames and the registries keyed by it
+ */
+class CityNamesTest {
+
+    @Test
+    void testNormalize() {
+        assertEquals("new york", CityNames.normalize("  New YORK\t"));
+        assertEquals("", CityNames.normalize("   "));
+        assertThrows(IllegalArgumentException.class, () -> CityNames.normalize(null));
+    }
+
+    @Test
+    void testKeysDoNotDependOnDefaultLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            assertEquals(CityNames.normalize("istanbul"), CityNames.normalize("ISTANBUL"));
+
+            // The registries and the cache agree on the key of a name
+            WeatherResponse response = new WeatherResponse();
+            response.setName("Istanbul");
+            response.setCityId(745044);
+            CityIdRegistry cityIds = new CityIdRegistry();
+            cityIds.record("ISTANBUL", response);
+            WeatherCache cache = new WeatherCache(10);
+            cache.put("ISTANBUL", new WeatherData(response));
+
+            assertEquals(745044, cityIds.idOf("istanbul"));
+            assertNotNull(cache.get("istanbul"));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.weather.sdk;
 
 import com.weather.sdk.client.WeatherApiClient;
 import com.weather.sdk.config.OperationMode;
+import com.weather.sdk.config.WeatherSDKConfig;
 import com.weather.sdk.exception.WeatherSDKException;
 import com.weather.sdk.model.WeatherResponse;
 import org.junit.jupiter.api.AfterEach;
@@ -11,6 +12,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -303,4 +308,31 @@ class IntegrationMockTest {
         // Then - API called again
         verify(mockApiClient, times(2)).getCurrentWeather(city1);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testPollingWithCustomIntervalAndScheduler() throws Exception {
+        // Given - POLLING SDK with a short interval and an external scheduler
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        WeatherSDKConfig config = WeatherSDKConfig.builder()
+                .pollingInterval(Duration.ofMillis(50))
+                .pollingExecutor(scheduler)
+                .build();
+        // Polling refreshes use the normalized city name
+        when(mockApiClient.getCurrentWeather(anyString())).thenReturn(createMockResponse("Oslo", 275.0));
+
+        try {
+            try (WeatherSDK pollingSdk = new WeatherSDK(MOCK_API_KEY, OperationMode.POLLING, config, mockApiClient)) {
+                // When - a city is cached
+                pollingSdk.getWeather("Oslo");
+
+                // Then - it is refreshed by the polling task
+                verify(mockApiClient, timeout(5000).atLeast(2)).getCurrentWeather(anyString());
+            }
+
+            // And - the external scheduler is left running after close
+            assertFalse(scheduler.isShutdown());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.weather.sdk;
+
+import com.weather.sdk.model.WeatherData;
+import com.weather.sdk.model.WeatherResponse;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LastKnownWeather
+ */
+class LastKnownWeatherTest {
+
+    @Test
+    void testDataIsKeptByNormalizedName() {
+        LastKnownWeather lastKnown = new LastKnownWeather();
+        WeatherData london = data("London");
+
+        lastKnown.record("  LONDON ", london);
+
+        assertSame(london, lastKnown.get("london"));
+        assertNull(lastKnown.get("Paris"));
+    }
+
+    @Test
+    void testFullRegistryDropsLeastRecentlyUsedCity() {
+        // Given - a full registry in which London was served after Paris was recorded
+        LastKnownWeather lastKnown = new LastKnownWeather(2);
+        lastKnown.record("London", data("London"));
+        lastKnown.record("Paris", data("Paris"));
+        lastKnown.get("London");
+
+        // When - a new city is recorded
+        lastKnown.record("Rome", data("Rome"));
+
+        // Then - it is kept in place of Paris
+        assertEquals(2, lastKnown.size());
+        assertNotNull(lastKnown.get("Rome"));
+        assertNotNull(lastKnown.get("London"));
+        assertNull(lastKnown.get("Paris"));
+    }
+
+    private static WeatherData data(String cityName) {
+        WeatherResponse response = new WeatherResponse();
+        response.setName(cityName);
+        return new WeatherData(response);
+    }
+}
@@ -1,20 +1,49 @@
 package com.weather.sdk;
 
+import com.weather.sdk.cache.CacheSnapshot;
+import com.weather.sdk.cache.CacheStats;
+import com.weather.sdk.cache.TierStats;
+import com.weather.sdk.cache.WeatherCache;
 import com.weather.sdk.client.WeatherApiClient;
+import com.weather.sdk.config.CircuitBreakerPolicy;
 import com.weather.sdk.config.OperationMode;
+import com.weather.sdk.config.RetryPolicy;
+import com.weather.sdk.config.WeatherSDKConfig;
 import com.weather.sdk.exception.ApiKeyException;
+import com.weather.sdk.exception.CircuitOpenException;
 import com.weather.sdk.exception.CityNotFoundException;
 import com.weather.sdk.exception.NetworkException;
+import com.weather.sdk.exception.RateLimitExceededException;
 import com.weather.sdk.exception.WeatherSDKException;
+import com.weather.sdk.model.WeatherData;
 import com.weather.sdk.model.WeatherResponse;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.mockito.Mockito.*;
 
 /**
@@ -139,6 +168,53 @@ class MockWeatherSDKTest {
         verify(mockApiClient, times(1)).getCurrentWeather(invalidCity);
     }
 
+    @Test
+    void testNotFoundCityIsRejectedWithoutRequest() throws WeatherSDKException {
+        // Given
+        when(mockApiClient.getCurrentWeather("Atlantis"))
+                .thenThrow(new CityNotFoundException("City 'Atlantis' not found"));
+        assertThrows(CityNotFoundException.class, () -> sdk.getWeather("Atlantis"));
+
+        // When/Then - repeated requests in any case fail fast
+        assertThrows(CityNotFoundException.class, () -> sdk.getWeather("Atlantis"));
+        assertThrows(CityNotFoundException.class, () -> sdk.getWeather(" ATLANTIS "));
+        verify(mockApiClient, times(1)).getCurrentWeather(anyString());
+    }
+
+    @Test
+    void testNegativeCachingCanBeDisabled() throws WeatherSDKException {
+        // Given
+        WeatherSDKConfig config = WeatherSDKConfig.builder()
+                .negativeCacheTtl(Duration.ZERO)
+                .build();
+        when(mockApiClient.getCurrentWeather("Atlantis"))
+                .thenThrow(new CityNotFoundException("City 'Atlantis' not found"));
+
+        try (WeatherSDK customSdk = new WeatherSDK(TEST_API_KEY, OperationMode.ON_DEMAND, config, mockApiClient)) {
+            // When
+            assertThrows(CityNotFoundException.class, () -> customSdk.getWeather("Atlantis"));
+            assertThrows(CityNotFoundException.class, () -> customSdk.getWeather("Atlantis"));
+
+            // Then - every request reaches the API
+            verify(mockApiClient, times(2)).getCurrentWeather("Atlantis");
+        }
+    }
+
+    @Test
+    void testClearCacheForgetsNotFoundCities() throws WeatherSDKException {
+        // Given
+        when(mockApiClient.getCurrentWeather("Atlantis"))
+                .thenThrow(new CityNotFoundException("City 'Atlantis' not found"));
+        assertThrows(CityNotFoundException.class, () -> sdk.getWeather("Atlantis"));
+
+        // When
+        sdk.clearCache();
+        assertThrows(CityNotFoundException.class, () -> sdk.getWeather("Atlantis"));
+
+        // Then
+        verify(mockApiClient, times(2)).getCurrentWeather("Atlantis");
+    }
+
     @Test
     void testGetWeatherThrowsNetworkException() throws WeatherSDKException {
         // Given
@@ -204,7 +280,7 @@ class MockWeatherSDKTest {
     void testGetWeatherWithNullCityName() {
         // When/Then
         WeatherSDKException exception = assertThrows(WeatherSDKException.class,
-                () -> sdk.getWeather(null));
+                () -> sdk.getWeather((String) null));
 
         assertTrue(exception.getMessage().contains("City name cannot be null or empty"));
         verifyNoInteractions(mockApiClient);
@@ -328,4 +404,981 @@ class MockWeatherSDKTest {
         assertTrue(result.getVisibility() > 0);
         assertTrue(result.getDatetime() > 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testConcurrentMissesShareSingleRequest() throws Exception {
+        // Given - a slow API call that is held open until all callers have missed
+        int callers = 8;
+        CountDownLatch release = new CountDownLatch(1);
+        WeatherResponse mockResponse = createMockWeatherResponse(TEST_CITY, 290.15);
+        when(mockApiClient.getCurrentWeather(anyString())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return mockResponse;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            // When - several threads request the same city at once
+            List<Future<WeatherResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                String variant = i % 2 == 0 ? TEST_CITY : TEST_CITY.toUpperCase();
+                futures.add(executor.submit(() -> sdk.getWeather(variant)));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            // Then - all callers get the same response from one API call
+            for (Future<WeatherResponse> future : futures) {
+                assertSame(mockResponse, future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(mockApiClient, times(1)).getCurrentWeather(anyString());
+    }
+
+    @Test
+    void testConcurrentMissesShareException() throws Exception {
+        // Given - a slow failing API call
+        int callers = 4;
+        CountDownLatch release = new CountDownLatch(1);
+        when(mockApiClient.getCurrentWeather(TEST_CITY)).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            throw new NetworkException("Network error");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<WeatherResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(executor.submit(() -> sdk.getWeather(TEST_CITY)));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            // Then - every caller sees the failure
+            for (Future<WeatherResponse> future : futures) {
+                Exception exception = assertThrows(Exception.class, () -> future.get(10, TimeUnit.SECONDS));
+                assertInstanceOf(NetworkException.class, exception.getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(mockApiClient, times(1)).getCurrentWeather(TEST_CITY);
+    }
+
+    @Test
+    void testExpiredDataServedStaleWhileRefreshing() throws Exception {
+        WeatherSDKConfig config = WeatherSDKConfig.builder()
+                .staleGracePeriod(Duration.ofMinutes(5))
+                .build();
+        try (WeatherSDK graceSdk = new WeatherSDK(TEST_API_KEY, OperationMode.ON_DEMAND, config, mockApiClient)) {
+            // Given - expired data within the grace period
+            WeatherResponse oldResponse = createMockWeatherResponse(TEST_CITY, 280.0);
+            graceSdk.getCache().put(TEST_CITY,
+                    new WeatherData(oldResponse, Instant.now().minus(Duration.ofMinutes(11))));
+            WeatherResponse freshResponse = createMockWeatherResponse(TEST_CITY, 290.15);
+            when(mockApiClient.getCurrentWeather(TEST_CITY)).thenReturn(freshResponse);
+
+            // When - stale data is requested
+            WeatherResponse stale = graceSdk.getWeather(TEST_CITY);
+
+            // Then - old data is returned at once and marked stale
+            assertTrue(stale.isStale());
+            assertEquals(280.0, stale.getTemperature().getTemp());
+            assertFalse(oldResponse.isStale());
+
+            // And - a background refresh replaces it
+            verify(mockApiClient, timeout(5000).times(1)).getCurrentWeather(TEST_CITY);
+            WeatherResponse refreshed = null;
+            for (int i = 0; i < 50 && (refreshed == null || refreshed.isStale()); i++) {
+                Thread.sleep(20);
+                refreshed = graceSdk.getWeather(TEST_CITY);
+            }
+            assertFalse(refreshed.isStale());
+            assertEquals(290.15, refreshed.getTemperature().getTemp());
+        }
+    }
+
+    @Test
+    void testFailedStaleRefreshNotRepeatedOnEveryHit() throws Exception {
+        WeatherSDKConfig config = WeatherSDKConfig.builder()
+                .staleGracePeriod(Duration.ofMinutes(5))
+                .build();
+        try (WeatherSDK graceSdk = new WeatherSDK(TEST_API_KEY, OperationMode.ON_DEMAND, config, mockApiClient)) {
+            // Given - expired data within the grace period whose refresh fails
+            graceSdk.getCache().put(TEST_CITY, new WeatherData(createMockWeatherResponse(TEST_CITY, 280.0),
+                    Instant.now().minus(Duration.ofMinutes(11))));
+            when(mockApiClient.getCurrentWeather(TEST_CITY)).thenThrow(new NetworkException("Network error"));
+            graceSdk.getWeather(TEST_CITY);
+            verify(mockApiClient, timeout(5000).times(1)).getCurrentWeather(TEST_CITY);
+
+            // When - the stale entry keeps being read after the refresh failed
+            for (int i = 0; i < 20; i++) {
+                assertTrue(graceSdk.getWeather(TEST_CITY).isStale());
+                Thread.sleep(5);
+            }
+
+            // Then - no new refresh before the backoff has passed
+            verify(mockApiClient, times(1)).getCurrentWeather(TEST_CITY);
+        }
+    }
+
+    @Test
+    void testExpiredDataNotServedWithoutGracePeriod() throws WeatherSDKException {
+        // Given - expired data and no grace period
+        sdk.getCache().put(TEST_CITY, new WeatherData(createMockWeatherResponse(TEST_CITY, 280.0),
+                Instant.now().minus(Duration.ofMinutes(11))));
+        when(mockApiClient.getCurrentWeather(TEST_CITY))
+                .thenReturn(createMockWeatherResponse(TEST_CITY, 290.15));
+
+        // When
+        WeatherResponse result = sdk.getWeather(TEST_CITY);
+
+        // Then - fetched synchronously
+        assertFalse(result.isStale());
+        assertEquals(290.15, result.getTemperature().getTemp());
+    }
+
+    @Test
+    void testHotEntryRefreshedAheadOfExpiry() throws Exception {
+        // Given - valid data in the last 20% of its lifetime
+        WeatherResponse agingResponse = createMockWeatherResponse(TEST_CITY, 280.0);
+        sdk.getCache().put(TEST_CITY,
+                new WeatherData(agingResponse, Instant.now().minus(Duration.ofSeconds(9 * 60))));
+        WeatherResponse freshResponse = createMockWeatherResponse(TEST_CITY, 290.15);
+        when(mockApiClient.getCurrentWeather(TEST_CITY)).thenReturn(freshResponse);
+
+        // When - the entry is read
+        WeatherResponse result = sdk.getWeather(TEST_CITY);
+
+        // Then - cached data is returned without waiting and reloaded in background
+        assertSame(agingResponse, result);
+        assertFalse(result.isStale());
+        verify(mockApiClient, timeout(5000).times(1)).getCurrentWeather(TEST_CITY);
+        for (int i = 0; i < 50 && sdk.getWeather(TEST_CITY) != freshResponse; i++) {
+            Thread.sleep(20);
+        }
+        assertSame(freshResponse, sdk.getWeather(TEST_CITY));
+    }
+
+    @Test
+    void testFailedRefreshAheadNotRepeatedOnEveryHit() throws Exception {
+        // Given - a hot entry near expiry whose refresh fails
+        sdk.getCache().put(TEST_CITY, new WeatherData(createMockWeatherResponse(TEST_CITY, 280.0),
+                Instant.now().minus(Duration.ofSeconds(9 * 60))));
+        when(mockApiClient.getCurrentWeather(TEST_CITY)).thenThrow(new NetworkException("Network error"));
+        sdk.getWeather(TEST_CITY);
+        verify(mockApiClient, timeout(5000).times(1)).getCurrentWeather(TEST_CITY);
+
+        // When - the entry keeps being read after the refresh failed
+        for (int i = 0; i < 20; i++) {
+            assertEquals(280.0, sdk.getWeather(TEST_CITY).getTemperature().getTemp());
+            Thread.sleep(5);
+        }
+
+        // Then - no new refresh before the backoff has passed
+        verify(mockApiClient, times(1)).getCurrentWeather(TEST_CITY);
+    }
+
+    @Test
+    void testYoungEntryNotRefreshed() throws Exception {
+        // Given - data well inside its validity period
+        sdk.getCache().put(TEST_CITY, new WeatherData(createMockWeatherResponse(TEST_CITY, 280.0),
+                Instant.now().minus(Duration.ofMinutes(5))));
+
+        // When
+        sdk.getWeather(TEST_CITY);
+        Thread.sleep(100);
+
+        // Then - no reload
+        verifyNoInteractions(mockApiClient);
+    }
+
+    @Test
+    void testCustomCacheCapacityAndTtl() throws WeatherSDKException {
+        // Given - SDK with larger cache and shorter TTL
+        WeatherSDKConfig config = WeatherSDKConfig.builder()
+                .cacheCapacity(100)
+                .cacheTtl(Duration.ofMinutes(3))
+                .build();
+        when(mockApiClient.getCurrentWeather(anyString()))
+                .thenAnswer(invocation -> createMockWeatherResponse(invocation.getArgument(0), 290.0));
+
+        try (WeatherSDK customSdk = new WeatherSDK(TEST_API_KEY, OperationMode.ON_DEMAND, config, mockApiClient)) {
+            // When - more cities than the default capacity are requested
+            for (int i = 0; i < 50; i++) {
+                customSdk.getWeather("City" + i);
+            }
+
+            // Then - all are cached with the configured TTL
+            assertEquals(50, customSdk.getCachedCitiesCount());
+            assertEquals(Duration.ofMinutes(3), customSdk.getCache().get("City0").getTtl());
+            assertSame(config, customSdk.getConfig());
+        }
+    }
+
+    @Test
+    void testCacheBoundedByMemoryBudget() throws WeatherSDKException {
+        // Given - SDK whose cache is limited by estimated heap bytes
+        WeatherSDKConfig config = WeatherSDKConfig.builder()
+                .cacheMaximumWeight(16 * 1024)
+                .build();
+        when(mockApiClient.getCurrentWeather(anyString()))
+                .thenAnswer(invocation -> createMockWeatherResponse(invocation.getArgument(0), 290.0));
+
+        try (WeatherSDK customSdk = new WeatherSDK(TEST_API_KEY, OperationMode.ON_DEMAND, config, mockApiClient)) {
+            // When
+            for (int i = 0; i < 500; i++) {
+                customSdk.getWeather("City" + i);
+            }
+
+            // Then - more cities than the default capacity fit, but the byte budget holds
+            assertTrue(customSdk.getCachedCitiesCount() > WeatherSDKConfig.DEFAULT_CACHE_CAPACITY);
+            assertTrue(customSdk.getCacheWeightedSize() <= 16 * 1024);
+        }
+    }
+
+    @Test
+    void testCacheRestoredFromSnapshotAfterRestart(@TempDir Path tempDir) throws WeatherSDKException {
+        // Given - SDK that saves its cache on close
+        WeatherSDKConfig config = WeatherSDKConfig.builder()
+                .snapshotFile(tempDir.resolve("weather.snapshot"))
+                .snapshotInterval(Duration.ZERO)
+                .build();
+        when(mockApiClient.getCurrentWeather(TEST_CITY)).thenReturn(createMockWeatherResponse(TEST_CITY, 290.0));
+        try (WeatherSDK first = new WeatherSDK(TEST_API_KEY, OperationMode.ON_DEMAND, config, mockApiClient)) {
+            first.getWeather(TEST_CITY);
+        }
+
+        // When - a new instance starts with the same snapshot file
+        try (WeatherSDK restarted = new WeatherSDK(TEST_API_KEY, OperationMode.ON_DEMAND, config, mockApiClient)) {
+            WeatherResponse response = restarted.getWeather(TEST_CITY);
+
+            // Then - served from the restored cache without another request
+            assertEquals(TEST_CITY, response.getName());
+            verify(mockApiClient, times(1)).getCurrentWeather(TEST_CITY);
+        }
+    }
+
+    @Test
+    void testSnapshotWrittenPeriodically(@TempDir Path tempDir) throws Exception {
+        // Given
+        Path file = tempDir.resolve("weather.snapshot");
+        WeatherSDKConfig config = WeatherSDKConfig.builder()
+                .snapshotFile(file)
+                .snapshotInterval(Duration.ofMillis(50))
+                .build();
+        when(mockApiClient.getCurrentWeather(TEST_CITY)).thenReturn(createMockWeatherResponse(TEST_CITY, 290.0));
+
+        try (WeatherSDK customSdk = new WeatherSDK(TEST_API_KEY, OperationMode.ON_DEMAND, config, mockApiClient)) {
+            // When
+            customSdk.getWeather(TEST_CITY);
+            Thread.sleep(300);
+
+            // Then - snapshot exists before close
+            WeatherCache restored = new WeatherCache(10);
+            assertEquals(1, CacheSnapshot.load(restored, file));
+        }
+    }
+
+    @Test
+    void testSharedStoreServesMissesOfOtherProcesses(@TempDir Path tempDir) throws WeatherSDKException {
+        // Given - two instances with private caches mapping the same shared store, as two processes would
+        WeatherSDKConfig config = WeatherSDKConfig.builder()
+                .sharedStoreFile(tempDir.resolve("weather.store"))
+                .sharedStoreCapacity(64)
+                .build();
+        WeatherApiClient otherClient = mock(WeatherApiClient.class);
+        when(mockApiClient.getCurrentWeather(TEST_CITY)).thenReturn(createMockWeatherResponse(TEST_CITY, 290.0));
+
+        try (WeatherSDK first = new WeatherSDK(TEST_API_KEY, OperationMode.ON_DEMAND, config, mockApiClient);
+             WeatherSDK second = new WeatherSDK(TEST_API_KEY, OperationMode.ON_DEMAND, config, otherClient)) {
+            // When - the first fetches the city, then the second misses its own cache
+            first.getWeather(TEST_CITY);
+            WeatherResponse response = second.getWeather(TEST_CITY.toUpperCase());
+
+            // Then - the second is served from the store and caches the data itself
+            assertEquals(TEST_CITY, response.getName());
+            assertEquals(290.0, response.getTemperature().getTemp());
+            assertEquals(1, second.getCachedCitiesCount());
+            verify(mockApiClient, times(1)).getCurrentWeather(TEST_CITY);
+            verifyNoInteractions(otherClient);
+        }
+    }
+
+    @Test
+    void testOffHeapSecondLevelCache() throws WeatherSDKException {
+        // Given - small on-heap cache backed by an off-heap tier
+        WeatherSDKConfig config = WeatherSDKConfig.builder()
+                .cacheCapacity(5)
+                .offHeapCacheCapacity(100)
+                .build();
+        when(mockApiClient.getCurrentWeather(anyString()))
+                .thenAnswer(invocation -> createMockWeatherResponse(invocation.getArgument(0), 290.0));
+
+        try (WeatherSDK customSdk = new WeatherSDK(TEST_API_KEY, OperationMode.ON_DEMAND, config, mockApiClient)) {
+            for (int i = 0; i < 20; i++) {
+                customSdk.getWeather("City" + i);
+            }
+
+            // When - cities evicted from the on-heap tier are requested again
+            for (int i = 0; i < 20; i++) {
+                assertEquals("City" + i, customSdk.getWeather("City" + i).getName());
+            }
+
+            // Then - they are served from the off-heap tier without new requests
+            verify(mockApiClient, times(20)).getCurrentWeather(anyString());
+            assertEquals(20, customSdk.getCachedCitiesCount());
+            List<TierStats> stats = customSdk.getCacheTierStats();
+            assertEquals(2, stats.size());
+            assertTrue(stats.get(1).getHitCount() > 0);
+        }
+    }
+
+    @Test
+    void testCacheStatsRecordLoads() throws WeatherSDKException {
+        // Given
+        when(mockApiClient.getCurrentWeather(TEST_CITY)).thenReturn(createMockWeatherResponse(TEST_CITY, 290.0));
+        when(mockApiClient.getCurrentWeather("Atlantis"))
+                .thenThrow(new CityNotFoundException("City 'Atlantis' not found"));
+
+        // When - one miss and load, one hit, one failed load
+        sdk.getWeather(TEST_CITY);
+        sdk.getWeather(TEST_CITY);
+        assertThrows(CityNotFoundException.class, () -> sdk.getWeather("Atlantis"));
+
+        // Then
+        CacheStats stats = sdk.getCacheStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+        assertEquals(1, stats.getLoadSuccessCount());
+        assertEquals(1, stats.getLoadFailureCount());
+        assertTrue(stats.getTotalLoadTime() >= stats.getMaxLoadTime());
+        assertTrue(stats.getMaxLoadTime() > 0);
+    }
+
+    @Test
+    void testCacheHitDoesNotAllocate() throws WeatherSDKException {
+        // Given
+        when(mockApiClient.getCurrentWeather(TEST_CITY)).thenReturn(createMockWeatherResponse(TEST_CITY, 290.0));
+        sdk.getWeather(TEST_CITY);
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+        long threadId = Thread.currentThread().getId();
+        String city = "  " + TEST_CITY.toUpperCase() + " ";
+        int hits = 100_000;
+
+        // Warm up so the measured loop runs compiled code
+        for (int i = 0; i < hits; i++) {
+            sdk.getWeather(city);
+        }
+
+        // When
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < hits; i++) {
+            sdk.getWeather(city);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        // Then - allow for the measurement itself, but not a single object per hit
+        assertTrue(allocated < hits, "Allocated " + allocated + " bytes for " + hits + " cache hits");
+        verify(mockApiClient, times(1)).getCurrentWeather(anyString());
+    }
+
+    @Test
+    void testSharedCacheFetchesOncePerCityAndAttributesFetch() throws WeatherSDKException {
+        // Given - two keys sharing one cache
+        WeatherSDKConfig config = WeatherSDKConfig.builder().sharedCache(true).build();
+        SharedCache shared = new SharedCache(config);
+        WeatherApiClient otherClient = mock(WeatherApiClient.class);
+        when(mockApiClient.getCurrentWeather(TEST_CITY)).thenReturn(createMockWeatherResponse(TEST_CITY, 290.0));
+
+        try (WeatherSDK second = new WeatherSDK("key-two", OperationMode.ON_DEMAND, config, otherClient, shared)) {
+            // Closed within the test: closing one instance keeps the data for the other
+            WeatherSDK first = new WeatherSDK("key-one", OperationMode.ON_DEMAND, config, mockApiClient, shared);
+            try {
+                // When
+                first.getWeather(TEST_CITY);
+                WeatherResponse response = second.getWeather(TEST_CITY.toLowerCase());
+
+                // Then - the second key is served from the first key's fetch
+                assertEquals(290.0, response.getTemperature().getTemp());
+                verify(mockApiClient, times(1)).getCurrentWeather(TEST_CITY);
+                verifyNoInteractions(otherClient);
+                assertEquals(1, shared.fetchCount("key-one"));
+                assertEquals(0, shared.fetchCount("key-two"));
+            } finally {
+                first.close();
+            }
+            assertEquals(1, second.getCachedCitiesCount());
+        }
+    }
+
+    @Test
+    void testGetWeatherAsyncCompletesCacheHitImmediately() throws Exception {
+        // Given
+        when(mockApiClient.getCurrentWeather(TEST_CITY)).thenReturn(createMockWeatherResponse(TEST_CITY, 290.0));
+        sdk.getWeather(TEST_CITY);
+
+        // When
+        CompletableFuture<WeatherResponse> future = sdk.getWeatherAsync(TEST_CITY);
+
+        // Then
+        assertTrue(future.isDone());
+        assertEquals(290.0, future.get().getTemperature().getTemp());
+        verify(mockApiClient, never()).getCurrentWeatherAsync(anyString());
+    }
+
+    @Test
+    void testGetWeatherAsyncSharesPendingRequest() throws Exception {
+        // Given - a response that has not arrived yet
+        CompletableFuture<WeatherResponse> pending = new CompletableFuture<>();
+        when(mockApiClient.getCurrentWeatherAsync(TEST_CITY)).thenReturn(pending);
+
+        // When
+        CompletableFuture<WeatherResponse> first = sdk.getWeatherAsync(TEST_CITY);
+        CompletableFuture<WeatherResponse> second = sdk.getWeatherAsync(TEST_CITY);
+        assertFalse(first.isDone());
+        pending.complete(createMockWeatherResponse(TEST_CITY, 291.0));
+
+        // Then - one request serves both callers and fills the cache
+        assertEquals(291.0, first.get(5, TimeUnit.SECONDS).getTemperature().getTemp());
+        assertEquals(291.0, second.get(5, TimeUnit.SECONDS).getTemperature().getTemp());
+        assertEquals(291.0, sdk.getWeather(TEST_CITY).getTemperature().getTemp());
+        verify(mockApiClient, times(1)).getCurrentWeatherAsync(TEST_CITY);
+        verify(mockApiClient, never()).getCurrentWeather(anyString());
+        assertEquals(1, sdk.getCacheStats().getLoadSuccessCount());
+    }
+
+    @Test
+    void testGetWeatherAsyncFailsWithSdkExceptions() {
+        // Given
+        when(mockApiClient.getCurrentWeatherAsync("Atlantis")).thenReturn(
+                CompletableFuture.failedFuture(new CityNotFoundException("City 'Atlantis' not found")));
+
+        // When
+        ExecutionException first = assertThrows(ExecutionException.class,
+                () -> sdk.getWeatherAsync("Atlantis").get(5, TimeUnit.SECONDS));
+        ExecutionException second = assertThrows(ExecutionException.class,
+                () -> sdk.getWeatherAsync("Atlantis").get(5, TimeUnit.SECONDS));
+        ExecutionException blank = assertThrows(ExecutionException.class,
+                () -> sdk.getWeatherAsync(" ").get(5, TimeUnit.SECONDS));
+
+        // Then - the second call is rejected by the negative cache
+        assertInstanceOf(CityNotFoundException.class, first.getCause());
+        assertInstanceOf(CityNotFoundException.class, second.getCause());
+        assertInstanceOf(WeatherSDKException.class, blank.getCause());
+        verify(mockApiClient, times(1)).getCurrentWeatherAsync("Atlantis");
+        assertEquals(1, sdk.getCacheStats().getLoadFailureCount());
+    }
+
+    private WeatherResponse createMockWeatherResponse(String cityName, long cityId, double temp) {
+        WeatherResponse response = createMockWeatherResponse(cityName, temp);
+        response.setCityId(cityId);
+        return response;
+    }
+
+    @Test
+    void testGetWeatherBatchGroupsCitiesWithKnownIds() throws WeatherSDKException {
+        // Given - IDs learned from single fetches, then the cities drop out of the cache
+        when(mockApiClient.getCurrentWeather("London")).thenReturn(createMockWeatherResponse("London", 1L, 290.0));
+        when(mockApiClient.getCurrentWeather("Paris")).thenReturn(createMockWeatherResponse("Paris", 2L, 285.0));
+        when(mockApiClient.getCurrentWeather("Berlin")).thenReturn(createMockWeatherResponse("Berlin", 3L, 280.0));
+        when(mockApiClient.getCurrentWeather("Rome")).thenReturn(createMockWeatherResponse("Rome", 4L, 295.0));
+        when(mockApiClient.getCurrentWeatherByIds(List.of(1L, 2L))).thenReturn(List.of(
+                createMockWeatherResponse("Paris", 2L, 286.0), createMockWeatherResponse("London", 1L, 291.0)));
+        sdk.getWeather("London");
+        sdk.getWeather("Paris");
+        sdk.getWeather("Berlin");
+        sdk.getCache().remove("London");
+        sdk.getCache().remove("Paris");
+
+        // When
+        Map<String, WeatherResponse> result = sdk.getWeather(List.of("Berlin", "london", "Paris", "Rome", "Berlin"));
+
+        // Then - one hit, one group request for the known IDs, one single fetch for the new city
+        assertEquals(List.of("Berlin", "london", "Paris", "Rome"), new ArrayList<>(result.keySet()));
+        assertEquals(280.0, result.get("Berlin").getTemperature().getTemp());
+        assertEquals(291.0, result.get("london").getTemperature().getTemp());
+        assertEquals(286.0, result.get("Paris").getTemperature().getTemp());
+        assertEquals(295.0, result.get("Rome").getTemperature().getTemp());
+        verify(mockApiClient, times(1)).getCurrentWeatherByIds(anyCollection());
+        verify(mockApiClient, times(1)).getCurrentWeather("London");
+        verify(mockApiClient, times(1)).getCurrentWeather("Paris");
+        verify(mockApiClient, times(1)).getCurrentWeather("Rome");
+        assertEquals(286.0, sdk.getWeather("Paris").getTemperature().getTemp());
+    }
+
+    @Test
+    void testGetWeatherBatchFetchesCitiesMissingFromGroupByName() throws WeatherSDKException {
+        // Given - the group response leaves out a city
+        when(mockApiClient.getCurrentWeather("London"))
+                .thenReturn(createMockWeatherResponse("London", 1L, 290.0))
+                .thenReturn(createMockWeatherResponse("London", 1L, 292.0));
+        when(mockApiClient.getCurrentWeather("Paris")).thenReturn(createMockWeatherResponse("Paris", 2L, 285.0));
+        when(mockApiClient.getCurrentWeatherByIds(List.of(1L, 2L)))
+                .thenReturn(List.of(createMockWeatherResponse("Paris", 2L, 286.0)));
+        sdk.getWeather("London");
+        sdk.getWeather("Paris");
+        sdk.getCache().clear();
+
+        // When
+        Map<String, WeatherResponse> result = sdk.getWeather(List.of("London", "Paris"));
+
+        // Then
+        assertEquals(292.0, result.get("London").getTemperature().getTemp());
+        assertEquals(286.0, result.get("Paris").getTemperature().getTemp());
+        verify(mockApiClient, times(2)).getCurrentWeather("London");
+    }
+
+    @Test
+    void testCityMissingFromGroupNotFetchedTwiceAfterFailure() throws WeatherSDKException {
+        // Given - the group response leaves out a city whose fetch by name then fails
+        when(mockApiClient.getCurrentWeather("London"))
+                .thenReturn(createMockWeatherResponse("London", 1L, 290.0))
+                .thenThrow(new NetworkException("Network error"));
+        when(mockApiClient.getCurrentWeather("Paris")).thenReturn(createMockWeatherResponse("Paris", 2L, 285.0));
+        when(mockApiClient.getCurrentWeatherByIds(List.of(1L, 2L)))
+                .thenReturn(List.of(createMockWeatherResponse("Paris", 2L, 286.0)));
+        sdk.getWeather("London");
+        sdk.getWeather("Paris");
+        sdk.getCache().clear();
+
+        // When / Then - the failure of that fetch is the result for the city
+        assertThrows(NetworkException.class, () -> sdk.getWeather(List.of("London", "Paris")));
+        verify(mockApiClient, times(2)).getCurrentWeather("London");
+    }
+
+    @Test
+    void testConcurrentMissJoinsGroupRequest() throws Exception {
+        // Given - IDs learned, data evicted, and a group request held open
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(mockApiClient.getCurrentWeather("London")).thenReturn(createMockWeatherResponse("London", 1L, 290.0));
+        when(mockApiClient.getCurrentWeather("Paris")).thenReturn(createMockWeatherResponse("Paris", 2L, 285.0));
+        when(mockApiClient.getCurrentWeatherByIds(List.of(1L, 2L))).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return List.of(createMockWeatherResponse("London", 1L, 291.0),
+                    createMockWeatherResponse("Paris", 2L, 286.0));
+        });
+        sdk.getWeather("London");
+        sdk.getWeather("Paris");
+        sdk.getCache().clear();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // When - a single miss for a city of the batch arrives while the group request runs
+            Future<Map<String, WeatherResponse>> batch =
+                    executor.submit(() -> sdk.getWeather(List.of("London", "Paris")));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            CompletableFuture<WeatherResponse> single = sdk.getWeatherAsync("london");
+            assertFalse(single.isDone());
+            release.countDown();
+
+            // Then - it waits for the batch instead of sending its own request
+            assertEquals(291.0, single.get(5, TimeUnit.SECONDS).getTemperature().getTemp());
+            assertEquals(2, batch.get(5, TimeUnit.SECONDS).size());
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(mockApiClient, times(1)).getCurrentWeather("London");
+        verify(mockApiClient, never()).getCurrentWeatherAsync(anyString());
+    }
+
+    @Test
+    void testGroupRequestRecordsLoadPerCity() throws WeatherSDKException {
+        // Given
+        when(mockApiClient.getCurrentWeather("London")).thenReturn(createMockWeatherResponse("London", 1L, 290.0));
+        when(mockApiClient.getCurrentWeather("Paris")).thenReturn(createMockWeatherResponse("Paris", 2L, 285.0));
+        when(mockApiClient.getCurrentWeatherByIds(List.of(1L, 2L)))
+                .thenReturn(List.of(createMockWeatherResponse("London", 1L, 291.0),
+                        createMockWeatherResponse("Paris", 2L, 286.0)))
+                .thenThrow(new NetworkException("Network error"));
+        sdk.getWeather("London");
+        sdk.getWeather("Paris");
+        sdk.getCache().clear();
+
+        // When - one successful and one failed group request
+        sdk.getWeather(List.of("London", "Paris"));
+        sdk.getCache().clear();
+        assertThrows(NetworkException.class, () -> sdk.getWeather(List.of("London", "Paris")));
+
+        // Then - each counts as a load of both cities
+        CacheStats stats = sdk.getCacheStats();
+        assertEquals(4, stats.getLoadSuccessCount());
+        assertEquals(2, stats.getLoadFailureCount());
+    }
+
+    @Test
+    void testGetWeatherBatchValidatesCityNames() {
+        assertThrows(WeatherSDKException.class, () -> sdk.getWeather((List<String>) null));
+        assertThrows(WeatherSDKException.class, () -> sdk.getWeather(Arrays.asList("London", null)));
+        assertThrows(WeatherSDKException.class, () -> sdk.getWeather(List.of("London", " ")));
+        verifyNoInteractions(mockApiClient);
+    }
+
+    @Test
+    void testPollingRefreshesCitiesInBatches() throws Exception {
+        // Given - 25 cached cities with known IDs and a group endpoint returning all of them
+        WeatherSDKConfig config = WeatherSDKConfig.builder()
+                .cacheCapacity(50)
+                .pollingInterval(Duration.ofMillis(500))
+                .build();
+        for (int i = 1; i <= 25; i++) {
+            when(mockApiClient.getCurrentWeather("City" + i)).thenReturn(createMockWeatherResponse("City" + i, i, 290.0));
+        }
+        when(mockApiClient.getCurrentWeatherByIds(anyCollection()))
+                .thenAnswer(invocation -> groupResponse(invocation.getArgument(0)));
+
+        try (WeatherSDK pollingSdk = new WeatherSDK(TEST_API_KEY, OperationMode.POLLING, config, mockApiClient)) {
+            for (int i = 1; i <= 25; i++) {
+                pollingSdk.getWeather("City" + i);
+            }
+
+            // When - the first polling run completes
+            verify(mockApiClient, timeout(5000)).getCurrentWeatherByIds(argThat(batch -> batch.size() == 5));
+        }
+
+        // Then - the run took two group requests and no single ones
+        verify(mockApiClient, times(2)).getCurrentWeatherByIds(anyCollection());
+        verify(mockApiClient).getCurrentWeatherByIds(
+                argThat(batch -> batch.size() == WeatherApiClient.MAX_GROUP_SIZE));
+        verify(mockApiClient, times(25)).getCurrentWeather(anyString());
+    }
+
+    @Test
+    void testPollingFetchesCitiesMissingFromGroupResponseByName() throws Exception {
+        // Given - cached cities the group endpoint does not return
+        WeatherSDKConfig config = WeatherSDKConfig.builder()
+                .cacheCapacity(50)
+                .pollingInterval(Duration.ofMillis(500))
+                .build();
+        for (int i = 1; i <= 3; i++) {
+            WeatherResponse response = createMockWeatherResponse("City" + i, i, 290.0);
+            when(mockApiClient.getCurrentWeather("City" + i)).thenReturn(response);
+            // Polling refreshes by the normalized name
+            when(mockApiClient.getCurrentWeather("city" + i)).thenReturn(response);
+        }
+        when(mockApiClient.getCurrentWeatherByIds(anyCollection())).thenReturn(List.of());
+
+        try (WeatherSDK pollingSdk = new WeatherSDK(TEST_API_KEY, OperationMode.POLLING, config, mockApiClient)) {
+            for (int i = 1; i <= 3; i++) {
+                pollingSdk.getWeather("City" + i);
+            }
+
+            // When - a polling run finds them missing from the group response
+            verify(mockApiClient, timeout(5000)).getCurrentWeatherByIds(argThat(batch -> batch.size() == 3));
+
+            // Then - each of them is refreshed by name
+            for (int i = 1; i <= 3; i++) {
+                verify(mockApiClient, timeout(5000)).getCurrentWeather("city" + i);
+            }
+        }
+    }
+
+    /**
+     * Creates SDK batching misses, with the IDs of City1..CityN learned and their data evicted
+     */
+    private WeatherSDK createBatchingSdk(Duration window, int cities) throws WeatherSDKException {
+        WeatherSDKConfig config = WeatherSDKConfig.builder()
+                .cacheCapacity(50)
+                .missBatchWindow(window)
+                .build();
+        for (int i = 1; i <= cities; i++) {
+            when(mockApiClient.getCurrentWeather("City" + i)).thenReturn(createMockWeatherResponse("City" + i, i, 290.0));
+        }
+        WeatherSDK batchingSdk = new WeatherSDK(TEST_API_KEY, OperationMode.ON_DEMAND, config, mockApiClient);
+        for (int i = 1; i <= cities; i++) {
+            batchingSdk.getWeather("City" + i);
+        }
+        batchingSdk.getCache().clear();
+        return batchingSdk;
+    }
+
+    private List<WeatherResponse> groupResponse(Collection<Long> ids) {
+        List<WeatherResponse> responses = new ArrayList<>();
+        for (Long id : ids) {
+            responses.add(createMockWeatherResponse("City" + id, id, 300.0));
+        }
+        return responses;
+    }
+
+    @Test
+    void testFullMissBatchSentWithoutWaitingForWindow() throws Exception {
+        // Given - a window far longer than the test
+        when(mockApiClient.getCurrentWeatherByIds(anyCollection()))
+                .thenAnswer(invocation -> groupResponse(invocation.getArgument(0)));
+
+        try (WeatherSDK batchingSdk = createBatchingSdk(Duration.ofSeconds(30), WeatherApiClient.MAX_GROUP_SIZE)) {
+            // When
+            List<CompletableFuture<WeatherResponse>> futures = new ArrayList<>();
+            for (int i = 1; i <= WeatherApiClient.MAX_GROUP_SIZE; i++) {
+                futures.add(batchingSdk.getWeatherAsync("City" + i));
+            }
+
+            // Then - each caller gets its own city from one group request
+            for (int i = 1; i <= WeatherApiClient.MAX_GROUP_SIZE; i++) {
+                WeatherResponse response = futures.get(i - 1).get(5, TimeUnit.SECONDS);
+                assertEquals("City" + i, response.getName());
+                assertEquals(300.0, response.getTemperature().getTemp());
+            }
+            verify(mockApiClient, times(1)).getCurrentWeatherByIds(anyCollection());
+            assertEquals(300.0, batchingSdk.getWeather("City7").getTemperature().getTemp());
+        }
+    }
+
+    @Test
+    void testMissBatchSentWhenWindowEnds() throws Exception {
+        // Given
+        when(mockApiClient.getCurrentWeatherByIds(List.of(1L, 2L)))
+                .thenAnswer(invocation -> groupResponse(invocation.getArgument(0)));
+
+        try (WeatherSDK batchingSdk = createBatchingSdk(Duration.ofMillis(500), 2)) {
+            // When - a blocking miss joins the batch opened by a non-blocking one
+            CompletableFuture<WeatherResponse> first = batchingSdk.getWeatherAsync("City1");
+            WeatherResponse second = batchingSdk.getWeather("City2");
+
+            // Then
+            assertEquals("City2", second.getName());
+            assertEquals("City1", first.get(5, TimeUnit.SECONDS).getName());
+            verify(mockApiClient, times(1)).getCurrentWeatherByIds(anyCollection());
+        }
+    }
+
+    @Test
+    void testMissBatchNotDelayedByPollingRun() throws Exception {
+        // Given - a polling run held open by a slow group request for City1
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WeatherSDKConfig config = WeatherSDKConfig.builder()
+                .cacheCapacity(50)
+                .pollingInterval(Duration.ofMillis(300))
+                .missBatchWindow(Duration.ofMillis(20))
+                .build();
+        for (int i = 1; i <= 2; i++) {
+            when(mockApiClient.getCurrentWeather("City" + i)).thenReturn(createMockWeatherResponse("City" + i, i, 290.0));
+        }
+        when(mockApiClient.getCurrentWeatherByIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            if (ids.contains(1L)) {
+                entered.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return groupResponse(ids);
+        });
+
+        try (WeatherSDK pollingSdk = new WeatherSDK(TEST_API_KEY, OperationMode.POLLING, config, mockApiClient)) {
+            pollingSdk.getWeather("City1");
+            pollingSdk.getWeather("City2");
+            pollingSdk.getCache().remove("City2");
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+            // When - City2 misses while the polling run is blocked
+            WeatherResponse response = pollingSdk.getWeather("City2");
+
+            // Then - its batch window ended and the batch was sent regardless
+            assertEquals(300.0, response.getTemperature().getTemp());
+            assertEquals(1, release.getCount());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testMissFetchedDirectlyWhenBatchDoesNotComplete() throws Exception {
+        // Given - the only fetch thread is busy, so the batch stays queued
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService fetchExecutor = Executors.newSingleThreadExecutor();
+        fetchExecutor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        WeatherSDKConfig config = WeatherSDKConfig.builder()
+                .missBatchWindow(Duration.ofMillis(10))
+                .requestTimeout(Duration.ofMillis(100))
+                .retryPolicy(RetryPolicy.disabled())
+                .fetchExecutor(fetchExecutor)
+                .build();
+        when(mockApiClient.getCurrentWeather("City1"))
+                .thenReturn(createMockWeatherResponse("City1", 1L, 290.0))
+                .thenReturn(createMockWeatherResponse("City1", 1L, 291.0));
+        when(mockApiClient.getCurrentWeatherAsync("City1"))
+                .thenReturn(CompletableFuture.completedFuture(createMockWeatherResponse("City1", 1L, 292.0)));
+
+        try (WeatherSDK batchingSdk = new WeatherSDK(TEST_API_KEY, OperationMode.ON_DEMAND, config, mockApiClient)) {
+            batchingSdk.getWeather("City1");
+            batchingSdk.getCache().clear();
+
+            // When / Then - both kinds of callers send their own request after the bounded wait
+            long start = System.nanoTime();
+            assertEquals(291.0, batchingSdk.getWeather("City1").getTemperature().getTemp());
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+            batchingSdk.getCache().clear();
+            assertEquals(292.0, batchingSdk.getWeatherAsync("City1").get(5, TimeUnit.SECONDS)
+                    .getTemperature().getTemp());
+        } finally {
+            fetchExecutor.shutdownNow();
+        }
+        verify(mockApiClient, never()).getCurrentWeatherByIds(anyCollection());
+    }
+
+    @Test
+    void testCityMissingFromMissBatchLoadedByName() throws WeatherSDKException {
+        // Given - the group response leaves the city out
+        when(mockApiClient.getCurrentWeatherByIds(List.of(1L))).thenReturn(List.of());
+
+        try (WeatherSDK batchingSdk = createBatchingSdk(Duration.ofMillis(10), 1)) {
+            // When
+            WeatherResponse response = batchingSdk.getWeather("City1");
+
+            // Then
+            assertEquals("City1", response.getName());
+            verify(mockApiClient, times(2)).getCurrentWeather("City1");
+        }
+    }
+
+    @Test
+    void testRequestsBeyondRateLimitFail() throws WeatherSDKException {
+        // Given - 6 requests per minute allow a burst of one
+        WeatherSDKConfig config = WeatherSDKConfig.builder()
+                .requestsPerMinute(6)
+                .requestTimeout(Duration.ofMillis(100))
+                .build();
+        when(mockApiClient.getCurrentWeather("London")).thenReturn(createMockWeatherResponse("London", 290.0));
+
+        try (WeatherSDK limitedSdk = new WeatherSDK(TEST_API_KEY, OperationMode.ON_DEMAND, config, mockApiClient)) {
+            // When
+            limitedSdk.getWeather("London");
+
+            // Then - cache hits need no quota, a second API call does
+            limitedSdk.getWeather("London");
+            assertThrows(RateLimitExceededException.class, () -> limitedSdk.getWeather("Paris"));
+            ExecutionException async = assertThrows(ExecutionException.class,
+                    () -> limitedSdk.getWeatherAsync("Paris").get(5, TimeUnit.SECONDS));
+            assertInstanceOf(RateLimitExceededException.class, async.getCause());
+            verify(mockApiClient, never()).getCurrentWeather("Paris");
+            verify(mockApiClient, never()).getCurrentWeatherAsync(anyString());
+        }
+    }
+
+    @Test
+    void testBackgroundRefreshesWaitingForQuotaDoNotHoldUpMisses() throws WeatherSDKException {
+        // Given - the burst of one request is used, and the only refresh token is 10 seconds away
+        WeatherSDKConfig config = WeatherSDKConfig.builder()
+                .requestsPerMinute(6)
+                .requestTimeout(Duration.ofMillis(200))
+                .retryPolicy(RetryPolicy.disabled())
+                .staleGracePeriod(Duration.ofMinutes(5))
+                .missBatchWindow(Duration.ofMillis(10))
+                .build();
+        when(mockApiClient.getCurrentWeather("London")).thenReturn(createMockWeatherResponse("London", 1L, 290.0));
+
+        try (WeatherSDK limitedSdk = new WeatherSDK(TEST_API_KEY, OperationMode.ON_DEMAND, config, mockApiClient)) {
+            limitedSdk.getWeather("London");
+            limitedSdk.getCache().clear();
+            // As many stale cities as there are fetch threads start refreshes that wait for tokens
+            for (String city : List.of("Paris", "Berlin")) {
+                limitedSdk.getCache().put(city, new WeatherData(createMockWeatherResponse(city, 280.0),
+                        Instant.now().minus(Duration.ofMinutes(11))));
+                assertTrue(limitedSdk.getWeather(city).isStale());
+            }
+
+            // When / Then - the batched miss is sent at once and fails for lack of quota,
+            // instead of timing out in the queue behind the refreshes
+            assertThrows(RateLimitExceededException.class, () -> limitedSdk.getWeather("London"));
+            verify(mockApiClient, times(1)).getCurrentWeather(anyString());
+        }
+    }
+
+    private WeatherSDKConfig circuitBreakerConfig(Duration cacheTtl, Duration openDuration) {
+        return WeatherSDKConfig.builder()
+                .cacheTtl(cacheTtl)
+                .circuitBreaker(CircuitBreakerPolicy.builder()
+                        .slidingWindowSize(2)
+                        .minimumCalls(2)
+                        .openDuration(openDuration)
+                        .halfOpenCalls(1)
+                        .build())
+                .build();
+    }
+
+    @Test
+    void testOpenCircuitServesLastKnownData() throws Exception {
+        // Given - London is fetched once, then expires while the API goes down
+        WeatherSDKConfig config = circuitBreakerConfig(Duration.ofMillis(50), Duration.ofMinutes(1));
+        when(mockApiClient.getCurrentWeather("London")).thenReturn(createMockWeatherResponse("London", 290.0));
+        when(mockApiClient.getCurrentWeather("Paris")).thenThrow(new NetworkException("Connection refused"));
+
+        try (WeatherSDK breakerSdk = new WeatherSDK(TEST_API_KEY, OperationMode.ON_DEMAND, config, mockApiClient)) {
+            breakerSdk.getWeather("London");
+            Thread.sleep(100);
+            // One failure in a window of two calls reaches the 50% failure rate
+            assertThrows(NetworkException.class, () -> breakerSdk.getWeather("Paris"));
+
+            // When
+            WeatherResponse london = breakerSdk.getWeather("London");
+            WeatherResponse londonAsync = breakerSdk.getWeatherAsync("london").get(5, TimeUnit.SECONDS);
+
+            // Then - known cities are served stale, others fail fast without a request
+            assertEquals(290.0, london.getTemperature().getTemp());
+            assertTrue(london.isStale());
+            assertTrue(londonAsync.isStale());
+            assertThrows(CircuitOpenException.class, () -> breakerSdk.getWeather("Paris"));
+            ExecutionException async = assertThrows(ExecutionException.class,
+                    () -> breakerSdk.getWeatherAsync("Berlin").get(5, TimeUnit.SECONDS));
+            assertInstanceOf(CircuitOpenException.class, async.getCause());
+            verify(mockApiClient, times(1)).getCurrentWeather("London");
+            verify(mockApiClient, times(1)).getCurrentWeather("Paris");
+            verify(mockApiClient, never()).getCurrentWeatherAsync(anyString());
+        }
+    }
+
+    @Test
+    void testCircuitClosesAfterSuccessfulTrialCall() throws Exception {
+        // Given
+        WeatherSDKConfig config = circuitBreakerConfig(Duration.ofMinutes(10), Duration.ofMillis(100));
+        when(mockApiClient.getCurrentWeather("Paris"))
+                .thenThrow(new NetworkException("Connection refused"))
+                .thenThrow(new NetworkException("Connection refused"))
+                .thenReturn(createMockWeatherResponse("Paris", 285.0));
+        when(mockApiClient.getCurrentWeather("Berlin")).thenReturn(createMockWeatherResponse("Berlin", 280.0));
+
+        try (WeatherSDK breakerSdk = new WeatherSDK(TEST_API_KEY, OperationMode.ON_DEMAND, config, mockApiClient)) {
+            assertThrows(NetworkException.class, () -> breakerSdk.getWeather("Paris"));
+            assertThrows(NetworkException.class, () -> breakerSdk.getWeather("Paris"));
+            assertThrows(CircuitOpenException.class, () -> breakerSdk.getWeather("Berlin"));
+
+            // When - the open duration passes and the trial call succeeds
+            Thread.sleep(150);
+            WeatherResponse paris = breakerSdk.getWeather("Paris");
+
+            // Then
+            assertEquals(285.0, paris.getTemperature().getTemp());
+            assertEquals(280.0, breakerSdk.getWeather("Berlin").getTemperature().getTemp());
+        }
+    }
+
+    @Test
+    void testClientErrorsDoNotOpenCircuit() throws WeatherSDKException {
+        // Given
+        WeatherSDKConfig config = circuitBreakerConfig(Duration.ofMinutes(10), Duration.ofMinutes(1));
+        when(mockApiClient.getCurrentWeather("Atlantis")).thenThrow(new CityNotFoundException("City not found"));
+        when(mockApiClient.getCurrentWeather("El Dorado")).thenThrow(new CityNotFoundException("City not found"));
+        when(mockApiClient.getCurrentWeather("London")).thenReturn(createMockWeatherResponse("London", 290.0));
+
+        try (WeatherSDK breakerSdk = new WeatherSDK(TEST_API_KEY, OperationMode.ON_DEMAND, config, mockApiClient)) {
+            // When
+            assertThrows(CityNotFoundException.class, () -> breakerSdk.getWeather("Atlantis"));
+            assertThrows(CityNotFoundException.class, () -> breakerSdk.getWeather("El Dorado"));
+
+            // Then - the API answered, so requests keep being sent
+            assertEquals("London", breakerSdk.getWeather("London").getName());
+        }
+    }
+}
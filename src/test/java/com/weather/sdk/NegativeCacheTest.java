@@ -0,0 +1,102 @@
+package com.weather.sdk;
+
+import com.weather.sdk.cache.NegativeCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for NegativeCache
+ */
+class NegativeCacheTest {
+
+    @Test
+    void testRejectedCityIsRemembered() {
+        NegativeCache cache = new NegativeCache(Duration.ofMinutes(1));
+
+        cache.put("Atlantis");
+
+        assertTrue(cache.isRejected("Atlantis"));
+        assertTrue(cache.isRejected("  aTLANTIS "));
+        assertFalse(cache.isRejected("London"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testRejectionExpires() throws InterruptedException {
+        NegativeCache cache = new NegativeCache(Duration.ofMillis(50));
+
+        cache.put("Atlantis");
+        Thread.sleep(120);
+
+        assertFalse(cache.isRejected("Atlantis"));
+    }
+
+    @Test
+    void testNameSurvivesFilterRotationWithinTtl() throws InterruptedException {
+        NegativeCache cache = new NegativeCache(Duration.ofMillis(200));
+
+        Thread.sleep(150);
+        cache.put("Atlantis");
+        // Filter generation rotates while the entry is still valid
+        Thread.sleep(100);
+
+        assertTrue(cache.isRejected("Atlantis"));
+    }
+
+    @Test
+    void testFalsePositivesNeverRejectValidCities() {
+        NegativeCache cache = new NegativeCache(Duration.ofMinutes(1), 100);
+        for (int i = 0; i < 100; i++) {
+            cache.put("Nowhere" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertFalse(cache.isRejected("City" + i));
+        }
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        NegativeCache cache = new NegativeCache(Duration.ofMinutes(1), 10);
+        for (int i = 0; i < 100; i++) {
+            cache.put("Nowhere" + i);
+        }
+
+        assertEquals(10, cache.size());
+    }
+
+    @Test
+    void testRemoveAndClear() {
+        NegativeCache cache = new NegativeCache(Duration.ofMinutes(1));
+        cache.put("Atlantis");
+        cache.put("El Dorado");
+
+        cache.remove("ATLANTIS");
+        assertFalse(cache.isRejected("Atlantis"));
+        assertTrue(cache.isRejected("El Dorado"));
+
+        cache.clear();
+        assertFalse(cache.isRejected("El Dorado"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testZeroTtlDisablesCache() {
+        NegativeCache cache = new NegativeCache(Duration.ZERO);
+
+        cache.put("Atlantis");
+
+        assertFalse(cache.isRejected("Atlantis"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testInvalidArgumentsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new NegativeCache(null));
+        assertThrows(IllegalArgumentException.class, () -> new NegativeCache(Duration.ofSeconds(-1)));
+        assertThrows(IllegalArgumentException.class, () -> new NegativeCache(Duration.ofMinutes(1), 0));
+    }
+}
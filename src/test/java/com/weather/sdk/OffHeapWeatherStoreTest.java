@@ -0,0 +1,220 @@
+package com.weather.sdk;
+
+import com.weather.sdk.cache.OffHeapWeatherStore;
+import com.weather.sdk.model.WeatherData;
+import com.weather.sdk.model.WeatherResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OffHeapWeatherStore
+ */
+class OffHeapWeatherStoreTest {
+
+    private WeatherData createWeatherData(String cityName, double temp) {
+        WeatherResponse response = new WeatherResponse();
+        response.setName(cityName);
+        response.setTemperature(new WeatherResponse.Temperature(temp, temp - 2));
+        response.setWeather(new WeatherResponse.Weather("Clouds", "scattered clouds"));
+        response.setWind(new WeatherResponse.Wind(3.1));
+        response.setVisibility(8000);
+        response.setDatetime(1675744800L);
+        response.setSys(new WeatherResponse.Sys(1675751262L, 1675787560L));
+        response.setTimezone(-18000);
+        response.setCityId(2643743);
+        return new WeatherData(response);
+    }
+
+    @Test
+    void testPutAndGet() {
+        OffHeapWeatherStore store = new OffHeapWeatherStore(10);
+        WeatherData data = createWeatherData("London", 290.0);
+
+        store.put("London", data);
+
+        WeatherData retrieved = store.get(" LONDON ");
+        assertNotNull(retrieved);
+        assertEquals(data.getWeatherResponse(), retrieved.getWeatherResponse());
+        assertEquals(data.getTimestamp().toEpochMilli(), retrieved.getTimestamp().toEpochMilli());
+        assertEquals(2643743, retrieved.getWeatherResponse().getCityId());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testReplaceAndRemove() {
+        OffHeapWeatherStore store = new OffHeapWeatherStore(10);
+        store.put("London", createWeatherData("London", 290.0));
+        store.put("london", createWeatherData("London", 280.0));
+
+        assertEquals(1, store.size());
+        assertEquals(280.0, store.get("London").getWeatherResponse().getTemperature().getTemp());
+
+        store.remove("London");
+        assertNull(store.get("London"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testExpiredEntryIsNotReturned() {
+        OffHeapWeatherStore store = new OffHeapWeatherStore(10);
+        WeatherResponse response = createWeatherData("London", 290.0).getWeatherResponse();
+
+        store.put("London", new WeatherData(response, Instant.now().minus(Duration.ofMinutes(11))));
+
+        assertNull(store.get("London"));
+    }
+
+    @Test
+    void testForEachVisitsValidEntries() {
+        OffHeapWeatherStore store = new OffHeapWeatherStore(10);
+        store.put("London", createWeatherData("London", 290.0));
+        store.put("Paris", createWeatherData("Paris", 285.0));
+        store.put("Rome", new WeatherData(createWeatherData("Rome", 295.0).getWeatherResponse(),
+                Instant.now().minus(Duration.ofMinutes(11))));
+
+        Map<String, Double> visited = new HashMap<>();
+        store.forEach((cityName, data) ->
+                visited.put(cityName, data.getWeatherResponse().getTemperature().getTemp()));
+
+        assertEquals(Map.of("london", 290.0, "paris", 285.0), visited);
+    }
+
+    @Test
+    void testEntryLargerThanSlotIsNotStored() {
+        OffHeapWeatherStore store = new OffHeapWeatherStore(10, 64);
+        store.put("London", createWeatherData("London", 290.0));
+        assertEquals(0, store.size());
+
+        OffHeapWeatherStore larger = new OffHeapWeatherStore(10);
+        larger.put("London", createWeatherData("London", 290.0));
+        // Replacing with data that does not fit drops the outdated entry
+        WeatherResponse huge = createWeatherData("London", 280.0).getWeatherResponse();
+        huge.setWeather(new WeatherResponse.Weather("Clouds", "x".repeat(1000)));
+        larger.put("London", new WeatherData(huge));
+        assertNull(larger.get("London"));
+    }
+
+    @Test
+    void testClockEvictionKeepsRecentlyReadEntries() {
+        OffHeapWeatherStore store = new OffHeapWeatherStore(4);
+        for (int i = 0; i < 4; i++) {
+            store.put("City" + i, createWeatherData("City" + i, 290.0));
+        }
+        store.get("City0");
+        store.get("City2");
+
+        store.put("City4", createWeatherData("City4", 290.0));
+
+        assertEquals(4, store.size());
+        assertNotNull(store.get("City0"));
+        assertNull(store.get("City1"));
+        assertNotNull(store.get("City2"));
+        assertNotNull(store.get("City4"));
+    }
+
+    @Test
+    void testMatchesMapUnderRandomOperations() {
+        int capacity = 500;
+        OffHeapWeatherStore store = new OffHeapWeatherStore(capacity);
+        Map<String, Double> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 20_000; i++) {
+            String city = "city" + random.nextInt(400);
+            if (random.nextInt(4) == 0) {
+                store.remove(city);
+                expected.remove(city);
+            } else {
+                double temp = random.nextInt(400);
+                store.put(city, createWeatherData(city, temp));
+                expected.put(city, temp);
+            }
+        }
+
+        assertEquals(expected.size(), store.size());
+        for (int i = 0; i < 400; i++) {
+            String city = "city" + i;
+            WeatherData data = store.get(city);
+            if (expected.containsKey(city)) {
+                assertNotNull(data, city);
+                assertEquals(expected.get(city), data.getWeatherResponse().getTemperature().getTemp());
+            } else {
+                assertNull(data, city);
+            }
+        }
+    }
+
+    @Test
+    void testClearReusesSlabs() {
+        OffHeapWeatherStore store = new OffHeapWeatherStore(100);
+        assertEquals(0, store.offHeapBytes());
+        for (int i = 0; i < 100; i++) {
+            store.put("City" + i, createWeatherData("City" + i, 290.0));
+        }
+        long allocated = store.offHeapBytes();
+        assertTrue(allocated >= 100 * OffHeapWeatherStore.DEFAULT_SLOT_SIZE);
+
+        store.clear();
+        assertEquals(0, store.size());
+        assertNull(store.get("City1"));
+        for (int i = 0; i < 100; i++) {
+            store.put("Town" + i, createWeatherData("Town" + i, 290.0));
+        }
+        assertEquals(100, store.size());
+        assertEquals(allocated, store.offHeapBytes());
+    }
+
+    @Test
+    void testConcurrentReadsAndWrites() throws Exception {
+        OffHeapWeatherStore store = new OffHeapWeatherStore(50);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        String city = "City" + ((seed * 31 + i) % 80);
+                        if (i % 5 == 0) {
+                            store.put(city, createWeatherData(city, 290.0));
+                        } else {
+                            WeatherData data = store.get(city);
+                            if (data != null) {
+                                assertEquals(city, data.getWeatherResponse().getName());
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(store.size() <= 50);
+    }
+
+    @Test
+    void testInvalidArgumentsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapWeatherStore(0));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapWeatherStore(10, 16));
+        OffHeapWeatherStore store = new OffHeapWeatherStore(10);
+        assertThrows(IllegalArgumentException.class, () -> store.put("London", null));
+        assertThrows(IllegalArgumentException.class, () -> store.get(null));
+    }
+}
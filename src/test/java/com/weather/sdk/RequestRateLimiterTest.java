@@ -0,0 +1,95 @@
+package com.weather.sdk;
+
+import com.weather.sdk.RequestRateLimiter.Lane;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RequestRateLimiter
+ */
+class RequestRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testBurstIsLimited() throws InterruptedException {
+        // 60 per minute: bursts of 10, then one token per second
+        RequestRateLimiter limiter = new RequestRateLimiter(60);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.acquire(Lane.FOREGROUND, 0));
+        }
+
+        assertFalse(limiter.acquire(Lane.FOREGROUND, 0));
+        assertTrue(limiter.acquire(Lane.FOREGROUND, 5 * SECOND));
+    }
+
+    @Test
+    void testForegroundServedBeforeWaitingBackground() throws Exception {
+        // 120 per minute: a token every 500 ms
+        RequestRateLimiter limiter = new RequestRateLimiter(120);
+        while (limiter.acquire(Lane.FOREGROUND, 0)) {
+            // drain the burst
+        }
+        List<Lane> order = new CopyOnWriteArrayList<>();
+
+        Thread background = new Thread(() -> {
+            try {
+                limiter.acquire(Lane.BACKGROUND, 0);
+                order.add(Lane.BACKGROUND);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        background.start();
+        Thread.sleep(50);
+        assertTrue(limiter.acquire(Lane.FOREGROUND, 5 * SECOND));
+        order.add(Lane.FOREGROUND);
+        background.join(5000);
+
+        assertEquals(List.of(Lane.FOREGROUND, Lane.BACKGROUND), order);
+    }
+
+    @Test
+    void testAsyncAcquireWaitsWithoutBlocking() throws Exception {
+        RequestRateLimiter limiter = new RequestRateLimiter(600);
+        while (limiter.acquire(Lane.FOREGROUND, 0)) {
+            // drain the burst
+        }
+
+        CompletableFuture<Boolean> acquired = limiter.acquireAsync(5 * SECOND);
+        CompletableFuture<Boolean> timedOut = limiter.acquireAsync(0);
+
+        assertTrue(acquired.get(5, TimeUnit.SECONDS));
+        assertFalse(timedOut.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testCloseReleasesWaiters() throws Exception {
+        RequestRateLimiter limiter = new RequestRateLimiter(1);
+        assertTrue(limiter.acquire(Lane.BACKGROUND, 0));
+        CompletableFuture<Boolean> background = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire(Lane.BACKGROUND, 0);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(20);
+
+        limiter.close();
+
+        assertFalse(background.get(5, TimeUnit.SECONDS));
+        assertFalse(limiter.acquireAsync(SECOND).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testInvalidRateThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new RequestRateLimiter(0));
+    }
+}
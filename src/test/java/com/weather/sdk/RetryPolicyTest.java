@@ -0,0 +1,87 @@
+package com.weather.sdk;
+
+import com.weather.sdk.config.RetryPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RetryPolicy
+ */
+class RetryPolicyTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void testBackoffIsJitteredBelowDoublingCeiling() {
+        RetryPolicy policy = RetryPolicy.builder()
+                .maxAttempts(10)
+                .initialBackoff(Duration.ofMillis(100))
+                .maxBackoff(Duration.ofMillis(350))
+                .maxElapsed(Duration.ofMinutes(1))
+                .build();
+
+        long[] ceilings = {100 * MILLI, 200 * MILLI, 350 * MILLI, 350 * MILLI};
+        for (int attempt = 1; attempt <= ceilings.length; attempt++) {
+            long max = 0;
+            for (int i = 0; i < 1_000; i++) {
+                long delay = policy.retryDelayNanos(attempt, 0, -1);
+                assertTrue(delay >= 0 && delay <= ceilings[attempt - 1], "attempt " + attempt + ": " + delay);
+                max = Math.max(max, delay);
+            }
+            // Full jitter spreads waits over the whole range
+            assertTrue(max > ceilings[attempt - 1] / 2, "attempt " + attempt + ": " + max);
+        }
+    }
+
+    @Test
+    void testAttemptsAndElapsedTimeAreCapped() {
+        RetryPolicy policy = RetryPolicy.builder()
+                .maxAttempts(3)
+                .initialBackoff(Duration.ofMillis(100))
+                .maxElapsed(Duration.ofSeconds(1))
+                .build();
+
+        assertTrue(policy.retryDelayNanos(2, 0, -1) >= 0);
+        assertEquals(-1, policy.retryDelayNanos(3, 0, -1));
+        assertEquals(-1, policy.retryDelayNanos(1, 1_000 * MILLI, -1));
+        assertEquals(-1, RetryPolicy.disabled().retryDelayNanos(1, 0, -1));
+    }
+
+    @Test
+    void testRetryAfterReplacesBackoff() {
+        RetryPolicy policy = RetryPolicy.defaults();
+
+        assertEquals(2_000 * MILLI, policy.retryDelayNanos(1, 0, 2_000 * MILLI));
+        assertEquals(0, policy.retryDelayNanos(1, 0, 0));
+        // A wait past the elapsed limit is not worth making
+        assertEquals(-1, policy.retryDelayNanos(1, 0, TimeUnit.MINUTES.toNanos(1)));
+    }
+
+    @Test
+    void testRetryableStatuses() {
+        for (int status : new int[] {429, 500, 502, 503, 504}) {
+            assertTrue(RetryPolicy.isRetryableStatus(status), String.valueOf(status));
+        }
+        for (int status : new int[] {200, 400, 401, 403, 404, 501}) {
+            assertFalse(RetryPolicy.isRetryableStatus(status), String.valueOf(status));
+        }
+    }
+
+    @Test
+    void testInvalidValuesThrowException() {
+        RetryPolicy.Builder builder = RetryPolicy.builder();
+
+        assertThrows(IllegalArgumentException.class, () -> builder.maxAttempts(0));
+        assertThrows(IllegalArgumentException.class, () -> builder.initialBackoff(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> builder.maxBackoff(null));
+        assertThrows(IllegalArgumentException.class, () -> builder.maxElapsed(Duration.ofSeconds(-1)));
+        assertThrows(IllegalArgumentException.class, () -> RetryPolicy.builder()
+                .initialBackoff(Duration.ofSeconds(10))
+                .maxBackoff(Duration.ofSeconds(1))
+                .build());
+    }
+}
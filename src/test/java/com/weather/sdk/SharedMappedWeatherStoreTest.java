@@ -0,0 +1,269 @@
+package com.weather.sdk;
+
+import com.weather.sdk.cache.SharedMappedWeatherStore;
+import com.weather.sdk.model.WeatherData;
+import com.weather.sdk.model.WeatherResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SharedMappedWeatherStore, including several processes sharing one file
+ */
+class SharedMappedWeatherStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static WeatherData createWeatherData(String cityName, double temp) {
+        WeatherResponse response = new WeatherResponse();
+        response.setName(cityName);
+        response.setTemperature(new WeatherResponse.Temperature(temp, temp));
+        response.setWeather(new WeatherResponse.Weather("Clouds", "scattered clouds"));
+        response.setVisibility(10000);
+        response.setCityId(2643743);
+        return new WeatherData(response);
+    }
+
+    @Test
+    void testPutAndGet() throws IOException {
+        SharedMappedWeatherStore store = new SharedMappedWeatherStore(tempDir.resolve("cache"), 100);
+        store.put("London", createWeatherData("London", 290.15));
+
+        WeatherData data = store.get("  LONDON ");
+
+        assertNotNull(data);
+        assertEquals("London", data.getWeatherResponse().getName());
+        assertEquals(290.15, data.getWeatherResponse().getTemperature().getTemp());
+        assertEquals(2643743, data.getWeatherResponse().getCityId());
+        assertTrue(data.isValid());
+        assertNull(store.get("Paris"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testStoresOnSameFileShareData() throws IOException {
+        Path file = tempDir.resolve("cache");
+        SharedMappedWeatherStore first = new SharedMappedWeatherStore(file, 100);
+        SharedMappedWeatherStore second = new SharedMappedWeatherStore(file, 100);
+
+        first.put("London", createWeatherData("London", 290.15));
+        assertNotNull(second.get("London"));
+
+        second.remove("london");
+        assertNull(first.get("London"));
+    }
+
+    @Test
+    void testDifferentGeometryIsRejected() throws IOException {
+        Path file = tempDir.resolve("cache");
+        new SharedMappedWeatherStore(file, 100);
+
+        assertThrows(IOException.class, () -> new SharedMappedWeatherStore(file, 200));
+        assertThrows(IOException.class, () -> new SharedMappedWeatherStore(file, 100, 512));
+    }
+
+    @Test
+    void testFullSetReplacesEntryExpiringFirst() throws IOException {
+        // A single set: every city competes for the same slots
+        SharedMappedWeatherStore store = new SharedMappedWeatherStore(tempDir.resolve("cache"), 8);
+        WeatherResponse response = createWeatherData("Old", 280.0).getWeatherResponse();
+        store.put("Old", new WeatherData(response, Instant.now().minus(Duration.ofMinutes(5))));
+        for (int i = 0; i < 7; i++) {
+            store.put("City" + i, createWeatherData("City" + i, 290.0));
+        }
+
+        store.put("New", createWeatherData("New", 295.0));
+
+        assertNull(store.get("Old"));
+        assertNotNull(store.get("New"));
+        assertEquals(8, store.size());
+        assertEquals(1, store.evictionCount());
+    }
+
+    @Test
+    void testOversizedEntryIsNotStored() throws IOException {
+        SharedMappedWeatherStore store = new SharedMappedWeatherStore(tempDir.resolve("cache"), 8, 64);
+        store.put("London", createWeatherData("London", 290.15));
+
+        assertNull(store.get("London"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testForEachVisitsEntriesOfAllProcesses() throws IOException {
+        Path file = tempDir.resolve("cache");
+        SharedMappedWeatherStore first = new SharedMappedWeatherStore(file, 100);
+        SharedMappedWeatherStore second = new SharedMappedWeatherStore(file, 100);
+        first.put("London", createWeatherData("London", 290.15));
+        second.put("Paris", createWeatherData("Paris", 285.0));
+
+        Map<String, Double> visited = new HashMap<>();
+        first.forEach((cityName, data) ->
+                visited.put(cityName, data.getWeatherResponse().getTemperature().getTemp()));
+
+        assertEquals(Map.of("london", 290.15, "paris", 285.0), visited);
+    }
+
+    @Test
+    void testClear() throws IOException {
+        SharedMappedWeatherStore store = new SharedMappedWeatherStore(tempDir.resolve("cache"), 100);
+        store.put("London", createWeatherData("London", 290.15));
+        store.put("Paris", createWeatherData("Paris", 285.0));
+
+        store.clear();
+
+        assertEquals(0, store.size());
+        assertNull(store.get("London"));
+    }
+
+    @Test
+    void testInvalidArgumentsThrowException() {
+        Path file = tempDir.resolve("cache");
+        assertThrows(IllegalArgumentException.class, () -> new SharedMappedWeatherStore(null, 100));
+        assertThrows(IllegalArgumentException.class, () -> new SharedMappedWeatherStore(file, 0));
+        assertThrows(IllegalArgumentException.class, () -> new SharedMappedWeatherStore(file, 100, 16));
+    }
+
+    @Test
+    void testConcurrentReadsNeverSeeTornWrites() throws Exception {
+        SharedMappedWeatherStore store = new SharedMappedWeatherStore(tempDir.resolve("cache"), 8);
+        store.put("London", createWeatherData("v0", 0));
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < 2; w++) {
+                int writer = w;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; running.get(); i++) {
+                        int version = i * 2 + writer;
+                        // Name length varies so a torn read would mix fields of different sizes
+                        String name = "v" + version + (version % 3 == 0 ? "-with-a-longer-name" : "");
+                        store.put("London", createWeatherData(name, version));
+                    }
+                }));
+            }
+            for (int r = 0; r < 2; r++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 100_000; i++) {
+                        WeatherData data = store.get("London");
+                        if (data != null) {
+                            String name = data.getWeatherResponse().getName();
+                            int version = (int) data.getWeatherResponse().getTemperature().getTemp();
+                            assertTrue(name.startsWith("v" + version), name + " read with " + version);
+                        }
+                    }
+                }));
+            }
+            futures.get(2).get(60, TimeUnit.SECONDS);
+            futures.get(3).get(60, TimeUnit.SECONDS);
+            running.set(false);
+            futures.get(0).get(10, TimeUnit.SECONDS);
+            futures.get(1).get(10, TimeUnit.SECONDS);
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testProcessesShareFile() throws Exception {
+        Path file = tempDir.resolve("cache");
+        int processCount = 3;
+        int citiesPerProcess = 50;
+
+        List<Process> processes = new ArrayList<>();
+        for (int p = 0; p < processCount; p++) {
+            processes.add(startWorker(file, "P" + p, citiesPerProcess, tempDir.resolve("P" + p + ".log")));
+        }
+        for (int p = 0; p < processCount; p++) {
+            Process process = processes.get(p);
+            Path log = tempDir.resolve("P" + p + ".log");
+            assertTrue(process.waitFor(60, TimeUnit.SECONDS), "Worker did not finish");
+            assertEquals(0, process.exitValue(), () -> "Worker failed: " + readLog(log));
+        }
+
+        // Every city stored by any process is visible here
+        SharedMappedWeatherStore store = new SharedMappedWeatherStore(file, 1024);
+        for (int p = 0; p < processCount; p++) {
+            for (int i = 0; i < citiesPerProcess; i++) {
+                WeatherData data = store.get("P" + p + "-City" + i);
+                assertNotNull(data, "P" + p + "-City" + i);
+                assertEquals(i, data.getWeatherResponse().getTemperature().getTemp());
+            }
+        }
+        // All workers also overwrote one shared city with consistent data
+        WeatherData shared = store.get("Shared");
+        assertNotNull(shared);
+        String name = shared.getWeatherResponse().getName();
+        assertTrue(name.startsWith("P") && name.endsWith("-" + (int) shared.getWeatherResponse()
+                .getTemperature().getTemp()), name);
+    }
+
+    private static Process startWorker(Path file, String prefix, int cities, Path log) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), Worker.class.getName(),
+                file.toString(), prefix, String.valueOf(cities))
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    private static String readLog(Path log) {
+        try {
+            return Files.readString(log);
+        } catch (IOException e) {
+            return e.toString();
+        }
+    }
+
+    /**
+     * Child process: stores its own cities, checks they are readable and races
+     * the other workers on a shared city, failing on any inconsistent read.
+     */
+    static class Worker {
+
+        public static void main(String[] args) throws IOException {
+            SharedMappedWeatherStore store = new SharedMappedWeatherStore(Paths.get(args[0]), 1024);
+            String prefix = args[1];
+            int cities = Integer.parseInt(args[2]);
+
+            for (int i = 0; i < cities; i++) {
+                store.put(prefix + "-City" + i, createWeatherData(prefix + "-City" + i, i));
+            }
+            for (int i = 0; i < 20_000; i++) {
+                store.put("Shared", createWeatherData(prefix + "-" + i, i));
+                WeatherData data = store.get("Shared");
+                String name = data == null ? null : data.getWeatherResponse().getName();
+                if (data != null && !name.endsWith("-" + (int) data.getWeatherResponse().getTemperature().getTemp())) {
+                    System.err.println("Inconsistent read: " + name);
+                    System.exit(1);
+                }
+            }
+            for (int i = 0; i < cities; i++) {
+                if (store.get(prefix + "-City" + i) == null) {
+                    System.err.println("Lost " + prefix + "-City" + i);
+                    System.exit(1);
+                }
+            }
+        }
+    }
+}
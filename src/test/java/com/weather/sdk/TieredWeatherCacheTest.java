@@ -0,0 +1,261 @@
+package com.weather.sdk;
+
+import com.weather.sdk.cache.BatchLookup;
+import com.weather.sdk.cache.CacheSnapshot;
+import com.weather.sdk.cache.OffHeapWeatherStore;
+import com.weather.sdk.cache.TierStats;
+import com.weather.sdk.cache.TieredWeatherCache;
+import com.weather.sdk.cache.WeatherStore;
+import com.weather.sdk.model.WeatherData;
+import com.weather.sdk.model.WeatherResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TieredWeatherCache
+ */
+class TieredWeatherCacheTest {
+
+    private OffHeapWeatherStore secondLevel;
+    private TieredWeatherCache cache;
+
+    @BeforeEach
+    void setUp() {
+        secondLevel = new OffHeapWeatherStore(100);
+        cache = new TieredWeatherCache(3, secondLevel, Duration.ZERO);
+    }
+
+    private WeatherData createWeatherData(String cityName) {
+        WeatherResponse response = new WeatherResponse();
+        response.setName(cityName);
+        response.setTemperature(new WeatherResponse.Temperature(290.15, 288.0));
+        response.setWeather(new WeatherResponse.Weather("Clear", "clear sky"));
+        return new WeatherData(response);
+    }
+
+    @Test
+    void testEvictedEntriesAreDemotedToSecondLevel() {
+        for (int i = 0; i < 5; i++) {
+            cache.put("City" + i, createWeatherData("City" + i));
+        }
+
+        assertEquals(5, cache.size());
+        assertEquals(3, cache.firstLevelStats().getSize());
+        assertEquals(2, cache.secondLevelStats().getSize());
+        assertEquals(2, cache.firstLevelStats().getEvictionCount());
+    }
+
+    @Test
+    void testSecondLevelHitIsPromoted() {
+        for (int i = 0; i < 4; i++) {
+            cache.put("City" + i, createWeatherData("City" + i));
+        }
+        assertNotNull(secondLevel.get("City0"));
+
+        WeatherData promoted = cache.get("City0");
+
+        assertNotNull(promoted);
+        assertEquals("City0", promoted.getWeatherResponse().getName());
+        // Promotion moved the entry and demoted another one: tiers stay exclusive
+        assertNull(secondLevel.get("City0"));
+        assertEquals(4, cache.size());
+        assertEquals(1, cache.secondLevelStats().getHitCount());
+    }
+
+    @Test
+    void testStatsPerTier() {
+        cache.put("London", createWeatherData("London"));
+        cache.get("London");
+        cache.get("Paris");
+
+        TierStats first = cache.firstLevelStats();
+        TierStats second = cache.secondLevelStats();
+        assertEquals(1, first.getHitCount());
+        assertEquals(1, first.getMissCount());
+        assertEquals(0.5, first.getHitRate());
+        assertEquals(0, second.getHitCount());
+        assertEquals(1, second.getMissCount());
+    }
+
+    @Test
+    void testExpiredEntriesAreNotDemoted() {
+        WeatherResponse response = createWeatherData("Old").getWeatherResponse();
+        cache.put("Old", new WeatherData(response, Instant.now().minus(Duration.ofMinutes(11))));
+        for (int i = 0; i < 3; i++) {
+            cache.put("City" + i, createWeatherData("City" + i));
+        }
+
+        assertEquals(0, secondLevel.size());
+    }
+
+    @Test
+    void testPutReplacesSecondLevelCopy() {
+        for (int i = 0; i < 4; i++) {
+            cache.put("City" + i, createWeatherData("City" + i));
+        }
+        WeatherResponse updated = createWeatherData("City0").getWeatherResponse();
+        updated.setVisibility(1234);
+
+        cache.put("City0", new WeatherData(updated));
+
+        assertNull(secondLevel.get("City0"));
+        assertEquals(1234, cache.get("City0").getWeatherResponse().getVisibility());
+    }
+
+    @Test
+    void testRemoveAndClearAffectBothTiers() {
+        for (int i = 0; i < 5; i++) {
+            cache.put("City" + i, createWeatherData("City" + i));
+        }
+
+        cache.remove("City0");
+        assertNull(cache.get("City0"));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, secondLevel.size());
+    }
+
+    @Test
+    void testIterationCoversBothTiers() {
+        for (int i = 0; i < 5; i++) {
+            cache.put("City" + i, createWeatherData("City" + i));
+        }
+
+        Set<String> visited = new HashSet<>();
+        cache.forEach((cityName, data) -> visited.add(cityName));
+
+        Set<String> expected = Set.of("city0", "city1", "city2", "city3", "city4");
+        assertEquals(expected, cache.getCityNames());
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void testPeekReadsSecondLevelWithoutPromotion() {
+        for (int i = 0; i < 4; i++) {
+            cache.put("City" + i, createWeatherData("City" + i));
+        }
+
+        assertNotNull(cache.peek("City0"));
+        assertEquals(1, cache.secondLevelStats().getSize());
+        assertEquals(0, cache.secondLevelStats().getHitCount());
+    }
+
+    @Test
+    void testSnapshotIncludesSecondLevel(@TempDir Path tempDir) throws IOException {
+        for (int i = 0; i < 5; i++) {
+            cache.put("City" + i, createWeatherData("City" + i));
+        }
+        Path file = tempDir.resolve("cache.snapshot");
+
+        assertEquals(5, CacheSnapshot.write(cache, file));
+
+        TieredWeatherCache restored = new TieredWeatherCache(3, new OffHeapWeatherStore(100), Duration.ZERO);
+        assertEquals(5, CacheSnapshot.load(restored, file));
+        assertNotNull(restored.get("City0"));
+    }
+
+    @Test
+    void testNullSecondLevelThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new TieredWeatherCache(3, null, Duration.ZERO));
+    }
+
+    @Test
+    void testGetAllPromotesSecondLevelHits() {
+        for (int i = 0; i < 5; i++) {
+            cache.put("City" + i, createWeatherData("City" + i));
+        }
+
+        BatchLookup lookup = cache.getAll(Arrays.asList("City0", "City4", "Unknown"));
+
+        assertEquals(2, lookup.getHits().size());
+        assertEquals(Collections.singletonList("Unknown"), lookup.getMisses());
+        assertNull(secondLevel.get("City0"));
+        assertEquals(5, cache.size());
+        assertEquals(1, cache.firstLevelStats().getHitCount());
+        assertEquals(1, cache.secondLevelStats().getHitCount());
+        assertEquals(1, cache.secondLevelStats().getMissCount());
+    }
+
+    @Test
+    void testPutAllReplacesSecondLevelCopies() {
+        for (int i = 0; i < 5; i++) {
+            cache.put("City" + i, createWeatherData("City" + i));
+        }
+        assertNotNull(secondLevel.get("City0"));
+
+        cache.putAll(Collections.singletonMap("City0", createWeatherData("City0")));
+
+        assertNull(secondLevel.get("City0"));
+        assertEquals(5, cache.size());
+    }
+
+    @Test
+    void testPromotionDoesNotOverwriteNewerData() {
+        // The L2 read of a miss races with a put of newer data for the same city
+        WeatherData old = createWeatherData("London");
+        WeatherData newer = createWeatherData("London");
+        TieredWeatherCache[] racing = new TieredWeatherCache[1];
+        WeatherStore racingStore = new WeatherStore() {
+            @Override
+            public WeatherData get(String cityName) {
+                WeatherData data = secondLevel.get(cityName);
+                racing[0].put(cityName, newer);
+                return data;
+            }
+
+            @Override
+            public void put(String cityName, WeatherData data) {
+                secondLevel.put(cityName, data);
+            }
+
+            @Override
+            public void remove(String cityName) {
+                secondLevel.remove(cityName);
+            }
+
+            @Override
+            public void clear() {
+                secondLevel.clear();
+            }
+
+            @Override
+            public void forEach(BiConsumer<String, WeatherData> action) {
+                secondLevel.forEach(action);
+            }
+
+            @Override
+            public int size() {
+                return secondLevel.size();
+            }
+
+            @Override
+            public long evictionCount() {
+                return secondLevel.evictionCount();
+            }
+        };
+        racing[0] = new TieredWeatherCache(3, racingStore, Duration.ZERO);
+        secondLevel.put("London", old);
+
+        assertSame(newer, racing[0].get("London"));
+        assertSame(newer, racing[0].get("London"));
+        assertNull(secondLevel.get("London"));
+
+        secondLevel.put("Paris", createWeatherData("Paris"));
+        BatchLookup lookup = racing[0].getAll(Collections.singletonList("Paris"));
+        assertSame(newer, lookup.getHits().get("Paris"));
+    }
+}
@@ -0,0 +1,331 @@
+package com.weather.sdk;
+
+import com.sun.net.httpserver.HttpServer;
+import com.weather.sdk.client.RetryPermits;
+import com.weather.sdk.client.WeatherApiClient;
+import com.weather.sdk.config.OperationMode;
+import com.weather.sdk.config.RetryPolicy;
+import com.weather.sdk.config.WeatherSDKConfig;
+import com.weather.sdk.exception.ApiKeyException;
+import com.weather.sdk.exception.CityNotFoundException;
+import com.weather.sdk.exception.NetworkException;
+import com.weather.sdk.exception.RateLimitExceededException;
+import com.weather.sdk.exception.WeatherSDKException;
+import com.weather.sdk.model.WeatherData;
+import com.weather.sdk.model.WeatherResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for WeatherApiClient against a local HTTP server standing in for the OpenWeather API
+ */
+class WeatherApiClientTest {
+
+    private static final String LONDON = "{\"coord\":{\"lon\":-0.13,\"lat\":51.51},"
+            + "\"weather\":[{\"id\":803,\"main\":\"Clouds\",\"description\":\"broken clouds\"}],"
+            + "\"main\":{\"temp\":290.15,\"feels_like\":289.7},\"visibility\":10000,\"wind\":{\"speed\":4.6},"
+            + "\"dt\":1675744800,\"sys\":{\"sunrise\":1675755600,\"sunset\":1675791600},"
+            + "\"timezone\":0,\"id\":2643743,\"name\":\"London\",\"cod\":200}";
+    private static final String PARIS = "{\"weather\":[{\"main\":\"Clear\",\"description\":\"clear sky\"}],"
+            + "\"main\":{\"temp\":285.0,\"feels_like\":284.0},\"dt\":1675744800,"
+            + "\"id\":2988507,\"name\":\"Paris\"}";
+
+    private HttpServer server;
+    private WeatherApiClient client;
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+    private volatile int status = 200;
+    private volatile String body = LONDON;
+    private volatile String retryAfter;
+    private final Queue<Integer> failures = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/data/2.5", exchange -> {
+            requests.add(exchange.getRequestURI().toString());
+            // Queued failures are answered first, then the configured response
+            Integer failure = failures.poll();
+            int code = failure != null ? failure : status;
+            byte[] bytes = (failure != null ? "{\"cod\":" + failure + ",\"message\":\"unavailable\"}" : body)
+                    .getBytes(StandardCharsets.UTF_8);
+            if (retryAfter != null && code != 200) {
+                exchange.getResponseHeaders().set("Retry-After", retryAfter);
+            }
+            exchange.sendResponseHeaders(code, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+        client = createClient(RetryPolicy.builder()
+                .initialBackoff(Duration.ofMillis(1))
+                .maxBackoff(Duration.ofMillis(10))
+                .build());
+    }
+
+    private WeatherApiClient createClient(RetryPolicy retryPolicy) {
+        URI baseUrl = URI.create("http://localhost:" + server.getAddress().getPort() + "/data/2.5/");
+        return new WeatherApiClient("test-key", baseUrl, Duration.ofSeconds(5), Duration.ofSeconds(5), retryPolicy);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testGetCurrentWeather() throws WeatherSDKException {
+        WeatherResponse response = client.getCurrentWeather("New York");
+
+        assertEquals("London", response.getName());
+        assertEquals(290.15, response.getTemperature().getTemp());
+        assertEquals(2643743L, response.getCityId());
+        assertEquals(List.of("/data/2.5/weather?q=New+York&appid=test-key"), requests);
+    }
+
+    @Test
+    void testGetCurrentWeatherAsync() throws Exception {
+        WeatherResponse response = client.getCurrentWeatherAsync("London").get(5, TimeUnit.SECONDS);
+
+        assertEquals("London", response.getName());
+        assertEquals(2643743L, response.getCityId());
+    }
+
+    @Test
+    void testGetCurrentWeatherByIds() throws WeatherSDKException {
+        body = "{\"cnt\":2,\"list\":[" + LONDON + "," + PARIS + "]}";
+
+        List<WeatherResponse> responses = client.getCurrentWeatherByIds(List.of(2643743L, 2988507L));
+
+        assertEquals(2, responses.size());
+        assertEquals("London", responses.get(0).getName());
+        assertEquals(2643743L, responses.get(0).getCityId());
+        assertEquals("Paris", responses.get(1).getName());
+        assertEquals(285.0, responses.get(1).getTemperature().getTemp());
+        assertEquals(List.of("/data/2.5/group?id=2643743,2988507&appid=test-key"), requests);
+    }
+
+    @Test
+    void testGroupSizeIsLimited() {
+        List<Long> ids = new ArrayList<>();
+        for (long i = 1; i <= WeatherApiClient.MAX_GROUP_SIZE + 1; i++) {
+            ids.add(i);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> client.getCurrentWeatherByIds(ids));
+        assertThrows(IllegalArgumentException.class, () -> client.getCurrentWeatherByIds(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> client.getCurrentWeatherByIds(List.of(0L)));
+        assertTrue(requests.isEmpty());
+    }
+
+    @Test
+    void testErrorResponsesMapToExceptions() {
+        status = 401;
+        body = "{\"cod\":401,\"message\":\"Invalid API key\"}";
+        assertThrows(ApiKeyException.class, () -> client.getCurrentWeather("London"));
+
+        status = 404;
+        body = "{\"cod\":\"404\",\"message\":\"city not found\"}";
+        assertThrows(CityNotFoundException.class, () -> client.getCurrentWeather("Atlantis"));
+        ExecutionException async = assertThrows(ExecutionException.class,
+                () -> client.getCurrentWeatherAsync("Atlantis").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(CityNotFoundException.class, async.getCause());
+
+        status = 429;
+        body = "{\"cod\":429,\"message\":\"Your account is temporary blocked\"}";
+        assertThrows(RateLimitExceededException.class, () -> client.getCurrentWeather("London"));
+
+        status = 400;
+        body = "{\"cod\":\"400\",\"message\":\"bad request\"}";
+        WeatherSDKException e = assertThrows(WeatherSDKException.class, () -> client.getCurrentWeather("London"));
+        assertTrue(e.getMessage().contains("bad request"), e.getMessage());
+    }
+
+    @Test
+    void testMalformedBodyThrowsException() {
+        body = "{\"name\":";
+
+        WeatherSDKException e = assertThrows(WeatherSDKException.class, () -> client.getCurrentWeather("London"));
+        assertTrue(e.getMessage().startsWith("Failed to parse API response"), e.getMessage());
+    }
+
+    @Test
+    void testServerErrorsAreRetried() throws Exception {
+        failures.add(503);
+        failures.add(502);
+
+        assertEquals("London", client.getCurrentWeather("London").getName());
+        assertEquals(3, requests.size());
+
+        failures.add(500);
+        assertEquals("London", client.getCurrentWeatherAsync("London").get(5, TimeUnit.SECONDS).getName());
+        assertEquals(5, requests.size());
+    }
+
+    @Test
+    void testAttemptsAreCapped() {
+        status = 503;
+
+        assertThrows(NetworkException.class, () -> client.getCurrentWeather("London"));
+        assertEquals(RetryPolicy.DEFAULT_MAX_ATTEMPTS, requests.size());
+
+        requests.clear();
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> client.getCurrentWeatherAsync("London").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(NetworkException.class, e.getCause());
+        assertEquals(RetryPolicy.DEFAULT_MAX_ATTEMPTS, requests.size());
+    }
+
+    @Test
+    void testNotFoundAndInvalidKeyAreNeverRetried() {
+        status = 404;
+        assertThrows(CityNotFoundException.class, () -> client.getCurrentWeather("Atlantis"));
+        assertEquals(1, requests.size());
+
+        status = 401;
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> client.getCurrentWeatherAsync("London").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ApiKeyException.class, e.getCause());
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    void testRetryAfterIsHonoured() throws WeatherSDKException {
+        failures.add(429);
+        retryAfter = "1";
+
+        long start = System.nanoTime();
+        assertEquals("London", client.getCurrentWeather("London").getName());
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.SECONDS.toNanos(1), "Retry-After was not waited for");
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    void testRetryAfterBeyondElapsedLimitFailsFast() {
+        WeatherApiClient limited = createClient(RetryPolicy.builder()
+                .initialBackoff(Duration.ofMillis(1))
+                .maxElapsed(Duration.ofSeconds(2))
+                .build());
+        failures.add(503);
+        retryAfter = "60";
+
+        long start = System.nanoTime();
+        assertThrows(NetworkException.class, () -> limited.getCurrentWeather("London"));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void testEachRetryAsksForPermit() throws Exception {
+        // Given - permits for two retries in total
+        AtomicInteger permits = new AtomicInteger(2);
+        AtomicInteger asked = new AtomicInteger();
+        RetryPermits limited = new RetryPermits() {
+            @Override
+            public boolean acquire() {
+                asked.incrementAndGet();
+                return permits.getAndDecrement() > 0;
+            }
+
+            @Override
+            public CompletableFuture<Boolean> acquireAsync() {
+                return CompletableFuture.completedFuture(acquire());
+            }
+        };
+        URI baseUrl = URI.create("http://localhost:" + server.getAddress().getPort() + "/data/2.5/");
+        WeatherApiClient permitted = new WeatherApiClient("test-key", baseUrl, Duration.ofSeconds(5),
+                Duration.ofSeconds(5), RetryPolicy.builder().initialBackoff(Duration.ofMillis(1)).build(), limited);
+
+        // When - a request retried once, then one whose second retry is not permitted
+        failures.add(500);
+        assertEquals("London", permitted.getCurrentWeather("London").getName());
+        status = 503;
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> permitted.getCurrentWeatherAsync("London").get(5, TimeUnit.SECONDS));
+
+        // Then - the first attempts need no permit, the denied retry is not sent
+        assertInstanceOf(NetworkException.class, e.getCause());
+        assertEquals(3, asked.get());
+        assertEquals(4, requests.size());
+    }
+
+    @Test
+    void testSdkRetriesTakeRateLimiterTokens() throws WeatherSDKException {
+        // Given - an SDK whose quota allows a burst of one request
+        WeatherSDKConfig config = WeatherSDKConfig.builder()
+                .apiBaseUrl(URI.create("http://localhost:" + server.getAddress().getPort() + "/data/2.5/"))
+                .requestsPerMinute(6)
+                .requestTimeout(Duration.ofMillis(200))
+                .retryPolicy(RetryPolicy.builder().initialBackoff(Duration.ofMillis(1)).build())
+                .build();
+        status = 503;
+
+        try (WeatherSDK sdk = new WeatherSDK("test-key", OperationMode.ON_DEMAND, config)) {
+            // When / Then - the first attempt uses the token and no retry gets one
+            assertThrows(NetworkException.class, () -> sdk.getWeather("London"));
+            assertEquals(1, requests.size());
+        }
+    }
+
+    @Test
+    void testSdkRetriesOfBackgroundRequestsWaitInBackgroundLane() throws Exception {
+        // Given - an SDK whose burst of 10 requests is used up, so a token takes a second
+        WeatherSDKConfig config = WeatherSDKConfig.builder()
+                .apiBaseUrl(URI.create("http://localhost:" + server.getAddress().getPort() + "/data/2.5/"))
+                .requestsPerMinute(60)
+                .requestTimeout(Duration.ofMillis(200))
+                .retryPolicy(RetryPolicy.builder().initialBackoff(Duration.ofMillis(1)).build())
+                .build();
+
+        try (WeatherSDK sdk = new WeatherSDK("test-key", OperationMode.ON_DEMAND, config)) {
+            for (int i = 0; i < 10; i++) {
+                sdk.getWeather("City" + i);
+            }
+            sdk.getCache().put("London", new WeatherData(client.getCurrentWeather("London"),
+                    Instant.now().minus(Duration.ofMinutes(9))));
+            requests.clear();
+            failures.add(503);
+
+            // When - a refresh-ahead fails once
+            sdk.getWeather("London");
+
+            // Then - its retry waits for a token beyond the request timeout instead of being dropped
+            for (int i = 0; i < 100 && requests.size() < 2; i++) {
+                Thread.sleep(50);
+            }
+            assertEquals(2, requests.size());
+        }
+    }
+
+    @Test
+    void testDisabledRetryPolicyMakesSingleAttempt() {
+        WeatherApiClient noRetry = createClient(RetryPolicy.disabled());
+        failures.add(503);
+
+        assertThrows(NetworkException.class, () -> noRetry.getCurrentWeather("London"));
+        assertEquals(1, requests.size());
+    }
+}
@@ -1,12 +1,26 @@
 package com.weather.sdk;
 
+import com.weather.sdk.cache.BatchLookup;
+import com.weather.sdk.cache.CacheStats;
 import com.weather.sdk.cache.WeatherCache;
+import com.weather.sdk.cache.Weigher;
 import com.weather.sdk.model.WeatherData;
 import com.weather.sdk.model.WeatherResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -170,6 +184,23 @@ class WeatherCacheTest {
         assertTrue(cache.contains("London"));
         assertTrue(cache.contains("london")); // case insensitive
     }
+
+    @Test
+    void testContainsDoesNotRecordStats() {
+        WeatherCache graceCache = new WeatherCache(10, Duration.ofMinutes(5));
+        graceCache.put("London", createMockWeatherData("London"));
+        WeatherResponse response = createMockWeatherData("Paris").getWeatherResponse();
+        graceCache.put("Paris", new WeatherData(response, Instant.now().minus(Duration.ofMinutes(11))));
+
+        assertTrue(graceCache.contains("London"));
+        assertFalse(graceCache.contains("Paris"), "Stale data is not valid");
+        assertFalse(graceCache.contains("Berlin"));
+
+        CacheStats stats = graceCache.stats();
+        assertEquals(0, stats.getHitCount());
+        assertEquals(0, stats.getMissCount());
+        assertEquals(0, stats.getExpiryCount());
+    }
     
     @Test
     void testPutNullData() {
@@ -193,4 +224,339 @@ class WeatherCacheTest {
         WeatherData retrieved = cache.get("new york"); // normalized
         assertNotNull(retrieved);
     }
+
+    @Test
+    void testLRUBehaviorAfterManyReads() {
+        for (int i = 1; i <= 10; i++) {
+            cache.put("City" + i, createMockWeatherData("City" + i));
+        }
+        
+        // Enough reads to overflow the read buffer several times
+        for (int round = 0; round < 100; round++) {
+            for (int i = 2; i <= 10; i++) {
+                cache.get("City" + i);
+            }
+        }
+        
+        cache.put("City11", createMockWeatherData("City11"));
+        
+        // City1 was never read, so it is the least recently used
+        assertNull(cache.get("City1"));
+        assertEquals(10, cache.size());
+    }
+    
+    @Test
+    void testConcurrentReadsAndWrites() throws Exception {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        String city = "City" + ((seed * 31 + i) % 25);
+                        if (i % 10 == 0) {
+                            cache.put(city, createMockWeatherData(city));
+                        } else if (i % 97 == 0) {
+                            cache.remove(city);
+                        } else {
+                            WeatherData data = cache.get(city);
+                            if (data != null) {
+                                assertEquals(city, data.getWeatherResponse().getName());
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertTrue(cache.size() <= 10);
+        assertEquals(cache.size(), cache.getCityNames().size());
+    }
+
+    @Test
+    void testStaleEntryWithinGracePeriod() {
+        WeatherCache graceCache = new WeatherCache(10, Duration.ofMinutes(5));
+        WeatherResponse response = createMockWeatherData("London").getWeatherResponse();
+        WeatherData expired = new WeatherData(response, Instant.now().minus(Duration.ofMinutes(12)));
+        graceCache.put("London", expired);
+        
+        // Not returned as fresh data, but still available as stale
+        assertNull(graceCache.get("London"));
+        assertSame(expired, graceCache.getAllowStale("London"));
+        assertEquals(1, graceCache.size());
+    }
+    
+    @Test
+    void testStaleEntryBeyondGracePeriodIsRemoved() {
+        WeatherCache graceCache = new WeatherCache(10, Duration.ofMinutes(5));
+        WeatherResponse response = createMockWeatherData("London").getWeatherResponse();
+        graceCache.put("London", new WeatherData(response, Instant.now().minus(Duration.ofMinutes(16))));
+        
+        assertNull(graceCache.getAllowStale("London"));
+        assertEquals(0, graceCache.size());
+    }
+    
+    @Test
+    void testNegativeGracePeriodThrowsException() {
+        assertThrows(IllegalArgumentException.class, () ->
+            new WeatherCache(10, Duration.ofMinutes(-1))
+        );
+    }
+
+    @Test
+    void testExpiredEntriesEvictedWithoutReads() throws InterruptedException {
+        WeatherResponse response = createMockWeatherData("London").getWeatherResponse();
+        Instant expiredAt = Instant.now().minus(Duration.ofMinutes(11));
+        cache.put("London", new WeatherData(response, expiredAt));
+        cache.put("Paris", new WeatherData(response, expiredAt));
+        cache.put("Tokyo", createMockWeatherData("Tokyo"));
+        assertEquals(3, cache.size());
+        
+        // Let the timer wheel pass at least one tick
+        Thread.sleep(1200);
+        cache.cleanUp();
+        
+        // Expired entries are gone although nobody read them
+        assertEquals(1, cache.size());
+        assertEquals(Set.of("tokyo"), cache.getCityNames());
+    }
+    
+    @Test
+    void testEntriesWithinGracePeriodSurviveCleanUp() throws InterruptedException {
+        WeatherCache graceCache = new WeatherCache(10, Duration.ofMinutes(5));
+        WeatherResponse response = createMockWeatherData("London").getWeatherResponse();
+        graceCache.put("London", new WeatherData(response, Instant.now().minus(Duration.ofMinutes(11))));
+        
+        Thread.sleep(1200);
+        graceCache.cleanUp();
+        
+        assertEquals(1, graceCache.size());
+    }
+    
+    @Test
+    void testReplacedEntryNotEvictedByOldDeadline() throws InterruptedException {
+        WeatherResponse response = createMockWeatherData("London").getWeatherResponse();
+        cache.put("London", new WeatherData(response, Instant.now().minus(Duration.ofMinutes(11))));
+        cache.put("London", createMockWeatherData("London"));
+        
+        Thread.sleep(1200);
+        cache.cleanUp();
+        
+        assertNotNull(cache.get("London"));
+    }
+
+    @Test
+    void testPopularEntriesSurviveScan() {
+        WeatherCache scanCache = new WeatherCache(100);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                String city = "Hot" + i;
+                if (scanCache.get(city) == null) {
+                    scanCache.put(city, createMockWeatherData(city));
+                }
+            }
+        }
+        
+        // One-off cities seen once each must not flush the popular ones
+        for (int i = 0; i < 1000; i++) {
+            scanCache.put("Scan" + i, createMockWeatherData("Scan" + i));
+        }
+        
+        int survivors = 0;
+        for (int i = 0; i < 50; i++) {
+            if (scanCache.get("Hot" + i) != null) {
+                survivors++;
+            }
+        }
+        assertTrue(survivors >= 45, "Only " + survivors + " popular cities survived the scan");
+        assertEquals(100, scanCache.size());
+    }
+
+    @Test
+    void testEvictsByWeight() {
+        // Weight is the length of the city name
+        WeatherCache weightedCache = new WeatherCache(20, (city, data) -> city.length(), Duration.ZERO);
+        
+        weightedCache.put("Oslo", createMockWeatherData("Oslo"));
+        weightedCache.put("Paris", createMockWeatherData("Paris"));
+        weightedCache.put("Berlin", createMockWeatherData("Berlin"));
+        assertEquals(15, weightedCache.weightedSize());
+        assertEquals(3, weightedCache.size());
+        
+        weightedCache.put("Amsterdam", createMockWeatherData("Amsterdam"));
+        
+        assertTrue(weightedCache.weightedSize() <= 20);
+        assertNull(weightedCache.get("Oslo"));
+        assertNotNull(weightedCache.get("Amsterdam"));
+    }
+    
+    @Test
+    void testWeightedSizeTracksRemovalAndReplacement() {
+        WeatherCache weightedCache = new WeatherCache(1_000, (city, data) ->
+                data.getWeatherResponse().getName().length(), Duration.ZERO);
+        
+        weightedCache.put("London", createMockWeatherData("London"));
+        weightedCache.put("Paris", createMockWeatherData("Paris"));
+        assertEquals(11, weightedCache.weightedSize());
+        
+        weightedCache.put("London", createMockWeatherData("Greater London"));
+        assertEquals(19, weightedCache.weightedSize());
+        
+        weightedCache.remove("Paris");
+        assertEquals(14, weightedCache.weightedSize());
+        
+        weightedCache.clear();
+        assertEquals(0, weightedCache.weightedSize());
+    }
+    
+    @Test
+    void testEntryHeavierThanMaximumIsNotRetained() {
+        WeatherCache weightedCache = new WeatherCache(10, (city, data) -> city.length(), Duration.ZERO);
+        
+        weightedCache.put("Oslo", createMockWeatherData("Oslo"));
+        weightedCache.put("Llanfairpwllgwyngyll", createMockWeatherData("Llanfairpwllgwyngyll"));
+        
+        assertNull(weightedCache.get("Llanfairpwllgwyngyll"));
+        assertNotNull(weightedCache.get("Oslo"));
+        assertEquals(4, weightedCache.weightedSize());
+    }
+    
+    @Test
+    void testByteBudgetBoundsEstimatedHeapSize() {
+        long budget = 64 * 1024;
+        WeatherCache byteCache = new WeatherCache(budget, Weigher.estimatedBytes(), Duration.ZERO);
+        
+        for (int i = 0; i < 10_000; i++) {
+            byteCache.put("City" + i, createMockWeatherData("City" + i));
+        }
+        
+        int entryBytes = Weigher.estimatedBytes().weigh("city1", createMockWeatherData("City1"));
+        assertTrue(entryBytes > 200, "Estimate too small: " + entryBytes);
+        assertTrue(byteCache.weightedSize() <= budget);
+        assertTrue(byteCache.size() >= budget / entryBytes - 5);
+        assertEquals(budget, byteCache.getMaximumWeight());
+    }
+    
+    @Test
+    void testUnweightedCacheReportsEntryCount() {
+        cache.put("London", createMockWeatherData("London"));
+        cache.put("Paris", createMockWeatherData("Paris"));
+        
+        assertEquals(2, cache.weightedSize());
+        assertEquals(10, cache.getMaximumWeight());
+    }
+
+    @Test
+    void testStatsRecordHitsMissesAndEvictions() {
+        WeatherCache small = new WeatherCache(2);
+        small.put("London", createMockWeatherData("London"));
+        small.get("London");
+        small.get("Paris");
+        small.put("Paris", createMockWeatherData("Paris"));
+        small.put("Berlin", createMockWeatherData("Berlin"));
+        
+        CacheStats stats = small.stats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getEvictionCount());
+        assertEquals(1, small.evictionCount());
+    }
+    
+    @Test
+    void testStatsRecordExpiry() {
+        WeatherResponse response = createMockWeatherData("London").getWeatherResponse();
+        cache.put("London", new WeatherData(response, Instant.now().minus(Duration.ofMinutes(11))));
+        
+        assertNull(cache.get("London"));
+        
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.getExpiryCount());
+        assertEquals(1, stats.getMissCount());
+    }
+    
+    @Test
+    void testPeekDoesNotRecordStats() {
+        cache.put("London", createMockWeatherData("London"));
+        
+        assertNotNull(cache.peek("London"));
+        assertNull(cache.peek("Paris"));
+        
+        assertEquals(0, cache.stats().getRequestCount());
+    }
+
+    @Test
+    void testKeysIgnoreCaseAndWhitespace() {
+        cache.put("Zürich", createMockWeatherData("Zürich"));
+        
+        assertNotNull(cache.get("  ZÜRICH\t"));
+        assertNotNull(cache.peek("zürich"));
+        assertNull(cache.get("Zurich"));
+        assertEquals(1, cache.getCityNames().size());
+        assertTrue(cache.getCityNames().contains("zürich"));
+        
+        cache.remove(" zÜrIcH ");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testGetAllSplitsHitsAndMisses() {
+        cache.put("London", createMockWeatherData("London"));
+        cache.put("Paris", createMockWeatherData("Paris"));
+        WeatherResponse response = createMockWeatherData("Berlin").getWeatherResponse();
+        cache.put("Berlin", new WeatherData(response, Instant.now().minus(Duration.ofMinutes(11))));
+        
+        BatchLookup lookup = cache.getAll(Arrays.asList(" LONDON", "Berlin", "Tokyo", "Paris", "Tokyo"));
+        
+        assertEquals(Arrays.asList(" LONDON", "Paris"), new ArrayList<>(lookup.getHits().keySet()));
+        assertEquals(Arrays.asList("Berlin", "Tokyo"), lookup.getMisses());
+        assertFalse(lookup.isComplete());
+        assertEquals(2, cache.stats().getHitCount());
+        assertEquals(2, cache.stats().getMissCount());
+        assertEquals(1, cache.stats().getExpiryCount());
+        assertFalse(cache.getCityNames().contains("berlin"));
+    }
+    
+    @Test
+    void testPutAllStoresEveryEntry() {
+        Map<String, WeatherData> entries = new LinkedHashMap<>();
+        entries.put("London", createMockWeatherData("London"));
+        entries.put("Paris", createMockWeatherData("Paris"));
+        
+        cache.putAll(entries);
+        
+        assertEquals(2, cache.size());
+        assertTrue(cache.getAll(Arrays.asList("london", "paris")).isComplete());
+    }
+    
+    @Test
+    void testPutAllEvictsOverLimit() {
+        WeatherCache small = new WeatherCache(3);
+        Map<String, WeatherData> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 10; i++) {
+            entries.put("City" + i, createMockWeatherData("City" + i));
+        }
+        
+        small.putAll(entries);
+        
+        assertEquals(3, small.size());
+        assertEquals(7, small.evictionCount());
+    }
+    
+    @Test
+    void testPutAllRejectsNullDataBeforeStoring() {
+        Map<String, WeatherData> entries = new LinkedHashMap<>();
+        entries.put("London", createMockWeatherData("London"));
+        entries.put("Paris", null);
+        
+        assertThrows(IllegalArgumentException.class, () -> cache.putAll(entries));
+        assertEquals(0, cache.size());
+        assertThrows(IllegalArgumentException.class, () -> cache.getAll(null));
+    }
 }
@@ -4,6 +4,9 @@ import com.weather.sdk.model.WeatherData;
 import com.weather.sdk.model.WeatherResponse;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.time.Instant;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -86,4 +89,50 @@ class WeatherDataTest {
             new WeatherData(null)
         );
     }
+
+    @Test
+    void testExpiredDataWithinGracePeriod() {
+        Instant fetchedAt = Instant.now().minus(Duration.ofMinutes(11));
+        WeatherData data = new WeatherData(createMockWeatherResponse(), fetchedAt);
+        
+        assertFalse(data.isValid());
+        assertTrue(data.isWithinGracePeriod(Duration.ofMinutes(5)));
+        assertFalse(data.isWithinGracePeriod(Duration.ZERO));
+        assertEquals(fetchedAt, data.getTimestamp());
+    }
+
+    @Test
+    void testIsNearExpiry() {
+        WeatherData fresh = new WeatherData(createMockWeatherResponse());
+        WeatherData aging = new WeatherData(createMockWeatherResponse(),
+                Instant.now().minus(Duration.ofSeconds(9 * 60)));
+        WeatherData expired = new WeatherData(createMockWeatherResponse(),
+                Instant.now().minus(Duration.ofMinutes(11)));
+        
+        assertFalse(fresh.isNearExpiry(0.2));
+        assertTrue(aging.isNearExpiry(0.2));
+        assertFalse(aging.isNearExpiry(0.05));
+        assertFalse(expired.isNearExpiry(0.2));
+    }
+
+    @Test
+    void testMonotonicDeadline() {
+        long before = System.nanoTime();
+        WeatherData data = new WeatherData(createMockWeatherResponse(), Duration.ofSeconds(30));
+        long after = System.nanoTime();
+        
+        assertTrue(data.getExpiresAtNanos() - before >= Duration.ofSeconds(30).toNanos());
+        assertTrue(data.getExpiresAtNanos() - after <= Duration.ofSeconds(30).toNanos());
+        assertEquals(Duration.ofSeconds(30), data.getTtl());
+    }
+    
+    @Test
+    void testSubMinuteTtl() throws InterruptedException {
+        WeatherData data = new WeatherData(createMockWeatherResponse(), Duration.ofMillis(50));
+        assertTrue(data.isValid());
+        
+        Thread.sleep(100);
+        
+        assertFalse(data.isValid());
+    }
 }
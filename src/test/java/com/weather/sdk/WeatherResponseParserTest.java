@@ -0,0 +1,124 @@
+package com.weather.sdk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.weather.sdk.client.WeatherResponseParser;
+import com.weather.sdk.model.WeatherResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the streaming WeatherResponseParser
+ */
+class WeatherResponseParserTest {
+
+    private static final String FULL_RESPONSE = "{\"coord\":{\"lon\":-0.1257,\"lat\":51.5085},"
+            + "\"weather\":[{\"id\":803,\"main\":\"Clouds\",\"description\":\"broken clouds\",\"icon\":\"04d\"},"
+            + "{\"id\":500,\"main\":\"Rain\",\"description\":\"light rain\",\"icon\":\"10d\"}],"
+            + "\"base\":\"stations\","
+            + "\"main\":{\"temp\":290.15,\"feels_like\":289.7,\"temp_min\":288.71,\"pressure\":1012},"
+            + "\"visibility\":10000,"
+            + "\"wind\":{\"speed\":4.63,\"deg\":240,\"gust\":8.23},"
+            + "\"clouds\":{\"all\":75},"
+            + "\"dt\":1675744800,"
+            + "\"sys\":{\"type\":2,\"id\":2075535,\"country\":\"GB\",\"sunrise\":1675755600,\"sunset\":1675791600},"
+            + "\"timezone\":3600,\"id\":2643743,\"name\":\"London\",\"cod\":200}";
+
+    private final WeatherResponseParser parser = new WeatherResponseParser();
+
+    @Test
+    void testParsesFullResponse() throws IOException {
+        WeatherResponse response = parser.parse(FULL_RESPONSE);
+
+        assertEquals(new WeatherResponse.Weather("Clouds", "broken clouds"), response.getWeather());
+        assertEquals(new WeatherResponse.Temperature(290.15, 289.7), response.getTemperature());
+        assertEquals(10000, response.getVisibility());
+        assertEquals(new WeatherResponse.Wind(4.63), response.getWind());
+        assertEquals(1675744800L, response.getDatetime());
+        assertEquals(new WeatherResponse.Sys(1675755600L, 1675791600L), response.getSys());
+        assertEquals(3600, response.getTimezone());
+        assertEquals("London", response.getName());
+    }
+
+    @Test
+    void testSkippedSectionsDoNotLeakFields() throws IOException {
+        // Unused sections contain field names the parser reads elsewhere
+        String json = "{\"extra\":{\"name\":\"Wrong\",\"main\":{\"temp\":1.0},\"list\":[{\"dt\":1},[2,3]]},"
+                + "\"name\":\"Paris\",\"main\":{\"nested\":{\"temp\":2.0},\"temp\":285.0,\"feels_like\":284.0},"
+                + "\"tags\":[\"a\",{\"name\":\"b\"}]}";
+
+        WeatherResponse response = parser.parse(json);
+
+        assertEquals("Paris", response.getName());
+        assertEquals(new WeatherResponse.Temperature(285.0, 284.0), response.getTemperature());
+        assertEquals(0, response.getDatetime());
+    }
+
+    @Test
+    void testFieldOrderDoesNotMatter() throws IOException {
+        String json = "{\"name\":\"Berlin\",\"sys\":{\"sunset\":20,\"sunrise\":10},"
+                + "\"weather\":[{\"description\":\"clear sky\",\"main\":\"Clear\"}],\"dt\":5}";
+
+        WeatherResponse response = parser.parse(json);
+
+        assertEquals("Berlin", response.getName());
+        assertEquals(new WeatherResponse.Sys(10, 20), response.getSys());
+        assertEquals(new WeatherResponse.Weather("Clear", "clear sky"), response.getWeather());
+        assertEquals(5, response.getDatetime());
+    }
+
+    @Test
+    void testMissingAndNullSectionsStayUnset() throws IOException {
+        WeatherResponse response = parser.parse("{\"name\":\"Oslo\",\"wind\":null,\"weather\":[],\"main\":{}}");
+
+        assertEquals("Oslo", response.getName());
+        assertNull(response.getWind());
+        assertNull(response.getWeather());
+        assertNull(response.getSys());
+        assertEquals(new WeatherResponse.Temperature(0, 0), response.getTemperature());
+    }
+
+    @Test
+    void testParsesBytesAndStreams() throws IOException {
+        // Multi-byte UTF-8 characters must survive parsing without a String body
+        String json = FULL_RESPONSE.replace("London", "Zürich");
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        WeatherResponse expected = parser.parse(json);
+
+        assertEquals(expected, parser.parse(bytes));
+        assertEquals(expected, parser.parse(new ByteArrayInputStream(bytes)));
+        assertEquals("Zürich", parser.parse(bytes).getName());
+    }
+
+    @Test
+    void testStreamReadFailureIsNotParseError() {
+        InputStream failing = new InputStream() {
+            private int read;
+
+            @Override
+            public int read() throws IOException {
+                if (read < 10) {
+                    return FULL_RESPONSE.charAt(read++);
+                }
+                throw new IOException("Connection reset");
+            }
+        };
+
+        IOException e = assertThrows(IOException.class, () -> parser.parse(failing));
+        assertFalse(e instanceof JsonProcessingException);
+        assertThrows(JsonProcessingException.class,
+                () -> parser.parse(new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void testMalformedJsonThrowsException() {
+        assertThrows(IOException.class, () -> parser.parse("{\"name\":\"London\",\"main\":{\"temp\":"));
+        assertThrows(IOException.class, () -> parser.parse("[1,2]"));
+        assertThrows(IOException.class, () -> parser.parse(""));
+    }
+}
@@ -0,0 +1,109 @@
+package com.weather.sdk;
+
+import com.weather.sdk.config.CircuitBreakerPolicy;
+import com.weather.sdk.config.RetryPolicy;
+import com.weather.sdk.config.WeatherSDKConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WeatherSDKConfig
+ */
+class WeatherSDKConfigTest {
+
+    @Test
+    void testDefaults() {
+        WeatherSDKConfig config = WeatherSDKConfig.defaults();
+
+        assertEquals(10, config.getCacheCapacity());
+        assertEquals(0, config.getCacheMaximumWeight());
+        assertEquals(Duration.ofMinutes(10), config.getCacheTtl());
+        assertEquals(Duration.ZERO, config.getStaleGracePeriod());
+        assertEquals(0.2, config.getRefreshAheadFraction());
+        assertEquals(Duration.ofSeconds(30), config.getRefreshBackoff());
+        assertEquals(Duration.ofMinutes(1), config.getNegativeCacheTtl());
+        assertEquals(Duration.ZERO, config.getMissBatchWindow());
+        assertEquals(Duration.ofMinutes(5), config.getPollingInterval());
+        assertEquals(0, config.getRequestsPerMinute());
+        assertSame(RetryPolicy.defaults(), config.getRetryPolicy());
+        assertSame(CircuitBreakerPolicy.defaults(), config.getCircuitBreaker());
+        assertTrue(config.getCircuitBreaker().isEnabled());
+        assertEquals(Duration.ofSeconds(10), config.getConnectTimeout());
+        assertEquals(Duration.ofSeconds(10), config.getRequestTimeout());
+        assertNull(config.getFetchExecutor());
+        assertNull(config.getPollingExecutor());
+    }
+
+    @Test
+    void testBuilderSetsValues() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            WeatherSDKConfig config = WeatherSDKConfig.builder()
+                    .cacheCapacity(40_000)
+                    .cacheTtl(Duration.ofMinutes(15))
+                    .staleGracePeriod(Duration.ofMinutes(2))
+                    .refreshAheadFraction(0)
+                    .refreshBackoff(Duration.ofSeconds(5))
+                    .missBatchWindow(Duration.ofMillis(5))
+                    .pollingInterval(Duration.ofMinutes(1))
+                    .requestsPerMinute(60)
+                    .retryPolicy(RetryPolicy.disabled())
+                    .circuitBreaker(CircuitBreakerPolicy.disabled())
+                    .connectTimeout(Duration.ofSeconds(2))
+                    .requestTimeout(Duration.ofSeconds(5))
+                    .fetchExecutor(executor)
+                    .build();
+
+            assertEquals(40_000, config.getCacheCapacity());
+            assertEquals(Duration.ofMinutes(15), config.getCacheTtl());
+            assertEquals(Duration.ofMinutes(2), config.getStaleGracePeriod());
+            assertEquals(0, config.getRefreshAheadFraction());
+            assertEquals(Duration.ofSeconds(5), config.getRefreshBackoff());
+            assertEquals(Duration.ofMillis(5), config.getMissBatchWindow());
+            assertEquals(Duration.ofMinutes(1), config.getPollingInterval());
+            assertEquals(60, config.getRequestsPerMinute());
+            assertSame(RetryPolicy.disabled(), config.getRetryPolicy());
+            assertFalse(config.getCircuitBreaker().isEnabled());
+            assertEquals(Duration.ofSeconds(2), config.getConnectTimeout());
+            assertEquals(Duration.ofSeconds(5), config.getRequestTimeout());
+            assertSame(executor, config.getFetchExecutor());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testInvalidValuesThrowException() {
+        WeatherSDKConfig.Builder builder = WeatherSDKConfig.builder();
+
+        assertThrows(IllegalArgumentException.class, () -> builder.cacheCapacity(0));
+        assertThrows(IllegalArgumentException.class, () -> builder.cacheMaximumWeight(0));
+        assertThrows(IllegalArgumentException.class, () -> builder.offHeapCacheCapacity(-1));
+        assertThrows(IllegalArgumentException.class, () -> builder.cacheWeigher(null));
+        assertThrows(IllegalArgumentException.class, () -> builder.cacheTtl(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> builder.cacheTtl(null));
+        assertThrows(IllegalArgumentException.class, () -> builder.staleGracePeriod(Duration.ofSeconds(-1)));
+        assertThrows(IllegalArgumentException.class, () -> builder.refreshAheadFraction(1.0));
+        assertThrows(IllegalArgumentException.class, () -> builder.refreshBackoff(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> builder.negativeCacheTtl(Duration.ofSeconds(-1)));
+        assertThrows(IllegalArgumentException.class, () -> builder.missBatchWindow(Duration.ofMillis(-1)));
+        assertThrows(IllegalArgumentException.class, () -> builder.pollingInterval(Duration.ofMinutes(-5)));
+        assertThrows(IllegalArgumentException.class, () -> builder.requestsPerMinute(-1));
+        assertThrows(IllegalArgumentException.class, () -> builder.retryPolicy(null));
+        assertThrows(IllegalArgumentException.class, () -> builder.circuitBreaker(null));
+        assertThrows(IllegalArgumentException.class, () -> CircuitBreakerPolicy.builder().failureRateThreshold(0));
+        assertThrows(IllegalArgumentException.class, () -> CircuitBreakerPolicy.builder().slowCallRateThreshold(1.5));
+        assertThrows(IllegalArgumentException.class, () -> CircuitBreakerPolicy.builder().openDuration(null));
+        assertThrows(IllegalArgumentException.class, () -> CircuitBreakerPolicy.builder()
+                .slidingWindowSize(5)
+                .minimumCalls(10)
+                .build());
+        assertThrows(IllegalArgumentException.class, () -> builder.connectTimeout(null));
+        assertThrows(IllegalArgumentException.class, () -> builder.requestTimeout(Duration.ZERO));
+    }
+}
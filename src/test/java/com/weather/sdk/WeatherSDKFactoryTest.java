@@ -1,11 +1,24 @@
 package com.weather.sdk;
 
+import com.weather.sdk.cache.CacheSnapshot;
+import com.weather.sdk.cache.WeatherCache;
 import com.weather.sdk.config.OperationMode;
+import com.weather.sdk.config.WeatherSDKConfig;
 import com.weather.sdk.exception.WeatherSDKException;
+import com.weather.sdk.model.WeatherData;
+import com.weather.sdk.model.WeatherResponse;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
 
 /**
  * Unit tests for WeatherSDKFactory
@@ -112,4 +125,134 @@ class WeatherSDKFactoryTest {
             WeatherSDKFactory.getInstance(API_KEY_1, null)
         );
     }
+    
+    @Test
+    void testGetInstanceWithConfig() throws WeatherSDKException {
+        WeatherSDKConfig config = WeatherSDKConfig.builder().cacheCapacity(1000).build();
+        
+        WeatherSDK sdk = WeatherSDKFactory.getInstance(API_KEY_1, OperationMode.ON_DEMAND, config);
+        
+        assertSame(config, sdk.getConfig());
+        assertSame(sdk, WeatherSDKFactory.getInstance(API_KEY_1, OperationMode.ON_DEMAND));
+    }
+    
+    @Test
+    void testGetInstanceWithNullConfig() {
+        assertThrows(WeatherSDKException.class, () -> 
+            WeatherSDKFactory.getInstance(API_KEY_1, OperationMode.ON_DEMAND, null)
+        );
+    }
+    
+    @Test
+    void testSharedCacheIsUsedAcrossKeys() throws WeatherSDKException {
+        WeatherSDKConfig shared = WeatherSDKConfig.builder().sharedCache(true).build();
+        
+        WeatherSDK sdk1 = WeatherSDKFactory.getInstance(API_KEY_1, OperationMode.ON_DEMAND, shared);
+        WeatherSDK sdk2 = WeatherSDKFactory.getInstance(API_KEY_2, OperationMode.ON_DEMAND, shared);
+        WeatherSDK privateSdk = WeatherSDKFactory.getInstance("test-key-3", OperationMode.ON_DEMAND);
+        
+        assertSame(sdk1.getCache(), sdk2.getCache());
+        assertNotSame(sdk1.getCache(), privateSdk.getCache());
+        assertEquals(0, WeatherSDKFactory.getSharedCacheFetchCount(API_KEY_1));
+    }
+    
+    @Test
+    void testSharedCacheOutlivesRemovedInstances() throws WeatherSDKException {
+        WeatherSDKConfig shared = WeatherSDKConfig.builder().sharedCache(true).build();
+        WeatherSDK sdk1 = WeatherSDKFactory.getInstance(API_KEY_1, OperationMode.ON_DEMAND, shared);
+        WeatherSDK sdk2 = WeatherSDKFactory.getInstance(API_KEY_2, OperationMode.ON_DEMAND, shared);
+        
+        WeatherSDKFactory.removeInstance(API_KEY_1);
+        WeatherSDK sdk3 = WeatherSDKFactory.getInstance(API_KEY_1, OperationMode.ON_DEMAND, shared);
+        assertSame(sdk2.getCache(), sdk3.getCache());
+        
+        WeatherSDKFactory.removeAllInstances();
+        WeatherSDK sdk4 = WeatherSDKFactory.getInstance(API_KEY_1, OperationMode.ON_DEMAND, shared);
+        assertNotSame(sdk1.getCache(), sdk4.getCache());
+    }
+    
+    @Test
+    void testSharedCacheRejectsDifferentCacheConfig() throws WeatherSDKException {
+        WeatherSDKConfig shared = WeatherSDKConfig.builder().sharedCache(true).cacheCapacity(10).build();
+        WeatherSDKConfig larger = WeatherSDKConfig.builder().sharedCache(true).cacheCapacity(20).build();
+        WeatherSDK sdk1 = WeatherSDKFactory.getInstance(API_KEY_1, OperationMode.ON_DEMAND, shared);
+        
+        assertThrows(WeatherSDKException.class, () ->
+                WeatherSDKFactory.getInstance(API_KEY_2, OperationMode.ON_DEMAND, larger));
+        assertFalse(WeatherSDKFactory.hasInstance(API_KEY_2));
+        
+        // Settings that do not concern the cache may differ
+        WeatherSDKConfig otherTimeout = WeatherSDKConfig.builder()
+                .sharedCache(true)
+                .cacheCapacity(10)
+                .requestTimeout(Duration.ofSeconds(3))
+                .build();
+        WeatherSDK sdk2 = WeatherSDKFactory.getInstance(API_KEY_2, OperationMode.ON_DEMAND, otherTimeout);
+        assertSame(sdk1.getCache(), sdk2.getCache());
+    }
+    
+    @Test
+    void testSharedCacheSnapshotSavedOnceAndRestored(@TempDir Path tempDir) throws Exception {
+        // Given - two instances sharing a cache with a snapshot file
+        Path file = tempDir.resolve("shared.snapshot");
+        WeatherSDKConfig shared = WeatherSDKConfig.builder()
+                .sharedCache(true)
+                .snapshotFile(file)
+                .snapshotInterval(Duration.ZERO)
+                .build();
+        WeatherSDK sdk1 = WeatherSDKFactory.getInstance(API_KEY_1, OperationMode.ON_DEMAND, shared);
+        WeatherSDKFactory.getInstance(API_KEY_2, OperationMode.ON_DEMAND, shared);
+        WeatherResponse response = new WeatherResponse();
+        response.setName("London");
+        sdk1.getCache().put("London", new WeatherData(response));
+        
+        // When - one instance is removed, then the last one
+        WeatherSDKFactory.removeInstance(API_KEY_1);
+        
+        // Then - the cache is saved only once its last instance is gone
+        assertFalse(file.toFile().exists());
+        WeatherSDKFactory.removeInstance(API_KEY_2);
+        assertEquals(1, CacheSnapshot.load(new WeatherCache(10), file));
+        
+        // And a new shared cache starts from the snapshot
+        WeatherSDK restarted = WeatherSDKFactory.getInstance(API_KEY_1, OperationMode.ON_DEMAND, shared);
+        assertNotNull(restarted.getCache().get("london"));
+    }
+
+    @Test
+    void testFailedConstructionLeaksNoSharedCache(@TempDir Path tempDir) throws Exception {
+        // Given - a shared cache saving snapshots, and an instance whose construction fails
+        Set<Thread> before = snapshotThreads();
+        WeatherSDKConfig failing = spy(WeatherSDKConfig.builder()
+                .sharedCache(true)
+                .snapshotFile(tempDir.resolve("shared.snapshot"))
+                .snapshotInterval(Duration.ofMinutes(1))
+                .build());
+        doThrow(new IllegalStateException("Construction failed")).when(failing).getCircuitBreaker();
+
+        // When
+        assertThrows(IllegalStateException.class,
+                () -> WeatherSDKFactory.getInstance(API_KEY_1, OperationMode.ON_DEMAND, failing));
+
+        // Then - the snapshot thread is stopped and the next instance creates its own cache
+        for (int i = 0; i < 50 && !before.containsAll(snapshotThreads()); i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(before.containsAll(snapshotThreads()));
+        WeatherSDKConfig other = WeatherSDKConfig.builder()
+                .sharedCache(true)
+                .cacheCapacity(5)
+                .build();
+        assertNotNull(WeatherSDKFactory.getInstance(API_KEY_2, OperationMode.ON_DEMAND, other));
+    }
+
+    private static Set<Thread> snapshotThreads() {
+        Set<Thread> threads = new HashSet<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("WeatherSDK-Snapshot")) {
+                threads.add(thread);
+            }
+        }
+        return threads;
+    }
 }
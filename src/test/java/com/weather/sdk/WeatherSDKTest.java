@@ -47,7 +47,7 @@ class WeatherSDKTest {
     @Test
     void testGetWeatherWithNullCityName() {
         assertThrows(WeatherSDKException.class, () -> 
-            sdk.getWeather(null)
+            sdk.getWeather((String) null)
         );
     }
     
@@ -0,0 +1,104 @@
+package com.weather.sdk.benchmark;
+
+import com.weather.sdk.cache.WeatherCache;
+import com.weather.sdk.model.WeatherData;
+import com.weather.sdk.model.WeatherResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention benchmark comparing the concurrent WeatherCache with the original
+ * synchronized LinkedHashMap implementation.
+ * <p>
+ * Run with: {@code mvn -Pbenchmark test -Dbenchmark=CacheContentionBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheContentionBenchmark {
+
+    private static final int CITY_COUNT = 1024;
+    private static final int CITY_MASK = CITY_COUNT - 1;
+
+    @Param({"concurrent", "synchronized"})
+    public String implementation;
+
+    private String[] cities;
+    private WeatherData[] values;
+    private WeatherCache concurrentCache;
+    private SynchronizedWeatherCache synchronizedCache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cities = new String[CITY_COUNT];
+        values = new WeatherData[CITY_COUNT];
+        concurrentCache = new WeatherCache(CITY_COUNT);
+        synchronizedCache = new SynchronizedWeatherCache(CITY_COUNT);
+
+        for (int i = 0; i < CITY_COUNT; i++) {
+            WeatherResponse response = new WeatherResponse();
+            response.setName("City" + i);
+            cities[i] = "City" + i;
+            values[i] = new WeatherData(response);
+            concurrentCache.put(cities[i], values[i]);
+            synchronizedCache.put(cities[i], values[i]);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int index = ThreadLocalRandom.current().nextInt(CITY_COUNT);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public WeatherData readOnly(ThreadState state) {
+        return read(state);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(60)
+    public WeatherData mixedRead(ThreadState state) {
+        return read(state);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(4)
+    public void mixedWrite(ThreadState state) {
+        int i = state.index++ & CITY_MASK;
+        if ("concurrent".equals(implementation)) {
+            concurrentCache.put(cities[i], values[i]);
+        } else {
+            synchronizedCache.put(cities[i], values[i]);
+        }
+    }
+
+    private WeatherData read(ThreadState state) {
+        int i = state.index++ & CITY_MASK;
+        if ("concurrent".equals(implementation)) {
+            return concurrentCache.get(cities[i]);
+        }
+        return synchronizedCache.get(cities[i]);
+    }
+}
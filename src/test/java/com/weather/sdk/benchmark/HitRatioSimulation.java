@@ -0,0 +1,93 @@
+package com.weather.sdk.benchmark;
+
+import com.weather.sdk.cache.WeatherCache;
+import com.weather.sdk.model.WeatherData;
+import com.weather.sdk.model.WeatherResponse;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Replays synthetic access traces against the W-TinyLFU WeatherCache and the
+ * original LRU cache and prints their hit ratios.
+ * <p>
+ * Traces:
+ * <ul>
+ *     <li>zipf - popularity-skewed lookups (exponent 0.9) over 10 000 cities</li>
+ *     <li>zipf+scan - the same lookups interleaved with scans of one-off cities</li>
+ * </ul>
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.weather.sdk.benchmark.HitRatioSimulation}
+ */
+public class HitRatioSimulation {
+
+    private static final int CITY_COUNT = 10_000;
+    private static final int CACHE_SIZE = 500;
+    private static final int ACCESSES = 1_000_000;
+    private static final double ZIPF_EXPONENT = 0.9;
+    private static final int SCAN_EVERY = 20_000;
+    private static final int SCAN_LENGTH = 2_000;
+
+    private static final WeatherData DATA = new WeatherData(new WeatherResponse());
+
+    public static void main(String[] args) {
+        String[] zipf = zipfTrace(new Random(42), false);
+        String[] scan = zipfTrace(new Random(42), true);
+
+        System.out.printf("%-10s %12s %12s%n", "trace", "W-TinyLFU", "LRU");
+        print("zipf", zipf);
+        print("zipf+scan", scan);
+    }
+
+    private static void print(String name, String[] trace) {
+        System.out.printf("%-10s %11.2f%% %11.2f%%%n", name,
+                100 * hitRatio(new WeatherCache(CACHE_SIZE), trace),
+                100 * hitRatio(new SynchronizedWeatherCache(CACHE_SIZE), trace));
+    }
+
+    private static double hitRatio(WeatherCache cache, String[] trace) {
+        long hits = 0;
+        for (String city : trace) {
+            if (cache.get(city) != null) {
+                hits++;
+            } else {
+                cache.put(city, DATA);
+            }
+        }
+        return (double) hits / trace.length;
+    }
+
+    private static double hitRatio(SynchronizedWeatherCache cache, String[] trace) {
+        long hits = 0;
+        for (String city : trace) {
+            if (cache.get(city) != null) {
+                hits++;
+            } else {
+                cache.put(city, DATA);
+            }
+        }
+        return (double) hits / trace.length;
+    }
+
+    private static String[] zipfTrace(Random random, boolean withScans) {
+        double[] cumulative = new double[CITY_COUNT];
+        double sum = 0;
+        for (int i = 0; i < CITY_COUNT; i++) {
+            sum += 1 / Math.pow(i + 1, ZIPF_EXPONENT);
+            cumulative[i] = sum;
+        }
+
+        String[] trace = new String[ACCESSES];
+        int scanned = 0;
+        for (int i = 0; i < ACCESSES; i++) {
+            if (withScans && i % SCAN_EVERY < SCAN_LENGTH) {
+                // Each scan touches cities that are never requested again
+                trace[i] = "scan" + scanned++;
+                continue;
+            }
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            trace[i] = "city" + (index < 0 ? -index - 1 : index);
+        }
+        return trace;
+    }
+}
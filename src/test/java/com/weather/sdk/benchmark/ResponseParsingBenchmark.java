@@ -0,0 +1,85 @@
+package com.weather.sdk.benchmark;
+
+import com.weather.sdk.client.WeatherResponseParser;
+import com.weather.sdk.model.WeatherResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing benchmark comparing the streaming WeatherResponseParser with the
+ * original tree-based parsing of a full OpenWeather response, and parsing
+ * a body decoded to a String with parsing its raw bytes.
+ * <p>
+ * Run with: {@code mvn -Pbenchmark test -Dbenchmark=ResponseParsingBenchmark};
+ * allocation per call is reported by the GC profiler as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseParsingBenchmark {
+
+    static final String RESPONSE = "{\"coord\":{\"lon\":-0.1257,\"lat\":51.5085},"
+            + "\"weather\":[{\"id\":803,\"main\":\"Clouds\",\"description\":\"broken clouds\",\"icon\":\"04d\"}],"
+            + "\"base\":\"stations\","
+            + "\"main\":{\"temp\":290.15,\"feels_like\":289.7,\"temp_min\":288.71,\"temp_max\":291.48,"
+            + "\"pressure\":1012,\"humidity\":72,\"sea_level\":1012,\"grnd_level\":1008},"
+            + "\"visibility\":10000,"
+            + "\"wind\":{\"speed\":4.63,\"deg\":240,\"gust\":8.23},"
+            + "\"clouds\":{\"all\":75},"
+            + "\"dt\":1675744800,"
+            + "\"sys\":{\"type\":2,\"id\":2075535,\"country\":\"GB\",\"sunrise\":1675755600,\"sunset\":1675791600},"
+            + "\"timezone\":0,\"id\":2643743,\"name\":\"London\",\"cod\":200}";
+
+    private static final byte[] RESPONSE_BYTES = RESPONSE.getBytes(StandardCharsets.UTF_8);
+
+    private WeatherResponseParser streamingParser;
+    private TreeWeatherResponseParser treeParser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        streamingParser = new WeatherResponseParser();
+        treeParser = new TreeWeatherResponseParser();
+    }
+
+    @Benchmark
+    public WeatherResponse streaming() throws IOException {
+        return streamingParser.parse(RESPONSE);
+    }
+
+    @Benchmark
+    public WeatherResponse tree() throws IOException {
+        return treeParser.parse(RESPONSE);
+    }
+
+    /**
+     * Body handled as a String: decoded from the received bytes, then parsed as characters
+     */
+    @Benchmark
+    public WeatherResponse streamingDecodedBody() throws IOException {
+        return streamingParser.parse(new String(RESPONSE_BYTES, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Body handled as received: bytes parsed directly
+     */
+    @Benchmark
+    public WeatherResponse streamingRawBody() throws IOException {
+        return streamingParser.parse(RESPONSE_BYTES);
+    }
+}
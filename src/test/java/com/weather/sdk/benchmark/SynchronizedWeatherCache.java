@@ -0,0 +1,38 @@
+package com.weather.sdk.benchmark;
+
+import com.weather.sdk.model.WeatherData;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Baseline for benchmarks: the original monitor-based LRU cache built on an
+ * access-ordered LinkedHashMap, where every read takes the lock and relinks the entry.
+ */
+public class SynchronizedWeatherCache {
+
+    private final Map<String, WeatherData> cache;
+
+    public SynchronizedWeatherCache(int maxSize) {
+        this.cache = new LinkedHashMap<>(maxSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, WeatherData> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public synchronized WeatherData get(String cityName) {
+        String key = cityName.trim().toLowerCase();
+        WeatherData data = cache.get(key);
+        if (data != null && !data.isValid()) {
+            cache.remove(key);
+            return null;
+        }
+        return data;
+    }
+
+    public synchronized void put(String cityName, WeatherData data) {
+        cache.put(cityName.trim().toLowerCase(), data);
+    }
+}
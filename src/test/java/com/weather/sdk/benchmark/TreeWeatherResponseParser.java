@@ -0,0 +1,62 @@
+package com.weather.sdk.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weather.sdk.model.WeatherResponse;
+
+import java.io.IOException;
+
+/**
+ * Baseline for benchmarks: the original parser that reads the whole response
+ * into a {@link JsonNode} tree and then looks fields up by name.
+ */
+public class TreeWeatherResponseParser {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public WeatherResponse parse(String json) throws IOException {
+        JsonNode root = objectMapper.readTree(json);
+        WeatherResponse response = new WeatherResponse();
+
+        JsonNode weatherArray = root.get("weather");
+        if (weatherArray != null && weatherArray.isArray() && !weatherArray.isEmpty()) {
+            JsonNode weatherNode = weatherArray.get(0);
+            response.setWeather(new WeatherResponse.Weather(
+                    weatherNode.get("main").asText(),
+                    weatherNode.get("description").asText()));
+        }
+        JsonNode mainNode = root.get("main");
+        if (mainNode != null) {
+            response.setTemperature(new WeatherResponse.Temperature(
+                    mainNode.get("temp").asDouble(),
+                    mainNode.get("feels_like").asDouble()));
+        }
+        JsonNode visibilityNode = root.get("visibility");
+        if (visibilityNode != null) {
+            response.setVisibility(visibilityNode.asInt());
+        }
+        JsonNode windNode = root.get("wind");
+        if (windNode != null) {
+            response.setWind(new WeatherResponse.Wind(windNode.get("speed").asDouble()));
+        }
+        JsonNode dtNode = root.get("dt");
+        if (dtNode != null) {
+            response.setDatetime(dtNode.asLong());
+        }
+        JsonNode sysNode = root.get("sys");
+        if (sysNode != null) {
+            response.setSys(new WeatherResponse.Sys(
+                    sysNode.get("sunrise").asLong(),
+                    sysNode.get("sunset").asLong()));
+        }
+        JsonNode timezoneNode = root.get("timezone");
+        if (timezoneNode != null) {
+            response.setTimezone(timezoneNode.asInt());
+        }
+        JsonNode nameNode = root.get("name");
+        if (nameNode != null) {
+            response.setName(nameNode.asText());
+        }
+        return response;
+    }
+}